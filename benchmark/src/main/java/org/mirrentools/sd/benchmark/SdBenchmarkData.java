@@ -0,0 +1,119 @@
+package org.mirrentools.sd.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdTemplate;
+
+/**
+ * 基准测试使用的合成数据,相同的参数总是生成相同的数据
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBenchmarkData {
+	/** 列的类型 */
+	private static final String[] TYPES = { "int", "bigint", "varchar", "datetime", "decimal", "text" };
+	/** 列类型对应的Java类型 */
+	private static final String[] FIELD_TYPES = { "Integer", "Long", "String", "Date", "BigDecimal", "String" };
+	/** 名字使用的单词 */
+	private static final String[] WORDS = { "user", "order", "item", "created", "time", "ID", "status", "Amount", "address", "code" };
+
+	/**
+	 * 创建一组名字,包含小写下划线、驼峰与连续大写的风格
+	 *
+	 * @param size
+	 *          数量
+	 * @return
+	 */
+	public static String[] names(int size) {
+		String[] result = new String[size];
+		for (int i = 0; i < size; i++) {
+			String first = WORDS[i % WORDS.length];
+			String second = WORDS[(i * 7 + 3) % WORDS.length];
+			switch (i % 3) {
+			case 0:
+				result[i] = first.toLowerCase() + "_" + second.toLowerCase() + "_" + i;
+				break;
+			case 1:
+				result[i] = first + Character.toUpperCase(second.charAt(0)) + second.substring(1) + i;
+				break;
+			default:
+				result[i] = first.toUpperCase() + "-" + second + "Name";
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 创建一个指定列数量的实体
+	 *
+	 * @param columns
+	 *          列的数量
+	 * @return
+	 */
+	public static SdBean bean(int columns) {
+		SdBean bean = new SdBean().setName("benchmark_user").setRemark("基准测试");
+		String[] names = names(columns);
+		for (int i = 0; i < columns; i++) {
+			int type = i % TYPES.length;
+			SdColumn column = new SdColumn().setName(names[i]).setType(TYPES[type]).setFieldType(FIELD_TYPES[type]).setFieldName(names[i])
+					.setRemark("列" + i).setNullable(i % 2 == 0).setPrimary(i == 0).setIndex(i % 10 == 1);
+			bean.addColumn(column);
+		}
+		return bean;
+	}
+
+	/**
+	 * 创建模板需要的内容,结构与测试模板sd-benchmark.ftl对应
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public static Map<String, Object> content(SdBean bean) {
+		List<Map<String, Object>> fields = new ArrayList<Map<String, Object>>();
+		for (SdColumn column : bean.getColumns()) {
+			Map<String, Object> field = new HashMap<String, Object>();
+			field.put("name", column.getFieldName());
+			field.put("type", column.getFieldType());
+			field.put("remark", column.getRemark());
+			field.put("primary", column.isPrimary());
+			fields.add(field);
+		}
+		Map<String, Object> clz = new HashMap<String, Object>();
+		clz.put("packageName", "org.example.benchmark");
+		clz.put("className", "BenchmarkUser");
+		clz.put("remark", bean.getRemark());
+		clz.put("fields", fields);
+		Map<String, Object> content = new HashMap<String, Object>();
+		content.put("content", clz);
+		return content;
+	}
+
+	/**
+	 * 创建基准测试使用的模板,模板位于classpath的template目录
+	 *
+	 * @return
+	 */
+	public static SdTemplate template() {
+		return new SdTemplate().setFile("sd-benchmark.ftl").setSourceFolder("src/main/java").setPackageName("org.example.benchmark")
+				.setClassName("BenchmarkUser.java");
+	}
+
+	/**
+	 * 创建模板集合
+	 *
+	 * @return
+	 */
+	public static Map<String, SdTemplate> templates() {
+		Map<String, SdTemplate> result = new HashMap<String, SdTemplate>();
+		result.put("entity", template());
+		return result;
+	}
+
+}
@@ -0,0 +1,32 @@
+package org.mirrentools.sd.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试的入口,参数与JMH的命令行参数一致,<br>
+ * 默认开启GC分析(-prof gc),输出每次操作分配的内存,方便发现生成热点路径的内存回退
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLine);
+		if (commandLine.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(SdBenchmarkMain.class.getPackage().getName() + ".*");
+		}
+		Options options = builder.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.mirrentools.sd.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mirrentools.sd.converter.SdBeanConverterToClass;
+import org.mirrentools.sd.converter.SdConverterToTemplateContent;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 默认转换器的基准测试,使用不同列数量的合成实体
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdConverterBenchmark {
+	/** 实体列的数量 */
+	@Param({ "10", "100", "1000" })
+	public int columns;
+	/** 实体 */
+	private SdBean bean;
+	/** 转换后的类 */
+	private SdClassContent content;
+	/** 模板集合 */
+	private Map<String, SdTemplate> templates;
+	/** SdBean转换器 */
+	private SdBeanConverterToClass beanConverter;
+	/** 模板内容转换器 */
+	private SdConverterToTemplateContent contentConverter;
+
+	@Setup
+	public void setUp() {
+		SdCodeUtilOptions options = new SdCodeUtilOptions();
+		beanConverter = options.getBeanConverter();
+		contentConverter = options.getContentConverter();
+		bean = SdBenchmarkData.bean(columns);
+		templates = SdBenchmarkData.templates();
+		content = beanConverter.converter(bean);
+	}
+
+	@Benchmark
+	public SdClassContent beanConverter() {
+		return beanConverter.converter(bean);
+	}
+
+	@Benchmark
+	public Object contentConverter() {
+		return contentConverter.converter(content, templates);
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.mirrentools.sd.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mirrentools.sd.common.SdNamingCache;
+import org.mirrentools.sd.common.SdUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 单个名字命名转换的内存分配基准测试,每次操作转换一个名字,查看GC分析的gc.alloc.rate.norm:<br>
+ * 关闭命名缓存时,名字不需要改变(unchanged)应该不分配内存,需要改变(changed)只分配结果字符串(小于128字节);<br>
+ * 开启命名缓存时两者都是命中缓存,应该不分配内存
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdNamingBenchmark {
+	/** 是否开启命名缓存 */
+	@Param({ "false", "true" })
+	public boolean cache;
+	/** 名字 */
+	private String name = "user_order_name";
+	/** 开始前的缓存数量 */
+	private int maxSize;
+
+	@Setup
+	public void setUp() {
+		maxSize = SdNamingCache.getInstance().getMaxSize();
+		SdNamingCache.getInstance().setMaxSize(cache ? SdNamingCache.DEFAULT_MAX_SIZE : 0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		SdNamingCache.getInstance().setMaxSize(maxSize);
+	}
+
+	@Benchmark
+	public String unchanged() {
+		return SdUtil.toUnderScoreCase(name);
+	}
+
+	@Benchmark
+	public String changed() {
+		return SdUtil.toCamelCase(name);
+	}
+
+}
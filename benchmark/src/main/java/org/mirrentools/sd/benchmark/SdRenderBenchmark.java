@@ -0,0 +1,84 @@
+package org.mirrentools.sd.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mirrentools.sd.common.SdMetrics;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.util.SdTemplateUtil;
+import org.mirrentools.sd.util.impl.SdFreeMarkerConfiguration;
+import org.mirrentools.sd.util.impl.SdOutputSinkImplByMemory;
+import org.mirrentools.sd.util.impl.SdTemplateUtilImplByCompiler;
+import org.mirrentools.sd.util.impl.SdTemplateUtilImplMyFreeMarker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 模板生成的端到端基准测试,从模板缓存、渲染、编码到写入输出目标,<br>
+ * 输出到内存避免磁盘的波动影响结果
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdRenderBenchmark {
+	/** 实体列的数量 */
+	@Param({ "10", "100", "1000" })
+	public int columns;
+	/** 模板工具:freemarker或compiler */
+	@Param({ "freemarker", "compiler" })
+	public String engine;
+	/** 是否开启生成指标 */
+	@Param({ "true", "false" })
+	public boolean metrics;
+	/** 模板工具 */
+	private SdTemplateUtil templateUtil;
+	/** 模板需要的内容 */
+	private Map<String, Object> content;
+	/** 模板 */
+	private SdTemplate template;
+	/** 输出目标 */
+	private SdOutputSinkImplByMemory sink;
+
+	@Setup
+	public void setUp() {
+		if ("compiler".equals(engine)) {
+			templateUtil = new SdTemplateUtilImplByCompiler();
+		} else {
+			templateUtil = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		}
+		SdMetrics.getInstance().setEnabled(metrics);
+		content = SdBenchmarkData.content(SdBenchmarkData.bean(columns));
+		template = SdBenchmarkData.template();
+		sink = new SdOutputSinkImplByMemory();
+		if (!templateUtil.render(sink, "UTF-8", content, template)) {
+			throw new IllegalStateException("生成基准测试模板失败");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		SdMetrics.getInstance().setEnabled(true).reset();
+	}
+
+	@Benchmark
+	public boolean render() {
+		return templateUtil.render(sink, "UTF-8", content, template);
+	}
+
+}
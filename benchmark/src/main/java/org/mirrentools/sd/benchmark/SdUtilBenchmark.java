@@ -0,0 +1,99 @@
+package org.mirrentools.sd.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mirrentools.sd.common.SdUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SdUtil命名函数的基准测试,每次操作转换一组名字
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdUtilBenchmark {
+	/** 名字的数量 */
+	@Param({ "100" })
+	public int size;
+	/** 名字 */
+	private String[] names;
+
+	@Setup
+	public void setUp() {
+		names = SdBenchmarkData.names(size);
+	}
+
+	@Benchmark
+	public void toCamelCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toCamelCase(name));
+		}
+	}
+
+	@Benchmark
+	public void toPascalCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toPascalCase(name));
+		}
+	}
+
+	@Benchmark
+	public void toUnderScoreCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toUnderScoreCase(name));
+		}
+	}
+
+	@Benchmark
+	public void toUpperUnderScoreCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toUpperUnderScoreCase(name));
+		}
+	}
+
+	@Benchmark
+	public void toHyphenCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toHyphenCase(name));
+		}
+	}
+
+	@Benchmark
+	public void toUpperHyphenCase(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.toUpperHyphenCase(name));
+		}
+	}
+
+	@Benchmark
+	public void replaceToUnderScore(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.replaceToUnderScore(name, "-", " "));
+		}
+	}
+
+	@Benchmark
+	public void splitJoin(Blackhole hole) {
+		for (String name : names) {
+			hole.consume(SdUtil.splitJoin(name, "_"));
+		}
+	}
+
+}
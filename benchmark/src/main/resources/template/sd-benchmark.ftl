@@ -0,0 +1,17 @@
+package ${content.packageName};
+
+/**
+ * ${content.remark}
+ */
+public class ${content.className} {
+<#list content.fields as field>
+	/** ${field.remark}<#if field.primary>,主键</#if> */
+	private ${field.type} ${field.name};
+</#list>
+<#list content.fields as field>
+
+	public ${field.type} get${field.name}() {
+		return ${field.name};
+	}
+</#list>
+}
@@ -1,108 +1,171 @@
-package org.mirrentools.sd;
-
-import java.util.Map;
-
-import org.mirrentools.sd.util.SdCodeUtil;
-import org.mirrentools.sd.util.SdProjectUtil;
-import org.mirrentools.sd.util.SdSqlUtil;
-
-/**
- * 生成工具的接口
- * 
- * @author <a href="http://mirrentools.org">Mirren</a>
- *
- */
-public interface ScrewDriver {
-
-	/**
-	 * 执行生成项目
-	 * 
-	 * @return
-	 */
-	boolean createProject();
-
-	/**
-	 * 执行生成代码
-	 * 
-	 * @return
-	 */
-	boolean createCode();
-
-	/**
-	 * 执行生成SQL
-	 * 
-	 * @return
-	 */
-	boolean createSQL();
-
-	/**
-	 * 获取项目生成工具
-	 * 
-	 * @return
-	 */
-	SdProjectUtil getProjectUtil();
-
-	/**
-	 * 设置项目生成工具
-	 * 
-	 * @param projectUtil
-	 * @return
-	 */
-	ScrewDriver setProjectUtil(SdProjectUtil projectUtil);
-
-	/**
-	 * 获取代码生成工具
-	 * 
-	 * @return
-	 */
-	SdCodeUtil getCodeUtil();
-
-	/**
-	 * 设置代码生成工具
-	 * 
-	 * @param codeUtil
-	 * @return
-	 */
-	ScrewDriver setCodeUtil(SdCodeUtil codeUtil);
-
-	/**
-	 * 获取SQL生成工具
-	 * 
-	 * @return
-	 */
-	SdSqlUtil getSqlUtil();
-
-	/**
-	 * 设置SQL生成工具
-	 * 
-	 * @param sqlUtil
-	 * @return
-	 */
-	ScrewDriver setSqlUtil(SdSqlUtil sqlUtil);
-
-	/**
-	 * 添加附加属性
-	 * 
-	 * @param key
-	 * @param value
-	 * @return
-	 */
-	SdCodeUtil addExtension(String key, Object value);
-
-	/**
-	 * 获取附加属性集合
-	 * 
-	 * @return
-	 */
-	Map<String, Object> getExtensions();
-
-	/**
-	 * 设置附加属性集合
-	 * 
-	 * @param extensions
-	 * @return
-	 */
-	SdCodeUtil setExtensions(Map<String, Object> extensions);
-
-
-}
+package org.mirrentools.sd;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdCreateResult;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdProjectUtil;
+import org.mirrentools.sd.util.SdSqlUtil;
+
+/**
+ * 生成工具的接口
+ * 
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public interface ScrewDriver extends AutoCloseable {
+
+	/**
+	 * 执行生成项目
+	 * 
+	 * @return
+	 */
+	boolean createProject();
+
+	/**
+	 * 执行生成代码
+	 * 
+	 * @return
+	 */
+	boolean createCode();
+
+	/**
+	 * 执行生成SQL
+	 * 
+	 * @return
+	 */
+	boolean createSQL();
+
+	/**
+	 * 异步执行生成项目,没有设置生成工具时返回异常完成的Future
+	 * 
+	 * @return
+	 */
+	CompletableFuture<Boolean> createProjectAsync();
+
+	/**
+	 * 异步执行生成代码,没有设置生成工具时返回异常完成的Future
+	 * 
+	 * @return
+	 */
+	CompletableFuture<SdCodeResult> createCodeAsync();
+
+	/**
+	 * 异步执行生成SQL,没有设置生成工具时返回异常完成的Future
+	 * 
+	 * @return
+	 */
+	CompletableFuture<Boolean> createSQLAsync();
+
+	/**
+	 * 同时执行生成项目、代码与SQL,没有设置生成工具的阶段跳过,<br>
+	 * 返回的Future不会异常完成,每个阶段的结果与异常记录在结果中
+	 * 
+	 * @return
+	 */
+	CompletableFuture<SdCreateResult> createAll();
+
+	/**
+	 * 获取异步执行使用的线程池
+	 * 
+	 * @return
+	 */
+	Executor getExecutor();
+
+	/**
+	 * 设置异步执行使用的线程池,默认JDK支持时使用虚拟线程,否则使用有界线程池
+	 * 
+	 * @param executor
+	 * @return
+	 */
+	ScrewDriver setExecutor(Executor executor);
+
+	/**
+	 * 关闭生成工具,释放默认创建的线程池,通过setExecutor设置的线程池由调用者关闭
+	 */
+	@Override
+	default void close() {
+	}
+
+	/**
+	 * 创建代码生成监视器,监视代码生成工具中模板所在的目录,<br>
+	 * 可以继续添加监视的实体定义文件,调用start后在后台线程中监视并增量生成
+	 * 
+	 * @return
+	 */
+	SdCodeWatcher watchCode();
+
+	/**
+	 * 获取项目生成工具
+	 * 
+	 * @return
+	 */
+	SdProjectUtil getProjectUtil();
+
+	/**
+	 * 设置项目生成工具
+	 * 
+	 * @param projectUtil
+	 * @return
+	 */
+	ScrewDriver setProjectUtil(SdProjectUtil projectUtil);
+
+	/**
+	 * 获取代码生成工具
+	 * 
+	 * @return
+	 */
+	SdCodeUtil getCodeUtil();
+
+	/**
+	 * 设置代码生成工具
+	 * 
+	 * @param codeUtil
+	 * @return
+	 */
+	ScrewDriver setCodeUtil(SdCodeUtil codeUtil);
+
+	/**
+	 * 获取SQL生成工具
+	 * 
+	 * @return
+	 */
+	SdSqlUtil getSqlUtil();
+
+	/**
+	 * 设置SQL生成工具
+	 * 
+	 * @param sqlUtil
+	 * @return
+	 */
+	ScrewDriver setSqlUtil(SdSqlUtil sqlUtil);
+
+	/**
+	 * 添加附加属性
+	 * 
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	SdCodeUtil addExtension(String key, Object value);
+
+	/**
+	 * 获取附加属性集合
+	 * 
+	 * @return
+	 */
+	Map<String, Object> getExtensions();
+
+	/**
+	 * 设置附加属性集合
+	 * 
+	 * @param extensions
+	 * @return
+	 */
+	SdCodeUtil setExtensions(Map<String, Object> extensions);
+
+
+}
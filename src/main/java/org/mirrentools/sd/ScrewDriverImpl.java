@@ -1,8 +1,17 @@
 package org.mirrentools.sd;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdExecutorUtil;
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdCreateResult;
 import org.mirrentools.sd.util.SdCodeUtil;
 import org.mirrentools.sd.util.SdProjectUtil;
 import org.mirrentools.sd.util.SdSqlUtil;
@@ -20,6 +29,10 @@ public class ScrewDriverImpl implements ScrewDriver {
 	private SdCodeUtil codeUtil;
 	/** 数据库生成工具 */
 	private SdSqlUtil sqlUtil;
+	/** 异步执行使用的线程池 */
+	private Executor executor;
+	/** 没有设置线程池时默认创建的线程池,关闭时释放 */
+	private ExecutorService defaultExecutor;
 
 	/**
 	 * 初始化一个生成工具
@@ -77,7 +90,7 @@ public class ScrewDriverImpl implements ScrewDriver {
 	@Override
 	public boolean createProject() {
 		if (projectUtil == null) {
-			throw new NullPointerException("代码生成工具为空,可以创建一个SdProjectUtil实现并设置在该类中!");
+			throw new NullPointerException("项目生成工具为空,可以创建一个SdProjectUtil实现并设置在该类中!");
 		}
 		return projectUtil.execute();
 	}
@@ -98,6 +111,101 @@ public class ScrewDriverImpl implements ScrewDriver {
 		return sqlUtil.execute();
 	}
 
+	@Override
+	public CompletableFuture<Boolean> createProjectAsync() {
+		final SdProjectUtil util = projectUtil;
+		if (util == null) {
+			return failed(new NullPointerException("项目生成工具为空,可以创建一个SdProjectUtil实现并设置在该类中!"));
+		}
+		return CompletableFuture.supplyAsync(() -> util.execute(), getExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SdCodeResult> createCodeAsync() {
+		final SdCodeUtil util = codeUtil;
+		if (util == null) {
+			return failed(new NullPointerException("代码生成工具为空,可以创建一个SdCodeUtil实现并设置在该类中!"));
+		}
+		return CompletableFuture.supplyAsync(() -> util.executeResult(), getExecutor());
+	}
+
+	@Override
+	public CompletableFuture<Boolean> createSQLAsync() {
+		final SdSqlUtil util = sqlUtil;
+		if (util == null) {
+			return failed(new NullPointerException("数据库生成工具为空,可以创建一个SdSQLUtil实现并设置在该类中!"));
+		}
+		return CompletableFuture.supplyAsync(() -> util.execute(), getExecutor());
+	}
+
+	@Override
+	public CompletableFuture<SdCreateResult> createAll() {
+		final SdCreateResult result = new SdCreateResult();
+		List<CompletableFuture<Void>> stages = new ArrayList<CompletableFuture<Void>>();
+		final SdProjectUtil project = projectUtil;
+		final SdCodeUtil code = codeUtil;
+		final SdSqlUtil sql = sqlUtil;
+		if (project == null) {
+			result.skip(SdCreateResult.PROJECT);
+		} else {
+			stages.add(stage(result, SdCreateResult.PROJECT, () -> project.execute()));
+		}
+		if (code == null) {
+			result.skip(SdCreateResult.CODE);
+		} else {
+			stages.add(stage(result, SdCreateResult.CODE, () -> {
+				SdCodeResult codeResult = code.executeResult();
+				result.setCodeResult(codeResult);
+				return codeResult.isSucceeded();
+			}));
+		}
+		if (sql == null) {
+			result.skip(SdCreateResult.SQL);
+		} else {
+			stages.add(stage(result, SdCreateResult.SQL, () -> sql.execute()));
+		}
+		return CompletableFuture.allOf(stages.toArray(new CompletableFuture<?>[stages.size()])).thenApply(v -> result);
+	}
+
+	/**
+	 * 异步执行一个阶段,结果与异常记录在结果中
+	 * 
+	 * @param result
+	 * @param stage
+	 * @param task
+	 * @return
+	 */
+	private CompletableFuture<Void> stage(final SdCreateResult result, final String stage, final Supplier<Boolean> task) {
+		return CompletableFuture.runAsync(() -> {
+			long start = System.nanoTime();
+			try {
+				result.put(stage, Boolean.TRUE.equals(task.get()), System.nanoTime() - start);
+			} catch (Throwable e) {
+				result.putError(stage, e, System.nanoTime() - start);
+			}
+		}, getExecutor());
+	}
+
+	/**
+	 * 创建一个异常完成的Future
+	 * 
+	 * @param e
+	 * @return
+	 */
+	private static <T> CompletableFuture<T> failed(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(e);
+		return future;
+	}
+
+	@Override
+	public SdCodeWatcher watchCode() {
+		if (codeUtil == null) {
+			throw new NullPointerException("代码生成工具为空,可以创建一个SdCodeUtil实现并设置在该类中!");
+		}
+		return new SdCodeWatcher(codeUtil);
+	}
+
 	@Override
 	public SdProjectUtil getProjectUtil() {
 		return projectUtil;
@@ -131,6 +239,37 @@ public class ScrewDriverImpl implements ScrewDriver {
 		return this;
 	}
 
+	@Override
+	public synchronized Executor getExecutor() {
+		if (executor == null) {
+			defaultExecutor = SdExecutorUtil.newVirtualThreadExecutor("screw-driver", 3);
+			executor = defaultExecutor;
+		}
+		return executor;
+	}
+
+	@Override
+	public synchronized ScrewDriverImpl setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * 关闭默认创建的线程池并等待已提交的任务执行完毕,关闭后再次异步执行时重新创建
+	 */
+	@Override
+	public void close() {
+		ExecutorService service;
+		synchronized (this) {
+			service = defaultExecutor;
+			defaultExecutor = null;
+			if (executor == service) {
+				executor = null;
+			}
+		}
+		SdExecutorUtil.shutdown(service);
+	}
+
 	@Override
 	public SdCodeUtil addExtension(String key, Object value) {
 		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
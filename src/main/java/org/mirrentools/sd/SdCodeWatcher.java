@@ -0,0 +1,480 @@
+package org.mirrentools.sd;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.impl.SdBatchCodeUtilImpl;
+import org.mirrentools.sd.util.impl.SdCodeUtilImpl;
+
+/**
+ * 代码生成监视器,常驻运行并监视模板目录(包括子目录中被include/import的模板)与实体定义文件,有修改时重新生成,<br>
+ * 代码生成工具是默认实现时,每个实体使用一个复制了配置的增量生成工具,不修改传入的代码生成工具,<br>
+ * 模板的包名与类名中的占位符按实体替换(见{@link SdBatchCodeUtilImpl#resolveTemplates(Map, SdBean)}),所以监视多个实体定义文件时每个实体生成到自己的路径;<br>
+ * 增量模式下只有修改过的模板或实体对应的文件会重新生成,<br>
+ * 监视器在同一个JVM中运行,模板缓存与JIT在多次修改之间保持预热
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCodeWatcher implements Closeable {
+	/** 默认合并修改事件的等待时间,单位毫秒 */
+	public static final long DEFAULT_DEBOUNCE = 100L;
+	/** JUL日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
+
+	/** 代码生成工具,默认实现只读取其中的配置 */
+	private final SdCodeUtil codeUtil;
+	/** 监视的模板目录 */
+	private final Set<Path> templateDirs = new LinkedHashSet<Path>();
+	/** 实体定义文件与加载实体的方法 */
+	private final Map<Path, Supplier<SdBean>> beanSources = new LinkedHashMap<Path, Supplier<SdBean>>();
+	/** 实体定义文件最后一次加载的实体 */
+	private final Map<Path, SdBean> beans = new ConcurrentHashMap<Path, SdBean>();
+	/** 监视的目录 */
+	private final Map<WatchKey, Path> keys = new ConcurrentHashMap<WatchKey, Path>();
+	/** 生成的次数 */
+	private final AtomicLong generationCount = new AtomicLong();
+	/** 合并修改事件的等待时间,单位毫秒 */
+	private long debounce = DEFAULT_DEBOUNCE;
+	/** 每次生成完成后的回调 */
+	private Consumer<SdCodeResult> listener;
+	/** 文件监视服务 */
+	private WatchService watchService;
+	/** 监视线程 */
+	private Thread thread;
+
+	/**
+	 * 初始化一个监视器,监视代码生成工具中模板所在的目录,<br>
+	 * 如果代码生成工具是默认实现则生成时使用开启了增量生成的副本,其他实现需要自行开启增量生成
+	 *
+	 * @param codeUtil
+	 *          代码生成工具
+	 */
+	public SdCodeWatcher(SdCodeUtil codeUtil) {
+		super();
+		if (codeUtil == null) {
+			throw new NullPointerException("代码生成工具为空,可以创建一个SdCodeUtil实现并设置在该类中!");
+		}
+		this.codeUtil = codeUtil;
+		if (codeUtil.getTemplateMaps() != null && codeUtil.getTemplateUtil() != null) {
+			for (SdTemplate template : codeUtil.getTemplateMaps().values()) {
+				File dir = codeUtil.getTemplateUtil().getTemplateDirectory(template);
+				if (dir != null) {
+					watchTemplates(dir);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 添加监视的模板目录,包括子目录
+	 *
+	 * @param dir
+	 * @return
+	 */
+	public SdCodeWatcher watchTemplates(File dir) {
+		templateDirs.add(dir.toPath().toAbsolutePath().normalize());
+		return this;
+	}
+
+	/**
+	 * 添加监视的实体定义文件,文件修改后使用loader重新加载实体并生成
+	 *
+	 * @param file
+	 *          实体定义文件
+	 * @param loader
+	 *          加载实体的方法
+	 * @return
+	 */
+	public SdCodeWatcher watchBean(File file, Supplier<SdBean> loader) {
+		beanSources.put(file.toPath().toAbsolutePath().normalize(), loader);
+		return this;
+	}
+
+	/**
+	 * 在后台线程中启动监视,启动时先执行一次生成
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized SdCodeWatcher start() throws IOException {
+		if (thread != null) {
+			return this;
+		}
+		watchService = FileSystems.getDefault().newWatchService();
+		for (Path dir : templateDirs) {
+			registerAll(dir);
+		}
+		Set<Path> parents = new LinkedHashSet<Path>();
+		for (Path file : beanSources.keySet()) {
+			parents.add(file.getParent());
+		}
+		for (Path dir : parents) {
+			register(dir);
+		}
+		generate(loadAll());
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "screw-driver-watcher");
+		thread.setDaemon(true);
+		thread.start();
+		return this;
+	}
+
+	/**
+	 * 监视循环,直到监视器关闭
+	 */
+	private void watch() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Set<Path> changed = new LinkedHashSet<Path>();
+				WatchKey key = watchService.take();
+				do {
+					poll(key, changed);
+				} while ((key = watchService.poll(debounce, TimeUnit.MILLISECONDS)) != null);
+				if (!changed.isEmpty()) {
+					onChanged(changed);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// 监视器已经关闭
+		}
+	}
+
+	/**
+	 * 读取修改事件,新建的目录加入监视
+	 *
+	 * @param key
+	 * @param changed
+	 */
+	private void poll(WatchKey key, Set<Path> changed) {
+		Path dir = keys.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				continue;
+			}
+			Path path = dir.resolve((Path) event.context());
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				try {
+					registerAll(path);
+				} catch (IOException e) {
+					LOG.log(Level.WARNING, "监视目录失败:" + path, e);
+				}
+			}
+			changed.add(path);
+		}
+		if (!key.reset()) {
+			keys.remove(key);
+		}
+	}
+
+	/**
+	 * 通知监视器文件已经修改,在当前线程中立即处理并重新生成,<br>
+	 * 用于已经知道修改了哪些文件的场景(例如编辑器插件),不需要等待文件监视服务的事件,也不需要先调用start
+	 *
+	 * @param files
+	 *          修改的模板或实体定义文件
+	 * @return
+	 */
+	public SdCodeWatcher changed(File... files) {
+		Set<Path> changed = new LinkedHashSet<Path>();
+		for (File file : files) {
+			changed.add(file.toPath().toAbsolutePath().normalize());
+		}
+		onChanged(changed);
+		return this;
+	}
+
+	/**
+	 * 处理修改的文件,模板目录中修改的文件从模板缓存中移除,修改的实体重新加载,<br>
+	 * 模板目录中任何文件修改时所有实体都重新生成(被include/import的模板同样生效,增量生成会跳过没有修改的模板),只有实体修改时只生成对应的实体
+	 *
+	 * @param changed
+	 */
+	private synchronized void onChanged(Set<Path> changed) {
+		boolean templateChanged = false;
+		Map<Path, SdBean> reloaded = new LinkedHashMap<Path, SdBean>();
+		for (Path path : changed) {
+			if (beanSources.containsKey(path)) {
+				SdBean bean = load(path);
+				if (bean != null) {
+					reloaded.put(path, bean);
+				}
+			} else if (evictTemplate(path)) {
+				LOG.info(String.format("模板%s已修改", path));
+				templateChanged = true;
+			}
+		}
+		if (templateChanged) {
+			generate(beanSources.isEmpty() ? null : new ArrayList<SdBean>(beans.values()));
+		} else if (!reloaded.isEmpty()) {
+			generate(new ArrayList<SdBean>(reloaded.values()));
+		}
+	}
+
+	/**
+	 * 如果修改的文件在模板目录中,将其从模板缓存中移除,<br>
+	 * 文件以相对于模板目录的名字移除,所以被include/import的模板也会重新加载
+	 *
+	 * @param path
+	 *          修改的文件
+	 * @return 是否在模板目录中
+	 */
+	private boolean evictTemplate(Path path) {
+		boolean result = false;
+		for (Path dir : templateDirs) {
+			if (path.startsWith(dir)) {
+				result = true;
+				break;
+			}
+		}
+		if (codeUtil.getTemplateMaps() == null || codeUtil.getTemplateUtil() == null) {
+			return result;
+		}
+		Set<String> evicted = new HashSet<String>();
+		for (SdTemplate template : codeUtil.getTemplateMaps().values()) {
+			File dir = codeUtil.getTemplateUtil().getTemplateDirectory(template);
+			if (dir == null) {
+				continue;
+			}
+			Path root = dir.toPath().toAbsolutePath().normalize();
+			if (!path.startsWith(root)) {
+				continue;
+			}
+			result = true;
+			String file = root.relativize(path).toString().replace(File.separatorChar, '/');
+			if (evicted.add(template.getPath() + '\n' + file)) {
+				codeUtil.getTemplateUtil().evict(new SdTemplate().setPath(template.getPath()).setFile(file));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 加载所有实体定义文件
+	 *
+	 * @return 没有实体定义文件时返回null,既使用代码生成工具中的实体
+	 */
+	private List<SdBean> loadAll() {
+		if (beanSources.isEmpty()) {
+			return null;
+		}
+		List<SdBean> result = new ArrayList<SdBean>();
+		for (Path path : beanSources.keySet()) {
+			SdBean bean = load(path);
+			if (bean != null) {
+				result.add(bean);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 加载实体定义文件
+	 *
+	 * @param path
+	 * @return 加载失败时返回null
+	 */
+	private SdBean load(Path path) {
+		try {
+			SdBean bean = beanSources.get(path).get();
+			if (bean != null) {
+				beans.put(path, bean);
+			}
+			return bean;
+		} catch (Throwable e) {
+			LOG.log(Level.SEVERE, "加载实体定义" + path + "失败:" + e.getMessage(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * 执行生成
+	 *
+	 * @param list
+	 *          需要生成的实体,为null时使用代码生成工具中的实体
+	 */
+	private void generate(List<SdBean> list) {
+		if (list == null) {
+			generate(codeUtil.getBean());
+			return;
+		}
+		for (SdBean bean : list) {
+			generate(bean);
+		}
+	}
+
+	/**
+	 * 生成一个实体
+	 *
+	 * @param bean
+	 */
+	private void generate(SdBean bean) {
+		try {
+			SdCodeResult result = getCodeUtil(bean).executeResult();
+			generationCount.incrementAndGet();
+			if (listener != null) {
+				listener.accept(result);
+			}
+		} catch (Throwable e) {
+			LOG.log(Level.SEVERE, "执行生成失败:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 获取生成实体使用的代码生成工具,<br>
+	 * 默认实现时复制配置并开启增量生成,模板中的占位符替换为实体的名字,其他实现时设置实体后直接使用
+	 *
+	 * @param bean
+	 * @return
+	 */
+	private SdCodeUtil getCodeUtil(SdBean bean) {
+		if (!(codeUtil instanceof SdCodeUtilImpl)) {
+			return bean == codeUtil.getBean() ? codeUtil : codeUtil.setBean(bean);
+		}
+		SdCodeUtilImpl source = (SdCodeUtilImpl) codeUtil;
+		Map<String, SdTemplate> templates = source.getTemplateMaps();
+		if (bean != null && templates != null) {
+			templates = SdBatchCodeUtilImpl.resolveTemplates(templates, bean);
+		}
+		return new SdCodeUtilImpl(bean, templates).setProjectPath(source.getProjectPath()).setCodeFormat(source.getCodeFormat())
+				.setBeanConverter(source.getBeanConverter()).setContentConverter(source.getContentConverter()).setTemplateUtil(source.getTemplateUtil())
+				.setParallelism(source.getParallelism()).setExecutor(source.getExecutor()).setOutputSink(source.getOutputSink()).setIncremental(true);
+	}
+
+	/**
+	 * 监视目录及其子目录
+	 *
+	 * @param root
+	 * @throws IOException
+	 */
+	private void registerAll(Path root) throws IOException {
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				register(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * 监视目录
+	 *
+	 * @param dir
+	 * @throws IOException
+	 */
+	private void register(Path dir) throws IOException {
+		if (dir == null || !Files.isDirectory(dir) || keys.containsValue(dir)) {
+			return;
+		}
+		WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+		keys.put(key, dir);
+	}
+
+	/**
+	 * 停止监视
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+		if (watchService != null) {
+			watchService.close();
+			watchService = null;
+		}
+		keys.clear();
+	}
+
+	/**
+	 * 获取监视的模板目录
+	 *
+	 * @return
+	 */
+	public Set<Path> getTemplateDirs() {
+		return templateDirs;
+	}
+
+	/**
+	 * 获取生成的次数
+	 *
+	 * @return
+	 */
+	public long getGenerationCount() {
+		return generationCount.get();
+	}
+
+	/**
+	 * 获取合并修改事件的等待时间,单位毫秒
+	 *
+	 * @return
+	 */
+	public long getDebounce() {
+		return debounce;
+	}
+
+	/**
+	 * 设置合并修改事件的等待时间,单位毫秒,默认100,<br>
+	 * 编辑器保存文件时通常产生多个事件,在等待时间内的事件合并为一次生成
+	 *
+	 * @param debounce
+	 * @return
+	 */
+	public SdCodeWatcher setDebounce(long debounce) {
+		this.debounce = debounce;
+		return this;
+	}
+
+	/**
+	 * 设置每次生成完成后的回调,在监视线程中执行
+	 *
+	 * @param listener
+	 * @return
+	 */
+	public SdCodeWatcher setListener(Consumer<SdCodeResult> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+}
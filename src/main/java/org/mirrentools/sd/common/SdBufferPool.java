@@ -0,0 +1,148 @@
+package org.mirrentools.sd.common;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓冲区池,复用写文件时使用的直接内存缓冲区与字符缓冲区,<br>
+ * 池中缓冲区的数量有上限,超过上限的缓冲区归还时直接丢弃
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBufferPool {
+	/** 默认字节缓冲区的大小 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	/** 默认字符缓冲区的大小 */
+	public static final int DEFAULT_CHAR_BUFFER_SIZE = 8 * 1024;
+	/** 默认池中最多保存缓冲区的数量 */
+	public static final int DEFAULT_MAX_POOLED = 64;
+	/** 共享的缓冲区池 */
+	private static final SdBufferPool DEFAULT = new SdBufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_CHAR_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+
+	/** 字节缓冲区的大小 */
+	private final int bufferSize;
+	/** 字符缓冲区的大小 */
+	private final int charBufferSize;
+	/** 池中最多保存缓冲区的数量 */
+	private final int maxPooled;
+	/** 空闲的字节缓冲区 */
+	private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+	/** 空闲的字符缓冲区 */
+	private final Queue<CharBuffer> charBuffers = new ConcurrentLinkedQueue<CharBuffer>();
+	/** 空闲的字节缓冲区的数量 */
+	private final AtomicInteger bufferCount = new AtomicInteger();
+	/** 空闲的字符缓冲区的数量 */
+	private final AtomicInteger charBufferCount = new AtomicInteger();
+
+	/**
+	 * 初始化一个缓冲区池
+	 *
+	 * @param bufferSize
+	 *          字节缓冲区的大小
+	 * @param charBufferSize
+	 *          字符缓冲区的大小
+	 * @param maxPooled
+	 *          池中最多保存缓冲区的数量
+	 */
+	public SdBufferPool(int bufferSize, int charBufferSize, int maxPooled) {
+		super();
+		this.bufferSize = bufferSize;
+		this.charBufferSize = charBufferSize;
+		this.maxPooled = maxPooled;
+	}
+
+	/**
+	 * 获取共享的缓冲区池
+	 *
+	 * @return
+	 */
+	public static SdBufferPool getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * 获取一个已清空的直接内存字节缓冲区
+	 *
+	 * @return
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null) {
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+		bufferCount.decrementAndGet();
+		((Buffer) buffer).clear();
+		return buffer;
+	}
+
+	/**
+	 * 归还字节缓冲区
+	 *
+	 * @param buffer
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer == null || buffer.capacity() != bufferSize) {
+			return;
+		}
+		if (bufferCount.incrementAndGet() <= maxPooled) {
+			buffers.offer(buffer);
+		} else {
+			bufferCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 获取一个已清空的字符缓冲区
+	 *
+	 * @return
+	 */
+	public CharBuffer acquireChars() {
+		CharBuffer buffer = charBuffers.poll();
+		if (buffer == null) {
+			return CharBuffer.allocate(charBufferSize);
+		}
+		charBufferCount.decrementAndGet();
+		((Buffer) buffer).clear();
+		return buffer;
+	}
+
+	/**
+	 * 归还字符缓冲区
+	 *
+	 * @param buffer
+	 */
+	public void release(CharBuffer buffer) {
+		if (buffer == null || buffer.capacity() != charBufferSize) {
+			return;
+		}
+		if (charBufferCount.incrementAndGet() <= maxPooled) {
+			charBuffers.offer(buffer);
+		} else {
+			charBufferCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 获取池中空闲的字节缓冲区数量
+	 *
+	 * @return
+	 */
+	public int getPooledCount() {
+		return bufferCount.get();
+	}
+
+	/**
+	 * 获取字节缓冲区的大小
+	 *
+	 * @return
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+}
@@ -0,0 +1,234 @@
+package org.mirrentools.sd.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 直接将字符编码后写入通道的Writer,<br>
+ * 字符先写入池化的字符缓冲区,满了以后编码到池化的直接内存缓冲区再写入通道,不产生中间字符串,<br>
+ * 所以生成很大的文件时堆内存的占用也是固定的
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdChannelWriter extends Writer {
+	/** 写入的通道 */
+	private final WritableByteChannel channel;
+	/** 字符编码器 */
+	private final CharsetEncoder encoder;
+	/** 缓冲区池 */
+	private final SdBufferPool pool;
+	/** 字符缓冲区 */
+	private CharBuffer chars;
+	/** 字节缓冲区 */
+	private ByteBuffer bytes;
+	/** 是否记录写入通道的耗时 */
+	private final boolean timed = SdMetrics.getInstance().isEnabled();
+	/** 写入通道的累计耗时,单位纳秒 */
+	private long writeNanos;
+	/** 写入通道是否成功 */
+	private boolean written = true;
+
+	/**
+	 * 初始化一个Writer
+	 *
+	 * @param channel
+	 *          写入的通道
+	 * @param charset
+	 *          编码格式
+	 * @param pool
+	 *          缓冲区池
+	 */
+	public SdChannelWriter(WritableByteChannel channel, Charset charset, SdBufferPool pool) {
+		super();
+		this.channel = channel;
+		this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.pool = pool;
+		this.chars = pool.acquireChars();
+		this.bytes = pool.acquire();
+	}
+
+	/**
+	 * 打开文件并创建一个Writer,如果文件已经存在则清空文件,如果上级目录不存在则创建
+	 *
+	 * @param file
+	 *          文件
+	 * @param charset
+	 *          编码格式
+	 * @param pool
+	 *          缓冲区池
+	 * @return
+	 * @throws IOException
+	 */
+	public static SdChannelWriter open(File file, Charset charset, SdBufferPool pool) throws IOException {
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		return new SdChannelWriter(channel, charset, pool);
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		if (!chars.hasRemaining()) {
+			encode(false);
+		}
+		chars.put((char) c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+			int size = Math.min(len, chars.remaining());
+			chars.put(cbuf, off, size);
+			off += size;
+			len -= size;
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+			int size = Math.min(len, chars.remaining());
+			int position = chars.position();
+			str.getChars(off, off + size, chars.array(), chars.arrayOffset() + position);
+			((Buffer) chars).position(position + size);
+			off += size;
+			len -= size;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		encode(false);
+		drain();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (chars == null) {
+			return;
+		}
+		try {
+			encode(true);
+			CoderResult result;
+			do {
+				result = encoder.flush(bytes);
+				drain();
+			} while (result.isOverflow());
+		} finally {
+			pool.release(chars);
+			pool.release(bytes);
+			chars = null;
+			bytes = null;
+			long start = timed ? System.nanoTime() : 0;
+			try {
+				channel.close();
+			} finally {
+				if (timed) {
+					writeNanos += System.nanoTime() - start;
+					SdMetrics.getInstance().record(SdMetrics.STAGE_WRITE, null, writeNanos, written);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 放弃缓冲区中还没有写入通道的内容并归还缓冲区,不关闭通道,<br>
+	 * 生成失败时代替close调用,之后由调用者关闭或放弃通道(见{@link org.mirrentools.sd.util.SdOutputSink#discard(WritableByteChannel)})
+	 */
+	public void abort() {
+		if (chars == null) {
+			return;
+		}
+		pool.release(chars);
+		pool.release(bytes);
+		chars = null;
+		bytes = null;
+		if (timed) {
+			SdMetrics.getInstance().record(SdMetrics.STAGE_WRITE, null, writeNanos, false);
+		}
+	}
+
+	/**
+	 * 将字符缓冲区中的字符编码后写入通道,不完整的代理对字符保留在字符缓冲区中
+	 *
+	 * @param endOfInput
+	 *          是否已经没有更多的字符
+	 * @throws IOException
+	 */
+	private void encode(boolean endOfInput) throws IOException {
+		((Buffer) chars).flip();
+		try {
+			while (true) {
+				CoderResult result = encoder.encode(chars, bytes, endOfInput);
+				if (result.isOverflow()) {
+					drain();
+				} else if (result.isUnderflow()) {
+					break;
+				} else {
+					result.throwException();
+				}
+			}
+		} finally {
+			chars.compact();
+		}
+	}
+
+	/**
+	 * 将字节缓冲区写入通道
+	 *
+	 * @throws IOException
+	 */
+	private void drain() throws IOException {
+		((Buffer) bytes).flip();
+		long start = timed ? System.nanoTime() : 0;
+		boolean succeeded = false;
+		try {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			succeeded = true;
+		} finally {
+			if (timed) {
+				writeNanos += System.nanoTime() - start;
+			}
+			written &= succeeded;
+		}
+		((Buffer) bytes).clear();
+	}
+
+	/**
+	 * 检查Writer是否已经关闭
+	 *
+	 * @throws IOException
+	 */
+	private void ensureOpen() throws IOException {
+		if (chars == null) {
+			throw new IOException("Writer已经关闭");
+		}
+	}
+
+}
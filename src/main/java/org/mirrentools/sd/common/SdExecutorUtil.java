@@ -0,0 +1,99 @@
+package org.mirrentools.sd.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池工具
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdExecutorUtil {
+	/** 有界队列的容量相对于线程数量的倍数 */
+	private static final int QUEUE_FACTOR = 4;
+
+	/**
+	 * 创建一个线程数量与队列容量都有上限的线程池,队列满了以后由提交任务的线程执行任务
+	 *
+	 * @param name
+	 *          线程名字的前缀
+	 * @param threads
+	 *          线程数量
+	 * @return
+	 */
+	public static ExecutorService newBoundedExecutor(String name, int threads) {
+		int size = Math.max(1, threads);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(size * QUEUE_FACTOR), newThreadFactory(name), new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * 创建一个每个任务使用一个虚拟线程的线程池,适合大部分时间在等待IO的任务,<br>
+	 * JDK不支持虚拟线程时创建有界线程池
+	 *
+	 * @param name
+	 *          不支持虚拟线程时线程名字的前缀
+	 * @param threads
+	 *          不支持虚拟线程时的线程数量
+	 * @return
+	 */
+	public static ExecutorService newVirtualThreadExecutor(String name, int threads) {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Exception e) {
+			// JDK 21以下没有该方法或者没有开启预览特性
+			return newBoundedExecutor(name, threads);
+		}
+	}
+
+	/**
+	 * 创建一个守护线程的线程工厂
+	 *
+	 * @param name
+	 *          线程名字的前缀
+	 * @return
+	 */
+	public static ThreadFactory newThreadFactory(final String name) {
+		return new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * 关闭线程池,并等待已提交的任务执行完毕
+	 *
+	 * @param executor
+	 */
+	public static void shutdown(ExecutorService executor) {
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				// 等待任务执行完毕
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
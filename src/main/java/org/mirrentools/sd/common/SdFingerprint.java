@@ -0,0 +1,296 @@
+package org.mirrentools.sd.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateAttribute;
+
+/**
+ * 结构指纹工具,用于判断实体,模板与生成文件的内容是否发生变化
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdFingerprint {
+	/** 摘要算法 */
+	private static final String ALGORITHM = "SHA-1";
+	/** 十六进制字符 */
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/** 摘要 */
+	private final MessageDigest digest;
+	/** 已经写入的实体,用于处理关系中的循环引用 */
+	private final Map<SdBean, Integer> visited = new IdentityHashMap<SdBean, Integer>();
+
+	/**
+	 * 初始化一个指纹
+	 */
+	public SdFingerprint() {
+		try {
+			this.digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new SdException(e);
+		}
+	}
+
+	/**
+	 * 获取实体的结构指纹,包括属性列,关系属性与拓展属性
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public static String of(SdBean bean) {
+		return new SdFingerprint().put(bean).toHex();
+	}
+
+	/**
+	 * 获取模板的指纹,包括模板的属性与模板内容的指纹
+	 *
+	 * @param template
+	 * @param source
+	 *          模板内容的指纹,见{@link org.mirrentools.sd.util.SdTemplateUtil#getFingerprint(SdTemplate)}
+	 * @return
+	 */
+	public static String of(SdTemplate template, String source) {
+		return new SdFingerprint().put(template).put(source).toHex();
+	}
+
+	/**
+	 * 获取字节的指纹
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	public static String of(byte[] bytes) {
+		SdFingerprint fingerprint = new SdFingerprint();
+		fingerprint.digest.update(bytes);
+		return fingerprint.toHex();
+	}
+
+	/**
+	 * 获取文件内容的指纹
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static String of(File file) throws IOException {
+		SdFingerprint fingerprint = new SdFingerprint();
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				fingerprint.digest.update(buffer, 0, len);
+			}
+		} finally {
+			in.close();
+		}
+		return fingerprint.toHex();
+	}
+
+	/**
+	 * 写入实体
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public SdFingerprint put(SdBean bean) {
+		if (bean == null) {
+			return put((String) null);
+		}
+		Integer index = visited.get(bean);
+		if (index != null) {
+			// 循环引用或重复引用的实体只写入引用的序号
+			return put("@ref").put(index);
+		}
+		visited.put(bean, visited.size());
+		put("bean").put(bean.getName()).put(bean.getRemark());
+		List<SdColumn> columns = bean.getColumns();
+		put(columns == null ? -1 : columns.size());
+		if (columns != null) {
+			for (SdColumn column : columns) {
+				put(column);
+			}
+		}
+		List<SdRelational> relationals = bean.getRelationals();
+		put(relationals == null ? -1 : relationals.size());
+		if (relationals != null) {
+			for (SdRelational relational : relationals) {
+				put(relational);
+			}
+		}
+		return put(bean.getExtensions());
+	}
+
+	/**
+	 * 写入属性列
+	 *
+	 * @param column
+	 * @return
+	 */
+	public SdFingerprint put(SdColumn column) {
+		if (column == null) {
+			return put((String) null);
+		}
+		put("column").put(column.getImports()).put(column.getAnnotations()).put(column.getFieldType()).put(column.getFieldName())
+				.put(column.getFieldRemark());
+		put(column.getName()).put(column.getType()).put(column.getRemark()).put(column.getLength()).put(column.getDefault());
+		put(column.isPrimary()).put(column.getPrimaryName()).put(column.isIndex()).put(column.getIndexType()).put(column.getIndexName());
+		put(column.isNullable()).put(column.isUnsigned()).put(column.isAutoIncrement());
+		return put(column.getExtensions());
+	}
+
+	/**
+	 * 写入关系属性
+	 *
+	 * @param relational
+	 * @return
+	 */
+	public SdFingerprint put(SdRelational relational) {
+		if (relational == null) {
+			return put((String) null);
+		}
+		put("relational").put(relational.getType()).put(relational.getName());
+		put(relational.getBean());
+		return put(relational.getExtensions());
+	}
+
+	/**
+	 * 写入模板
+	 *
+	 * @param template
+	 * @return
+	 */
+	public SdFingerprint put(SdTemplate template) {
+		if (template == null) {
+			return put((String) null);
+		}
+		put("template").put(template.getPath()).put(template.getFile()).put(template.isOverride()).put(template.getSourceFolder());
+		put(template.getPackageName()).put(template.getClassName());
+		List<SdTemplateAttribute> attributes = template.getAttributes();
+		put(attributes == null ? -1 : attributes.size());
+		if (attributes != null) {
+			for (SdTemplateAttribute attr : attributes) {
+				put(attr.getKey()).put(String.valueOf(attr.getValue())).put(attr.getDescribe());
+			}
+		}
+		return put(template.getExtensions());
+	}
+
+	/**
+	 * 写入拓展属性
+	 *
+	 * @param extensions
+	 * @return
+	 */
+	public SdFingerprint put(Map<String, Object> extensions) {
+		if (extensions == null) {
+			return put(-1);
+		}
+		put(extensions.size());
+		for (Entry<String, Object> entry : extensions.entrySet()) {
+			put(entry.getKey()).put(String.valueOf(entry.getValue()));
+		}
+		return this;
+	}
+
+	/**
+	 * 写入字符串集合
+	 *
+	 * @param items
+	 * @return
+	 */
+	public SdFingerprint put(Collection<String> items) {
+		if (items == null) {
+			return put(-1);
+		}
+		put(items.size());
+		for (String item : items) {
+			put(item);
+		}
+		return this;
+	}
+
+	/**
+	 * 写入字符串,null与空字符串的指纹不同
+	 *
+	 * @param str
+	 * @return
+	 */
+	public SdFingerprint put(String str) {
+		if (str == null) {
+			return put(-1);
+		}
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		put(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	/**
+	 * 写入布尔值
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SdFingerprint put(boolean value) {
+		digest.update(value ? (byte) 1 : (byte) 0);
+		return this;
+	}
+
+	/**
+	 * 写入整数
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SdFingerprint put(int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+		return this;
+	}
+
+	/**
+	 * 写入长整数
+	 *
+	 * @param value
+	 * @return
+	 */
+	public SdFingerprint put(long value) {
+		put((int) (value >>> 32));
+		return put((int) value);
+	}
+
+	/**
+	 * 获取十六进制的指纹
+	 *
+	 * @return
+	 */
+	public String toHex() {
+		byte[] bytes = digest.digest();
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+}
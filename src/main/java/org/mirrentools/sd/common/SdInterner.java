@@ -0,0 +1,306 @@
+package org.mirrentools.sd.common;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.entity.SdField;
+
+/**
+ * 属性定义的共享池,结构相同的SdColumn与SdField只保留一个冻结的实例,<br>
+ * 大部分表都有的id、tenant_id、created_at、updated_at、version这类列在所有实体中共享同一个实例;<br>
+ * 共享池有数量上限,达到上限后整体清空重新开始共享(之前返回的实例仍然可以使用,只是不再与之后的定义共享),<br>
+ * 所以默认的实例不会一直持有不再使用的定义,也可以在批量生成结束后调用{@link #clear()}立即释放,多线程同时使用是安全的
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdInterner {
+	/** 默认的最大数量 */
+	public static final int DEFAULT_MAX_SIZE = 4096;
+	/** 默认的实例 */
+	private static final SdInterner INSTANCE = new SdInterner(DEFAULT_MAX_SIZE);
+
+	/** 最大数量,为0时不共享 */
+	private volatile int maxSize;
+	/** 当前的共享池,清空时整体替换,正在共享的线程继续使用旧的共享池,所以数量不会超过上限 */
+	private volatile Pool pool = new Pool();
+	/** 命中次数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** 未命中次数 */
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 初始化
+	 *
+	 * @param maxSize
+	 *          最大数量,为0时不共享
+	 */
+	public SdInterner(int maxSize) {
+		super();
+		this.maxSize = Math.max(0, maxSize);
+	}
+
+	/**
+	 * 获取默认的实例
+	 *
+	 * @return
+	 */
+	public static SdInterner getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 获取结构相同的共享属性
+	 *
+	 * @param column
+	 * @return 冻结的共享属性,column为null时返回null
+	 */
+	public SdColumn intern(SdColumn column) {
+		if (column == null) {
+			return null;
+		}
+		return intern(column, SdInterner::key, SdColumn::freeze);
+	}
+
+	/**
+	 * 获取结构相同的共享类属性,类型不同的属性不会共享
+	 *
+	 * @param field
+	 * @return 冻结的共享类属性,field为null时返回null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends SdField> T intern(T field) {
+		if (field == null) {
+			return null;
+		}
+		return intern(field, SdInterner::key, f -> (T) f.freeze());
+	}
+
+	/**
+	 * 获取冻结的实体,实体的属性列替换为共享的属性,关系属性中的实体只冻结不共享
+	 *
+	 * @param bean
+	 * @return bean为null时返回null
+	 */
+	public SdBean intern(SdBean bean) {
+		if (bean == null) {
+			return null;
+		}
+		SdBean result = new SdBean().setName(bean.getName()).setRemark(bean.getRemark()).setRelationals(bean.getRelationals())
+				.setExtensions(bean.getExtensions());
+		List<SdColumn> columns = bean.getColumns();
+		if (columns != null) {
+			for (SdColumn column : columns) {
+				result.addColumn(intern(column));
+			}
+		}
+		return result.freeze();
+	}
+
+	/**
+	 * 获取属性列替换为共享属性的实体,关系属性保持原来的实例(关联的实体不复制也不冻结),实体本身不冻结,<br>
+	 * 用于构建关系图时替换实体({@link SdRelationalGraph#of(Iterable, java.util.function.UnaryOperator)}),关系图中的关联实体仍然是原实例
+	 *
+	 * @param bean
+	 * @return bean为null时返回null
+	 */
+	public SdBean internColumns(SdBean bean) {
+		if (bean == null) {
+			return null;
+		}
+		SdBean result = new SdBean().setName(bean.getName()).setRemark(bean.getRemark()).setRelationals(bean.getRelationals())
+				.setExtensions(bean.getExtensions());
+		List<SdColumn> columns = bean.getColumns();
+		if (columns != null) {
+			for (SdColumn column : columns) {
+				result.addColumn(intern(column));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取共享的实例,共享池中的结构使用冻结后的值,所以原对象修改后不会影响共享池
+	 *
+	 * @param value
+	 *          需要共享的值
+	 * @param key
+	 *          获取结构的方法
+	 * @param freeze
+	 *          冻结的方法
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T intern(T value, Function<? super T, Key> key, Function<T, T> freeze) {
+		Pool current = pool;
+		Object result = current.values.get(key.apply(value));
+		if (result != null) {
+			hitCount.incrementAndGet();
+			return (T) result;
+		}
+		missCount.incrementAndGet();
+		T frozen = freeze.apply(value);
+		int max = maxSize;
+		if (max == 0) {
+			return frozen;
+		}
+		if (!current.reserve(max)) {
+			// 共享池满了,整体清空后在新的共享池中共享
+			synchronized (this) {
+				if (pool == current) {
+					pool = new Pool();
+				}
+				current = pool;
+			}
+			if (!current.reserve(max)) {
+				return frozen;
+			}
+		}
+		result = current.values.putIfAbsent(key.apply(frozen), frozen);
+		if (result != null) {
+			current.size.decrementAndGet();
+			return (T) result;
+		}
+		return frozen;
+	}
+
+	/**
+	 * 获取属性的结构
+	 *
+	 * @param column
+	 * @return
+	 */
+	private static Key key(SdColumn column) {
+		return new Key(SdColumn.class, column.getImports(), column.getAnnotations(), column.getFieldType(), column.getFieldName(),
+				column.getFieldRemark(), column.getName(), column.getType(), column.getRemark(), column.getLength(), column.getDefault(),
+				column.isPrimary(), column.getPrimaryName(), column.isIndex(), column.getIndexType(), column.getIndexName(), column.isNullable(),
+				column.isUnsigned(), column.isAutoIncrement(), column.getExtensions());
+	}
+
+	/**
+	 * 获取类属性的结构
+	 *
+	 * @param field
+	 * @return
+	 */
+	private static Key key(SdField field) {
+		return new Key(field.getClass(), field.getImports(), field.getAnnotations(), field.getRemark(), field.getModifier(), field.getType(),
+				field.getName(), field.isGet(), field.isSet(), field.isNullable(), field.getMin(), field.getMax(), field.getExtensions());
+	}
+
+	/**
+	 * 清空共享池
+	 */
+	public synchronized void clear() {
+		pool = new Pool();
+	}
+
+	/**
+	 * 获取共享实例的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return pool.values.size();
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 获取未命中次数
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 获取最大数量
+	 *
+	 * @return
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * 设置最大数量,为0时不共享,只冻结,共享池中已有的实例保留到下次清空
+	 *
+	 * @param maxSize
+	 * @return
+	 */
+	public SdInterner setMaxSize(int maxSize) {
+		this.maxSize = Math.max(0, maxSize);
+		return this;
+	}
+
+	/**
+	 * 一代共享池,数量在放入之前预留,所以多个线程同时放入时也不会超过上限
+	 */
+	private static final class Pool {
+		/** 共享的实例,key为结构 */
+		private final ConcurrentMap<Key, Object> values = new ConcurrentHashMap<Key, Object>();
+		/** 已经预留的数量 */
+		private final AtomicInteger size = new AtomicInteger();
+
+		/**
+		 * 预留一个位置
+		 *
+		 * @param max
+		 *          最大数量
+		 * @return 已经满了时返回false
+		 */
+		boolean reserve(int max) {
+			for (;;) {
+				int count = size.get();
+				if (count >= max) {
+					return false;
+				}
+				if (size.compareAndSet(count, count + 1)) {
+					return true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 属性的结构,所有值都相等时结构相同
+	 */
+	private static final class Key {
+		/** 结构的值 */
+		private final Object[] values;
+		/** 哈希值 */
+		private final int hash;
+
+		Key(Object... values) {
+			this.values = values;
+			this.hash = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).hash == hash && Arrays.equals(((Key) obj).values, values);
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.mirrentools.sd.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图,单位纳秒,<br>
+ * 每个2的幂区间再分为4个桶,百分位的误差不超过25%,记录一次只需要几次原子操作
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdLatencyHistogram {
+	/** 桶的数量,覆盖所有正的long */
+	private static final int BUCKETS = 248;
+
+	/** 每个桶的数量 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	/** 总数量 */
+	private final LongAdder count = new LongAdder();
+	/** 失败的数量 */
+	private final LongAdder errors = new LongAdder();
+	/** 总耗时 */
+	private final LongAdder total = new LongAdder();
+	/** 最大耗时 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param nanos
+	 *          耗时,单位纳秒
+	 * @param succeeded
+	 *          是否成功
+	 */
+	public void record(long nanos, boolean succeeded) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(index(value));
+		count.increment();
+		total.add(value);
+		if (!succeeded) {
+			errors.increment();
+		}
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+			// 重试直到更新成功或者已经有更大的值
+		}
+	}
+
+	/**
+	 * 获取总数量
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * 获取失败的数量
+	 *
+	 * @return
+	 */
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * 获取总耗时,单位纳秒
+	 *
+	 * @return
+	 */
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	/**
+	 * 获取最大耗时,单位纳秒
+	 *
+	 * @return
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * 获取百分位耗时,单位纳秒,返回所在桶的上限
+	 *
+	 * @param percentile
+	 *          百分位,0-100
+	 * @return 没有记录时返回0
+	 */
+	public long getPercentile(double percentile) {
+		long count = 0;
+		long[] values = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			values[i] = buckets.get(i);
+			count += values[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += values[i];
+			if (seen >= Math.max(1, rank)) {
+				return Math.min(upperBound(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * 清空记录
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		errors.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	/**
+	 * 获取耗时所在的桶
+	 *
+	 * @param nanos
+	 * @return
+	 */
+	static int index(long nanos) {
+		if (nanos < 4) {
+			return (int) nanos;
+		}
+		int exp = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exp - 2)) & 3;
+		return (exp - 1) * 4 + sub;
+	}
+
+	/**
+	 * 获取桶的上限
+	 *
+	 * @param index
+	 * @return
+	 */
+	static long upperBound(int index) {
+		if (index < 4) {
+			return index;
+		}
+		int exp = index / 4 + 1;
+		int sub = index % 4;
+		long lower = (4L + sub) << (exp - 2);
+		return lower + (1L << (exp - 2)) - 1;
+	}
+
+}
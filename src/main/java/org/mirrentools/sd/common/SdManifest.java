@@ -0,0 +1,241 @@
+package org.mirrentools.sd.common;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 增量生成的清单,记录每个生成文件的实体指纹,模板指纹与生成内容的指纹,<br>
+ * 当实体与模板都没有变化并且生成文件没有被修改时可以跳过生成
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdManifest {
+	/** 清单文件的默认名字,保存在项目路径下 */
+	public static final String DEFAULT_FILE_NAME = ".sd-manifest";
+	/** 清单文件的头部 */
+	private static final String HEADER = "# screw-driver manifest v1";
+
+	/** 清单文件 */
+	private final File file;
+	/** 清单记录,key为生成文件相对于项目路径的路径 */
+	private final ConcurrentMap<String, Item> items = new ConcurrentHashMap<String, Item>();
+	/** 清单是否有修改 */
+	private volatile boolean modified;
+
+	/**
+	 * 初始化一个清单
+	 *
+	 * @param file
+	 *          清单文件
+	 */
+	public SdManifest(File file) {
+		super();
+		this.file = file;
+	}
+
+	/**
+	 * 加载项目路径下的清单,如果清单文件不存在或者无法读取则返回空清单
+	 *
+	 * @param projectPath
+	 *          项目路径
+	 * @return
+	 */
+	public static SdManifest load(String projectPath) {
+		SdManifest manifest = new SdManifest(new File(projectPath == null ? SdUtil.getUserDir() : projectPath, DEFAULT_FILE_NAME));
+		manifest.read();
+		return manifest;
+	}
+
+	/**
+	 * 读取清单文件
+	 */
+	private void read() {
+		if (!file.isFile()) {
+			return;
+		}
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					String[] split = line.split("\t");
+					if (split.length != 6) {
+						continue;
+					}
+					items.put(split[0], new Item(split[1], split[2], split[3], Long.parseLong(split[4]), Long.parseLong(split[5])));
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException | NumberFormatException e) {
+			// 清单损坏时当作没有清单,既全部重新生成
+			items.clear();
+		}
+	}
+
+	/**
+	 * 判断生成文件是否为最新,既实体指纹与模板指纹都与清单一致并且生成文件没有被修改,<br>
+	 * 生成文件的大小与修改时间都没有变化时视为没有修改;只有修改时间变化时(例如重新检出)比较生成内容的指纹,一致时更新清单中的修改时间
+	 *
+	 * @param path
+	 *          生成文件相对于项目路径的路径
+	 * @param output
+	 *          生成文件
+	 * @param beanFingerprint
+	 *          实体指纹
+	 * @param templateFingerprint
+	 *          模板指纹,为null代表无法获取模板指纹
+	 * @return
+	 */
+	public boolean isUpToDate(String path, File output, String beanFingerprint, String templateFingerprint) {
+		if (templateFingerprint == null) {
+			return false;
+		}
+		Item item = items.get(path);
+		if (item == null || !item.beanFingerprint.equals(beanFingerprint) || !item.templateFingerprint.equals(templateFingerprint)) {
+			return false;
+		}
+		if (!output.isFile() || output.length() != item.length) {
+			return false;
+		}
+		long lastModified = output.lastModified();
+		if (lastModified == item.lastModified) {
+			return true;
+		}
+		try {
+			if (!SdFingerprint.of(output).equals(item.outputFingerprint)) {
+				return false;
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		items.replace(path, item, new Item(item.beanFingerprint, item.templateFingerprint, item.outputFingerprint, item.length, lastModified));
+		modified = true;
+		return true;
+	}
+
+	/**
+	 * 更新生成文件的清单记录
+	 *
+	 * @param path
+	 *          生成文件相对于项目路径的路径
+	 * @param output
+	 *          生成文件
+	 * @param beanFingerprint
+	 *          实体指纹
+	 * @param templateFingerprint
+	 *          模板指纹,为null时删除清单记录
+	 * @throws IOException
+	 */
+	public void update(String path, File output, String beanFingerprint, String templateFingerprint) throws IOException {
+		modified = true;
+		if (templateFingerprint == null || !output.isFile()) {
+			items.remove(path);
+			return;
+		}
+		items.put(path, new Item(beanFingerprint, templateFingerprint, SdFingerprint.of(output), output.length(), output.lastModified()));
+	}
+
+	/**
+	 * 获取生成文件内容的指纹
+	 *
+	 * @param path
+	 *          生成文件相对于项目路径的路径
+	 * @return
+	 */
+	public String getOutputFingerprint(String path) {
+		Item item = items.get(path);
+		return item == null ? null : item.outputFingerprint;
+	}
+
+	/**
+	 * 保存清单,如果清单没有修改则不保存
+	 *
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+		if (!modified) {
+			return;
+		}
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8));
+		try {
+			writer.write(HEADER);
+			writer.write('\n');
+			for (Map.Entry<String, Item> entry : new TreeMap<String, Item>(items).entrySet()) {
+				Item item = entry.getValue();
+				writer.write(entry.getKey() + '\t' + item.beanFingerprint + '\t' + item.templateFingerprint + '\t' + item.outputFingerprint + '\t'
+						+ item.length + '\t' + item.lastModified + '\n');
+			}
+		} finally {
+			writer.close();
+		}
+		if (file.exists() && !file.delete() || !temp.renameTo(file)) {
+			throw new IOException("无法保存清单文件:" + file);
+		}
+		modified = false;
+	}
+
+	/**
+	 * 获取清单文件
+	 *
+	 * @return
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * 获取清单记录的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return items.size();
+	}
+
+	/**
+	 * 清单记录
+	 */
+	private static class Item {
+		/** 实体指纹 */
+		private final String beanFingerprint;
+		/** 模板指纹 */
+		private final String templateFingerprint;
+		/** 生成内容的指纹 */
+		private final String outputFingerprint;
+		/** 生成文件的大小 */
+		private final long length;
+		/** 生成文件的最后修改时间 */
+		private final long lastModified;
+
+		Item(String beanFingerprint, String templateFingerprint, String outputFingerprint, long length, long lastModified) {
+			this.beanFingerprint = beanFingerprint;
+			this.templateFingerprint = templateFingerprint;
+			this.outputFingerprint = outputFingerprint;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+	}
+
+}
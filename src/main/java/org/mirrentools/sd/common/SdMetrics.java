@@ -0,0 +1,283 @@
+package org.mirrentools.sd.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.mirrentools.sd.models.SdMetricsSnapshot;
+
+/**
+ * 生成指标,记录每个阶段以及阶段中每个key(模板的key、类的名字或SQL)的数量与耗时直方图,<br>
+ * JDK支持JFR时同时发出{@code org.mirrentools.sd.Stage}事件,<br>
+ * 执行完成后可以通过{@link #snapshot()}导出统计,通过{@link #setEnabled(boolean)}关闭
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdMetrics {
+	/** 阶段:SdBean转换为SdClassContent */
+	public static final String STAGE_BEAN_CONVERTER = "beanConverter";
+	/** 阶段:SdClassContent转换为模板需要的内容 */
+	public static final String STAGE_CONTENT_CONVERTER = "contentConverter";
+	/** 阶段:模板生成 */
+	public static final String STAGE_RENDER = "render";
+	/** 阶段:写入文件 */
+	public static final String STAGE_WRITE = "write";
+	/** 阶段:一个SdBean的全部生成 */
+	public static final String STAGE_BEAN = "bean";
+	/** 阶段:获取数据库连接 */
+	public static final String STAGE_CONNECTION = "connection";
+	/** 阶段:执行SQL */
+	public static final String STAGE_SQL = "sql";
+	/** 每个阶段最多记录的key数量,超出的key合并到{@link #OTHER_KEY} */
+	public static final int MAX_KEYS = 4096;
+	/** 超出数量后合并的key */
+	public static final String OTHER_KEY = "*";
+
+	/** 默认的实例 */
+	private static final SdMetrics INSTANCE = new SdMetrics();
+	/** JDK是否支持JFR */
+	private static volatile boolean jfr = jfrAvailable();
+	/** 关闭时使用的计时器 */
+	private static final Timer NOOP = new Timer(null, null, null, null);
+
+	/** 是否开启 */
+	private volatile boolean enabled = true;
+	/** 阶段的统计 */
+	private final ConcurrentMap<String, Stage> stages = new ConcurrentHashMap<String, Stage>();
+
+	/**
+	 * 获取默认的实例
+	 *
+	 * @return
+	 */
+	public static SdMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * JDK是否支持JFR事件
+	 *
+	 * @return
+	 */
+	public static boolean isJfrAvailable() {
+		return jfr;
+	}
+
+	/**
+	 * 开始计时,结束时调用{@link Timer#stop()}
+	 *
+	 * @param stage
+	 *          阶段
+	 * @param key
+	 *          阶段中的key,为null时只记录阶段的统计
+	 * @return
+	 */
+	public Timer start(String stage, String key) {
+		if (!enabled) {
+			return NOOP;
+		}
+		Object event = null;
+		if (jfr) {
+			try {
+				event = SdStageEvent.start(stage, key);
+			} catch (Throwable e) {
+				jfr = false;
+			}
+		}
+		return new Timer(this, stage, key, event);
+	}
+
+	/**
+	 * 计时执行任务,任务抛出异常时记录为失败
+	 *
+	 * @param stage
+	 *          阶段
+	 * @param key
+	 *          阶段中的key
+	 * @param task
+	 *          任务
+	 * @return 任务的结果
+	 */
+	public <T> T time(String stage, String key, Supplier<T> task) {
+		Timer timer = start(stage, key);
+		boolean succeeded = false;
+		try {
+			T result = task.get();
+			succeeded = !Boolean.FALSE.equals(result);
+			return result;
+		} finally {
+			timer.stop(succeeded);
+		}
+	}
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param stage
+	 *          阶段
+	 * @param key
+	 *          阶段中的key,为null时只记录阶段的统计
+	 * @param nanos
+	 *          耗时,单位纳秒
+	 * @param succeeded
+	 *          是否成功
+	 */
+	public void record(String stage, String key, long nanos, boolean succeeded) {
+		if (!enabled || stage == null) {
+			return;
+		}
+		Stage metrics = stages.get(stage);
+		if (metrics == null) {
+			Stage created = new Stage();
+			metrics = stages.putIfAbsent(stage, created);
+			if (metrics == null) {
+				metrics = created;
+			}
+		}
+		metrics.total.record(nanos, succeeded);
+		if (key != null) {
+			metrics.histogram(key).record(nanos, succeeded);
+		}
+	}
+
+	/**
+	 * 获取当前统计的快照
+	 *
+	 * @return
+	 */
+	public SdMetricsSnapshot snapshot() {
+		Map<String, SdMetricsSnapshot.Stats> result = new HashMap<String, SdMetricsSnapshot.Stats>();
+		Map<String, Map<String, SdMetricsSnapshot.Stats>> keys = new HashMap<String, Map<String, SdMetricsSnapshot.Stats>>();
+		for (Map.Entry<String, Stage> entry : stages.entrySet()) {
+			result.put(entry.getKey(), stats(entry.getValue().total));
+			Map<String, SdMetricsSnapshot.Stats> children = new HashMap<String, SdMetricsSnapshot.Stats>();
+			for (Map.Entry<String, SdLatencyHistogram> key : entry.getValue().keys.entrySet()) {
+				children.put(key.getKey(), stats(key.getValue()));
+			}
+			keys.put(entry.getKey(), children);
+		}
+		return new SdMetricsSnapshot(result, keys);
+	}
+
+	/**
+	 * 清空所有统计
+	 */
+	public void reset() {
+		stages.clear();
+	}
+
+	/**
+	 * 是否开启
+	 *
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 设置是否开启,关闭后计时与记录都不再产生开销
+	 *
+	 * @param enabled
+	 * @return
+	 */
+	public SdMetrics setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+
+	private static SdMetricsSnapshot.Stats stats(SdLatencyHistogram histogram) {
+		return new SdMetricsSnapshot.Stats(histogram.getCount(), histogram.getErrors(), histogram.getTotalNanos(), histogram.getMaxNanos(),
+				histogram.getPercentile(50), histogram.getPercentile(90), histogram.getPercentile(99));
+	}
+
+	private static boolean jfrAvailable() {
+		try {
+			return SdStageEvent.isAvailable();
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 一个阶段的统计
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	private static class Stage {
+		/** 阶段的总统计 */
+		private final SdLatencyHistogram total = new SdLatencyHistogram();
+		/** 每个key的统计 */
+		private final ConcurrentMap<String, SdLatencyHistogram> keys = new ConcurrentHashMap<String, SdLatencyHistogram>();
+
+		private SdLatencyHistogram histogram(String key) {
+			SdLatencyHistogram histogram = keys.get(key);
+			if (histogram != null) {
+				return histogram;
+			}
+			String name = keys.size() < MAX_KEYS ? key : OTHER_KEY;
+			return keys.computeIfAbsent(name, k -> new SdLatencyHistogram());
+		}
+	}
+
+	/**
+	 * 计时器,同一个计时器只记录一次
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	public static final class Timer {
+		private final SdMetrics metrics;
+		private final String stage;
+		private final String key;
+		private final Object event;
+		private final long start;
+		private boolean stopped;
+
+		private Timer(SdMetrics metrics, String stage, String key, Object event) {
+			this.metrics = metrics;
+			this.stage = stage;
+			this.key = key;
+			this.event = event;
+			this.start = metrics == null ? 0 : System.nanoTime();
+		}
+
+		/**
+		 * 结束计时并记录为成功
+		 *
+		 * @return 耗时,单位纳秒,关闭统计时返回0
+		 */
+		public long stop() {
+			return stop(true);
+		}
+
+		/**
+		 * 结束计时
+		 *
+		 * @param succeeded
+		 *          是否成功
+		 * @return 耗时,单位纳秒,关闭统计或者重复调用时返回0
+		 */
+		public long stop(boolean succeeded) {
+			if (metrics == null || stopped) {
+				return 0;
+			}
+			stopped = true;
+			long nanos = System.nanoTime() - start;
+			metrics.record(stage, key, nanos, succeeded);
+			if (event != null) {
+				try {
+					SdStageEvent.stop(event, succeeded);
+				} catch (Throwable e) {
+					jfr = false;
+				}
+			}
+			return nanos;
+		}
+	}
+
+}
@@ -0,0 +1,169 @@
+package org.mirrentools.sd.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateAttribute;
+
+/**
+ * 模型属性访问表,为模板中使用的模型提供手写的属性访问方法,<br>
+ * 模板通过属性名获取访问方法后直接调用getter,不需要反射;<br>
+ * 自定义的模型可以通过{@link #register(Class, String, Function)}注册
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public final class SdModelAccessors {
+	/** 类型对应的属性访问表,key为属性名 */
+	private static final ConcurrentMap<Class<?>, Map<String, Function<Object, Object>>> ACCESSORS = new ConcurrentHashMap<Class<?>, Map<String, Function<Object, Object>>>();
+
+	static {
+		register(SdClassContent.class, "tableName", SdClassContent::getTableName);
+		register(SdClassContent.class, "pascalName", SdClassContent::getPascalName);
+		register(SdClassContent.class, "camelName", SdClassContent::getCamelName);
+		register(SdClassContent.class, "remark", SdClassContent::getRemark);
+		register(SdClassContent.class, "imports", SdClassContent::getImports);
+		register(SdClassContent.class, "allField", SdClassContent::getAllField);
+		register(SdClassContent.class, "primaryField", SdClassContent::getPrimaryField);
+		register(SdClassContent.class, "indexField", SdClassContent::getIndexField);
+		register(SdClassContent.class, "relationals", SdClassContent::getRelationals);
+		register(SdClassContent.class, "getSet", SdClassContent::getGetSet);
+		register(SdClassContent.class, "extensions", SdClassContent::getExtensions);
+
+		register(SdColumn.class, "imports", SdColumn::getImports);
+		register(SdColumn.class, "annotations", SdColumn::getAnnotations);
+		register(SdColumn.class, "fieldType", SdColumn::getFieldType);
+		register(SdColumn.class, "fieldName", SdColumn::getFieldName);
+		register(SdColumn.class, "fieldRemark", SdColumn::getFieldRemark);
+		register(SdColumn.class, "name", SdColumn::getName);
+		register(SdColumn.class, "type", SdColumn::getType);
+		register(SdColumn.class, "remark", SdColumn::getRemark);
+		register(SdColumn.class, "length", SdColumn::getLength);
+		register(SdColumn.class, "default", SdColumn::getDefault);
+		register(SdColumn.class, "primary", SdColumn::isPrimary);
+		register(SdColumn.class, "primaryName", SdColumn::getPrimaryName);
+		register(SdColumn.class, "index", SdColumn::isIndex);
+		register(SdColumn.class, "indexType", SdColumn::getIndexType);
+		register(SdColumn.class, "indexName", SdColumn::getIndexName);
+		register(SdColumn.class, "nullable", SdColumn::isNullable);
+		register(SdColumn.class, "unsigned", SdColumn::isUnsigned);
+		register(SdColumn.class, "autoIncrement", SdColumn::isAutoIncrement);
+		register(SdColumn.class, "extensions", SdColumn::getExtensions);
+
+		register(SdRelational.class, "type", SdRelational::getType);
+		register(SdRelational.class, "name", SdRelational::getName);
+		register(SdRelational.class, "bean", SdRelational::getBean);
+		register(SdRelational.class, "extensions", SdRelational::getExtensions);
+
+		register(SdBean.class, "name", SdBean::getName);
+		register(SdBean.class, "remark", SdBean::getRemark);
+		register(SdBean.class, "columns", SdBean::getColumns);
+		register(SdBean.class, "relationals", SdBean::getRelationals);
+		register(SdBean.class, "extensions", SdBean::getExtensions);
+
+		register(SdTemplate.class, "path", SdTemplate::getPath);
+		register(SdTemplate.class, "file", SdTemplate::getFile);
+		register(SdTemplate.class, "override", SdTemplate::isOverride);
+		register(SdTemplate.class, "sourceFolder", SdTemplate::getSourceFolder);
+		register(SdTemplate.class, "packageName", SdTemplate::getPackageName);
+		register(SdTemplate.class, "className", SdTemplate::getClassName);
+		register(SdTemplate.class, "attributes", SdTemplate::getAttributes);
+		register(SdTemplate.class, "extensions", SdTemplate::getExtensions);
+
+		register(SdTemplateAttribute.class, "key", SdTemplateAttribute::getKey);
+		register(SdTemplateAttribute.class, "value", SdTemplateAttribute::getValue);
+		register(SdTemplateAttribute.class, "describe", SdTemplateAttribute::getDescribe);
+	}
+
+	private SdModelAccessors() {
+	}
+
+	/**
+	 * 注册属性访问方法,同名的属性将被覆盖
+	 *
+	 * @param type
+	 *          模型的类型
+	 * @param name
+	 *          属性名
+	 * @param accessor
+	 *          访问方法
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> void register(Class<T> type, String name, Function<T, ?> accessor) {
+		Map<String, Function<Object, Object>> table = ACCESSORS.get(type);
+		if (table == null) {
+			ACCESSORS.putIfAbsent(type, new ConcurrentHashMap<String, Function<Object, Object>>());
+			table = ACCESSORS.get(type);
+		}
+		table.put(name, (Function<Object, Object>) accessor);
+	}
+
+	/**
+	 * 获取类型的属性访问方法,类型没有注册时按父类查找
+	 *
+	 * @param type
+	 *          模型的类型
+	 * @param name
+	 *          属性名
+	 * @return 不存在时返回null
+	 */
+	public static Function<Object, Object> getAccessor(Class<?> type, String name) {
+		for (Class<?> clz = type; clz != null; clz = clz.getSuperclass()) {
+			Map<String, Function<Object, Object>> table = ACCESSORS.get(clz);
+			if (table != null) {
+				Function<Object, Object> accessor = table.get(name);
+				if (accessor != null) {
+					return accessor;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 获取类型的所有属性访问方法,包括父类注册的访问方法
+	 *
+	 * @param type
+	 *          模型的类型
+	 * @return key为属性名的只读集合,类型没有注册时返回空集合
+	 */
+	public static Map<String, Function<Object, Object>> getAccessors(Class<?> type) {
+		Map<String, Function<Object, Object>> result = new LinkedHashMap<String, Function<Object, Object>>();
+		for (Class<?> clz = type; clz != null; clz = clz.getSuperclass()) {
+			Map<String, Function<Object, Object>> table = ACCESSORS.get(clz);
+			if (table != null) {
+				for (Map.Entry<String, Function<Object, Object>> entry : table.entrySet()) {
+					if (!result.containsKey(entry.getKey())) {
+						result.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * 判断类型是否注册了属性访问方法
+	 *
+	 * @param type
+	 * @return
+	 */
+	public static boolean isRegistered(Class<?> type) {
+		for (Class<?> clz = type; clz != null; clz = clz.getSuperclass()) {
+			if (ACCESSORS.containsKey(clz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,149 @@
+package org.mirrentools.sd.common;
+
+/**
+ * 命名转换的分词器,一次遍历字符串完成分词与输出,不使用正则也不创建中间字符串,<br>
+ * 分词规则:<br>
+ * 1. 字母与数字以外的字符都是分隔符,比如空格、_、-、.<br>
+ * 2. 小写字母或数字后面的大写字母开始一个新词:userName → user|Name<br>
+ * 3. 连续大写字母中,后面跟着小写字母的最后一个大写字母开始一个新词:HTTPServer → HTTP|Server<br>
+ * 4. 数字跟随前面的词:address1 → address1<br>
+ * 输出使用线程内复用的缓冲区,结果与输入相同时直接返回输入,所以转换只分配结果字符串
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+final class SdNaming {
+	/** 单词的大小写:全部小写 */
+	static final int LOWER = 0;
+	/** 单词的大小写:全部大写 */
+	static final int UPPER = 1;
+	/** 单词的大小写:首字母大写其余小写 */
+	static final int CAPITALIZE = 2;
+
+	/** 字符类型:分隔符 */
+	private static final int SEPARATOR = 0;
+	/** 字符类型:大写字母 */
+	private static final int UPPER_LETTER = 1;
+	/** 字符类型:小写字母或者没有大小写的字母 */
+	private static final int LOWER_LETTER = 2;
+	/** 字符类型:数字 */
+	private static final int DIGIT = 3;
+	/** 复用缓冲区的最大长度,超过的缓冲区不保留 */
+	private static final int MAX_BUFFER = 1024;
+	/** 线程内复用的缓冲区 */
+	private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[64];
+		}
+	};
+
+	private SdNaming() {
+	}
+
+	/**
+	 * 分词并按照指定格式输出
+	 *
+	 * @param str
+	 *          字符串
+	 * @param join
+	 *          单词之间的连接符,不需要时为空字符串
+	 * @param first
+	 *          第一个单词的大小写
+	 * @param others
+	 *          其他单词的大小写
+	 * @return str为null时返回null
+	 */
+	static String format(String str, String join, int first, int others) {
+		if (str == null) {
+			return null;
+		}
+		int length = str.length();
+		int capacity = length + length * join.length();
+		char[] buffer = BUFFER.get();
+		if (buffer.length < capacity) {
+			buffer = new char[Math.max(capacity, buffer.length * 2)];
+			if (buffer.length <= MAX_BUFFER) {
+				BUFFER.set(buffer);
+			}
+		}
+		int size = 0;
+		int words = 0;
+		int position = 0;
+		int previous = SEPARATOR;
+		for (int i = 0; i < length; i++) {
+			char c = str.charAt(i);
+			int type = type(c);
+			if (type == SEPARATOR) {
+				position = 0;
+				previous = SEPARATOR;
+				continue;
+			}
+			if (position > 0 && type == UPPER_LETTER) {
+				if (previous == LOWER_LETTER || previous == DIGIT) {
+					position = 0;
+				} else if (previous == UPPER_LETTER && i + 1 < length && type(str.charAt(i + 1)) == LOWER_LETTER) {
+					position = 0;
+				}
+			}
+			if (position == 0) {
+				if (words > 0) {
+					for (int j = 0; j < join.length(); j++) {
+						buffer[size++] = join.charAt(j);
+					}
+				}
+				words++;
+			}
+			int mode = words == 1 ? first : others;
+			if (mode == UPPER || (mode == CAPITALIZE && position == 0)) {
+				buffer[size++] = Character.toUpperCase(c);
+			} else {
+				buffer[size++] = Character.toLowerCase(c);
+			}
+			position++;
+			previous = type;
+		}
+		if (size == length) {
+			boolean same = true;
+			for (int i = 0; i < size; i++) {
+				if (buffer[i] != str.charAt(i)) {
+					same = false;
+					break;
+				}
+			}
+			if (same) {
+				return str;
+			}
+		}
+		return new String(buffer, 0, size);
+	}
+
+	/**
+	 * 获取字符的类型
+	 *
+	 * @param c
+	 * @return
+	 */
+	private static int type(char c) {
+		if (c < 128) {
+			if (c >= 'a' && c <= 'z') {
+				return LOWER_LETTER;
+			}
+			if (c >= 'A' && c <= 'Z') {
+				return UPPER_LETTER;
+			}
+			if (c >= '0' && c <= '9') {
+				return DIGIT;
+			}
+			return SEPARATOR;
+		}
+		if (Character.isUpperCase(c)) {
+			return UPPER_LETTER;
+		}
+		if (Character.isDigit(c)) {
+			return DIGIT;
+		}
+		return Character.isLetter(c) ? LOWER_LETTER : SEPARATOR;
+	}
+
+}
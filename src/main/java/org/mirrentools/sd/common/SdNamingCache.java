@@ -0,0 +1,320 @@
+package org.mirrentools.sd.common;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 命名转换的缓存,key为原始名字,value为该名字的所有命名形式,<br>
+ * 大型数据库中id、create_time、tenant_id这类名字会被转换成千上万次,命中缓存时只需要一次哈希查找,<br>
+ * 缓存分为新旧两代,新一代满了以后变为旧一代,旧一代中命中的名字重新放入新一代,所以数量不会超过上限的两倍,<br>
+ * 可以从种子文件(每行一个名字)预先加载常用的名字,多线程同时使用是安全的,<br>
+ * SdUtil的命名转换与首字母大写使用默认的实例,调用SdUtil的地方(例如批量生成)也就使用了缓存
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdNamingCache {
+	/** 默认每一代的最大数量 */
+	public static final int DEFAULT_MAX_SIZE = 4096;
+	/** 默认的实例 */
+	private static final SdNamingCache INSTANCE = new SdNamingCache(DEFAULT_MAX_SIZE);
+
+	/** 每一代的最大数量,为0时不缓存 */
+	private volatile int maxSize;
+	/** 新一代 */
+	private volatile ConcurrentHashMap<String, Names> current = new ConcurrentHashMap<String, Names>();
+	/** 旧一代 */
+	private volatile ConcurrentHashMap<String, Names> previous = new ConcurrentHashMap<String, Names>();
+	/** 命中次数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** 未命中次数 */
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 初始化
+	 *
+	 * @param maxSize
+	 *          每一代的最大数量,为0时不缓存
+	 */
+	public SdNamingCache(int maxSize) {
+		super();
+		this.maxSize = Math.max(0, maxSize);
+	}
+
+	/**
+	 * 获取默认的实例,SdUtil的命名转换使用该实例
+	 *
+	 * @return
+	 */
+	public static SdNamingCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 获取名字的所有命名形式
+	 *
+	 * @param name
+	 *          名字
+	 * @return
+	 */
+	public Names get(String name) {
+		Names names = current.get(name);
+		if (names != null) {
+			hitCount.incrementAndGet();
+			return names;
+		}
+		names = previous.get(name);
+		if (names != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+			names = new Names(name);
+		}
+		put(names);
+		return names;
+	}
+
+	/**
+	 * 从种子文件加载名字,每行一个名字,空行与#开头的行忽略
+	 *
+	 * @param file
+	 *          种子文件
+	 * @return 加载的数量
+	 * @throws IOException
+	 */
+	public int load(File file) throws IOException {
+		int count = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String name = line.trim();
+				if (name.isEmpty() || name.startsWith("#")) {
+					continue;
+				}
+				if (!current.containsKey(name)) {
+					put(new Names(name));
+				}
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 将缓存中的名字保存为种子文件
+	 *
+	 * @param file
+	 *          种子文件
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		List<String> names = new ArrayList<String>(previous.keySet());
+		for (String name : current.keySet()) {
+			if (!previous.containsKey(name)) {
+				names.add(name);
+			}
+		}
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			for (String name : names) {
+				writer.write(name);
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public synchronized void clear() {
+		current = new ConcurrentHashMap<String, Names>();
+		previous = new ConcurrentHashMap<String, Names>();
+	}
+
+	/**
+	 * 获取缓存的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		int size = current.size();
+		for (String name : previous.keySet()) {
+			if (!current.containsKey(name)) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 获取未命中次数
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 获取每一代的最大数量
+	 *
+	 * @return
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * 设置每一代的最大数量,为0时不缓存
+	 *
+	 * @param maxSize
+	 * @return
+	 */
+	public SdNamingCache setMaxSize(int maxSize) {
+		this.maxSize = Math.max(0, maxSize);
+		if (this.maxSize == 0) {
+			clear();
+		}
+		return this;
+	}
+
+	/**
+	 * 将字符串首字母大写,不使用缓存
+	 *
+	 * @param str
+	 * @return
+	 */
+	static String firstToUpperCase(String str) {
+		if (str != null && str.length() > 0) {
+			char[] s = str.toCharArray();
+			if (s[0] >= 97 && s[0] <= 122) {
+				s[0] -= 32;
+				return String.valueOf(s);
+			}
+		}
+		return str;
+	}
+
+	/**
+	 * 放入新一代,新一代满了时换代
+	 *
+	 * @param names
+	 */
+	private void put(Names names) {
+		int max = maxSize;
+		if (max == 0) {
+			return;
+		}
+		ConcurrentHashMap<String, Names> map = current;
+		if (map.size() >= max) {
+			synchronized (this) {
+				if (current == map) {
+					previous = map;
+					current = new ConcurrentHashMap<String, Names>();
+				}
+				map = current;
+			}
+		}
+		map.putIfAbsent(names.getName(), names);
+	}
+
+	/**
+	 * 一个名字的所有命名形式
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	public static final class Names {
+		/** 原始名字 */
+		private final String name;
+		/** 驼峰命名 */
+		private final String camelCase;
+		/** 帕斯卡命名 */
+		private final String pascalCase;
+		/** 下划线命名 */
+		private final String underScoreCase;
+		/** 大写的下划线命名 */
+		private final String upperUnderScoreCase;
+		/** 连字符命名 */
+		private final String hyphenCase;
+		/** 大写的连字符命名 */
+		private final String upperHyphenCase;
+		/** 首字母大写 */
+		private final String firstUpperCase;
+
+		/**
+		 * 初始化并转换所有命名形式
+		 *
+		 * @param name
+		 */
+		public Names(String name) {
+			this.name = name;
+			this.camelCase = SdNaming.format(name, "", SdNaming.LOWER, SdNaming.CAPITALIZE);
+			this.pascalCase = SdNaming.format(name, "", SdNaming.CAPITALIZE, SdNaming.CAPITALIZE);
+			this.underScoreCase = SdNaming.format(name, "_", SdNaming.LOWER, SdNaming.LOWER);
+			this.upperUnderScoreCase = SdNaming.format(name, "_", SdNaming.UPPER, SdNaming.UPPER);
+			this.hyphenCase = SdNaming.format(name, "-", SdNaming.LOWER, SdNaming.LOWER);
+			this.upperHyphenCase = SdNaming.format(name, "-", SdNaming.UPPER, SdNaming.UPPER);
+			this.firstUpperCase = firstToUpperCase(name);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getCamelCase() {
+			return camelCase;
+		}
+
+		public String getPascalCase() {
+			return pascalCase;
+		}
+
+		public String getUnderScoreCase() {
+			return underScoreCase;
+		}
+
+		public String getUpperUnderScoreCase() {
+			return upperUnderScoreCase;
+		}
+
+		public String getHyphenCase() {
+			return hyphenCase;
+		}
+
+		public String getUpperHyphenCase() {
+			return upperHyphenCase;
+		}
+
+		public String getFirstUpperCase() {
+			return firstUpperCase;
+		}
+
+		@Override
+		public String toString() {
+			return "Names [name=" + name + ", camelCase=" + camelCase + ", pascalCase=" + pascalCase + ", underScoreCase=" + underScoreCase
+					+ "]";
+		}
+	}
+
+}
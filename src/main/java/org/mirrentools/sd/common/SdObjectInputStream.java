@@ -0,0 +1,96 @@
+package org.mirrentools.sd.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 只反序列化白名单中的类的对象输入流,用于读取工具自己保存的缓存文件,<br>
+ * 缓存文件可能被替换,不限制类时反序列化可以执行类路径中任意类的代码,<br>
+ * 白名单包括基本类型的包装类、字符串、常用的集合类与构造时指定的类名前缀,其他的类抛出InvalidClassException
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdObjectInputStream extends ObjectInputStream {
+	/** 总是允许的类 */
+	private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(Arrays.asList("java.lang.String", "java.lang.Boolean",
+			"java.lang.Character", "java.lang.Number", "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+			"java.lang.Float", "java.lang.Double", "java.lang.Enum", "java.math.BigInteger", "java.math.BigDecimal", "java.util.Date",
+			"java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap",
+			"java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet", "java.util.Arrays$ArrayList", "java.lang.Object"));
+	/** 总是允许的类名前缀,冻结后的对象使用这些只读集合 */
+	private static final String[] ALLOWED_PREFIXES = { "java.util.Collections$Unmodifiable", "java.util.Collections$Empty",
+			"java.util.Collections$Singleton" };
+
+	/** 额外允许的类名前缀 */
+	private final String[] prefixes;
+
+	/**
+	 * 初始化
+	 *
+	 * @param in
+	 *          输入流
+	 * @param prefixes
+	 *          额外允许的类名前缀,例如包名org.mirrentools.sd.models.或者完整的类名
+	 * @throws IOException
+	 */
+	public SdObjectInputStream(InputStream in, String... prefixes) throws IOException {
+		super(in);
+		this.prefixes = prefixes;
+	}
+
+	@Override
+	protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+		if (!isAllowed(desc.getName())) {
+			throw new InvalidClassException(desc.getName(), "不允许从缓存文件中反序列化该类");
+		}
+		return super.resolveClass(desc);
+	}
+
+	@Override
+	protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+		throw new InvalidClassException("不允许从缓存文件中反序列化代理类");
+	}
+
+	/**
+	 * 判断类是否允许反序列化,数组判断元素的类型
+	 *
+	 * @param name
+	 *          类名
+	 * @return
+	 */
+	private boolean isAllowed(String name) {
+		String type = name;
+		while (type.startsWith("[")) {
+			type = type.substring(1);
+		}
+		if (type.length() != name.length()) {
+			if (type.length() == 1) {
+				// 基本类型的数组
+				return true;
+			}
+			type = type.substring(1, type.length() - 1);
+		}
+		if (ALLOWED_CLASSES.contains(type)) {
+			return true;
+		}
+		for (String prefix : ALLOWED_PREFIXES) {
+			if (type.startsWith(prefix)) {
+				return true;
+			}
+		}
+		for (String prefix : prefixes) {
+			if (type.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
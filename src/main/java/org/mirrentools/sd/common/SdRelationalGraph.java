@@ -0,0 +1,443 @@
+package org.mirrentools.sd.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdRelational;
+
+/**
+ * 实体关系图,每次生成时构建一次,<br>
+ * SdRelational中包含完整的SdBean,所以一对多、多对一与多对多关系会形成环与菱形,直接递归转换会死循环或者重复转换同一个实体;<br>
+ * 关系图为每个实体(按对象引用区分)分配一个从0开始的id,找出所有的环,转换器通过{@link Memo}获取关联实体的转换结果,
+ * 每个实体只转换一次,所以转换的时间与实体数量成正比,与关系路径的数量无关;<br>
+ * 构建时可以将实体替换为其他实例(比如共享池中冻结的实例),原实例与替换后的实例对应同一个id;<br>
+ * 构建后不可修改,多线程同时使用是安全的
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdRelationalGraph {
+	/** 没有关联实体 */
+	private static final int[] NONE = new int[0];
+
+	/** 实体,下标为实体的id */
+	private final SdBean[] beans;
+	/** 实体的id */
+	private final Map<SdBean, Integer> ids;
+	/** 实体直接关联的实体id,不重复 */
+	private final int[][] related;
+	/** 实体所在的强连通分量,分量按依赖顺序编号,被依赖的分量编号较小 */
+	private final int[] components;
+	/** 实体是否在环中 */
+	private final BitSet cyclic = new BitSet();
+	/** 按依赖顺序排列的实体id,被关联的实体在前 */
+	private final int[] order;
+	/** 强连通分量的锁,下标为分量的编号,同一个分量中的实体只由持有锁的线程转换 */
+	private final Object[] locks;
+	/** 构建时替换实体的方法,为null时不替换 */
+	private final UnaryOperator<SdBean> mapper;
+	/** 记忆化的转换,key为转换的所有者 */
+	private final ConcurrentMap<Object, Memo<?>> memos = new ConcurrentHashMap<Object, Memo<?>>();
+
+	/**
+	 * 构建关系图,从根实体出发通过关系属性找到所有关联实体
+	 *
+	 * @param roots
+	 *          根实体
+	 * @param mapper
+	 *          替换实体的方法,为null时不替换
+	 */
+	private SdRelationalGraph(Iterable<SdBean> roots, UnaryOperator<SdBean> mapper) {
+		this.mapper = mapper;
+		List<SdBean> nodes = new ArrayList<SdBean>();
+		List<SdBean> originals = new ArrayList<SdBean>();
+		this.ids = new IdentityHashMap<SdBean, Integer>();
+		for (SdBean root : roots) {
+			id(root, nodes, originals);
+		}
+		List<int[]> edges = new ArrayList<int[]>();
+		for (int i = 0; i < nodes.size(); i++) {
+			// 关系从原实体读取,替换后的实体(比如冻结的复制)中关联的实体可能是其他实例
+			List<SdRelational> relationals = originals.get(i).getRelationals();
+			if (relationals == null || relationals.isEmpty()) {
+				edges.add(NONE);
+				continue;
+			}
+			int[] targets = new int[relationals.size()];
+			int count = 0;
+			for (SdRelational relational : relationals) {
+				if (relational == null || relational.getBean() == null) {
+					continue;
+				}
+				int target = id(relational.getBean(), nodes, originals);
+				boolean exists = false;
+				for (int j = 0; j < count && !exists; j++) {
+					exists = targets[j] == target;
+				}
+				if (!exists) {
+					targets[count++] = target;
+				}
+			}
+			edges.add(count == 0 ? NONE : Arrays.copyOf(targets, count));
+		}
+		this.beans = nodes.toArray(new SdBean[nodes.size()]);
+		this.related = edges.toArray(new int[edges.size()][]);
+		this.components = new int[beans.length];
+		this.order = new int[beans.length];
+		int count = components();
+		this.locks = new Object[count];
+		for (int i = 0; i < count; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * 构建关系图
+	 *
+	 * @param roots
+	 *          根实体,关联的实体会自动加入
+	 * @return
+	 */
+	public static SdRelationalGraph of(Iterable<SdBean> roots) {
+		return new SdRelationalGraph(roots, null);
+	}
+
+	/**
+	 * 构建关系图,每个实体第一次遇到时使用mapper替换,关系属性中引用的原实例与替换后的实例对应同一个id,<br>
+	 * 实体之间的关系从原实例读取;转换器通过替换后实体的关系属性获取关联实体的转换结果,所以替换后的实体需要引用原来的关联实例
+	 *
+	 * @param roots
+	 *          根实体,关联的实体会自动加入
+	 * @param mapper
+	 *          替换实体的方法,返回的实体需要保留原实体的关系属性(例如{@link SdInterner#internColumns(SdBean)}),为null时不替换
+	 * @return
+	 */
+	public static SdRelationalGraph of(Iterable<SdBean> roots, UnaryOperator<SdBean> mapper) {
+		return new SdRelationalGraph(roots, mapper);
+	}
+
+	/**
+	 * 构建关系图
+	 *
+	 * @param roots
+	 *          根实体,关联的实体会自动加入
+	 * @return
+	 */
+	public static SdRelationalGraph of(SdBean... roots) {
+		return new SdRelationalGraph(Arrays.asList(roots), null);
+	}
+
+	/**
+	 * 获取实体的id,第一次遇到的实体分配新的id并替换
+	 *
+	 * @param bean
+	 * @param nodes
+	 *          替换后的实体
+	 * @param originals
+	 *          原实体
+	 * @return
+	 */
+	private int id(SdBean bean, List<SdBean> nodes, List<SdBean> originals) {
+		if (bean == null) {
+			return -1;
+		}
+		Integer id = ids.get(bean);
+		if (id == null) {
+			id = nodes.size();
+			SdBean node = mapper == null ? bean : mapper.apply(bean);
+			ids.put(bean, id);
+			if (node != bean) {
+				ids.put(node, id);
+			}
+			nodes.add(node);
+			originals.add(bean);
+		}
+		return id;
+	}
+
+	/**
+	 * 使用非递归的Tarjan算法计算强连通分量,关系链再长也不会栈溢出
+	 *
+	 * @return 强连通分量的数量
+	 */
+	private int components() {
+		int n = beans.length;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] next = new int[n];
+		int[] stack = new int[n];
+		int[] calls = new int[n];
+		boolean[] onStack = new boolean[n];
+		Arrays.fill(index, -1);
+		int counter = 0;
+		int top = 0;
+		int component = 0;
+		int sorted = 0;
+		for (int start = 0; start < n; start++) {
+			if (index[start] != -1) {
+				continue;
+			}
+			int depth = 0;
+			index[start] = low[start] = counter++;
+			stack[top++] = start;
+			onStack[start] = true;
+			calls[depth++] = start;
+			while (depth > 0) {
+				int v = calls[depth - 1];
+				if (next[v] < related[v].length) {
+					int w = related[v][next[v]++];
+					if (index[w] == -1) {
+						index[w] = low[w] = counter++;
+						stack[top++] = w;
+						onStack[w] = true;
+						calls[depth++] = w;
+					} else if (onStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+				depth--;
+				if (depth > 0) {
+					int parent = calls[depth - 1];
+					low[parent] = Math.min(low[parent], low[v]);
+				}
+				if (low[v] == index[v]) {
+					int first = sorted;
+					int w;
+					do {
+						w = stack[--top];
+						onStack[w] = false;
+						components[w] = component;
+						order[sorted++] = w;
+					} while (w != v);
+					Arrays.sort(order, first, sorted);
+					if (sorted - first > 1 || contains(related[v], v)) {
+						for (int i = first; i < sorted; i++) {
+							cyclic.set(order[i]);
+						}
+					}
+					component++;
+				}
+			}
+		}
+		return component;
+	}
+
+	private static boolean contains(int[] array, int value) {
+		for (int item : array) {
+			if (item == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取实体的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return beans.length;
+	}
+
+	/**
+	 * 获取实体的id
+	 *
+	 * @param bean
+	 * @return 不在关系图中时返回-1
+	 */
+	public int getId(SdBean bean) {
+		Integer id = bean == null ? null : ids.get(bean);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * 获取实体
+	 *
+	 * @param id
+	 * @return
+	 */
+	public SdBean getBean(int id) {
+		return beans[id];
+	}
+
+	/**
+	 * 获取所有实体,下标为实体的id
+	 *
+	 * @return
+	 */
+	public List<SdBean> getBeans() {
+		return Collections.unmodifiableList(Arrays.asList(beans));
+	}
+
+	/**
+	 * 获取实体直接关联的实体,不重复
+	 *
+	 * @param bean
+	 * @return 不在关系图中时返回空集合
+	 */
+	public List<SdBean> getRelated(SdBean bean) {
+		int id = getId(bean);
+		if (id == -1 || related[id].length == 0) {
+			return Collections.emptyList();
+		}
+		SdBean[] result = new SdBean[related[id].length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = beans[related[id][i]];
+		}
+		return Collections.unmodifiableList(Arrays.asList(result));
+	}
+
+	/**
+	 * 关系图中是否有环
+	 *
+	 * @return
+	 */
+	public boolean hasCycle() {
+		return !cyclic.isEmpty();
+	}
+
+	/**
+	 * 实体是否在环中,既通过关系属性可以回到自己
+	 *
+	 * @param bean
+	 * @return
+	 */
+	public boolean isCyclic(SdBean bean) {
+		int id = getId(bean);
+		return id != -1 && cyclic.get(id);
+	}
+
+	/**
+	 * 两个实体是否在同一个环中
+	 *
+	 * @param bean
+	 * @param other
+	 * @return
+	 */
+	public boolean isSameCycle(SdBean bean, SdBean other) {
+		int id = getId(bean);
+		int otherId = getId(other);
+		return id != -1 && otherId != -1 && cyclic.get(id) && components[id] == components[otherId];
+	}
+
+	/**
+	 * 获取按依赖顺序排列的实体,被关联的实体排在关联它的实体之前,同一个环中的实体按id排列
+	 *
+	 * @return
+	 */
+	public List<SdBean> getOrder() {
+		SdBean[] result = new SdBean[order.length];
+		for (int i = 0; i < order.length; i++) {
+			result[i] = beans[order[i]];
+		}
+		return Collections.unmodifiableList(Arrays.asList(result));
+	}
+
+	/**
+	 * 获取所有者的记忆化转换,第一次获取时创建,同一个所有者在整个关系图中共享同一个转换结果,每个实体只转换一次,<br>
+	 * 比如转换器使用graph.memo(this, bean -> ...)转换当前实体与关联实体
+	 *
+	 * @param owner
+	 *          所有者,通常为转换器本身
+	 * @param converter
+	 *          实体转换器,可以在转换过程中通过返回的Memo获取关联实体的转换结果
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Memo<T> memo(Object owner, Function<SdBean, T> converter) {
+		Memo<?> memo = memos.get(owner);
+		if (memo == null) {
+			memo = new Memo<T>(converter);
+			Memo<?> exists = memos.putIfAbsent(owner, memo);
+			if (exists != null) {
+				memo = exists;
+			}
+		}
+		return (Memo<T>) memo;
+	}
+
+	/**
+	 * 记忆化的实体转换,转换结果按实体id保存,多线程同时使用是安全的,<br>
+	 * 同一个强连通分量(同一个环)中的实体只由一个线程转换,其他线程等待转换完成,所以每个实体只转换一次;<br>
+	 * 转换时只会再获取依赖的分量的锁,分量按依赖顺序编号,所以不会死锁;<br>
+	 * 同一个线程在转换实体的过程中再次获取该实体(环中的反向引用)时返回null,转换器可以改为使用实体的名字引用
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	public final class Memo<T> {
+		/** 转换结果为null时保存的值 */
+		private final Object NULL = new Object();
+		/** 实体转换器 */
+		private final Function<SdBean, T> converter;
+		/** 转换结果,下标为实体的id */
+		private final AtomicReferenceArray<Object> values;
+		/** 正在转换的实体,下标为实体的id,只在持有实体所在分量的锁时访问 */
+		private final boolean[] converting;
+
+		private Memo(Function<SdBean, T> converter) {
+			this.converter = converter;
+			this.values = new AtomicReferenceArray<Object>(beans.length);
+			this.converting = new boolean[beans.length];
+		}
+
+		/**
+		 * 获取实体的转换结果
+		 *
+		 * @param bean
+		 * @return 实体不在关系图中时直接转换不保存,当前线程正在转换该实体时返回null;构建时替换了实体时转换替换后的实体
+		 */
+		@SuppressWarnings("unchecked")
+		public T get(SdBean bean) {
+			int id = getId(bean);
+			if (id == -1) {
+				return bean == null ? null : converter.apply(bean);
+			}
+			Object value = values.get(id);
+			if (value == null) {
+				synchronized (locks[components[id]]) {
+					value = values.get(id);
+					if (value == null) {
+						if (converting[id]) {
+							return null;
+						}
+						converting[id] = true;
+						try {
+							T result = converter.apply(beans[id]);
+							value = result == null ? NULL : result;
+							values.set(id, value);
+						} finally {
+							converting[id] = false;
+						}
+					}
+				}
+			}
+			return value == NULL ? null : (T) value;
+		}
+
+		/**
+		 * 实体是否已经转换
+		 *
+		 * @param bean
+		 * @return
+		 */
+		public boolean isConverted(SdBean bean) {
+			int id = getId(bean);
+			return id != -1 && values.get(id) != null;
+		}
+	}
+
+}
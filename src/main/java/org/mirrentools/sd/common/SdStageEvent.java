@@ -0,0 +1,164 @@
+package org.mirrentools.sd.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder事件,记录一次转换、生成或SQL执行,<br>
+ * 只在JDK支持JFR时由{@link SdMetrics}使用;<br>
+ * 为了可以在不包含jdk.jfr的JDK上编译与运行(例如--release 8),事件类型通过反射调用jdk.jfr.EventFactory在运行时定义,<br>
+ * 事件的名字、标签与字段同使用注解定义的事件一样
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+final class SdStageEvent {
+	/** 事件的名字 */
+	static final String NAME = "org.mirrentools.sd.Stage";
+	/** 字段stage的索引 */
+	private static final int STAGE = 0;
+	/** 字段key的索引 */
+	private static final int KEY = 1;
+	/** 字段succeeded的索引 */
+	private static final int SUCCEEDED = 2;
+
+	/** jdk.jfr.EventFactory,JDK不支持JFR时为null */
+	private static final Object FACTORY;
+	/** EventFactory.newEvent() */
+	private static final MethodHandle NEW_EVENT;
+	/** Event.isEnabled() */
+	private static final MethodHandle IS_ENABLED;
+	/** Event.set(int, Object) */
+	private static final MethodHandle SET;
+	/** Event.begin() */
+	private static final MethodHandle BEGIN;
+	/** Event.end() */
+	private static final MethodHandle END;
+	/** Event.shouldCommit() */
+	private static final MethodHandle SHOULD_COMMIT;
+	/** Event.commit() */
+	private static final MethodHandle COMMIT;
+
+	static {
+		Object factory = null;
+		MethodHandle newEvent = null;
+		MethodHandle isEnabled = null;
+		MethodHandle set = null;
+		MethodHandle begin = null;
+		MethodHandle end = null;
+		MethodHandle shouldCommit = null;
+		MethodHandle commit = null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> event = Class.forName("jdk.jfr.Event");
+			Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+			List<Object> annotations = Arrays.asList(annotation("Name", NAME), annotation("Label", "ScrewDriver Stage"),
+					annotation("Category", new String[] { "ScrewDriver" }), annotation("Description", "一次转换、模板生成、文件写入或SQL执行"),
+					annotation("StackTrace", false));
+			// 字段的顺序与STAGE、KEY、SUCCEEDED的索引一致
+			List<Object> fields = Arrays.asList(field(String.class, "stage", "Stage"), field(String.class, "key", "Key"),
+					field(boolean.class, "succeeded", "Succeeded"));
+			factory = factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+			newEvent = lookup.findVirtual(factoryClass, "newEvent", MethodType.methodType(event));
+			isEnabled = lookup.findVirtual(event, "isEnabled", MethodType.methodType(boolean.class));
+			set = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class));
+			begin = lookup.findVirtual(event, "begin", MethodType.methodType(void.class));
+			end = lookup.findVirtual(event, "end", MethodType.methodType(void.class));
+			shouldCommit = lookup.findVirtual(event, "shouldCommit", MethodType.methodType(boolean.class));
+			commit = lookup.findVirtual(event, "commit", MethodType.methodType(void.class));
+		} catch (Throwable e) {
+			factory = null;
+		}
+		FACTORY = factory;
+		NEW_EVENT = newEvent;
+		IS_ENABLED = isEnabled;
+		SET = set;
+		BEGIN = begin;
+		END = end;
+		SHOULD_COMMIT = shouldCommit;
+		COMMIT = commit;
+	}
+
+	private SdStageEvent() {
+	}
+
+	/**
+	 * JDK是否支持JFR并且成功定义了事件
+	 *
+	 * @return
+	 */
+	static boolean isAvailable() {
+		return FACTORY != null;
+	}
+
+	/**
+	 * 开始一个事件
+	 *
+	 * @param stage
+	 * @param key
+	 * @return JFR没有记录该事件时返回null
+	 * @throws Throwable
+	 */
+	static Object start(String stage, String key) throws Throwable {
+		Object event = NEW_EVENT.invoke(FACTORY);
+		if (!(boolean) IS_ENABLED.invoke(event)) {
+			return null;
+		}
+		SET.invoke(event, STAGE, stage);
+		SET.invoke(event, KEY, key);
+		BEGIN.invoke(event);
+		return event;
+	}
+
+	/**
+	 * 结束并提交事件
+	 *
+	 * @param event
+	 * @param succeeded
+	 * @throws Throwable
+	 */
+	static void stop(Object event, boolean succeeded) throws Throwable {
+		END.invoke(event);
+		if ((boolean) SHOULD_COMMIT.invoke(event)) {
+			SET.invoke(event, SUCCEEDED, succeeded);
+			COMMIT.invoke(event);
+		}
+	}
+
+	/**
+	 * 创建jdk.jfr中的注解
+	 *
+	 * @param name
+	 *          jdk.jfr中注解的简单类名
+	 * @param value
+	 *          注解的值
+	 * @return jdk.jfr.AnnotationElement
+	 * @throws Exception
+	 */
+	private static Object annotation(String name, Object value) throws Exception {
+		Class<?> type = Class.forName("jdk.jfr." + name);
+		return Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class).newInstance(type, value);
+	}
+
+	/**
+	 * 创建事件的字段
+	 *
+	 * @param type
+	 *          字段的类型
+	 * @param name
+	 *          字段的名字
+	 * @param label
+	 *          字段的标签
+	 * @return jdk.jfr.ValueDescriptor
+	 * @throws Exception
+	 */
+	private static Object field(Class<?> type, String name, String label) throws Exception {
+		return Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class).newInstance(type, name,
+				Collections.singletonList(annotation("Label", label)));
+	}
+
+}
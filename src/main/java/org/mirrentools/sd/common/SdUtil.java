@@ -1,12 +1,11 @@
 package org.mirrentools.sd.common;
 
-import static org.hamcrest.CoreMatchers.both;
-
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.mirrentools.sd.models.SdTemplate;
+
 /**
  * 字符串工具
  * 
@@ -14,9 +13,6 @@ import java.util.List;
  *
  */
 public class SdUtil {
-	/** 指定字符串替换为下划线的默认值 */
-	private static final String[] DEFAULT_REPLACE_REPS = {" ", "-"};
-
 	/**
 	 * 获取用户项目根目录
 	 * 
@@ -27,70 +23,104 @@ public class SdUtil {
 	}
 
 	/**
-	 * 将字符串转换为连字符命名
+	 * 获取模板生成文件相对于项目路径的路径,既:源码目录/包名/类名
+	 * 
+	 * @param template
+	 * @return
+	 */
+	public static String toOutputPath(SdTemplate template) {
+		StringBuilder sb = new StringBuilder();
+		if (!isNullOrEmpty(template.getSourceFolder())) {
+			sb.append(template.getSourceFolder().replace('\\', '/'));
+		}
+		if (!isNullOrEmpty(template.getPackageName())) {
+			if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '/') {
+				sb.append('/');
+			}
+			sb.append(template.getPackageName().replace('.', '/'));
+		}
+		if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '/') {
+			sb.append('/');
+		}
+		sb.append(template.getClassName());
+		return sb.toString();
+	}
+
+	/**
+	 * 将字符串转换为连字符命名,比如userName → user-name
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toHyphenCase(String str) {
-
-		return null;
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "-", SdNaming.LOWER, SdNaming.LOWER) : names.getHyphenCase();
 	}
 	/**
-	 * 将字符串转换为连字符命名
+	 * 将字符串转换为大写的连字符命名,比如userName → USER-NAME
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toUpperHyphenCase(String str) {
-
-		return toHyphenCase(str).toUpperCase();
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "-", SdNaming.UPPER, SdNaming.UPPER) : names.getUpperHyphenCase();
 	}
 	/**
-	 * 将字符串转换为下划线命名
+	 * 将字符串转换为下划线命名,比如userName → user_name
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toUnderScoreCase(String str) {
-
-		return null;
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "_", SdNaming.LOWER, SdNaming.LOWER) : names.getUnderScoreCase();
 	}
 	/**
-	 * 将字符串转换为下划线命名
+	 * 将字符串转换为大写的下划线命名,比如userName → USER_NAME
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toUpperUnderScoreCase(String str) {
-		return toUnderScoreCase(str).toUpperCase();
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "_", SdNaming.UPPER, SdNaming.UPPER) : names.getUpperUnderScoreCase();
 	}
 
 	/**
-	 * 将字符串转换成帕斯卡命名规范
+	 * 将字符串转换成帕斯卡命名规范,比如user_name → UserName
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toPascalCase(String str) {
-
-		return str;
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "", SdNaming.CAPITALIZE, SdNaming.CAPITALIZE) : names.getPascalCase();
 	}
 
 	/**
-	 * 将字符串转换成驼峰命名规范
+	 * 将字符串转换成驼峰命名规范,比如user_name → userName
 	 * 
 	 * @param str
 	 * @return
 	 */
 	public static String toCamelCase(String str) {
-		String underScore = replaceToUnderScore(str, DEFAULT_REPLACE_REPS);
-		String[] split = underScore.split("_");
-		StringBuilder sb = new StringBuilder(split[0]);
-		for (int i = 1; i < split.length; i++) {
-			sb.append(firstToUpperCase(split[i]));
+		SdNamingCache.Names names = names(str);
+		return names == null ? SdNaming.format(str, "", SdNaming.LOWER, SdNaming.CAPITALIZE) : names.getCamelCase();
+	}
+
+	/**
+	 * 从命名缓存中获取名字的所有命名形式
+	 * 
+	 * @param str
+	 * @return str为null或者没有开启缓存时返回null
+	 */
+	private static SdNamingCache.Names names(String str) {
+		SdNamingCache cache = SdNamingCache.getInstance();
+		if (str == null || cache.getMaxSize() == 0) {
+			return null;
 		}
-		return sb.toString();
+		return cache.get(str);
 	}
 
 	/**
@@ -100,14 +130,11 @@ public class SdUtil {
 	 * @return
 	 */
 	public static String firstToUpperCase(String str) {
-		if (str != null && str.length() > 0) {
-			char[] s = str.toCharArray();
-			if (s[0] >= 97 && s[0] <= 122) {
-				s[0] -= 32;
-				return String.valueOf(s);
-			}
+		SdNamingCache.Names names = names(str);
+		if (names != null) {
+			return names.getFirstUpperCase();
 		}
-		return str;
+		return SdNamingCache.firstToUpperCase(str);
 	}
 
 	/**
@@ -136,40 +163,7 @@ public class SdUtil {
 	 * @return
 	 */
 	public static String replaceToUnderScore(String str, String... reps) {
-		for (String r : reps) {
-			str = str.replace(r, "_");
-		}
-		StringBuilder sb = new StringBuilder();
-		int i = 0;
-		while (i < str.length()) {
-			if (isLetters(str.charAt(i))) {
-				break;
-			}
-			if ('_' != str.charAt(i)) {
-				sb.append(str.charAt(i));
-			}
-			i++;
-		}
-		boolean first = true;
-		for (; i < str.length(); i++) {
-			char c = str.charAt(i);
-			if (!first && (isUpper(c) != isUpper(str.charAt(i - 1)) || isLower(c) != isLower(str.charAt(i - 1)))) {
-				sb.append("_");
-				sb.append(c);
-			} else {
-				sb.append(c);
-			}
-			first = false;
-		}
-		String temp = sb.toString().replaceAll("_+", "_").toLowerCase().trim();
-		int startWith = 0;
-		while (startWith < temp.length()) {
-			if (temp.charAt(startWith) != '_') {
-				break;
-			}
-			startWith++;
-		}
-		return temp.substring(startWith);
+		return toUnderScoreCase(replaceWords(str, "_", reps));
 	}
 	/**
 	 * 将字符串大小写字母按词拆分,并将其连接成新的字符串
@@ -183,34 +177,36 @@ public class SdUtil {
 	 * @return
 	 */
 	public static String splitJoin(String str, String join, String... excludes) {
-		for (String r : excludes) {
-			str = str.replace(r, "");
+		return SdNaming.format(replaceWords(str, "", excludes), join == null ? "" : join, SdNaming.LOWER, SdNaming.LOWER);
+	}
+
+	/**
+	 * 替换字符串中的词语,单个的分隔符字符本来就会被分词器当作分隔符,所以不需要替换
+	 * 
+	 * @param str
+	 *          字符串
+	 * @param replacement
+	 *          替换为
+	 * @param words
+	 *          需要替换的词语
+	 * @return
+	 */
+	private static String replaceWords(String str, String replacement, String... words) {
+		if (str == null || words == null) {
+			return str;
 		}
-		//TODO 完善工具分词
-		List<String> items = new ArrayList<String>();
-		int i = 0;
-		while (i < str.length()) {
-			StringBuilder word = new StringBuilder();
-			char c = str.charAt(i);
-			word.append(c);
-			i++;
-			if (isLetters(c)) {
-				while (i < str.length()) {
-					char next = str.charAt(i);
-					if (isLetters(next)) {
-						if (isLower(next) != isLower(c)) {
-							break;
-						}
-						c = next;
-						word.append(c);
-						i++;
-					}
-				}
+		for (String word : words) {
+			if (word == null || word.isEmpty()) {
+				continue;
 			}
-			items.add(word.toString());
+			if (word.length() == 1 && !Character.isLetterOrDigit(word.charAt(0)) && !replacement.isEmpty()) {
+				continue;
+			}
+			str = str.replace(word, replacement);
 		}
-		return magre(join, items).replaceAll(join + "+", join).toLowerCase();
+		return str;
 	}
+
 	/**
 	 * 判断字符是否为英文中的26大小写字母
 	 * 
@@ -1,5 +1,6 @@
 package org.mirrentools.sd.converter;
 
+import org.mirrentools.sd.common.SdRelationalGraph;
 import org.mirrentools.sd.models.SdBean;
 import org.mirrentools.sd.models.SdClassContent;
 
@@ -17,4 +18,17 @@ public interface SdBeanConverterToClass {
 	 * @return
 	 */
 	SdClassContent converter(SdBean bean);
+
+	/**
+	 * 使用关系图转换属性,关联实体需要通过关系图的{@link SdRelationalGraph.Memo}获取,每个实体只转换一次,<br>
+	 * 默认忽略关系图
+	 * 
+	 * @param bean
+	 * @param graph
+	 *          本次生成的实体关系图
+	 * @return
+	 */
+	default SdClassContent converter(SdBean bean, SdRelationalGraph graph) {
+		return converter(bean);
+	}
 }
@@ -6,7 +6,9 @@ import org.mirrentools.sd.models.SdClassContent;
 import org.mirrentools.sd.models.SdTemplate;
 
 /**
- * 将实体属性与模板属性转换为模板所需要的材料
+ * 将实体属性与模板属性转换为模板所需要的材料,<br>
+ * 每个实体只转换一次,转换结果由所有模板共享,所以转换结果不应该包含只属于某个模板的数据;<br>
+ * 需要模板自己的数据时返回{@link org.mirrentools.sd.models.SdTemplateContent},生成每个模板时会叠加该模板的模板层
  * 
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
@@ -0,0 +1,25 @@
+package org.mirrentools.sd.converter;
+
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+
+/**
+ * 将数据库中已经存在的表转换为SdBean,与{@link SdBeanConverterToTableContent}方向相反
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public interface SdTableConverterToBean {
+
+	/**
+	 * 转换属性
+	 *
+	 * @param schema
+	 *          至少包含该表的模式属性
+	 * @param tableName
+	 *          表名
+	 * @return 模式属性中不存在该表时返回null
+	 */
+	SdBean converter(SchemaAttribute schema, String tableName);
+
+}
@@ -0,0 +1,316 @@
+package org.mirrentools.sd.converter.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdObjectInputStream;
+import org.mirrentools.sd.common.SdRelationalGraph;
+import org.mirrentools.sd.converter.SdBeanConverterToClass;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+
+/**
+ * 带缓存的SdBean转换器,包装其他转换器,<br>
+ * 以SdBean的结构指纹(包括列属性、关系属性与拓展属性)为key缓存转换结果,实体没有修改时不再重复转换,<br>
+ * 缓存有数量上限,超过上限时移除最久没有使用的结果;设置了缓存文件时可以保存到磁盘,下次启动时加载,<br>
+ * 缓存文件记录了转换器的标识(类名与版本),转换器或者版本改变后不加载旧的缓存文件,读取时只允许反序列化模型类,<br>
+ * 缓存的结果会被多次返回甚至同时交给多个线程,所以缓存前先冻结({@link SdClassContent#freeze()}),<br>
+ * 默认每次返回冻结结果的复制({@link SdClassContent#copy()}),调用者可以像使用原转换器一样修改转换结果;<br>
+ * 调用者不修改转换结果时可以{@link #setShared(boolean)}直接返回共享的冻结结果,省去复制,此时修改转换结果抛出UnsupportedOperationException
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBeanConverterToClassImplByCache implements SdBeanConverterToClass {
+	/** 默认缓存的最大数量 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+	/** 缓存文件中允许反序列化的类所在的包 */
+	private static final String MODEL_PACKAGE = "org.mirrentools.sd.models.";
+	/** JUL日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
+
+	/** 实际执行转换的转换器 */
+	private final SdBeanConverterToClass converter;
+	/** 缓存的最大数量 */
+	private final int maxSize;
+	/** 缓存文件,为null时不保存到磁盘 */
+	private final File file;
+	/** 转换器的标识,包括类名与版本,与缓存文件中记录的不一致时不加载缓存文件 */
+	private final String identity;
+	/** 缓存,key为实体指纹,按访问顺序排序 */
+	private final LinkedHashMap<String, SdClassContent> cache;
+	/** 命中次数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** 未命中次数 */
+	private final AtomicLong missCount = new AtomicLong();
+	/** 是否直接返回共享的冻结结果,false时返回可以修改的复制 */
+	private volatile boolean shared;
+
+	/**
+	 * 使用默认的缓存数量初始化,不保存到磁盘
+	 *
+	 * @param converter
+	 *          实际执行转换的转换器
+	 */
+	public SdBeanConverterToClassImplByCache(SdBeanConverterToClass converter) {
+		this(converter, DEFAULT_MAX_SIZE, null);
+	}
+
+	/**
+	 * 初始化,如果缓存文件存在并且是同一个转换器保存的则加载缓存文件,<br>
+	 * 转换器的版本为转换器类文件的指纹,所以转换器的代码修改后旧的缓存文件失效
+	 *
+	 * @param converter
+	 *          实际执行转换的转换器
+	 * @param maxSize
+	 *          缓存的最大数量
+	 * @param file
+	 *          缓存文件,为null时不保存到磁盘
+	 */
+	public SdBeanConverterToClassImplByCache(SdBeanConverterToClass converter, int maxSize, File file) {
+		this(converter, maxSize, file, null);
+	}
+
+	/**
+	 * 初始化,如果缓存文件存在并且是同一个转换器与版本保存的则加载缓存文件
+	 *
+	 * @param converter
+	 *          实际执行转换的转换器
+	 * @param maxSize
+	 *          缓存的最大数量
+	 * @param file
+	 *          缓存文件,为null时不保存到磁盘
+	 * @param version
+	 *          转换器的版本,转换器的配置影响转换结果时需要包括配置,为null时使用转换器类文件的指纹
+	 */
+	public SdBeanConverterToClassImplByCache(SdBeanConverterToClass converter, int maxSize, File file, String version) {
+		super();
+		if (converter == null) {
+			throw new NullPointerException("转换器不能为空");
+		}
+		this.converter = converter;
+		this.maxSize = Math.max(1, maxSize);
+		this.file = file;
+		this.identity = converter.getClass().getName() + '@' + (version == null ? version(converter.getClass()) : version);
+		this.cache = new LinkedHashMap<String, SdClassContent>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SdClassContent> eldest) {
+				return size() > SdBeanConverterToClassImplByCache.this.maxSize;
+			}
+		};
+		load();
+	}
+
+	@Override
+	public SdClassContent converter(SdBean bean) {
+		return converter(bean, null);
+	}
+
+	@Override
+	public SdClassContent converter(SdBean bean, SdRelationalGraph graph) {
+		String key = SdFingerprint.of(bean);
+		synchronized (cache) {
+			SdClassContent result = cache.get(key);
+			if (result != null) {
+				hitCount.incrementAndGet();
+				return shared ? result : result.copy();
+			}
+		}
+		missCount.incrementAndGet();
+		SdClassContent result = graph == null ? converter.converter(bean) : converter.converter(bean, graph);
+		if (result != null) {
+			result = result.freeze();
+			synchronized (cache) {
+				cache.put(key, result);
+			}
+			if (!shared) {
+				result = result.copy();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取类的版本,既类文件内容的指纹
+	 *
+	 * @param clazz
+	 * @return 无法读取类文件(例如lambda)时返回类加载器的标识,既只在同一次运行中有效
+	 */
+	private static String version(Class<?> clazz) {
+		InputStream in = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+		if (in != null) {
+			try {
+				try {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					int len;
+					while ((len = in.read(buffer)) != -1) {
+						out.write(buffer, 0, len);
+					}
+					return SdFingerprint.of(out.toByteArray());
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				// 读取失败时使用类加载器的标识
+			}
+		}
+		return "runtime-" + System.identityHashCode(clazz);
+	}
+
+	/**
+	 * 加载缓存文件,文件不存在,无法读取或者不是同一个转换器保存的时忽略
+	 */
+	@SuppressWarnings("unchecked")
+	private void load() {
+		if (file == null || !file.isFile()) {
+			return;
+		}
+		try {
+			ObjectInputStream in = new SdObjectInputStream(new BufferedInputStream(new FileInputStream(file)), MODEL_PACKAGE);
+			try {
+				String saved = in.readUTF();
+				if (!identity.equals(saved)) {
+					LOG.info(String.format("转换缓存文件由%s保存,当前转换器为%s,将重新转换", saved, identity));
+					return;
+				}
+				Map<String, SdClassContent> entries = (Map<String, SdClassContent>) in.readObject();
+				// 冻结状态不会被序列化,加载后重新冻结
+				synchronized (cache) {
+					for (Map.Entry<String, SdClassContent> entry : entries.entrySet()) {
+						cache.put(entry.getKey(), entry.getValue().freeze());
+					}
+				}
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			LOG.log(Level.WARNING, "读取转换缓存文件失败,将重新转换:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 将缓存保存到缓存文件,没有设置缓存文件时不做任何处理,<br>
+	 * 拓展属性中的值需要可以序列化,否则保存失败
+	 *
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+		if (file == null) {
+			return;
+		}
+		LinkedHashMap<String, SdClassContent> entries;
+		synchronized (cache) {
+			entries = new LinkedHashMap<String, SdClassContent>(cache);
+		}
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			out.writeUTF(identity);
+			out.writeObject(entries);
+		} finally {
+			out.close();
+		}
+		if (file.exists() && !file.delete() || !temp.renameTo(file)) {
+			throw new IOException("无法保存转换缓存文件:" + file);
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * 获取缓存的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 获取未命中次数
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 是否直接返回共享的冻结结果
+	 *
+	 * @return
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * 设置是否直接返回共享的冻结结果,默认为false,既每次返回可以修改的复制,<br>
+	 * 设置为true时省去复制,但是修改转换结果时抛出UnsupportedOperationException
+	 *
+	 * @param shared
+	 * @return
+	 */
+	public SdBeanConverterToClassImplByCache setShared(boolean shared) {
+		this.shared = shared;
+		return this;
+	}
+
+	/**
+	 * 获取转换器的标识,包括类名与版本
+	 *
+	 * @return
+	 */
+	public String getIdentity() {
+		return identity;
+	}
+
+	/**
+	 * 获取实际执行转换的转换器
+	 *
+	 * @return
+	 */
+	public SdBeanConverterToClass getConverter() {
+		return converter;
+	}
+
+}
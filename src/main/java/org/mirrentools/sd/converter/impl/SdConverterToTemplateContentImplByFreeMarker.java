@@ -1,17 +1,35 @@
 package org.mirrentools.sd.converter.impl;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.mirrentools.sd.converter.SdConverterToTemplateContent;
 import org.mirrentools.sd.models.SdClassContent;
 import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateContent;
 
+/**
+ * FreeMarker模板内容转换器,转换结果为分层的模板数据{@link SdTemplateContent},基础层为:<br>
+ * content = SdClassContent,templates = 模板集合;<br>
+ * 生成每个模板时再叠加该模板的template、packageName、className与attributes;<br>
+ * 模型本身直接放入结果,由SdObjectWrapper在模板访问时通过属性访问表包装,不需要复制也不需要反射
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
 public class SdConverterToTemplateContentImplByFreeMarker implements SdConverterToTemplateContent {
+	/** 模板中类属性的名字 */
+	public static final String CONTENT = "content";
+	/** 模板中模板集合的名字 */
+	public static final String TEMPLATES = "templates";
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T converter(SdClassContent bean, Map<String, SdTemplate> templates) {
-		// TODO Auto-generated method stub
-		return null;
+		Map<String, Object> result = new HashMap<String, Object>();
+		result.put(CONTENT, bean);
+		result.put(TEMPLATES, templates);
+		return (T) new SdTemplateContent(result);
 	}
 
 }
@@ -0,0 +1,161 @@
+package org.mirrentools.sd.converter.impl;
+
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mirrentools.sd.constant.MySQL;
+import org.mirrentools.sd.converter.SdTableConverterToBean;
+import org.mirrentools.sd.enums.Relational;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+import org.mirrentools.sd.models.db.query.TableAttribute;
+import org.mirrentools.sd.models.db.query.TableColumnAttribute;
+import org.mirrentools.sd.models.db.query.TableForeignKeyAttribute;
+import org.mirrentools.sd.models.db.query.TableIndexKeyAttribute;
+import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
+
+/**
+ * 将MySQL中已经存在的表转换为SdBean,只转换表相关的属性(列名/类型/长度/主键/索引等),类相关的属性由SdBeanConverterToClass转换;<br>
+ * 外键转换为关系属性,关系中的实体只包含被引用表的表名,外键的信息存放在关系的拓展属性中,<br>
+ * 这样每张表可以单独转换,不需要同时加载被引用的表
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTableConverterToBeanImplByMySQL implements SdTableConverterToBean {
+	/** 关系拓展属性:外键的名称 */
+	public static final String EXTENSION_FOREIGN_KEY = "foreignKey";
+	/** 关系拓展属性:外键的列名,多列时以逗号分隔 */
+	public static final String EXTENSION_COLUMNS = "columns";
+	/** 关系拓展属性:被引用的列名,多列时以逗号分隔 */
+	public static final String EXTENSION_REFERENCED_COLUMNS = "referencedColumns";
+	/** 需要长度的类型 */
+	private static final Set<String> LENGTH_TYPES = new HashSet<>();
+	static {
+		LENGTH_TYPES.add(MySQL.CHAR);
+		LENGTH_TYPES.add(MySQL.VARCHAR);
+		LENGTH_TYPES.add(MySQL.BINARY);
+		LENGTH_TYPES.add(MySQL.VARBINARY);
+		LENGTH_TYPES.add(MySQL.BIT);
+	}
+
+	@Override
+	public SdBean converter(SchemaAttribute schema, String tableName) {
+		TableAttribute table = schema.getTable(tableName);
+		if (table == null) {
+			return null;
+		}
+		SdBean bean = new SdBean().setName(tableName).setRemark(emptyToNull(table.getRemarks()));
+		Map<String, TablePrimaryKeyAttribute> primaryKeys = new HashMap<>();
+		for (TablePrimaryKeyAttribute key : schema.getPrimaryKeys(tableName)) {
+			primaryKeys.put(key.getColumnName(), key);
+		}
+		Map<String, TableIndexKeyAttribute> indexKeys = new HashMap<>();
+		for (TableIndexKeyAttribute key : schema.getIndexKeys(tableName)) {
+			if (key.getColumnName() == null || "PRIMARY".equals(key.getIndexName())) {
+				continue;
+			}
+			// 一列有多个索引时优先使用唯一索引
+			TableIndexKeyAttribute exist = indexKeys.get(key.getColumnName());
+			if (exist == null || exist.isNonUnique() && !key.isNonUnique()) {
+				indexKeys.put(key.getColumnName(), key);
+			}
+		}
+		for (TableColumnAttribute attribute : schema.getColumns(tableName)) {
+			SdColumn column = new SdColumn();
+			String typeName = attribute.getTypeName() == null ? "" : attribute.getTypeName().toLowerCase();
+			column.setUnsigned(typeName.endsWith(" unsigned"));
+			String type = typeName.replace(" unsigned", "");
+			column.setName(attribute.getColumnName()).setType(type).setLength(length(type, attribute));
+			column.setDefault(attribute.getColumnDef()).setRemark(emptyToNull(attribute.getRemarks()));
+			column.setNullable(attribute.getNullable() == DatabaseMetaData.columnNullable);
+			column.setAutoIncrement("YES".equalsIgnoreCase(attribute.getIsAutoincrement()));
+			TablePrimaryKeyAttribute primaryKey = primaryKeys.get(attribute.getColumnName());
+			if (primaryKey != null) {
+				column.setPrimary(true).setPrimaryName(primaryKey.getPkName());
+			}
+			TableIndexKeyAttribute indexKey = indexKeys.get(attribute.getColumnName());
+			if (indexKey != null) {
+				column.setIndex(true).setIndexName(indexKey.getIndexName()).setIndexType(indexKey.isNonUnique() ? "INDEX" : "UNIQUE");
+			}
+			bean.addColumn(column);
+		}
+		for (SdRelational relational : relationals(schema.getForeignKeys(tableName))) {
+			bean.addRelational(relational);
+		}
+		return bean;
+	}
+
+	/**
+	 * 将外键转换为关系,复合外键合并为一个关系,<br>
+	 * 引用同一张表多次时以外键约束的名字作为关系的名字,没有约束名字时使用"表名.外键列名",都不会与列名冲突
+	 *
+	 * @param foreignKeys
+	 * @return
+	 */
+	private List<SdRelational> relationals(List<TableForeignKeyAttribute> foreignKeys) {
+		Map<String, List<TableForeignKeyAttribute>> groups = new LinkedHashMap<>();
+		for (TableForeignKeyAttribute key : foreignKeys) {
+			String name = key.getFkName() == null ? key.getPktableName() + "." + key.getFkcolumnName() : key.getFkName();
+			groups.computeIfAbsent(name, k -> new ArrayList<>()).add(key);
+		}
+		List<SdRelational> result = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		for (List<TableForeignKeyAttribute> keys : groups.values()) {
+			keys.sort((a, b) -> Integer.compare(a.getKeySeq(), b.getKeySeq()));
+			TableForeignKeyAttribute first = keys.get(0);
+			StringBuilder columns = new StringBuilder();
+			StringBuilder referencedColumns = new StringBuilder();
+			for (TableForeignKeyAttribute key : keys) {
+				columns.append(columns.length() == 0 ? "" : ",").append(key.getFkcolumnName());
+				referencedColumns.append(referencedColumns.length() == 0 ? "" : ",").append(key.getPkcolumnName());
+			}
+			String name = first.getPktableName();
+			if (!names.add(name)) {
+				String base = first.getFkName() == null ? name + "." + columns : first.getFkName();
+				name = base;
+				for (int i = 2; !names.add(name); i++) {
+					name = base + "#" + i;
+				}
+			}
+			// 外键所在的表引用被引用的表,所以是多对一
+			SdRelational relational = new SdRelational().setType(Relational.ManyToOne.val).setName(name)
+					.setBean(new SdBean().setName(first.getPktableName()));
+			relational.addExtension(EXTENSION_FOREIGN_KEY, first.getFkName());
+			relational.addExtension(EXTENSION_COLUMNS, columns.toString());
+			relational.addExtension(EXTENSION_REFERENCED_COLUMNS, referencedColumns.toString());
+			result.add(relational);
+		}
+		return result;
+	}
+
+	/**
+	 * 获取列的长度,不需要长度的类型返回null
+	 *
+	 * @param type
+	 * @param attribute
+	 * @return
+	 */
+	private String length(String type, TableColumnAttribute attribute) {
+		if (MySQL.DECIMAL.equals(type) || MySQL.NUMERIC.equals(type)) {
+			return attribute.getColumnSize() + "," + attribute.getDecimalDigits();
+		}
+		if (LENGTH_TYPES.contains(type) && attribute.getColumnSize() > 0) {
+			return Integer.toString(attribute.getColumnSize());
+		}
+		return null;
+	}
+
+	private String emptyToNull(String str) {
+		return str == null || str.isEmpty() ? null : str;
+	}
+
+}
@@ -1,21 +1,53 @@
 package org.mirrentools.sd.dbutil;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdExecutorUtil;
+import org.mirrentools.sd.common.SdMetrics;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+import org.mirrentools.sd.models.db.query.TableAttribute;
+import org.mirrentools.sd.models.db.query.TableColumnAttribute;
+import org.mirrentools.sd.models.db.query.TableForeignKeyAttribute;
+import org.mirrentools.sd.models.db.query.TableIndexKeyAttribute;
+import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
 import org.mirrentools.sd.models.db.update.AbstractDatabaseContent;
 import org.mirrentools.sd.options.SdDatabaseOptions;
 
 /**
  * 数据库操作相关的工具接口的抽象类,默认以MySQL为基准的实现,<br>
- * 如果其他数据库或不兼容可以继承该类并重写相应的方法
+ * 如果其他数据库或不兼容可以继承该类并重写相应的方法;<br>
+ * 配置的最大连接数量大于0时使用内置的连接池{@link SdConnectionPool},不再使用时需要调用{@link #close()}关闭连接池;<br>
+ * 按表并行获取属性时使用同一个线程池,线程空闲一段时间后自动结束
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
 public abstract class AbstractSdDbUtil implements SdDbUtil {
+	/** 日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
 	/** 数据库配置 */
 	private SdDatabaseOptions config;
+	/** 连接池,第一次获取连接时创建 */
+	private volatile SdConnectionPool pool;
+	/** 按表并行获取属性的线程池,第一次使用时创建 */
+	private volatile ExecutorService introspectExecutor;
 
 	/**
 	 * 初始化一个默认的数据库管理实现类
@@ -32,19 +64,81 @@ public abstract class AbstractSdDbUtil implements SdDbUtil {
 
 	@Override
 	public Connection getConnection(SdDatabaseOptions config) throws Exception {
-		DriverManager.setLoginTimeout(config.getLoginTimeout());
-		Class.forName(config.getDriverClass());
-		return DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_CONNECTION, null);
+		try {
+			SdConnectionPool pool = config == this.config ? getPool() : null;
+			Connection connection = pool == null ? SdConnectionPool.connect(config) : pool.getConnection();
+			timer.stop();
+			return connection;
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * 获取连接池,第一次获取时创建
+	 * 
+	 * @return 最大连接数量为0时返回null
+	 */
+	public SdConnectionPool getPool() {
+		if (config.getMaxPoolSize() <= 0) {
+			return null;
+		}
+		SdConnectionPool result = pool;
+		if (result == null || result.isClosed()) {
+			synchronized (this) {
+				result = pool;
+				if (result == null || result.isClosed()) {
+					result = pool = new SdConnectionPool(config);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取按表并行获取属性的线程池,第一次获取时创建
+	 *
+	 * @return
+	 */
+	private ExecutorService getIntrospectExecutor() {
+		ExecutorService result = introspectExecutor;
+		if (result == null || result.isShutdown()) {
+			synchronized (this) {
+				result = introspectExecutor;
+				if (result == null || result.isShutdown()) {
+					result = introspectExecutor = SdExecutorUtil.newBoundedExecutor("sd-introspect", config.getIntrospectParallelism());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 关闭连接池与线程池,之后再获取连接时创建新的连接池
+	 */
+	public void close() {
+		SdConnectionPool result = pool;
+		if (result != null) {
+			result.close();
+		}
+		ExecutorService executor = introspectExecutor;
+		if (executor != null) {
+			executor.shutdown();
+		}
 	}
 
 	@Override
 	public boolean createDatabase(AbstractDatabaseContent content) throws Exception {
 		int result = 0;
 		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "createDatabase");
 		try {
 			result = connection.createStatement().executeUpdate(content.createSQL());
+			timer.stop();
 		} catch (Exception e) {
-
+			timer.stop(false);
 			throw e;
 		} finally {
 			if (connection != null) {
@@ -58,9 +152,12 @@ public abstract class AbstractSdDbUtil implements SdDbUtil {
 	public boolean updateDatabase(AbstractDatabaseContent content) throws Exception {
 		int result = 0;
 		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "updateDatabase");
 		try {
 			result = connection.createStatement().executeUpdate(content.updateSQL());
+			timer.stop();
 		} catch (Exception e) {
+			timer.stop(false);
 			throw e;
 		} finally {
 			if (connection != null) {
@@ -70,4 +167,394 @@ public abstract class AbstractSdDbUtil implements SdDbUtil {
 		return result == 1;
 	}
 
+	/**
+	 * 使用DatabaseMetaData获取当前数据库模式的属性,表与列使用通配符一次读取,<br>
+	 * 主键/索引/外键的元数据接口需要指定表名,所以按表读取;数据库支持集合查询时子类应该重写该方法
+	 */
+	@Override
+	public SchemaAttribute getSchemaAttribute() throws Exception {
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getSchemaAttribute");
+		try {
+			String catalog = connection.getCatalog();
+			SchemaAttribute result = new SchemaAttribute(catalog);
+			DatabaseMetaData md = connection.getMetaData();
+			try (ResultSet rs = md.getTables(catalog, null, "%", new String[] { "TABLE" })) {
+				while (rs.next()) {
+					result.addTable(readTableAttribute(rs));
+				}
+			}
+			try (ResultSet rs = md.getColumns(catalog, null, "%", "%")) {
+				while (rs.next()) {
+					TableColumnAttribute column = readTableColumnAttribute(rs);
+					if (result.getTable(column.getTableName()) != null) {
+						result.addColumn(column);
+					}
+				}
+			}
+			for (String tableName : result.getTableNames()) {
+				readTableKeys(md, catalog, tableName, result);
+			}
+			timer.stop();
+			return result;
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			if (connection != null) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * 按表并行获取属性:每个并发占用一个连接,从共享的队列中取表,<br>
+	 * 失败的表放回队列末尾并换一个新的连接重试,超过重试次数后在全部完成时抛出异常
+	 */
+	@Override
+	public SchemaAttribute getSchemaAttribute(List<String> tableNames) throws Exception {
+		List<String> names = new ArrayList<>(new LinkedHashSet<>(tableNames == null ? getTableNames() : tableNames));
+		SchemaAttribute result = new SchemaAttribute();
+		if (names.isEmpty()) {
+			return result;
+		}
+		int parallelism = Math.max(1, Math.min(config.getIntrospectParallelism(), names.size()));
+		if (config.getMaxPoolSize() > 0) {
+			parallelism = Math.min(parallelism, config.getMaxPoolSize());
+		}
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getSchemaAttributeByTable");
+		Introspection introspection = new Introspection(names);
+		ExecutorService executor = getIntrospectExecutor();
+		List<Future<?>> workers = new ArrayList<>(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			workers.add(executor.submit(introspection::work));
+		}
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (ExecutionException e) {
+				timer.stop(false);
+				throw new SdException("按表获取属性失败", e.getCause());
+			}
+		}
+		for (String tableName : names) {
+			SchemaAttribute table = introspection.results.get(tableName);
+			if (table != null) {
+				result.merge(table);
+			}
+		}
+		if (!introspection.failures.isEmpty()) {
+			timer.stop(false);
+			SdException exception = null;
+			for (Exception e : introspection.failures.values()) {
+				if (exception == null) {
+					exception = new SdException("按表获取属性失败,表:" + introspection.failures.keySet(), e);
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+			throw exception;
+		}
+		timer.stop();
+		return result;
+	}
+
+	/**
+	 * 通用的元数据接口没有低成本获取表结构版本的方式,默认返回null,数据库支持时子类应该重写该方法
+	 */
+	@Override
+	public Map<String, String> getTableVersions() throws Exception {
+		return null;
+	}
+
+	/**
+	 * 使用指定的连接获取一张表的表/列/主键/索引/外键属性
+	 * 
+	 * @param connection
+	 * @param tableName
+	 * @return 表不存在时返回不包含表的属性
+	 * @throws SQLException
+	 */
+	protected SchemaAttribute getSchemaAttribute(Connection connection, String tableName) throws SQLException {
+		String catalog = connection.getCatalog();
+		SchemaAttribute result = new SchemaAttribute(catalog);
+		DatabaseMetaData md = connection.getMetaData();
+		// 表名作为模式匹配,下划线可能匹配到其他表,所以需要比较表名
+		try (ResultSet rs = md.getTables(catalog, null, tableName, new String[] { "TABLE" })) {
+			while (rs.next()) {
+				TableAttribute table = readTableAttribute(rs);
+				if (tableName.equals(table.getTableName())) {
+					result.addTable(table);
+				}
+			}
+		}
+		if (result.getTable(tableName) == null) {
+			return result;
+		}
+		try (ResultSet rs = md.getColumns(catalog, null, tableName, "%")) {
+			while (rs.next()) {
+				TableColumnAttribute column = readTableColumnAttribute(rs);
+				if (tableName.equals(column.getTableName())) {
+					result.addColumn(column);
+				}
+			}
+		}
+		readTableKeys(md, catalog, tableName, result);
+		return result;
+	}
+
+	/**
+	 * 读取指定表的主键/索引/外键属性,复合主键按主键中的序列号排序
+	 * 
+	 * @param md
+	 * @param catalog
+	 * @param tableName
+	 * @param result
+	 * @throws SQLException
+	 */
+	protected void readTableKeys(DatabaseMetaData md, String catalog, String tableName, SchemaAttribute result) throws SQLException {
+		List<TablePrimaryKeyAttribute> keys = new ArrayList<>();
+		try (ResultSet rs = md.getPrimaryKeys(catalog, null, tableName)) {
+			while (rs.next()) {
+				keys.add(readTablePrimaryKeyAttribute(rs));
+			}
+		}
+		keys.sort((a, b) -> Integer.compare(a.getKeySeq(), b.getKeySeq()));
+		keys.forEach(result::addPrimaryKey);
+		try (ResultSet rs = md.getIndexInfo(catalog, null, tableName, false, true)) {
+			while (rs.next()) {
+				result.addIndexKey(readTableIndexKeyAttribute(rs));
+			}
+		}
+		try (ResultSet rs = md.getImportedKeys(catalog, null, tableName)) {
+			while (rs.next()) {
+				result.addForeignKey(readTableForeignKeyAttribute(rs));
+			}
+		}
+	}
+
+	/**
+	 * 读取DatabaseMetaData.getTables结果的当前行
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected TableAttribute readTableAttribute(ResultSet rs) throws SQLException {
+		TableAttribute result = new TableAttribute();
+		result.setTableCat(rs.getString("TABLE_CAT"));
+		result.setTableSchem(rs.getString("TABLE_SCHEM"));
+		result.setTableName(rs.getString("TABLE_NAME"));
+		result.setTableType(rs.getString("TABLE_TYPE"));
+		result.setRemarks(rs.getString("REMARKS"));
+		result.setTypeCat(rs.getString("TYPE_CAT"));
+		result.setTypeSchem(rs.getString("TYPE_SCHEM"));
+		result.setTypeName(rs.getString("TYPE_NAME"));
+		result.setSelfReferencingColName(rs.getString("SELF_REFERENCING_COL_NAME"));
+		result.setRefGeneration(rs.getString("REF_GENERATION"));
+		return result;
+	}
+
+	/**
+	 * 读取DatabaseMetaData.getColumns结果的当前行
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected TableColumnAttribute readTableColumnAttribute(ResultSet rs) throws SQLException {
+		TableColumnAttribute result = new TableColumnAttribute();
+		result.setTableCat(rs.getString("TABLE_CAT"));
+		result.setTableSchem(rs.getString("TABLE_SCHEM"));
+		result.setTableName(rs.getString("TABLE_NAME"));
+		result.setColumnName(rs.getString("COLUMN_NAME"));
+		result.setDataType(rs.getInt("DATA_TYPE"));
+		result.setTypeName(rs.getString("TYPE_NAME"));
+		result.setColumnSize(rs.getInt("COLUMN_SIZE"));
+		result.setDecimalDigits(rs.getInt("DECIMAL_DIGITS"));
+		result.setNumPrecRadix(rs.getInt("NUM_PREC_RADIX"));
+		result.setNullable(rs.getInt("NULLABLE"));
+		result.setRemarks(rs.getString("REMARKS"));
+		result.setColumnDef(rs.getString("COLUMN_DEF"));
+		result.setCharOctetLength(rs.getInt("CHAR_OCTET_LENGTH"));
+		result.setOrdinalPosition(rs.getInt("ORDINAL_POSITION"));
+		result.setIsNullable(rs.getString("IS_NULLABLE"));
+		result.setIsAutoincrement(rs.getString("IS_AUTOINCREMENT"));
+		result.setIsGeneratedcolumn(rs.getString("IS_GENERATEDCOLUMN"));
+		return result;
+	}
+
+	/**
+	 * 读取DatabaseMetaData.getPrimaryKeys结果的当前行
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected TablePrimaryKeyAttribute readTablePrimaryKeyAttribute(ResultSet rs) throws SQLException {
+		TablePrimaryKeyAttribute result = new TablePrimaryKeyAttribute();
+		result.setTableCat(rs.getString("TABLE_CAT"));
+		result.setTableSchem(rs.getString("TABLE_SCHEM"));
+		result.setTableName(rs.getString("TABLE_NAME"));
+		result.setColumnName(rs.getString("COLUMN_NAME"));
+		result.setKeySeq(rs.getInt("KEY_SEQ"));
+		result.setPkName(rs.getString("PK_NAME"));
+		return result;
+	}
+
+	/**
+	 * 读取DatabaseMetaData.getIndexInfo结果的当前行
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected TableIndexKeyAttribute readTableIndexKeyAttribute(ResultSet rs) throws SQLException {
+		TableIndexKeyAttribute result = new TableIndexKeyAttribute();
+		result.setTableCat(rs.getString("TABLE_CAT"));
+		result.setTableSchem(rs.getString("TABLE_SCHEM"));
+		result.setTableName(rs.getString("TABLE_NAME"));
+		result.setNonUnique(rs.getBoolean("NON_UNIQUE"));
+		result.setIndexQualifier(rs.getString("INDEX_QUALIFIER"));
+		result.setIndexName(rs.getString("INDEX_NAME"));
+		result.setType(rs.getInt("TYPE"));
+		result.setOrdinalPosition(rs.getInt("ORDINAL_POSITION"));
+		result.setColumnName(rs.getString("COLUMN_NAME"));
+		result.setAscOrDesc(rs.getString("ASC_OR_DESC"));
+		result.setCardinality(rs.getLong("CARDINALITY"));
+		result.setPages(rs.getLong("PAGES"));
+		result.setFilterCondition(rs.getString("FILTER_CONDITION"));
+		return result;
+	}
+
+	/**
+	 * 读取DatabaseMetaData.getImportedKeys结果的当前行
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected TableForeignKeyAttribute readTableForeignKeyAttribute(ResultSet rs) throws SQLException {
+		TableForeignKeyAttribute result = new TableForeignKeyAttribute();
+		result.setPktableCat(rs.getString("PKTABLE_CAT"));
+		result.setPktableSchem(rs.getString("PKTABLE_SCHEM"));
+		result.setPktableName(rs.getString("PKTABLE_NAME"));
+		result.setPkcolumnName(rs.getString("PKCOLUMN_NAME"));
+		result.setFktableCat(rs.getString("FKTABLE_CAT"));
+		result.setFktableSchem(rs.getString("FKTABLE_SCHEM"));
+		result.setFktableName(rs.getString("FKTABLE_NAME"));
+		result.setFkcolumnName(rs.getString("FKCOLUMN_NAME"));
+		result.setKeySeq(rs.getInt("KEY_SEQ"));
+		result.setUpdateRule(rs.getInt("UPDATE_RULE"));
+		result.setDeleteRule(rs.getInt("DELETE_RULE"));
+		result.setFkName(rs.getString("FK_NAME"));
+		result.setPkName(rs.getString("PK_NAME"));
+		result.setDeferrability(rs.getInt("DEFERRABILITY"));
+		return result;
+	}
+
+	/**
+	 * 一次按表并行获取属性的状态
+	 */
+	private class Introspection {
+		/** 待获取的表 */
+		private final Queue<String> queue;
+		/** 表的失败次数 */
+		private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+		/** 获取成功的表 */
+		private final Map<String, SchemaAttribute> results = new ConcurrentHashMap<>();
+		/** 超过重试次数的表 */
+		private final Map<String, Exception> failures = new ConcurrentHashMap<>();
+
+		Introspection(List<String> tableNames) {
+			this.queue = new ConcurrentLinkedQueue<>(tableNames);
+		}
+
+		/**
+		 * 一个并发的工作:持有一个连接直到队列为空,失败时丢弃连接,下一张表使用新的连接
+		 */
+		void work() {
+			Connection connection = null;
+			try {
+				String tableName;
+				while ((tableName = queue.poll()) != null) {
+					try {
+						if (connection == null) {
+							connection = open();
+						}
+						results.put(tableName, getSchemaAttribute(connection, tableName));
+					} catch (Exception e) {
+						abort(connection);
+						connection = null;
+						if (attempts.merge(tableName, 1, Integer::sum) > config.getIntrospectRetries()) {
+							failures.put(tableName, e);
+						} else {
+							LOG.log(Level.FINE, "获取表属性失败,稍后重试:" + tableName, e);
+							queue.add(tableName);
+						}
+					}
+				}
+			} finally {
+				close(connection);
+			}
+		}
+
+		/**
+		 * 获取连接并设置单次查询的超时时间
+		 */
+		private Connection open() throws Exception {
+			Connection connection = getConnection();
+			if (config.getQueryTimeout() > 0) {
+				try {
+					connection.setNetworkTimeout(Runnable::run, (int) Math.min(Integer.MAX_VALUE, config.getQueryTimeout()));
+				} catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+					LOG.log(Level.FINE, "驱动不支持设置查询的超时时间", e);
+				} catch (Exception e) {
+					connection.close();
+					throw e;
+				}
+			}
+			return connection;
+		}
+
+		/**
+		 * 丢弃失败的连接,连接池中的连接不再归还到连接池,驱动不支持时关闭连接
+		 */
+		private void abort(Connection connection) {
+			if (connection == null) {
+				return;
+			}
+			try {
+				connection.abort(Runnable::run);
+				return;
+			} catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+				LOG.log(Level.FINE, "驱动不支持丢弃连接", e);
+			} catch (Throwable e) {
+				LOG.log(Level.FINE, "丢弃连接失败", e);
+			}
+			close(connection);
+		}
+
+		/**
+		 * 恢复查询的超时时间并关闭连接,超时的连接已经被驱动关闭,连接池会丢弃它
+		 */
+		private void close(Connection connection) {
+			if (connection == null) {
+				return;
+			}
+			try {
+				if (config.getQueryTimeout() > 0 && !connection.isClosed()) {
+					connection.setNetworkTimeout(Runnable::run, 0);
+				}
+			} catch (Throwable e) {
+				LOG.log(Level.FINE, "恢复查询的超时时间失败", e);
+			}
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				LOG.log(Level.FINE, "关闭连接失败", e);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,602 @@
+package org.mirrentools.sd.dbutil;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mirrentools.sd.options.SdDatabaseOptions;
+
+/**
+ * 内置的数据库连接池,不依赖第三方连接池,<br>
+ * 获取的连接关闭时归还到连接池,同时关闭通过该连接创建但没有关闭的Statement,调用abort时丢弃物理连接不再归还;<br>
+ * 空闲超过空闲超时时间的连接在获取或归还连接时关闭,但保留最小连接数量;空闲的连接在再次使用前先校验,校验失败时重新创建;<br>
+ * 连接都在使用中并且达到最大连接数量时等待其他连接归还,超过获取超时时间时抛出SQLException;<br>
+ * 数据库驱动在整个JVM中只加载一次,多线程同时使用是安全的
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdConnectionPool implements Closeable {
+	/** 已经加载的数据库驱动 */
+	private static final Set<String> DRIVERS = ConcurrentHashMap.newKeySet();
+	/** 空闲超过该时间的连接在使用前需要校验,单位毫秒 */
+	private static final long VALIDATE_AFTER_IDLE_MILLIS = 1000;
+	/** JUL日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
+
+	/** 数据库配置 */
+	private final SdDatabaseOptions options;
+	/** 空闲的连接,最近归还的在前 */
+	private final Deque<PooledConnection> idle = new ArrayDeque<PooledConnection>();
+	/** 连接池的锁 */
+	private final ReentrantLock lock = new ReentrantLock();
+	/** 有连接归还或者连接数量减少 */
+	private final Condition available = lock.newCondition();
+	/** 物理连接的数量,包括创建中的连接 */
+	private int total;
+	/** 是否已经关闭 */
+	private boolean closed;
+	/** 创建物理连接的次数 */
+	private final AtomicLong createdCount = new AtomicLong();
+	/** 关闭物理连接的次数 */
+	private final AtomicLong destroyedCount = new AtomicLong();
+	/** 获取连接的次数 */
+	private final AtomicLong acquireCount = new AtomicLong();
+	/** 需要等待才获取到连接的次数 */
+	private final AtomicLong waitCount = new AtomicLong();
+	/** 获取连接超时的次数 */
+	private final AtomicLong timeoutCount = new AtomicLong();
+	/** 校验失败的次数 */
+	private final AtomicLong invalidCount = new AtomicLong();
+	/** 等待连接的总时间,单位纳秒 */
+	private final AtomicLong waitNanos = new AtomicLong();
+
+	/**
+	 * 初始化连接池,连接在第一次使用时才创建,不会按最小连接数量预先创建
+	 *
+	 * @param options
+	 *          数据库配置
+	 */
+	public SdConnectionPool(SdDatabaseOptions options) {
+		super();
+		if (options == null) {
+			throw new NullPointerException("数据库配置不能为空");
+		}
+		this.options = options;
+	}
+
+	/**
+	 * 加载数据库驱动,同一个驱动只加载一次
+	 *
+	 * @param driverClass
+	 *          驱动类,为null时不加载
+	 * @throws ClassNotFoundException
+	 */
+	public static void loadDriver(String driverClass) throws ClassNotFoundException {
+		if (driverClass == null || DRIVERS.contains(driverClass)) {
+			return;
+		}
+		Class.forName(driverClass);
+		DRIVERS.add(driverClass);
+	}
+
+	/**
+	 * 创建一个不经过连接池的物理连接
+	 *
+	 * @param options
+	 *          数据库配置
+	 * @return
+	 * @throws SQLException
+	 */
+	public static Connection connect(SdDatabaseOptions options) throws SQLException {
+		try {
+			loadDriver(options.getDriverClass());
+		} catch (ClassNotFoundException e) {
+			throw new SQLException("无法加载数据库驱动:" + options.getDriverClass(), e);
+		}
+		DriverManager.setLoginTimeout(options.getLoginTimeout());
+		return DriverManager.getConnection(options.getUrl(), options.getUser(), options.getPassword());
+	}
+
+	/**
+	 * 获取一个连接,使用完成后需要关闭连接,关闭时归还到连接池
+	 *
+	 * @return
+	 * @throws SQLException
+	 *           连接池已经关闭、获取超时或者创建连接失败
+	 */
+	public Connection getConnection() throws SQLException {
+		acquireCount.incrementAndGet();
+		long timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(0, options.getAcquireTimeout()));
+		long waitStart = 0;
+		while (true) {
+			PooledConnection pooled = null;
+			boolean create = false;
+			List<PooledConnection> expired;
+			lock.lock();
+			try {
+				if (closed) {
+					throw new SQLException("连接池已经关闭");
+				}
+				expired = evict();
+				if (!idle.isEmpty()) {
+					pooled = idle.pollFirst();
+				} else if (total < Math.max(1, options.getMaxPoolSize())) {
+					total++;
+					create = true;
+				} else {
+					if (waitStart == 0) {
+						waitStart = System.nanoTime();
+						waitCount.incrementAndGet();
+					}
+					long remaining = timeout - (System.nanoTime() - waitStart);
+					if (remaining <= 0) {
+						timeoutCount.incrementAndGet();
+						waitNanos.addAndGet(System.nanoTime() - waitStart);
+						throw new SQLException(String.format("获取数据库连接超时,已等待%dms,最大连接数量%d", options.getAcquireTimeout(), options.getMaxPoolSize()));
+					}
+					available.awaitNanos(remaining);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("等待数据库连接时线程被中断", e);
+			} finally {
+				lock.unlock();
+			}
+			destroy(expired);
+			if (pooled == null && !create) {
+				continue;
+			}
+			if (waitStart != 0) {
+				waitNanos.addAndGet(System.nanoTime() - waitStart);
+			}
+			if (create) {
+				try {
+					pooled = new PooledConnection(connect(options));
+					createdCount.incrementAndGet();
+				} catch (SQLException e) {
+					release();
+					throw e;
+				}
+			} else if (!validate(pooled)) {
+				invalidCount.incrementAndGet();
+				destroy(pooled);
+				release();
+				continue;
+			}
+			return pooled.borrow();
+		}
+	}
+
+	/**
+	 * 校验空闲了一段时间的连接,设置了校验语句时执行校验语句,否则使用Connection.isValid
+	 *
+	 * @param pooled
+	 * @return
+	 */
+	private boolean validate(PooledConnection pooled) {
+		if (System.currentTimeMillis() - pooled.lastUsed < VALIDATE_AFTER_IDLE_MILLIS) {
+			return true;
+		}
+		try {
+			String query = options.getValidationQuery();
+			if (query == null || query.isEmpty()) {
+				return pooled.connection.isValid(Math.max(1, options.getLoginTimeout()));
+			}
+			Statement statement = pooled.connection.createStatement();
+			try {
+				statement.setQueryTimeout(Math.max(1, options.getLoginTimeout()));
+				statement.execute(query);
+				return true;
+			} finally {
+				statement.close();
+			}
+		} catch (SQLException e) {
+			LOG.log(Level.FINE, "数据库连接校验失败:" + e.getMessage(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * 移除空闲超时的连接,保留最小连接数量,需要在持有锁时调用
+	 *
+	 * @return 需要关闭的连接
+	 */
+	private List<PooledConnection> evict() {
+		long idleTimeout = options.getIdleTimeout();
+		if (idleTimeout <= 0 || idle.isEmpty()) {
+			return null;
+		}
+		List<PooledConnection> result = null;
+		long now = System.currentTimeMillis();
+		Iterator<PooledConnection> iterator = idle.descendingIterator();
+		while (iterator.hasNext() && total > options.getMinPoolSize()) {
+			PooledConnection pooled = iterator.next();
+			if (now - pooled.lastUsed < idleTimeout) {
+				break;
+			}
+			iterator.remove();
+			total--;
+			if (result == null) {
+				result = new ArrayList<PooledConnection>();
+			}
+			result.add(pooled);
+		}
+		return result;
+	}
+
+	/**
+	 * 归还连接
+	 *
+	 * @param pooled
+	 * @param broken
+	 *          连接是否已经不可用
+	 */
+	private void giveBack(PooledConnection pooled, boolean broken) {
+		List<PooledConnection> expired = null;
+		boolean discard = broken;
+		lock.lock();
+		try {
+			if (closed || broken) {
+				discard = true;
+				total--;
+			} else {
+				pooled.lastUsed = System.currentTimeMillis();
+				idle.addFirst(pooled);
+				expired = evict();
+			}
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+		if (discard) {
+			destroy(pooled);
+		}
+		destroy(expired);
+	}
+
+	/**
+	 * 物理连接创建失败或者被丢弃时释放数量
+	 */
+	private void release() {
+		lock.lock();
+		try {
+			total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void destroy(List<PooledConnection> connections) {
+		if (connections != null) {
+			for (PooledConnection pooled : connections) {
+				destroy(pooled);
+			}
+		}
+	}
+
+	private void destroy(PooledConnection pooled) {
+		destroyedCount.incrementAndGet();
+		try {
+			pooled.connection.close();
+		} catch (SQLException e) {
+			LOG.log(Level.FINE, "关闭数据库连接失败:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 关闭连接池与所有空闲的连接,使用中的连接在归还时关闭
+	 */
+	@Override
+	public void close() {
+		List<PooledConnection> connections;
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			connections = new ArrayList<PooledConnection>(idle);
+			total -= idle.size();
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		destroy(connections);
+	}
+
+	/**
+	 * 连接池是否已经关闭
+	 *
+	 * @return
+	 */
+	public boolean isClosed() {
+		lock.lock();
+		try {
+			return closed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取物理连接的数量
+	 *
+	 * @return
+	 */
+	public int getTotalCount() {
+		lock.lock();
+		try {
+			return total;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取空闲连接的数量
+	 *
+	 * @return
+	 */
+	public int getIdleCount() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取使用中的连接数量
+	 *
+	 * @return
+	 */
+	public int getActiveCount() {
+		lock.lock();
+		try {
+			return total - idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 获取创建物理连接的次数
+	 *
+	 * @return
+	 */
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	/**
+	 * 获取关闭物理连接的次数
+	 *
+	 * @return
+	 */
+	public long getDestroyedCount() {
+		return destroyedCount.get();
+	}
+
+	/**
+	 * 获取获取连接的次数
+	 *
+	 * @return
+	 */
+	public long getAcquireCount() {
+		return acquireCount.get();
+	}
+
+	/**
+	 * 获取需要等待才获取到连接的次数
+	 *
+	 * @return
+	 */
+	public long getWaitCount() {
+		return waitCount.get();
+	}
+
+	/**
+	 * 获取获取连接超时的次数
+	 *
+	 * @return
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * 获取校验失败的次数
+	 *
+	 * @return
+	 */
+	public long getInvalidCount() {
+		return invalidCount.get();
+	}
+
+	/**
+	 * 获取等待连接的总时间,单位毫秒
+	 *
+	 * @return
+	 */
+	public long getWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+	}
+
+	/**
+	 * 获取数据库配置
+	 *
+	 * @return
+	 */
+	public SdDatabaseOptions getOptions() {
+		return options;
+	}
+
+	@Override
+	public String toString() {
+		return "SdConnectionPool [total=" + getTotalCount() + ", idle=" + getIdleCount() + ", created=" + getCreatedCount() + ", destroyed="
+				+ getDestroyedCount() + ", acquire=" + getAcquireCount() + ", wait=" + getWaitCount() + ", timeout=" + getTimeoutCount()
+				+ ", invalid=" + getInvalidCount() + ", waitMillis=" + getWaitMillis() + "]";
+	}
+
+	/**
+	 * 连接池中的物理连接
+	 */
+	private class PooledConnection {
+		/** 物理连接 */
+		private final Connection connection;
+		/** 最后一次归还的时间 */
+		private long lastUsed = System.currentTimeMillis();
+
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+		}
+
+		/**
+		 * 借出一个包装的连接
+		 *
+		 * @return
+		 */
+		Connection borrow() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+					new Handler(this));
+		}
+	}
+
+	/**
+	 * 借出的连接,关闭时归还物理连接,同一个借出的连接只能归还一次,abort时丢弃物理连接
+	 */
+	private class Handler implements InvocationHandler {
+		/** 物理连接,归还后为null */
+		private PooledConnection pooled;
+		/** 通过该连接创建的Statement */
+		private List<Statement> statements;
+		/** 是否修改过自动提交 */
+		private boolean autoCommitChanged;
+
+		Handler(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name) && method.getParameterCount() == 0) {
+				close();
+				return null;
+			}
+			if ("abort".equals(name) && method.getParameterCount() == 1) {
+				abort();
+				return null;
+			}
+			if ("isClosed".equals(name) && method.getParameterCount() == 0) {
+				return pooled == null;
+			}
+			if ("equals".equals(name) && method.getParameterCount() == 1) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name) && method.getParameterCount() == 0) {
+				return "SdPooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+			}
+			if (pooled == null) {
+				throw new SQLException("连接已经关闭");
+			}
+			if ("setAutoCommit".equals(name)) {
+				autoCommitChanged = true;
+			}
+			Object result;
+			try {
+				result = method.invoke(pooled.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (result instanceof Statement) {
+				if (statements == null) {
+					statements = new ArrayList<Statement>();
+				} else if (statements.size() >= 64) {
+					statements.removeIf(this::isClosed);
+				}
+				statements.add((Statement) result);
+			}
+			return result;
+		}
+
+		private boolean isClosed(Statement statement) {
+			try {
+				return statement.isClosed();
+			} catch (SQLException e) {
+				return true;
+			}
+		}
+
+		/**
+		 * 丢弃物理连接,用于出错后状态未知的连接
+		 */
+		private void abort() {
+			if (pooled == null) {
+				return;
+			}
+			PooledConnection connection = pooled;
+			pooled = null;
+			statements = null;
+			giveBack(connection, true);
+		}
+
+		/**
+		 * 关闭没有关闭的Statement并归还物理连接
+		 */
+		private void close() {
+			if (pooled == null) {
+				return;
+			}
+			PooledConnection connection = pooled;
+			pooled = null;
+			boolean broken = false;
+			try {
+				if (statements != null) {
+					for (Statement statement : statements) {
+						if (!statement.isClosed()) {
+							statement.close();
+						}
+					}
+					statements = null;
+				}
+				if (autoCommitChanged && !connection.connection.getAutoCommit()) {
+					connection.connection.rollback();
+					connection.connection.setAutoCommit(true);
+				}
+				broken = connection.connection.isClosed();
+			} catch (SQLException e) {
+				LOG.log(Level.FINE, "归还数据库连接失败,关闭该连接:" + e.getMessage(), e);
+				broken = true;
+			}
+			giveBack(connection, broken);
+		}
+	}
+
+}
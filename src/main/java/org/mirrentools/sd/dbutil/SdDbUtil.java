@@ -2,7 +2,9 @@ package org.mirrentools.sd.dbutil;
 
 import java.sql.Connection;
 import java.util.List;
+import java.util.Map;
 
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
 import org.mirrentools.sd.models.db.query.TableAttribute;
 import org.mirrentools.sd.models.db.query.TableColumnAttribute;
 import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
@@ -121,4 +123,34 @@ public interface SdDbUtil {
 	 */
 	TablePrimaryKeyAttribute getTablePrimaryKeyAttribute(String tableName) throws Exception;
 
+	/**
+	 * 一次性获取当前数据库模式中所有表的表/列/主键/索引/外键属性,<br>
+	 * 批量读取多张表时使用该方法代替逐张表的获取,避免每张表都需要多次查询元数据
+	 * 
+	 * @return
+	 * @throws Exception
+	 */
+	SchemaAttribute getSchemaAttribute() throws Exception;
+
+	/**
+	 * 按表并行获取指定表的表/列/主键/索引/外键属性,适用于集合查询元数据很慢的数据库或驱动,<br>
+	 * 并发数量/单次查询的超时时间/失败重试次数见{@link SdDatabaseOptions}
+	 * 
+	 * @param tableNames
+	 *          表名,为null时获取当前数据库所有的表
+	 * @return 按表名的顺序存放的属性
+	 * @throws Exception
+	 *           重试后仍然有表获取失败
+	 */
+	SchemaAttribute getSchemaAttribute(List<String> tableNames) throws Exception;
+
+	/**
+	 * 获取当前数据库所有表的结构版本,表结构修改后版本随之改变,<br>
+	 * 用于低成本地判断缓存的表属性是否过期,只重新获取修改过的表
+	 * 
+	 * @return key为表名,value为版本;数据库不支持时返回null
+	 * @throws Exception
+	 */
+	Map<String, String> getTableVersions() throws Exception;
+
 }
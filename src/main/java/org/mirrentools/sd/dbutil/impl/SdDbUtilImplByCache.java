@@ -0,0 +1,395 @@
+package org.mirrentools.sd.dbutil.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mirrentools.sd.common.SdObjectInputStream;
+import org.mirrentools.sd.dbutil.SdDbUtil;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+import org.mirrentools.sd.models.db.query.TableAttribute;
+import org.mirrentools.sd.models.db.query.TableColumnAttribute;
+import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
+import org.mirrentools.sd.models.db.update.AbstractDatabaseContent;
+import org.mirrentools.sd.models.db.update.AbstractTableContent;
+import org.mirrentools.sd.options.SdDatabaseOptions;
+
+/**
+ * 带元数据缓存的数据库工具,包装其他数据库工具,<br>
+ * 第一次读取时一次性获取整个数据库模式的属性({@link SdDbUtil#getSchemaAttribute()})并缓存在内存中,缓存有效期内不再查询数据库;<br>
+ * 超过有效期后先查询所有表的结构版本({@link SdDbUtil#getTableVersions()}),只重新获取新增或修改过的表,数据库不支持结构版本时重新获取整个模式;<br>
+ * 设置了缓存文件时将属性与版本保存到磁盘,下次启动时加载,加载的缓存视为已过期,第一次读取时校验结构版本;<br>
+ * 缓存文件记录了数据库的连接地址(不包括参数)与模式名称,与当前连接的数据库不一致时丢弃,读取时只允许反序列化模型类;<br>
+ * 通过该工具创建或修改表后缓存立即过期;返回的属性是共享的,不要修改
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdDbUtilImplByCache implements SdDbUtil {
+	/** 默认缓存的有效期,单位毫秒 */
+	public static final long DEFAULT_TTL_MILLIS = 60000;
+	/** 缓存文件中允许反序列化的类 */
+	private static final String[] ALLOWED_CLASSES = { "org.mirrentools.sd.models.", Snapshot.class.getName() };
+	/** JUL日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
+
+	/** 实际执行的数据库工具 */
+	private final SdDbUtil dbUtil;
+	/** 缓存的有效期,单位毫秒 */
+	private final long ttl;
+	/** 缓存文件,为null时不保存到磁盘 */
+	private final File file;
+	/** 当前的缓存,没有加载时为null */
+	private Snapshot snapshot;
+	/** 当前连接的数据库地址,第一次读取时获取 */
+	private String url;
+	/** 当前连接的数据库模式名称,第一次读取时获取 */
+	private String schemaName;
+	/** 是否已经获取了数据库地址与模式名称 */
+	private boolean connected;
+	/** 最后一次校验的时间,为0时下次读取需要校验 */
+	private long checkedTime;
+	/** 命中次数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** 校验结构版本的次数 */
+	private final AtomicLong checkCount = new AtomicLong();
+	/** 重新获取的表数量 */
+	private final AtomicLong reloadCount = new AtomicLong();
+
+	/**
+	 * 使用默认的有效期初始化,不保存到磁盘
+	 *
+	 * @param dbUtil
+	 *          实际执行的数据库工具
+	 */
+	public SdDbUtilImplByCache(SdDbUtil dbUtil) {
+		this(dbUtil, DEFAULT_TTL_MILLIS, null);
+	}
+
+	/**
+	 * 初始化,如果缓存文件存在则加载缓存文件
+	 *
+	 * @param dbUtil
+	 *          实际执行的数据库工具
+	 * @param ttl
+	 *          缓存的有效期,单位毫秒,小于1时每次读取都校验结构版本
+	 * @param file
+	 *          缓存文件,为null时不保存到磁盘
+	 */
+	public SdDbUtilImplByCache(SdDbUtil dbUtil, long ttl, File file) {
+		super();
+		if (dbUtil == null) {
+			throw new NullPointerException("数据库工具不能为空");
+		}
+		this.dbUtil = dbUtil;
+		this.ttl = ttl;
+		this.file = file;
+		load();
+	}
+
+	/**
+	 * 获取缓存的模式属性,过期时校验结构版本并重新获取修改过的表
+	 *
+	 * @return
+	 * @throws Exception
+	 */
+	private synchronized SchemaAttribute schema() throws Exception {
+		long now = System.currentTimeMillis();
+		if (snapshot != null && checkedTime != 0 && now - checkedTime < ttl) {
+			hitCount.incrementAndGet();
+			return snapshot.schema;
+		}
+		checkCount.incrementAndGet();
+		if (!connected) {
+			connect();
+		}
+		if (snapshot != null && !(Objects.equals(url, snapshot.url) && Objects.equals(schemaName, snapshot.schemaName))) {
+			LOG.info(String.format("元数据缓存属于%s/%s,当前数据库为%s/%s,将重新获取", snapshot.url, snapshot.schemaName, url, schemaName));
+			snapshot = null;
+		}
+		Map<String, String> versions = dbUtil.getTableVersions();
+		if (snapshot == null || versions == null || snapshot.versions == null) {
+			SchemaAttribute schema = dbUtil.getSchemaAttribute();
+			reloadCount.addAndGet(schema.getTables().size());
+			update(new Snapshot(url, schemaName, schema, versions));
+		} else {
+			List<String> changed = new ArrayList<>();
+			for (Map.Entry<String, String> entry : versions.entrySet()) {
+				if (!Objects.equals(entry.getValue(), snapshot.versions.get(entry.getKey()))) {
+					changed.add(entry.getKey());
+				}
+			}
+			if (!changed.isEmpty() || !versions.keySet().equals(snapshot.versions.keySet())) {
+				SchemaAttribute reloaded = changed.isEmpty() ? new SchemaAttribute() : dbUtil.getSchemaAttribute(changed);
+				reloadCount.addAndGet(changed.size());
+				SchemaAttribute schema = new SchemaAttribute(snapshot.schema.getSchemaName());
+				for (String tableName : versions.keySet()) {
+					schema.copyTable(reloaded.getTable(tableName) != null ? reloaded : snapshot.schema, tableName);
+				}
+				update(new Snapshot(url, schemaName, schema, versions));
+			}
+		}
+		checkedTime = System.currentTimeMillis();
+		return snapshot.schema;
+	}
+
+	/**
+	 * 获取当前连接的数据库地址与模式名称,地址不包括参数,避免将参数中的密码保存到缓存文件
+	 *
+	 * @throws Exception
+	 */
+	private void connect() throws Exception {
+		Connection connection = dbUtil.getConnection();
+		try {
+			String address = connection.getMetaData().getURL();
+			if (address != null && address.indexOf('?') >= 0) {
+				address = address.substring(0, address.indexOf('?'));
+			}
+			url = address;
+			schemaName = connection.getCatalog();
+			connected = true;
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * 替换当前的缓存并保存到缓存文件
+	 *
+	 * @param snapshot
+	 */
+	private void update(Snapshot snapshot) {
+		this.snapshot = snapshot;
+		try {
+			save(snapshot);
+		} catch (Exception e) {
+			LOG.log(Level.WARNING, "保存元数据缓存文件失败:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 加载缓存文件,文件不存在或者无法读取时忽略
+	 */
+	private void load() {
+		if (file == null || !file.isFile()) {
+			return;
+		}
+		try {
+			ObjectInputStream in = new SdObjectInputStream(new BufferedInputStream(new FileInputStream(file)), ALLOWED_CLASSES);
+			try {
+				snapshot = (Snapshot) in.readObject();
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			LOG.log(Level.WARNING, "读取元数据缓存文件失败,将重新获取:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 将缓存保存到缓存文件,没有设置缓存文件时不做任何处理
+	 *
+	 * @param snapshot
+	 * @throws IOException
+	 */
+	private void save(Snapshot snapshot) throws IOException {
+		if (file == null) {
+			return;
+		}
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			out.writeObject(snapshot);
+		} finally {
+			out.close();
+		}
+		if (file.exists() && !file.delete() || !temp.renameTo(file)) {
+			throw new IOException("无法保存元数据缓存文件:" + file);
+		}
+	}
+
+	/**
+	 * 使缓存过期,下次读取时校验结构版本
+	 */
+	public synchronized void invalidate() {
+		checkedTime = 0;
+	}
+
+	/**
+	 * 清空缓存,下次读取时重新获取整个模式,不删除缓存文件
+	 */
+	public synchronized void clear() {
+		snapshot = null;
+		checkedTime = 0;
+	}
+
+	@Override
+	public Connection getConnection() throws Exception {
+		return dbUtil.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(SdDatabaseOptions config) throws Exception {
+		return dbUtil.getConnection(config);
+	}
+
+	@Override
+	public boolean existDatabase(String dbName) throws Exception {
+		return dbUtil.existDatabase(dbName);
+	}
+
+	@Override
+	public boolean existTable(String tableName) throws Exception {
+		return schema().getTable(tableName) != null;
+	}
+
+	@Override
+	public boolean createDatabase(AbstractDatabaseContent content) throws Exception {
+		return dbUtil.createDatabase(content);
+	}
+
+	@Override
+	public boolean updateDatabase(AbstractDatabaseContent content) throws Exception {
+		return dbUtil.updateDatabase(content);
+	}
+
+	@Override
+	public boolean createTable(AbstractTableContent content) throws Exception {
+		try {
+			return dbUtil.createTable(content);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public boolean updateTable(AbstractTableContent content) throws Exception {
+		try {
+			return dbUtil.updateTable(content);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public List<String> getTableNames() throws Exception {
+		return schema().getTableNames();
+	}
+
+	@Override
+	public TableAttribute getTableAttribute(String tableName) throws Exception {
+		return schema().getTable(tableName);
+	}
+
+	@Override
+	public List<TableColumnAttribute> getTableColumnsAttribute(String tableName) throws Exception {
+		return new ArrayList<>(schema().getColumns(tableName));
+	}
+
+	@Override
+	public TablePrimaryKeyAttribute getTablePrimaryKeyAttribute(String tableName) throws Exception {
+		List<TablePrimaryKeyAttribute> keys = schema().getPrimaryKeys(tableName);
+		return keys.isEmpty() ? null : keys.get(0);
+	}
+
+	@Override
+	public SchemaAttribute getSchemaAttribute() throws Exception {
+		return schema();
+	}
+
+	@Override
+	public SchemaAttribute getSchemaAttribute(List<String> tableNames) throws Exception {
+		SchemaAttribute schema = schema();
+		if (tableNames == null) {
+			return schema;
+		}
+		SchemaAttribute result = new SchemaAttribute(schema.getSchemaName());
+		for (String tableName : tableNames) {
+			result.copyTable(schema, tableName);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, String> getTableVersions() throws Exception {
+		return dbUtil.getTableVersions();
+	}
+
+	/**
+	 * 获取命中次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 获取校验结构版本的次数
+	 *
+	 * @return
+	 */
+	public long getCheckCount() {
+		return checkCount.get();
+	}
+
+	/**
+	 * 获取重新获取的表数量
+	 *
+	 * @return
+	 */
+	public long getReloadCount() {
+		return reloadCount.get();
+	}
+
+	/**
+	 * 获取实际执行的数据库工具
+	 *
+	 * @return
+	 */
+	public SdDbUtil getDbUtil() {
+		return dbUtil;
+	}
+
+	/**
+	 * 缓存的内容,替换时整体替换
+	 */
+	private static class Snapshot implements Serializable {
+		private static final long serialVersionUID = 2L;
+		/** 数据库地址,不包括参数 */
+		private final String url;
+		/** 模式名称 */
+		private final String schemaName;
+		/** 模式属性 */
+		private final SchemaAttribute schema;
+		/** 表的结构版本,数据库不支持时为null */
+		private final LinkedHashMap<String, String> versions;
+
+		Snapshot(String url, String schemaName, SchemaAttribute schema, Map<String, String> versions) {
+			this.url = url;
+			this.schemaName = schemaName;
+			this.schema = schema;
+			this.versions = versions == null ? null : new LinkedHashMap<>(versions);
+		}
+	}
+
+}
@@ -2,10 +2,19 @@ package org.mirrentools.sd.dbutil.impl;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.mirrentools.sd.common.SdMetrics;
 import org.mirrentools.sd.dbutil.AbstractSdDbUtil;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
 import org.mirrentools.sd.models.db.query.TableAttribute;
 import org.mirrentools.sd.models.db.query.TableColumnAttribute;
 import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
@@ -19,6 +28,88 @@ import org.mirrentools.sd.options.SdDatabaseOptions;
  *
  */
 public class SdDbUtilImplByMySQL extends AbstractSdDbUtil {
+	/** 查询模式中所有的表,列名与DatabaseMetaData.getTables一致 */
+	private static final String SQL_TABLES = "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, 'TABLE' AS TABLE_TYPE, TABLE_COMMENT AS REMARKS,"
+			+ " NULL AS TYPE_CAT, NULL AS TYPE_SCHEM, NULL AS TYPE_NAME, NULL AS SELF_REFERENCING_COL_NAME, NULL AS REF_GENERATION"
+			+ " FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME";
+	/**
+	 * 查询模式中所有的列,列名与DatabaseMetaData.getColumns一致,DATA_TYPE由TYPE_NAME转换,无符号的类型与驱动一样以UNSIGNED结尾,<br>
+	 * 时间类型的COLUMN_SIZE与驱动一样为字符串表示的长度(DATETIME为19,有小数秒时加上小数点与小数位数),<br>
+	 * 只有虚拟列与存储列是生成列,默认值为表达式的列(EXTRA为DEFAULT_GENERATED)不是生成列
+	 */
+	private static final String SQL_COLUMNS = "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, COLUMN_NAME, 0 AS DATA_TYPE,"
+			+ " UPPER(IF(COLUMN_TYPE LIKE '% unsigned%', CONCAT(DATA_TYPE, ' UNSIGNED'), DATA_TYPE)) AS TYPE_NAME,"
+			+ " CASE DATA_TYPE WHEN 'date' THEN 10 WHEN 'year' THEN 4"
+			+ " WHEN 'time' THEN 8 + IF(DATETIME_PRECISION > 0, DATETIME_PRECISION + 1, 0)"
+			+ " WHEN 'datetime' THEN 19 + IF(DATETIME_PRECISION > 0, DATETIME_PRECISION + 1, 0)"
+			+ " WHEN 'timestamp' THEN 19 + IF(DATETIME_PRECISION > 0, DATETIME_PRECISION + 1, 0)"
+			+ " ELSE LEAST(COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, 0), 2147483647) END AS COLUMN_SIZE,"
+			+ " COALESCE(NUMERIC_SCALE, 0) AS DECIMAL_DIGITS, 10 AS NUM_PREC_RADIX, IF(IS_NULLABLE = 'YES', 1, 0) AS NULLABLE,"
+			+ " COLUMN_COMMENT AS REMARKS, COLUMN_DEFAULT AS COLUMN_DEF, LEAST(COALESCE(CHARACTER_OCTET_LENGTH, 0), 2147483647) AS CHAR_OCTET_LENGTH,"
+			+ " ORDINAL_POSITION, IS_NULLABLE, IF(EXTRA LIKE '%auto_increment%', 'YES', 'NO') AS IS_AUTOINCREMENT,"
+			+ " IF(EXTRA LIKE '%VIRTUAL GENERATED%' OR EXTRA LIKE '%STORED GENERATED%', 'YES', 'NO') AS IS_GENERATEDCOLUMN"
+			+ " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, ORDINAL_POSITION";
+	/** 查询模式中所有的主键,列名与DatabaseMetaData.getPrimaryKeys一致 */
+	private static final String SQL_PRIMARY_KEYS = "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION AS KEY_SEQ, CONSTRAINT_NAME AS PK_NAME"
+			+ " FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = ? AND CONSTRAINT_NAME = 'PRIMARY' ORDER BY TABLE_NAME, ORDINAL_POSITION";
+	/** 查询模式中所有的索引,列名与DatabaseMetaData.getIndexInfo一致 */
+	private static final String SQL_INDEX_KEYS = "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME, NON_UNIQUE, TABLE_SCHEMA AS INDEX_QUALIFIER, INDEX_NAME,"
+			+ " IF(INDEX_TYPE = 'HASH', " + DatabaseMetaData.tableIndexHashed + ", " + DatabaseMetaData.tableIndexOther + ") AS TYPE,"
+			+ " SEQ_IN_INDEX AS ORDINAL_POSITION, COLUMN_NAME, COLLATION AS ASC_OR_DESC, COALESCE(CARDINALITY, 0) AS CARDINALITY, 0 AS PAGES, NULL AS FILTER_CONDITION"
+			+ " FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME, NON_UNIQUE, INDEX_NAME, SEQ_IN_INDEX";
+	/** 查询模式中所有的外键,列名与DatabaseMetaData.getImportedKeys一致 */
+	private static final String SQL_FOREIGN_KEYS = "SELECT k.REFERENCED_TABLE_SCHEMA AS PKTABLE_CAT, NULL AS PKTABLE_SCHEM, k.REFERENCED_TABLE_NAME AS PKTABLE_NAME,"
+			+ " k.REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, k.TABLE_SCHEMA AS FKTABLE_CAT, NULL AS FKTABLE_SCHEM, k.TABLE_NAME AS FKTABLE_NAME,"
+			+ " k.COLUMN_NAME AS FKCOLUMN_NAME, k.ORDINAL_POSITION AS KEY_SEQ, " + rule("r.UPDATE_RULE") + " AS UPDATE_RULE, " + rule("r.DELETE_RULE") + " AS DELETE_RULE,"
+			+ " k.CONSTRAINT_NAME AS FK_NAME, r.UNIQUE_CONSTRAINT_NAME AS PK_NAME, " + DatabaseMetaData.importedKeyNotDeferrable + " AS DEFERRABILITY"
+			+ " FROM information_schema.KEY_COLUMN_USAGE k JOIN information_schema.REFERENTIAL_CONSTRAINTS r"
+			+ " ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME AND r.TABLE_NAME = k.TABLE_NAME"
+			+ " WHERE k.TABLE_SCHEMA = ? AND k.REFERENCED_TABLE_NAME IS NOT NULL ORDER BY k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION";
+	/** 查询模式中所有表的结构版本,由创建时间与列/索引/外键的校验和组成,不使用会随数据修改的UPDATE_TIME */
+	private static final String SQL_TABLE_VERSIONS = "SELECT t.TABLE_NAME, CONCAT_WS('/', t.CREATE_TIME, CRC32(t.TABLE_COMMENT), c.CNT, c.CRC, s.CRC, k.CRC) AS VERSION"
+			+ " FROM information_schema.TABLES t"
+			+ " LEFT JOIN (SELECT TABLE_NAME, COUNT(*) AS CNT, SUM(CRC32(CONCAT_WS('|', ORDINAL_POSITION, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, EXTRA, COLUMN_COMMENT))) AS CRC"
+			+ " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) c ON c.TABLE_NAME = t.TABLE_NAME"
+			+ " LEFT JOIN (SELECT TABLE_NAME, SUM(CRC32(CONCAT_WS('|', INDEX_NAME, SEQ_IN_INDEX, COLUMN_NAME, NON_UNIQUE))) AS CRC"
+			+ " FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) s ON s.TABLE_NAME = t.TABLE_NAME"
+			+ " LEFT JOIN (SELECT TABLE_NAME, SUM(CRC32(CONCAT_WS('|', CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME))) AS CRC"
+			+ " FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME) k ON k.TABLE_NAME = t.TABLE_NAME"
+			+ " WHERE t.TABLE_SCHEMA = ? AND t.TABLE_TYPE = 'BASE TABLE' ORDER BY t.TABLE_NAME";
+	/** MySQL的类型名称对应的java.sql.Types */
+	private static final Map<String, Integer> TYPES = new HashMap<>();
+	static {
+		TYPES.put("BIT", Types.BIT);
+		TYPES.put("TINYINT", Types.TINYINT);
+		TYPES.put("SMALLINT", Types.SMALLINT);
+		TYPES.put("MEDIUMINT", Types.INTEGER);
+		TYPES.put("INT", Types.INTEGER);
+		TYPES.put("INTEGER", Types.INTEGER);
+		TYPES.put("BIGINT", Types.BIGINT);
+		TYPES.put("FLOAT", Types.REAL);
+		TYPES.put("DOUBLE", Types.DOUBLE);
+		TYPES.put("DECIMAL", Types.DECIMAL);
+		TYPES.put("DATE", Types.DATE);
+		TYPES.put("TIME", Types.TIME);
+		TYPES.put("YEAR", Types.DATE);
+		TYPES.put("DATETIME", Types.TIMESTAMP);
+		TYPES.put("TIMESTAMP", Types.TIMESTAMP);
+		TYPES.put("CHAR", Types.CHAR);
+		TYPES.put("VARCHAR", Types.VARCHAR);
+		TYPES.put("TINYTEXT", Types.VARCHAR);
+		TYPES.put("TEXT", Types.LONGVARCHAR);
+		TYPES.put("MEDIUMTEXT", Types.LONGVARCHAR);
+		TYPES.put("LONGTEXT", Types.LONGVARCHAR);
+		TYPES.put("JSON", Types.LONGVARCHAR);
+		TYPES.put("ENUM", Types.CHAR);
+		TYPES.put("SET", Types.CHAR);
+		TYPES.put("BINARY", Types.BINARY);
+		TYPES.put("VARBINARY", Types.VARBINARY);
+		TYPES.put("TINYBLOB", Types.VARBINARY);
+		TYPES.put("BLOB", Types.LONGVARBINARY);
+		TYPES.put("MEDIUMBLOB", Types.LONGVARBINARY);
+		TYPES.put("LONGBLOB", Types.LONGVARBINARY);
+	}
+
 	/** 数据库配置文件 */
 	private SdDatabaseOptions config;
 
@@ -32,12 +123,15 @@ public class SdDbUtilImplByMySQL extends AbstractSdDbUtil {
 		int result = 0;
 		Connection connection = getConnection();
 		ResultSet query = null;
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "existDatabase");
 		try {
 			query = connection.createStatement().executeQuery(String.format("SELECT COUNT(*) FROM information_schema.schemata WHERE schema_name='%s'", dbName));
 			if (query.next()) {
 				result = query.getInt(1);
 			}
+			timer.stop();
 		} catch (Exception e) {
+			timer.stop(false);
 			throw e;
 		} finally {
 			if (query != null) {
@@ -54,11 +148,15 @@ public class SdDbUtilImplByMySQL extends AbstractSdDbUtil {
 	public boolean existTable(String tableName) throws Exception {
 		Connection connection = getConnection();
 		ResultSet query = null;
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "existTable");
 		try {
 			DatabaseMetaData md = connection.getMetaData();
 			query = md.getTables(connection.getCatalog(), config.getUser(), tableName, new String[] { "TABLE" });
-			return query.next();
+			boolean exist = query.next();
+			timer.stop();
+			return exist;
 		} catch (Exception e) {
+			timer.stop(false);
 			throw e;
 		} finally {
 			if (query != null) {
@@ -84,26 +182,176 @@ public class SdDbUtilImplByMySQL extends AbstractSdDbUtil {
 
 	@Override
 	public List<String> getTableNames() throws Exception {
-		// TODO Auto-generated method stub
-		return null;
+		List<String> result = new ArrayList<>();
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getTableNames");
+		try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, "%", new String[] { "TABLE" })) {
+			while (rs.next()) {
+				result.add(rs.getString("TABLE_NAME"));
+			}
+			timer.stop();
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
+		return result;
 	}
 
 	@Override
 	public TableAttribute getTableAttribute(String tableName) throws Exception {
-		// TODO Auto-generated method stub
-		return null;
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getTableAttribute");
+		try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, tableName, new String[] { "TABLE" })) {
+			TableAttribute result = rs.next() ? readTableAttribute(rs) : null;
+			timer.stop();
+			return result;
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
 	}
 
 	@Override
 	public List<TableColumnAttribute> getTableColumnsAttribute(String tableName) throws Exception {
-		// TODO Auto-generated method stub
-		return null;
+		List<TableColumnAttribute> result = new ArrayList<>();
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getTableColumnsAttribute");
+		try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, tableName, "%")) {
+			while (rs.next()) {
+				result.add(readTableColumnAttribute(rs));
+			}
+			timer.stop();
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
+		return result;
 	}
 
+	/**
+	 * 获取指定表的主键属性,复合主键时返回主键中的第一列
+	 */
 	@Override
 	public TablePrimaryKeyAttribute getTablePrimaryKeyAttribute(String tableName) throws Exception {
-		// TODO Auto-generated method stub
-		return null;
+		TablePrimaryKeyAttribute result = null;
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getTablePrimaryKeyAttribute");
+		try (ResultSet rs = connection.getMetaData().getPrimaryKeys(connection.getCatalog(), null, tableName)) {
+			while (rs.next()) {
+				TablePrimaryKeyAttribute key = readTablePrimaryKeyAttribute(rs);
+				if (result == null || key.getKeySeq() < result.getKeySeq()) {
+					result = key;
+				}
+			}
+			timer.stop();
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
+		return result;
+	}
+
+	/**
+	 * 使用information_schema的5条集合查询获取当前数据库所有表的属性,与表的数量无关
+	 */
+	@Override
+	public SchemaAttribute getSchemaAttribute() throws Exception {
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getSchemaAttribute");
+		try {
+			String schema = connection.getCatalog();
+			SchemaAttribute result = new SchemaAttribute(schema);
+			query(connection, SQL_TABLES, rs -> result.addTable(readTableAttribute(rs)), schema);
+			query(connection, SQL_COLUMNS, rs -> {
+				TableColumnAttribute column = readTableColumnAttribute(rs);
+				if (result.getTable(column.getTableName()) != null) {
+					Integer type = TYPES.get(column.getTypeName().replace(" UNSIGNED", ""));
+					column.setDataType(type == null ? Types.OTHER : type);
+					result.addColumn(column);
+				}
+			}, schema);
+			query(connection, SQL_PRIMARY_KEYS, rs -> result.addPrimaryKey(readTablePrimaryKeyAttribute(rs)), schema);
+			query(connection, SQL_INDEX_KEYS, rs -> result.addIndexKey(readTableIndexKeyAttribute(rs)), schema);
+			query(connection, SQL_FOREIGN_KEYS, rs -> result.addForeignKey(readTableForeignKeyAttribute(rs)), schema);
+			timer.stop();
+			return result;
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * 使用一条集合查询获取所有表的结构版本,版本由表的创建时间与列/索引/外键定义的校验和组成
+	 */
+	@Override
+	public Map<String, String> getTableVersions() throws Exception {
+		Map<String, String> result = new LinkedHashMap<>();
+		Connection connection = getConnection();
+		SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "getTableVersions");
+		try {
+			String schema = connection.getCatalog();
+			query(connection, SQL_TABLE_VERSIONS, rs -> result.put(rs.getString("TABLE_NAME"), rs.getString("VERSION")), schema, schema, schema, schema);
+			timer.stop();
+		} catch (Exception e) {
+			timer.stop(false);
+			throw e;
+		} finally {
+			connection.close();
+		}
+		return result;
+	}
+
+	/**
+	 * 执行查询,并逐行处理结果
+	 * 
+	 * @param connection
+	 * @param sql
+	 * @param handler
+	 * @param params
+	 *          按顺序对应SQL中的参数
+	 * @throws SQLException
+	 */
+	private void query(Connection connection, String sql, RowHandler handler, String... params) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (int i = 0; i < params.length; i++) {
+				statement.setString(i + 1, params[i]);
+			}
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					handler.handle(rs);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 将information_schema的外键规则转换为DatabaseMetaData的常量
+	 * 
+	 * @param column
+	 * @return
+	 */
+	private static String rule(String column) {
+		return "CASE " + column + " WHEN 'CASCADE' THEN " + DatabaseMetaData.importedKeyCascade + " WHEN 'SET NULL' THEN " + DatabaseMetaData.importedKeySetNull
+				+ " WHEN 'SET DEFAULT' THEN " + DatabaseMetaData.importedKeySetDefault + " WHEN 'RESTRICT' THEN " + DatabaseMetaData.importedKeyRestrict + " ELSE "
+				+ DatabaseMetaData.importedKeyNoAction + " END";
+	}
+
+	/**
+	 * 结果集的行处理器
+	 */
+	private interface RowHandler {
+		void handle(ResultSet rs) throws SQLException;
 	}
 
 	/**
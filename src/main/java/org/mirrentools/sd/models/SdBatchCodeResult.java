@@ -0,0 +1,171 @@
+package org.mirrentools.sd.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量代码生成的执行结果,记录生成的数量、整体的吞吐量与生成失败的实体的结果,<br>
+ * 生成成功的实体只计数不保留结果,所以内存占用与实体总数无关
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBatchCodeResult {
+	/** 生成失败的实体的生成结果,key为实体的名字 */
+	private Map<String, SdCodeResult> failures = new LinkedHashMap<String, SdCodeResult>();
+	/** 实体的数量 */
+	private int beanCount;
+	/** 生成模板的总数量 */
+	private int renderCount;
+	/** 生成成功的模板数量 */
+	private int succeededCount;
+	/** 执行所用的时间,单位纳秒 */
+	private long elapsedNanos;
+
+	/**
+	 * 添加实体的生成结果,只保留生成失败的实体的结果,如果实体的名字重复则在名字后面添加序号
+	 *
+	 * @param name
+	 *          实体的名字
+	 * @param result
+	 *          生成结果
+	 * @return
+	 */
+	public SdBatchCodeResult put(String name, SdCodeResult result) {
+		int succeeded = result.getSucceededCount();
+		beanCount++;
+		renderCount += result.getResults().size();
+		succeededCount += succeeded;
+		if (succeeded < result.getResults().size()) {
+			String key = name;
+			for (int i = 1; failures.containsKey(key); i++) {
+				key = name + "#" + i;
+			}
+			this.failures.put(key, result);
+		}
+		return this;
+	}
+
+	/**
+	 * 是否所有实体的所有模板都生成成功
+	 *
+	 * @return
+	 */
+	public boolean isSucceeded() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * 获取实体的数量
+	 *
+	 * @return
+	 */
+	public int getBeanCount() {
+		return beanCount;
+	}
+
+	/**
+	 * 获取生成模板的总数量
+	 *
+	 * @return
+	 */
+	public int getRenderCount() {
+		return renderCount;
+	}
+
+	/**
+	 * 获取生成成功的模板数量
+	 *
+	 * @return
+	 */
+	public int getSucceededCount() {
+		return succeededCount;
+	}
+
+	/**
+	 * 获取生成失败的模板数量
+	 *
+	 * @return
+	 */
+	public int getFailedCount() {
+		return getRenderCount() - getSucceededCount();
+	}
+
+	/**
+	 * 获取执行所用的时间,单位毫秒
+	 *
+	 * @return
+	 */
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+
+	/**
+	 * 获取执行所用的时间,单位纳秒
+	 *
+	 * @return
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * 设置执行所用的时间,单位纳秒
+	 *
+	 * @param elapsedNanos
+	 * @return
+	 */
+	public SdBatchCodeResult setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+		return this;
+	}
+
+	/**
+	 * 获取每秒生成的实体数量
+	 *
+	 * @return
+	 */
+	public double getBeansPerSecond() {
+		return perSecond(getBeanCount());
+	}
+
+	/**
+	 * 获取每秒生成的模板数量
+	 *
+	 * @return
+	 */
+	public double getRendersPerSecond() {
+		return perSecond(getRenderCount());
+	}
+
+	/**
+	 * 计算每秒的数量
+	 *
+	 * @param count
+	 * @return
+	 */
+	private double perSecond(int count) {
+		if (elapsedNanos <= 0) {
+			return 0;
+		}
+		return count * 1_000_000_000D / elapsedNanos;
+	}
+
+	/**
+	 * 获取生成失败的实体的生成结果
+	 *
+	 * @return
+	 */
+	public Map<String, SdCodeResult> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	@Override
+	public String toString() {
+		return "SdBatchCodeResult [beans=" + getBeanCount() + ", renders=" + getRenderCount() + ", failed=" + getFailedCount() + ", elapsedMillis="
+				+ getElapsedMillis() + ", rendersPerSecond=" + String.format("%.2f", getRendersPerSecond()) + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.mirrentools.sd.models;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -13,7 +14,8 @@ import org.mirrentools.sd.common.SdUtil;
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
  */
-public class SdBean {
+public class SdBean implements Serializable {
+	private static final long serialVersionUID = 1L;
 	/** 表或类的名字 */
 	private String name;
 	/** 表或类的注释 */
@@ -24,12 +26,15 @@ public class SdBean {
 	private List<SdRelational> relationals;
 	/** 拓展属性 */
 	private Map<String, Object> extensions;
+	/** 是否已经冻结,只在内存中有效,反序列化后的对象没有冻结 */
+	private transient boolean frozen;
 
 	public String getName() {
 		return name;
 	}
 
 	public SdBean setName(String name) {
+		SdFreezer.check(frozen);
 		this.name = name;
 		return this;
 	}
@@ -39,6 +44,7 @@ public class SdBean {
 	}
 
 	public SdBean setRemark(String remark) {
+		SdFreezer.check(frozen);
 		this.remark = remark;
 		return this;
 	}
@@ -50,6 +56,7 @@ public class SdBean {
 	 * @return
 	 */
 	public SdBean addColumn(SdColumn column) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(column)) {
 			return this;
 		}
@@ -65,6 +72,7 @@ public class SdBean {
 	}
 
 	public SdBean setColumns(List<SdColumn> columns) {
+		SdFreezer.check(frozen);
 		this.columns = columns;
 		return this;
 	}
@@ -76,6 +84,7 @@ public class SdBean {
 	 * @return
 	 */
 	public SdBean addRelational(SdRelational relational) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(relational)) {
 			return this;
 		}
@@ -91,6 +100,7 @@ public class SdBean {
 	}
 
 	public SdBean setRelationals(List<SdRelational> relationals) {
+		SdFreezer.check(frozen);
 		this.relationals = relationals;
 		return this;
 	}
@@ -115,6 +125,7 @@ public class SdBean {
 	 * @return
 	 */
 	public SdBean addExtension(String key, Object value) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(key)) {
 			return this;
 		}
@@ -130,10 +141,67 @@ public class SdBean {
 	}
 
 	public SdBean setExtensions(Map<String, Object> extensions) {
+		SdFreezer.check(frozen);
 		this.extensions = extensions;
 		return this;
 	}
 
+	/**
+	 * 获取冻结后的实体,冻结后的对象不可修改(修改时抛出UnsupportedOperationException),可以同时交给多个线程使用;<br>
+	 * 列表冻结为数组实现的只读列表,相等的字符串、导入包、注解与拓展属性共享同一个实例,拓展属性的值不会被复制;<br>
+	 * 原对象不受影响,已经冻结的对象返回自己;<br>
+	 * 冻结只是禁止修改,字段并不是final的,交给其他线程时需要安全发布:通过并发集合、同步块、volatile变量或者提交给线程池传递,<br>
+	 * 不能直接赋值给普通的共享字段;冻结状态不会被序列化,反序列化得到的对象需要重新冻结
+	 * 
+	 * @return
+	 */
+	public SdBean freeze() {
+		return frozen ? this : copy(new SdFreezer(true));
+	}
+
+	/**
+	 * 获取可以修改的深度复制,冻结的对象也可以复制,复制的集合为ArrayList、LinkedHashSet与LinkedHashMap,拓展属性的值不会被复制
+	 * 
+	 * @return
+	 */
+	public SdBean copy() {
+		return copy(new SdFreezer(false));
+	}
+
+	/**
+	 * 在冻结上下文中冻结或者复制
+	 * 
+	 * @param freezer
+	 * @return
+	 */
+	SdBean copy(SdFreezer freezer) {
+		if (frozen && freezer.isFreeze()) {
+			return this;
+		}
+		SdBean result = freezer.get(this);
+		if (result != null) {
+			return result;
+		}
+		result = new SdBean();
+		freezer.put(this, result);
+		result.name = freezer.string(name);
+		result.remark = freezer.string(remark);
+		result.columns = freezer.list(columns, c -> c.copy(freezer));
+		result.relationals = freezer.list(relationals, r -> r.copy(freezer));
+		result.extensions = freezer.map(extensions);
+		result.frozen = freezer.isFreeze();
+		return result;
+	}
+
+	/**
+	 * 是否已经冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 	@Override
 	public String toString() {
 		return "JsgBean [name=" + name + ", remark=" + remark + ", columns=" + columns + ", relationals=" + relationals + ", extensions=" + extensions + "]";
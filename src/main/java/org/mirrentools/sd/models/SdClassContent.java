@@ -1,5 +1,6 @@
 package org.mirrentools.sd.models;
 
+import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +14,8 @@ import org.mirrentools.sd.common.SdUtil;
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
  */
-public class SdClassContent {
+public class SdClassContent implements Serializable {
+	private static final long serialVersionUID = 1L;
 	/** 表的名字 */
 	private String tableName;
 	/** 表的名字帕斯卡命名 */
@@ -36,6 +38,92 @@ public class SdClassContent {
 	private Set<String> getSet;
 	/** 拓展属性 */
 	private Map<String, Object> extensions;
+	/** 是否已经冻结,只在内存中有效,反序列化后的对象没有冻结 */
+	private transient boolean frozen;
+
+	/**
+	 * 获取表的名字
+	 * 
+	 * @return
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * 设置表的名字
+	 * 
+	 * @param tableName
+	 * @return
+	 */
+	public SdClassContent setTableName(String tableName) {
+		SdFreezer.check(frozen);
+		this.tableName = tableName;
+		return this;
+	}
+
+	/**
+	 * 获取表的名字帕斯卡命名
+	 * 
+	 * @return
+	 */
+	public String getPascalName() {
+		return pascalName;
+	}
+
+	/**
+	 * 设置表的名字帕斯卡命名
+	 * 
+	 * @param pascalName
+	 * @return
+	 */
+	public SdClassContent setPascalName(String pascalName) {
+		SdFreezer.check(frozen);
+		this.pascalName = pascalName;
+		return this;
+	}
+
+	/**
+	 * 获取表的名字驼峰命名
+	 * 
+	 * @return
+	 */
+	public String getCamelName() {
+		return camelName;
+	}
+
+	/**
+	 * 设置表的名字驼峰命名
+	 * 
+	 * @param camelName
+	 * @return
+	 */
+	public SdClassContent setCamelName(String camelName) {
+		SdFreezer.check(frozen);
+		this.camelName = camelName;
+		return this;
+	}
+
+	/**
+	 * 获取表的注释
+	 * 
+	 * @return
+	 */
+	public String getRemark() {
+		return remark;
+	}
+
+	/**
+	 * 设置表的注释
+	 * 
+	 * @param remark
+	 * @return
+	 */
+	public SdClassContent setRemark(String remark) {
+		SdFreezer.check(frozen);
+		this.remark = remark;
+		return this;
+	}
 
 	/**
 	 * 获取需要引入的包
@@ -52,6 +140,7 @@ public class SdClassContent {
 	 * @param imports
 	 */
 	public SdClassContent setImports(Set<String> imports) {
+		SdFreezer.check(frozen);
 		this.imports = imports;
 		return this;
 	}
@@ -72,6 +161,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setAllField(List<SdColumn> allField) {
+		SdFreezer.check(frozen);
 		this.allField = allField;
 		return this;
 	}
@@ -92,6 +182,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setPrimaryField(List<SdColumn> primaryField) {
+		SdFreezer.check(frozen);
 		this.primaryField = primaryField;
 		return this;
 	}
@@ -112,6 +203,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setIndexField(List<SdColumn> indexField) {
+		SdFreezer.check(frozen);
 		this.indexField = indexField;
 		return this;
 	}
@@ -132,6 +224,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setRelationals(List<SdRelational> relationals) {
+		SdFreezer.check(frozen);
 		this.relationals = relationals;
 		return this;
 	}
@@ -152,6 +245,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setGetSet(Set<String> getSet) {
+		SdFreezer.check(frozen);
 		this.getSet = getSet;
 		return this;
 	}
@@ -175,6 +269,7 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent addExtension(String key, Object value) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(key)) {
 			return this;
 		}
@@ -196,8 +291,69 @@ public class SdClassContent {
 	 * @return
 	 */
 	public SdClassContent setExtensions(Map<String, Object> extensions) {
+		SdFreezer.check(frozen);
 		this.extensions = extensions;
 		return this;
 	}
 
+	/**
+	 * 获取冻结后的实体属性,冻结后的对象不可修改(修改时抛出UnsupportedOperationException),可以同时交给多个线程使用;<br>
+	 * 列表冻结为数组实现的只读列表,相等的字符串、导入包、注解与拓展属性共享同一个实例,拓展属性的值不会被复制;<br>
+	 * 原对象不受影响,已经冻结的对象返回自己;交给其他线程时需要安全发布,见{@link SdBean#freeze()}
+	 * 
+	 * @return
+	 */
+	public SdClassContent freeze() {
+		return frozen ? this : copy(new SdFreezer(true));
+	}
+
+	/**
+	 * 获取可以修改的深度复制,冻结的对象也可以复制,复制的集合为ArrayList、LinkedHashSet与LinkedHashMap,拓展属性的值不会被复制
+	 * 
+	 * @return
+	 */
+	public SdClassContent copy() {
+		return copy(new SdFreezer(false));
+	}
+
+	/**
+	 * 在冻结上下文中冻结或者复制
+	 * 
+	 * @param freezer
+	 * @return
+	 */
+	SdClassContent copy(SdFreezer freezer) {
+		if (frozen && freezer.isFreeze()) {
+			return this;
+		}
+		SdClassContent result = freezer.get(this);
+		if (result != null) {
+			return result;
+		}
+		result = new SdClassContent();
+		freezer.put(this, result);
+		result.tableName = freezer.string(tableName);
+		result.pascalName = freezer.string(pascalName);
+		result.camelName = freezer.string(camelName);
+		result.remark = freezer.string(remark);
+		result.imports = freezer.set(imports);
+		result.allField = freezer.list(allField, c -> c.copy(freezer));
+		result.primaryField = freezer.list(primaryField, c -> c.copy(freezer));
+		result.indexField = freezer.list(indexField, c -> c.copy(freezer));
+		result.relationals = freezer.list(relationals, r -> r.copy(freezer));
+		result.getSet = freezer.set(getSet);
+		result.extensions = freezer.map(extensions);
+		result.frozen = freezer.isFreeze();
+		return result;
+	}
+
+	/**
+	 * 是否已经冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 }
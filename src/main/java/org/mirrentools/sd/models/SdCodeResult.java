@@ -0,0 +1,114 @@
+package org.mirrentools.sd.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 代码生成的执行结果,记录每个模板的生成结果
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCodeResult {
+	/** 模板的生成结果,key为模板的名字,value为是否生成成功 */
+	private Map<String, Boolean> results = new LinkedHashMap<String, Boolean>();
+	/** 生成失败的模板异常,key为模板的名字 */
+	private Map<String, Throwable> errors = new LinkedHashMap<String, Throwable>();
+
+	/**
+	 * 添加模板的生成结果
+	 *
+	 * @param key
+	 *          模板的名字
+	 * @param succeeded
+	 *          是否生成成功
+	 * @return
+	 */
+	public SdCodeResult put(String key, boolean succeeded) {
+		this.results.put(key, succeeded);
+		return this;
+	}
+
+	/**
+	 * 添加模板生成失败的异常
+	 *
+	 * @param key
+	 *          模板的名字
+	 * @param error
+	 *          异常信息
+	 * @return
+	 */
+	public SdCodeResult putError(String key, Throwable error) {
+		this.results.put(key, false);
+		this.errors.put(key, error);
+		return this;
+	}
+
+	/**
+	 * 是否所有模板都生成成功
+	 *
+	 * @return
+	 */
+	public boolean isSucceeded() {
+		return !results.containsValue(false);
+	}
+
+	/**
+	 * 获取指定模板是否生成成功
+	 *
+	 * @param key
+	 * @return
+	 */
+	public boolean isSucceeded(String key) {
+		return Boolean.TRUE.equals(results.get(key));
+	}
+
+	/**
+	 * 获取生成成功的数量
+	 *
+	 * @return
+	 */
+	public int getSucceededCount() {
+		int count = 0;
+		for (Boolean item : results.values()) {
+			if (item) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 获取生成失败的数量
+	 *
+	 * @return
+	 */
+	public int getFailedCount() {
+		return results.size() - getSucceededCount();
+	}
+
+	/**
+	 * 获取所有模板的生成结果
+	 *
+	 * @return
+	 */
+	public Map<String, Boolean> getResults() {
+		return Collections.unmodifiableMap(results);
+	}
+
+	/**
+	 * 获取生成失败的模板异常
+	 *
+	 * @return
+	 */
+	public Map<String, Throwable> getErrors() {
+		return Collections.unmodifiableMap(errors);
+	}
+
+	@Override
+	public String toString() {
+		return "SdCodeResult [results=" + results + ", errors=" + errors + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.mirrentools.sd.models;
 
+import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -16,7 +17,8 @@ import org.mirrentools.sd.common.SdUtil;
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
  */
-public class SdColumn {
+public class SdColumn implements Serializable {
+	private static final long serialVersionUID = 1L;
 	/*
 	 * 类属性, 如果类属性不为空就取类属性, 如果类属性为空就将表属性转换为类属性
 	 */
@@ -62,6 +64,8 @@ public class SdColumn {
 	private boolean autoIncrement;
 	/** 拓展属性 */
 	private Map<String, Object> extensions;
+	/** 是否已经冻结,只在内存中有效,反序列化后的对象没有冻结 */
+	private transient boolean frozen;
 
 	/**
 	 * 获取类属性需要引入的包
@@ -79,6 +83,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn addImport(String imports) {
+		SdFreezer.check(frozen);
 		if (getImports() == null) {
 			this.imports = new LinkedHashSet<String>();
 		}
@@ -93,6 +98,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setImports(Set<String> imports) {
+		SdFreezer.check(frozen);
 		this.imports = imports;
 		return this;
 	}
@@ -113,7 +119,8 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn addAnnotation(String annotation) {
-		if (getImports() == null) {
+		SdFreezer.check(frozen);
+		if (getAnnotations() == null) {
 			this.annotations = new LinkedHashSet<String>();
 		}
 		this.annotations.add(annotation);
@@ -127,6 +134,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setAnnotations(Set<String> annotations) {
+		SdFreezer.check(frozen);
 		this.annotations = annotations;
 		return this;
 	}
@@ -147,6 +155,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setFieldType(String fieldType) {
+		SdFreezer.check(frozen);
 		this.fieldType = fieldType;
 		return this;
 	}
@@ -167,6 +176,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setFieldName(String fieldName) {
+		SdFreezer.check(frozen);
 		this.fieldName = fieldName;
 		return this;
 	}
@@ -187,6 +197,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setFieldRemark(String fieldRemark) {
+		SdFreezer.check(frozen);
 		this.fieldRemark = fieldRemark;
 		return this;
 	}
@@ -207,6 +218,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setName(String name) {
+		SdFreezer.check(frozen);
 		this.name = name;
 		return this;
 	}
@@ -227,6 +239,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setType(String type) {
+		SdFreezer.check(frozen);
 		this.type = type;
 		return this;
 	}
@@ -247,6 +260,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setLength(String length) {
+		SdFreezer.check(frozen);
 		this.length = length;
 		return this;
 	}
@@ -267,6 +281,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setDefault(String _default) {
+		SdFreezer.check(frozen);
 		this._default = _default;
 		return this;
 	}
@@ -287,6 +302,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setPrimary(boolean primary) {
+		SdFreezer.check(frozen);
 		this.primary = primary;
 		return this;
 	}
@@ -307,6 +323,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setPrimaryName(String primaryName) {
+		SdFreezer.check(frozen);
 		this.primaryName = primaryName;
 		return this;
 	}
@@ -327,6 +344,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setIndex(boolean index) {
+		SdFreezer.check(frozen);
 		this.index = index;
 		return this;
 	}
@@ -347,6 +365,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setIndexType(String indexType) {
+		SdFreezer.check(frozen);
 		this.indexType = indexType;
 		return this;
 	}
@@ -367,6 +386,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setIndexName(String indexName) {
+		SdFreezer.check(frozen);
 		this.indexName = indexName;
 		return this;
 	}
@@ -387,6 +407,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setNullable(boolean nullable) {
+		SdFreezer.check(frozen);
 		this.nullable = nullable;
 		return this;
 	}
@@ -407,6 +428,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setUnsigned(boolean unsigned) {
+		SdFreezer.check(frozen);
 		this.unsigned = unsigned;
 		return this;
 	}
@@ -427,6 +449,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setAutoIncrement(boolean autoIncrement) {
+		SdFreezer.check(frozen);
 		this.autoIncrement = autoIncrement;
 		return this;
 	}
@@ -447,6 +470,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setRemark(String remark) {
+		SdFreezer.check(frozen);
 		this.remark = remark;
 		return this;
 	}
@@ -471,6 +495,7 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn addExtension(String key, Object value) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(key)) {
 			return this;
 		}
@@ -497,10 +522,79 @@ public class SdColumn {
 	 * @return
 	 */
 	public SdColumn setExtensions(Map<String, Object> extensions) {
+		SdFreezer.check(frozen);
 		this.extensions = extensions;
 		return this;
 	}
 
+	/**
+	 * 获取冻结后的属性,冻结后的对象不可修改(修改时抛出UnsupportedOperationException),可以同时交给多个线程使用;<br>
+	 * 列表冻结为数组实现的只读列表,相等的字符串、导入包、注解与拓展属性共享同一个实例,拓展属性的值不会被复制;<br>
+	 * 原对象不受影响,已经冻结的对象返回自己;交给其他线程时需要安全发布,见{@link SdBean#freeze()}
+	 * 
+	 * @return
+	 */
+	public SdColumn freeze() {
+		return frozen ? this : copy(new SdFreezer(true));
+	}
+
+	/**
+	 * 获取可以修改的深度复制,冻结的对象也可以复制,复制的集合为ArrayList、LinkedHashSet与LinkedHashMap,拓展属性的值不会被复制
+	 * 
+	 * @return
+	 */
+	public SdColumn copy() {
+		return copy(new SdFreezer(false));
+	}
+
+	/**
+	 * 在冻结上下文中冻结或者复制
+	 * 
+	 * @param freezer
+	 * @return
+	 */
+	SdColumn copy(SdFreezer freezer) {
+		if (frozen && freezer.isFreeze()) {
+			return this;
+		}
+		SdColumn result = freezer.get(this);
+		if (result != null) {
+			return result;
+		}
+		result = new SdColumn();
+		freezer.put(this, result);
+		result.imports = freezer.set(imports);
+		result.annotations = freezer.set(annotations);
+		result.fieldType = freezer.string(fieldType);
+		result.fieldName = freezer.string(fieldName);
+		result.fieldRemark = freezer.string(fieldRemark);
+		result.name = freezer.string(name);
+		result.type = freezer.string(type);
+		result.remark = freezer.string(remark);
+		result.length = freezer.string(length);
+		result._default = freezer.string(_default);
+		result.primary = primary;
+		result.primaryName = freezer.string(primaryName);
+		result.index = index;
+		result.indexType = freezer.string(indexType);
+		result.indexName = freezer.string(indexName);
+		result.nullable = nullable;
+		result.unsigned = unsigned;
+		result.autoIncrement = autoIncrement;
+		result.extensions = freezer.map(extensions);
+		result.frozen = freezer.isFreeze();
+		return result;
+	}
+
+	/**
+	 * 是否已经冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 	@Override
 	public String toString() {
 		return "SdColumn [imports=" + imports + ", annotations=" + annotations + ", fieldType=" + fieldType + ", fieldName=" + fieldName + ", fieldRemark=" + fieldRemark + ", name=" + name + ", type="
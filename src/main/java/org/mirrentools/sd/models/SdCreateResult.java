@@ -0,0 +1,174 @@
+package org.mirrentools.sd.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同时生成项目、代码与SQL的执行结果,记录每个阶段的结果、异常与耗时,<br>
+ * 没有设置生成工具的阶段记录为跳过
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCreateResult {
+	/** 阶段:生成项目 */
+	public static final String PROJECT = "project";
+	/** 阶段:生成代码 */
+	public static final String CODE = "code";
+	/** 阶段:生成SQL */
+	public static final String SQL = "sql";
+
+	/** 阶段的执行结果,key为阶段,value为是否执行成功 */
+	private Map<String, Boolean> results = new LinkedHashMap<String, Boolean>();
+	/** 执行失败的阶段异常,key为阶段 */
+	private Map<String, Throwable> errors = new LinkedHashMap<String, Throwable>();
+	/** 阶段的耗时,key为阶段,单位纳秒 */
+	private Map<String, Long> elapsed = new LinkedHashMap<String, Long>();
+	/** 跳过的阶段 */
+	private Set<String> skipped = new LinkedHashSet<String>();
+	/** 代码生成的详细结果 */
+	private SdCodeResult codeResult;
+
+	/**
+	 * 添加阶段的执行结果
+	 *
+	 * @param stage
+	 *          阶段
+	 * @param succeeded
+	 *          是否执行成功
+	 * @param elapsedNanos
+	 *          耗时,单位纳秒
+	 * @return
+	 */
+	public synchronized SdCreateResult put(String stage, boolean succeeded, long elapsedNanos) {
+		this.results.put(stage, succeeded);
+		this.elapsed.put(stage, elapsedNanos);
+		return this;
+	}
+
+	/**
+	 * 添加阶段执行失败的异常
+	 *
+	 * @param stage
+	 *          阶段
+	 * @param error
+	 *          异常信息
+	 * @param elapsedNanos
+	 *          耗时,单位纳秒
+	 * @return
+	 */
+	public synchronized SdCreateResult putError(String stage, Throwable error, long elapsedNanos) {
+		this.results.put(stage, false);
+		this.errors.put(stage, error);
+		this.elapsed.put(stage, elapsedNanos);
+		return this;
+	}
+
+	/**
+	 * 添加跳过的阶段
+	 *
+	 * @param stage
+	 * @return
+	 */
+	public synchronized SdCreateResult skip(String stage) {
+		this.skipped.add(stage);
+		return this;
+	}
+
+	/**
+	 * 是否所有执行的阶段都成功
+	 *
+	 * @return
+	 */
+	public synchronized boolean isSucceeded() {
+		return !results.containsValue(false);
+	}
+
+	/**
+	 * 获取指定阶段是否执行成功
+	 *
+	 * @param stage
+	 * @return 跳过的阶段返回false
+	 */
+	public synchronized boolean isSucceeded(String stage) {
+		return Boolean.TRUE.equals(results.get(stage));
+	}
+
+	/**
+	 * 判断阶段是否跳过
+	 *
+	 * @param stage
+	 * @return
+	 */
+	public synchronized boolean isSkipped(String stage) {
+		return skipped.contains(stage);
+	}
+
+	/**
+	 * 获取阶段的耗时,单位毫秒
+	 *
+	 * @param stage
+	 * @return 没有执行的阶段返回0
+	 */
+	public synchronized long getElapsedMillis(String stage) {
+		Long nanos = elapsed.get(stage);
+		return nanos == null ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * 获取所有阶段的执行结果
+	 *
+	 * @return
+	 */
+	public synchronized Map<String, Boolean> getResults() {
+		return Collections.unmodifiableMap(new LinkedHashMap<String, Boolean>(results));
+	}
+
+	/**
+	 * 获取执行失败的阶段异常
+	 *
+	 * @return
+	 */
+	public synchronized Map<String, Throwable> getErrors() {
+		return Collections.unmodifiableMap(new LinkedHashMap<String, Throwable>(errors));
+	}
+
+	/**
+	 * 获取跳过的阶段
+	 *
+	 * @return
+	 */
+	public synchronized Set<String> getSkipped() {
+		return Collections.unmodifiableSet(new LinkedHashSet<String>(skipped));
+	}
+
+	/**
+	 * 获取代码生成的详细结果
+	 *
+	 * @return 没有生成代码时返回null
+	 */
+	public synchronized SdCodeResult getCodeResult() {
+		return codeResult;
+	}
+
+	/**
+	 * 设置代码生成的详细结果
+	 *
+	 * @param codeResult
+	 * @return
+	 */
+	public synchronized SdCreateResult setCodeResult(SdCodeResult codeResult) {
+		this.codeResult = codeResult;
+		return this;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SdCreateResult [results=" + results + ", errors=" + errors + ", skipped=" + skipped + "]";
+	}
+
+}
@@ -0,0 +1,184 @@
+package org.mirrentools.sd.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 一次冻结或者复制操作的上下文,<br>
+ * 相等的字符串、集合与拓展属性在同一次冻结中只保留一份,同一个对象只冻结一次(所以循环引用也可以冻结),<br>
+ * 列表冻结为数组实现的只读列表;复制时集合复制为可以修改的集合,同一个对象同样只复制一次;<br>
+ * 只有{@link #check(boolean)}是公开的,供其他包中可以冻结的模型(例如SdField)检查
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public final class SdFreezer {
+	/** 相等的值共享同一个实例 */
+	private final Map<Object, Object> pool = new HashMap<Object, Object>();
+	/** 已经冻结的对象,key为原对象 */
+	private final Map<Object, Object> frozen = new IdentityHashMap<Object, Object>();
+	/** true为冻结,false为复制 */
+	private final boolean freeze;
+
+	/**
+	 * 初始化
+	 *
+	 * @param freeze
+	 *          true为冻结,false为复制成可以修改的对象
+	 */
+	SdFreezer(boolean freeze) {
+		super();
+		this.freeze = freeze;
+	}
+
+	/**
+	 * 检查对象是否可以修改
+	 *
+	 * @param frozen
+	 *          对象是否已经冻结
+	 */
+	public static void check(boolean frozen) {
+		if (frozen) {
+			throw new UnsupportedOperationException("对象已经冻结,不能修改,需要修改时请使用未冻结的对象");
+		}
+	}
+
+	/**
+	 * 是否为冻结,false为复制
+	 *
+	 * @return
+	 */
+	boolean isFreeze() {
+		return freeze;
+	}
+
+	/**
+	 * 获取已经冻结的对象
+	 *
+	 * @param original
+	 *          原对象
+	 * @return 没有冻结过时返回null
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T get(T original) {
+		return (T) frozen.get(original);
+	}
+
+	/**
+	 * 记录冻结的对象,需要在冻结属性之前记录,以支持循环引用
+	 *
+	 * @param original
+	 *          原对象
+	 * @param copy
+	 *          冻结的对象
+	 */
+	<T> void put(T original, T copy) {
+		frozen.put(original, copy);
+	}
+
+	/**
+	 * 获取共享的字符串
+	 *
+	 * @param str
+	 * @return
+	 */
+	String string(String str) {
+		return str == null ? null : share(str);
+	}
+
+	/**
+	 * 冻结字符串集合
+	 *
+	 * @param set
+	 * @return
+	 */
+	Set<String> set(Set<String> set) {
+		if (set == null) {
+			return null;
+		}
+		if (!freeze) {
+			return new LinkedHashSet<String>(set);
+		}
+		if (set.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Set<String> result = new LinkedHashSet<String>(set.size() * 4 / 3 + 1);
+		for (String str : set) {
+			result.add(string(str));
+		}
+		return share(Collections.unmodifiableSet(result));
+	}
+
+	/**
+	 * 冻结拓展属性,拓展属性的值不会被复制
+	 *
+	 * @param map
+	 * @return
+	 */
+	Map<String, Object> map(Map<String, Object> map) {
+		if (map == null) {
+			return null;
+		}
+		if (!freeze) {
+			return new LinkedHashMap<String, Object>(map);
+		}
+		if (map.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, Object> result = new LinkedHashMap<String, Object>(map.size() * 4 / 3 + 1);
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			Object value = entry.getValue();
+			result.put(string(entry.getKey()), value instanceof String ? string((String) value) : value);
+		}
+		return share(Collections.unmodifiableMap(result));
+	}
+
+	/**
+	 * 冻结列表
+	 *
+	 * @param list
+	 *          列表
+	 * @param freeze
+	 *          冻结或者复制元素的方法
+	 * @return
+	 */
+	<T> List<T> list(List<T> list, Function<T, T> freeze) {
+		if (list == null) {
+			return null;
+		}
+		if (!this.freeze) {
+			List<T> result = new ArrayList<T>(list.size());
+			for (T item : list) {
+				result.add(item == null ? null : freeze.apply(item));
+			}
+			return result;
+		}
+		if (list.isEmpty()) {
+			return Collections.emptyList();
+		}
+		@SuppressWarnings("unchecked")
+		T[] array = (T[]) list.toArray();
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] != null) {
+				array[i] = freeze.apply(array[i]);
+			}
+		}
+		return Collections.unmodifiableList(Arrays.asList(array));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T share(T value) {
+		Object shared = pool.putIfAbsent(value, value);
+		return shared == null ? value : (T) shared;
+	}
+
+}
@@ -0,0 +1,212 @@
+package org.mirrentools.sd.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成指标的快照,记录每个阶段以及阶段中每个key(模板的key、类的名字或SQL)的数量与耗时,<br>
+ * 快照创建以后不会再改变
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdMetricsSnapshot {
+	/** 阶段的统计,key为阶段 */
+	private final Map<String, Stats> stages;
+	/** 阶段中每个key的统计,key为阶段 */
+	private final Map<String, Map<String, Stats>> keys;
+
+	/**
+	 * 初始化
+	 *
+	 * @param stages
+	 *          阶段的统计
+	 * @param keys
+	 *          阶段中每个key的统计
+	 */
+	public SdMetricsSnapshot(Map<String, Stats> stages, Map<String, Map<String, Stats>> keys) {
+		this.stages = Collections.unmodifiableMap(new TreeMap<String, Stats>(stages));
+		Map<String, Map<String, Stats>> copy = new TreeMap<String, Map<String, Stats>>();
+		for (Map.Entry<String, Map<String, Stats>> entry : keys.entrySet()) {
+			copy.put(entry.getKey(), Collections.unmodifiableMap(new TreeMap<String, Stats>(entry.getValue())));
+		}
+		this.keys = Collections.unmodifiableMap(copy);
+	}
+
+	/**
+	 * 获取阶段的统计
+	 *
+	 * @param stage
+	 * @return 没有记录时返回null
+	 */
+	public Stats getStage(String stage) {
+		return stages.get(stage);
+	}
+
+	/**
+	 * 获取阶段中指定key的统计
+	 *
+	 * @param stage
+	 * @param key
+	 * @return 没有记录时返回null
+	 */
+	public Stats getStage(String stage, String key) {
+		Map<String, Stats> map = keys.get(stage);
+		return map == null ? null : map.get(key);
+	}
+
+	/**
+	 * 获取所有阶段的统计
+	 *
+	 * @return
+	 */
+	public Map<String, Stats> getStages() {
+		return stages;
+	}
+
+	/**
+	 * 获取阶段中所有key的统计
+	 *
+	 * @param stage
+	 * @return
+	 */
+	public Map<String, Stats> getKeys(String stage) {
+		Map<String, Stats> map = keys.get(stage);
+		return map == null ? Collections.<String, Stats>emptyMap() : map;
+	}
+
+	/**
+	 * 将快照转换为Map,方便输出为JSON或者导入其他监控系统
+	 *
+	 * @return
+	 */
+	public Map<String, Object> toMap() {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		for (Map.Entry<String, Stats> entry : stages.entrySet()) {
+			Map<String, Object> stage = entry.getValue().toMap();
+			Map<String, Object> children = new LinkedHashMap<String, Object>();
+			for (Map.Entry<String, Stats> key : getKeys(entry.getKey()).entrySet()) {
+				children.put(key.getKey(), key.getValue().toMap());
+			}
+			stage.put("keys", children);
+			result.put(entry.getKey(), stage);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (Map.Entry<String, Stats> entry : stages.entrySet()) {
+			result.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+			for (Map.Entry<String, Stats> key : getKeys(entry.getKey()).entrySet()) {
+				result.append("  ").append(key.getKey()).append(' ').append(key.getValue()).append('\n');
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * 一个阶段或者一个key的统计,耗时的单位为纳秒,百分位为所在直方图桶的上限
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	public static class Stats {
+		/** 数量 */
+		private final long count;
+		/** 失败的数量 */
+		private final long errors;
+		/** 总耗时 */
+		private final long totalNanos;
+		/** 最大耗时 */
+		private final long maxNanos;
+		/** 50%的耗时 */
+		private final long p50Nanos;
+		/** 90%的耗时 */
+		private final long p90Nanos;
+		/** 99%的耗时 */
+		private final long p99Nanos;
+
+		public Stats(long count, long errors, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos) {
+			this.count = count;
+			this.errors = errors;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.p50Nanos = p50Nanos;
+			this.p90Nanos = p90Nanos;
+			this.p99Nanos = p99Nanos;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * 获取平均耗时,单位纳秒
+		 *
+		 * @return
+		 */
+		public long getMeanNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		public long getP50Nanos() {
+			return p50Nanos;
+		}
+
+		public long getP90Nanos() {
+			return p90Nanos;
+		}
+
+		public long getP99Nanos() {
+			return p99Nanos;
+		}
+
+		/**
+		 * 将统计转换为Map,耗时的单位为纳秒
+		 *
+		 * @return
+		 */
+		public Map<String, Object> toMap() {
+			Map<String, Object> result = new LinkedHashMap<String, Object>();
+			result.put("count", count);
+			result.put("errors", errors);
+			result.put("totalNanos", totalNanos);
+			result.put("meanNanos", getMeanNanos());
+			result.put("maxNanos", maxNanos);
+			result.put("p50Nanos", p50Nanos);
+			result.put("p90Nanos", p90Nanos);
+			result.put("p99Nanos", p99Nanos);
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return "[count=" + count + ", errors=" + errors + ", total=" + millis(totalNanos) + "ms, mean=" + millis(getMeanNanos())
+					+ "ms, p50=" + millis(p50Nanos) + "ms, p90=" + millis(p90Nanos) + "ms, p99=" + millis(p99Nanos) + "ms, max="
+					+ millis(maxNanos) + "ms]";
+		}
+
+		private static String millis(long nanos) {
+			return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.mirrentools.sd.models;
 
+import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -11,7 +12,8 @@ import org.mirrentools.sd.common.SdUtil;
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
  */
-public class SdRelational {
+public class SdRelational implements Serializable {
+	private static final long serialVersionUID = 1L;
 	/** 类型修饰,比如List<>或Set<>等,如果没有则等于null */
 	private String type;
 	/** 属性的名字 */
@@ -20,12 +22,15 @@ public class SdRelational {
 	private SdBean bean;
 	/** 拓展属性 */
 	private Map<String, Object> extensions;
+	/** 是否已经冻结,只在内存中有效,反序列化后的对象没有冻结 */
+	private transient boolean frozen;
 
 	public String getType() {
 		return type;
 	}
 
 	public SdRelational setType(String type) {
+		SdFreezer.check(frozen);
 		this.type = type;
 		return this;
 	}
@@ -35,6 +40,7 @@ public class SdRelational {
 	}
 
 	public SdRelational setName(String name) {
+		SdFreezer.check(frozen);
 		this.name = name;
 		return this;
 	}
@@ -44,6 +50,7 @@ public class SdRelational {
 	}
 
 	public SdRelational setBean(SdBean bean) {
+		SdFreezer.check(frozen);
 		this.bean = bean;
 		return this;
 	}
@@ -68,6 +75,7 @@ public class SdRelational {
 	 * @return
 	 */
 	public SdRelational addExtension(String key, Object value) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(key)) {
 			return this;
 		}
@@ -83,10 +91,64 @@ public class SdRelational {
 	}
 
 	public SdRelational setExtensions(Map<String, Object> extensions) {
+		SdFreezer.check(frozen);
 		this.extensions = extensions;
 		return this;
 	}
 
+	/**
+	 * 获取冻结后的关系属性,关联的实体也会被冻结,冻结后的对象不可修改(修改时抛出UnsupportedOperationException),可以同时交给多个线程使用;<br>
+	 * 列表冻结为数组实现的只读列表,相等的字符串、导入包、注解与拓展属性共享同一个实例,拓展属性的值不会被复制;<br>
+	 * 原对象不受影响,已经冻结的对象返回自己;交给其他线程时需要安全发布,见{@link SdBean#freeze()}
+	 * 
+	 * @return
+	 */
+	public SdRelational freeze() {
+		return frozen ? this : copy(new SdFreezer(true));
+	}
+
+	/**
+	 * 获取可以修改的深度复制,冻结的对象也可以复制,复制的集合为ArrayList、LinkedHashSet与LinkedHashMap,拓展属性的值不会被复制
+	 * 
+	 * @return
+	 */
+	public SdRelational copy() {
+		return copy(new SdFreezer(false));
+	}
+
+	/**
+	 * 在冻结上下文中冻结或者复制
+	 * 
+	 * @param freezer
+	 * @return
+	 */
+	SdRelational copy(SdFreezer freezer) {
+		if (frozen && freezer.isFreeze()) {
+			return this;
+		}
+		SdRelational result = freezer.get(this);
+		if (result != null) {
+			return result;
+		}
+		result = new SdRelational();
+		freezer.put(this, result);
+		result.type = freezer.string(type);
+		result.name = freezer.string(name);
+		result.bean = bean == null ? null : bean.copy(freezer);
+		result.extensions = freezer.map(extensions);
+		result.frozen = freezer.isFreeze();
+		return result;
+	}
+
+	/**
+	 * 是否已经冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
 	@Override
 	public String toString() {
 		return "JsgRelational [type=" + type + ", name=" + name + ", bean=" + bean + ", extensions=" + extensions + "]";
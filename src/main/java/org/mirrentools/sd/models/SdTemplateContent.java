@@ -0,0 +1,153 @@
+package org.mirrentools.sd.models;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层的模板数据,每个实体只创建一次不可修改的基础层,生成每个模板时再叠加一个只引用SdTemplate的模板层,<br>
+ * 所以生成20个模板只需要转换一次数据;<br>
+ * 模板层提供template、packageName、className与attributes(key为属性的key,value为属性的值),同名时覆盖基础层
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateContent extends AbstractMap<String, Object> {
+	/** 模板层:当前的模板 */
+	public static final String TEMPLATE = "template";
+	/** 模板层:当前模板的包名 */
+	public static final String PACKAGE_NAME = "packageName";
+	/** 模板层:当前模板的类名 */
+	public static final String CLASS_NAME = "className";
+	/** 模板层:当前模板的属性 */
+	public static final String ATTRIBUTES = "attributes";
+
+	/** 基础层 */
+	private final Map<String, Object> base;
+
+	/**
+	 * 初始化基础层
+	 *
+	 * @param base
+	 *          基础层的数据,创建后不可修改
+	 */
+	public SdTemplateContent(Map<String, Object> base) {
+		super();
+		this.base = Collections.unmodifiableMap(new LinkedHashMap<String, Object>(base));
+	}
+
+	/**
+	 * 获取叠加了模板层的数据
+	 *
+	 * @param template
+	 *          模板
+	 * @return template为null时返回基础层
+	 */
+	public Map<String, Object> overlay(SdTemplate template) {
+		return template == null ? this : new Overlay(base, template);
+	}
+
+	/**
+	 * 获取基础层
+	 *
+	 * @return
+	 */
+	public Map<String, Object> getBase() {
+		return base;
+	}
+
+	@Override
+	public Object get(Object key) {
+		return base.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return base.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return base.size();
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return base.entrySet();
+	}
+
+	/**
+	 * 模板层
+	 *
+	 * @author <a href="http://mirrentools.org">Mirren</a>
+	 *
+	 */
+	private static class Overlay extends AbstractMap<String, Object> {
+		/** 基础层 */
+		private final Map<String, Object> base;
+		/** 模板 */
+		private final SdTemplate template;
+		/** 模板的属性,第一次使用时创建 */
+		private Map<String, Object> attributes;
+		/** 合并后的数据,遍历时才创建 */
+		private Map<String, Object> merged;
+
+		Overlay(Map<String, Object> base, SdTemplate template) {
+			this.base = base;
+			this.template = template;
+		}
+
+		@Override
+		public Object get(Object key) {
+			if (key instanceof String) {
+				switch ((String) key) {
+				case TEMPLATE:
+					return template;
+				case PACKAGE_NAME:
+					return template.getPackageName();
+				case CLASS_NAME:
+					return template.getClassName();
+				case ATTRIBUTES:
+					return getAttributes();
+				default:
+					break;
+				}
+			}
+			return base.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return TEMPLATE.equals(key) || PACKAGE_NAME.equals(key) || CLASS_NAME.equals(key) || ATTRIBUTES.equals(key) || base.containsKey(key);
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			if (merged == null) {
+				Map<String, Object> result = new LinkedHashMap<String, Object>(base);
+				result.put(TEMPLATE, template);
+				result.put(PACKAGE_NAME, template.getPackageName());
+				result.put(CLASS_NAME, template.getClassName());
+				result.put(ATTRIBUTES, getAttributes());
+				merged = Collections.unmodifiableMap(result);
+			}
+			return merged.entrySet();
+		}
+
+		private Map<String, Object> getAttributes() {
+			if (attributes == null) {
+				Map<String, Object> result = new LinkedHashMap<String, Object>();
+				if (template.getAttributes() != null) {
+					for (SdTemplateAttribute attribute : template.getAttributes()) {
+						result.put(attribute.getKey(), attribute.getValue());
+					}
+				}
+				attributes = Collections.unmodifiableMap(result);
+			}
+			return attributes;
+		}
+	}
+
+}
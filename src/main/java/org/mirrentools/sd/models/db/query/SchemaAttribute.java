@@ -0,0 +1,251 @@
+package org.mirrentools.sd.models.db.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据库模式的属性,一次性加载模式中所有表的表/列/主键/索引/外键属性,<br>
+ * 除表属性外都以表名为键,按照表名的顺序存放
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SchemaAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/** 模式的名称 */
+	private String schemaName;
+	/** 表属性 */
+	private Map<String, TableAttribute> tables = new LinkedHashMap<>();
+	/** 表的列属性 */
+	private Map<String, List<TableColumnAttribute>> columns = new LinkedHashMap<>();
+	/** 表的主键属性 */
+	private Map<String, List<TablePrimaryKeyAttribute>> primaryKeys = new LinkedHashMap<>();
+	/** 表的索引属性 */
+	private Map<String, List<TableIndexKeyAttribute>> indexKeys = new LinkedHashMap<>();
+	/** 表的外键属性 */
+	private Map<String, List<TableForeignKeyAttribute>> foreignKeys = new LinkedHashMap<>();
+
+	public SchemaAttribute() {
+		super();
+	}
+
+	public SchemaAttribute(String schemaName) {
+		super();
+		this.schemaName = schemaName;
+	}
+
+	/**
+	 * 添加表属性
+	 *
+	 * @param table
+	 * @return
+	 */
+	public SchemaAttribute addTable(TableAttribute table) {
+		tables.put(table.getTableName(), table);
+		return this;
+	}
+
+	/**
+	 * 添加列属性,列属性需要已经按表与列的顺序排好
+	 *
+	 * @param column
+	 * @return
+	 */
+	public SchemaAttribute addColumn(TableColumnAttribute column) {
+		add(columns, column.getTableName(), column);
+		return this;
+	}
+
+	/**
+	 * 添加主键属性
+	 *
+	 * @param primaryKey
+	 * @return
+	 */
+	public SchemaAttribute addPrimaryKey(TablePrimaryKeyAttribute primaryKey) {
+		add(primaryKeys, primaryKey.getTableName(), primaryKey);
+		return this;
+	}
+
+	/**
+	 * 添加索引属性
+	 *
+	 * @param indexKey
+	 * @return
+	 */
+	public SchemaAttribute addIndexKey(TableIndexKeyAttribute indexKey) {
+		add(indexKeys, indexKey.getTableName(), indexKey);
+		return this;
+	}
+
+	/**
+	 * 添加外键属性,以外键所在的表为键
+	 *
+	 * @param foreignKey
+	 * @return
+	 */
+	public SchemaAttribute addForeignKey(TableForeignKeyAttribute foreignKey) {
+		add(foreignKeys, foreignKey.getFktableName(), foreignKey);
+		return this;
+	}
+
+	/**
+	 * 合并另一个模式属性,相同的表以另一个为准
+	 *
+	 * @param other
+	 * @return
+	 */
+	public SchemaAttribute merge(SchemaAttribute other) {
+		if (schemaName == null) {
+			schemaName = other.getSchemaName();
+		}
+		tables.putAll(other.tables);
+		columns.putAll(other.columns);
+		primaryKeys.putAll(other.primaryKeys);
+		indexKeys.putAll(other.indexKeys);
+		foreignKeys.putAll(other.foreignKeys);
+		return this;
+	}
+
+	/**
+	 * 从另一个模式属性中复制指定表的所有属性,另一个模式属性中不存在该表时不做任何处理
+	 *
+	 * @param source
+	 * @param tableName
+	 * @return
+	 */
+	public SchemaAttribute copyTable(SchemaAttribute source, String tableName) {
+		TableAttribute table = source.getTable(tableName);
+		if (table == null) {
+			return this;
+		}
+		if (schemaName == null) {
+			schemaName = source.getSchemaName();
+		}
+		tables.put(tableName, table);
+		copy(source.columns, columns, tableName);
+		copy(source.primaryKeys, primaryKeys, tableName);
+		copy(source.indexKeys, indexKeys, tableName);
+		copy(source.foreignKeys, foreignKeys, tableName);
+		return this;
+	}
+
+	private static <T> void copy(Map<String, List<T>> source, Map<String, List<T>> target, String tableName) {
+		List<T> list = source.get(tableName);
+		if (list != null) {
+			target.put(tableName, list);
+		}
+	}
+
+	private static <T> void add(Map<String, List<T>> map, String tableName, T value) {
+		List<T> list = map.get(tableName);
+		if (list == null) {
+			list = new ArrayList<>();
+			map.put(tableName, list);
+		}
+		list.add(value);
+	}
+
+	/**
+	 * 获取所有表名
+	 *
+	 * @return
+	 */
+	public List<String> getTableNames() {
+		return new ArrayList<>(tables.keySet());
+	}
+
+	/**
+	 * 获取指定表的属性
+	 *
+	 * @param tableName
+	 * @return 不存在返回null
+	 */
+	public TableAttribute getTable(String tableName) {
+		return tables.get(tableName);
+	}
+
+	/**
+	 * 获取指定表的列属性
+	 *
+	 * @param tableName
+	 * @return 不存在返回空集合
+	 */
+	public List<TableColumnAttribute> getColumns(String tableName) {
+		return get(columns, tableName);
+	}
+
+	/**
+	 * 获取指定表的主键属性,复合主键按主键中的序列号排序
+	 *
+	 * @param tableName
+	 * @return 不存在返回空集合
+	 */
+	public List<TablePrimaryKeyAttribute> getPrimaryKeys(String tableName) {
+		return get(primaryKeys, tableName);
+	}
+
+	/**
+	 * 获取指定表的索引属性
+	 *
+	 * @param tableName
+	 * @return 不存在返回空集合
+	 */
+	public List<TableIndexKeyAttribute> getIndexKeys(String tableName) {
+		return get(indexKeys, tableName);
+	}
+
+	/**
+	 * 获取指定表的外键属性
+	 *
+	 * @param tableName
+	 * @return 不存在返回空集合
+	 */
+	public List<TableForeignKeyAttribute> getForeignKeys(String tableName) {
+		return get(foreignKeys, tableName);
+	}
+
+	private static <T> List<T> get(Map<String, List<T>> map, String tableName) {
+		List<T> list = map.get(tableName);
+		return list == null ? Collections.emptyList() : list;
+	}
+
+	public String getSchemaName() {
+		return schemaName;
+	}
+
+	public void setSchemaName(String schemaName) {
+		this.schemaName = schemaName;
+	}
+
+	public Map<String, TableAttribute> getTables() {
+		return tables;
+	}
+
+	public Map<String, List<TableColumnAttribute>> getColumns() {
+		return columns;
+	}
+
+	public Map<String, List<TablePrimaryKeyAttribute>> getPrimaryKeys() {
+		return primaryKeys;
+	}
+
+	public Map<String, List<TableIndexKeyAttribute>> getIndexKeys() {
+		return indexKeys;
+	}
+
+	public Map<String, List<TableForeignKeyAttribute>> getForeignKeys() {
+		return foreignKeys;
+	}
+
+	@Override
+	public String toString() {
+		return "SchemaAttribute [schemaName=" + schemaName + ", tables=" + tables.size() + ", columns=" + columns.size() + ", primaryKeys=" + primaryKeys.size()
+				+ ", indexKeys=" + indexKeys.size() + ", foreignKeys=" + foreignKeys.size() + "]";
+	}
+
+}
@@ -1,12 +1,15 @@
 package org.mirrentools.sd.models.db.query;
 
+import java.io.Serializable;
+
 /**
  * 表的属性,用于获取表属性
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
-public class TableAttribute {
+public class TableAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
 	/** 表类别（可为 null） */
 	private String tableCat;
 	/** 表模式（可为 null） */
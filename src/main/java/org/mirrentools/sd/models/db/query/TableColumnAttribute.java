@@ -1,11 +1,196 @@
 package org.mirrentools.sd.models.db.query;
 
+import java.io.Serializable;
+
 /**
  * 表的列属性,用于获取表列的属性
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
-public class TableColumnAttribute {
+public class TableColumnAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/** 表类别（可为 null） */
+	private String tableCat;
+	/** 表模式（可为 null） */
+	private String tableSchem;
+	/** 表名称 */
+	private String tableName;
+	/** 列名称 */
+	private String columnName;
+	/** 来自 java.sql.Types 的 SQL 类型 */
+	private int dataType;
+	/** 数据源依赖的类型名称 */
+	private String typeName;
+	/** 列的大小 */
+	private int columnSize;
+	/** 小数部分的位数 */
+	private int decimalDigits;
+	/** 基数（通常为 10 或 2） */
+	private int numPrecRadix;
+	/** 是否允许使用 NULL,columnNoNulls/columnNullable/columnNullableUnknown */
+	private int nullable;
+	/** 描述列的注释（可为 null） */
+	private String remarks;
+	/** 列的默认值（可为 null） */
+	private String columnDef;
+	/** 对于 char 类型,该长度是列中的最大字节数 */
+	private int charOctetLength;
+	/** 表中的列的索引（从 1 开始） */
+	private int ordinalPosition;
+	/** 是否允许使用 NULL,YES/NO/空字符串 */
+	private String isNullable;
+	/** 是否自动增加,YES/NO/空字符串 */
+	private String isAutoincrement;
+	/** 是否为生成列,YES/NO/空字符串 */
+	private String isGeneratedcolumn;
+
+	public TableColumnAttribute() {
+		super();
+	}
+
+	public String getTableCat() {
+		return tableCat;
+	}
+
+	public void setTableCat(String tableCat) {
+		this.tableCat = tableCat;
+	}
+
+	public String getTableSchem() {
+		return tableSchem;
+	}
+
+	public void setTableSchem(String tableSchem) {
+		this.tableSchem = tableSchem;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public void setTableName(String tableName) {
+		this.tableName = tableName;
+	}
+
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public void setColumnName(String columnName) {
+		this.columnName = columnName;
+	}
+
+	public int getDataType() {
+		return dataType;
+	}
+
+	public void setDataType(int dataType) {
+		this.dataType = dataType;
+	}
+
+	public String getTypeName() {
+		return typeName;
+	}
+
+	public void setTypeName(String typeName) {
+		this.typeName = typeName;
+	}
+
+	public int getColumnSize() {
+		return columnSize;
+	}
+
+	public void setColumnSize(int columnSize) {
+		this.columnSize = columnSize;
+	}
+
+	public int getDecimalDigits() {
+		return decimalDigits;
+	}
+
+	public void setDecimalDigits(int decimalDigits) {
+		this.decimalDigits = decimalDigits;
+	}
+
+	public int getNumPrecRadix() {
+		return numPrecRadix;
+	}
+
+	public void setNumPrecRadix(int numPrecRadix) {
+		this.numPrecRadix = numPrecRadix;
+	}
+
+	public int getNullable() {
+		return nullable;
+	}
+
+	public void setNullable(int nullable) {
+		this.nullable = nullable;
+	}
+
+	public String getRemarks() {
+		return remarks;
+	}
+
+	public void setRemarks(String remarks) {
+		this.remarks = remarks;
+	}
+
+	public String getColumnDef() {
+		return columnDef;
+	}
+
+	public void setColumnDef(String columnDef) {
+		this.columnDef = columnDef;
+	}
+
+	public int getCharOctetLength() {
+		return charOctetLength;
+	}
+
+	public void setCharOctetLength(int charOctetLength) {
+		this.charOctetLength = charOctetLength;
+	}
+
+	public int getOrdinalPosition() {
+		return ordinalPosition;
+	}
+
+	public void setOrdinalPosition(int ordinalPosition) {
+		this.ordinalPosition = ordinalPosition;
+	}
+
+	public String getIsNullable() {
+		return isNullable;
+	}
+
+	public void setIsNullable(String isNullable) {
+		this.isNullable = isNullable;
+	}
+
+	public String getIsAutoincrement() {
+		return isAutoincrement;
+	}
+
+	public void setIsAutoincrement(String isAutoincrement) {
+		this.isAutoincrement = isAutoincrement;
+	}
+
+	public String getIsGeneratedcolumn() {
+		return isGeneratedcolumn;
+	}
+
+	public void setIsGeneratedcolumn(String isGeneratedcolumn) {
+		this.isGeneratedcolumn = isGeneratedcolumn;
+	}
+
+	@Override
+	public String toString() {
+		return "TableColumnAttribute [tableCat=" + tableCat + ", tableSchem=" + tableSchem + ", tableName=" + tableName + ", columnName=" + columnName + ", dataType=" + dataType
+				+ ", typeName=" + typeName + ", columnSize=" + columnSize + ", decimalDigits=" + decimalDigits + ", numPrecRadix=" + numPrecRadix + ", nullable=" + nullable
+				+ ", remarks=" + remarks + ", columnDef=" + columnDef + ", charOctetLength=" + charOctetLength + ", ordinalPosition=" + ordinalPosition + ", isNullable=" + isNullable
+				+ ", isAutoincrement=" + isAutoincrement + ", isGeneratedcolumn=" + isGeneratedcolumn + "]";
+	}
 
 }
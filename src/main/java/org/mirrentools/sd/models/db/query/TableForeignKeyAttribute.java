@@ -1,11 +1,165 @@
 package org.mirrentools.sd.models.db.query;
 
+import java.io.Serializable;
+
 /**
  * 表的外键属性,用于获取外键属性
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
-public class TableForeignKeyAttribute {
+public class TableForeignKeyAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/** 被导入的主键表类别（可为 null） */
+	private String pktableCat;
+	/** 被导入的主键表模式（可为 null） */
+	private String pktableSchem;
+	/** 被导入的主键表名称 */
+	private String pktableName;
+	/** 被导入的主键列名称 */
+	private String pkcolumnName;
+	/** 外键表类别（可为 null） */
+	private String fktableCat;
+	/** 外键表模式（可为 null） */
+	private String fktableSchem;
+	/** 外键表名称 */
+	private String fktableName;
+	/** 外键列名称 */
+	private String fkcolumnName;
+	/** 外键中的序列号,值1表示外键中的第一列 */
+	private int keySeq;
+	/** 更新主键时外键发生的变化 */
+	private int updateRule;
+	/** 删除主键时外键发生的变化 */
+	private int deleteRule;
+	/** 外键的名称（可为 null） */
+	private String fkName;
+	/** 主键的名称（可为 null） */
+	private String pkName;
+	/** 是否可以将对外键约束的评估延迟到提交时间 */
+	private int deferrability;
+
+	public TableForeignKeyAttribute() {
+		super();
+	}
+
+	public String getPktableCat() {
+		return pktableCat;
+	}
+
+	public void setPktableCat(String pktableCat) {
+		this.pktableCat = pktableCat;
+	}
+
+	public String getPktableSchem() {
+		return pktableSchem;
+	}
+
+	public void setPktableSchem(String pktableSchem) {
+		this.pktableSchem = pktableSchem;
+	}
+
+	public String getPktableName() {
+		return pktableName;
+	}
+
+	public void setPktableName(String pktableName) {
+		this.pktableName = pktableName;
+	}
+
+	public String getPkcolumnName() {
+		return pkcolumnName;
+	}
+
+	public void setPkcolumnName(String pkcolumnName) {
+		this.pkcolumnName = pkcolumnName;
+	}
+
+	public String getFktableCat() {
+		return fktableCat;
+	}
+
+	public void setFktableCat(String fktableCat) {
+		this.fktableCat = fktableCat;
+	}
+
+	public String getFktableSchem() {
+		return fktableSchem;
+	}
+
+	public void setFktableSchem(String fktableSchem) {
+		this.fktableSchem = fktableSchem;
+	}
+
+	public String getFktableName() {
+		return fktableName;
+	}
+
+	public void setFktableName(String fktableName) {
+		this.fktableName = fktableName;
+	}
+
+	public String getFkcolumnName() {
+		return fkcolumnName;
+	}
+
+	public void setFkcolumnName(String fkcolumnName) {
+		this.fkcolumnName = fkcolumnName;
+	}
+
+	public int getKeySeq() {
+		return keySeq;
+	}
+
+	public void setKeySeq(int keySeq) {
+		this.keySeq = keySeq;
+	}
+
+	public int getUpdateRule() {
+		return updateRule;
+	}
+
+	public void setUpdateRule(int updateRule) {
+		this.updateRule = updateRule;
+	}
+
+	public int getDeleteRule() {
+		return deleteRule;
+	}
+
+	public void setDeleteRule(int deleteRule) {
+		this.deleteRule = deleteRule;
+	}
+
+	public String getFkName() {
+		return fkName;
+	}
+
+	public void setFkName(String fkName) {
+		this.fkName = fkName;
+	}
+
+	public String getPkName() {
+		return pkName;
+	}
+
+	public void setPkName(String pkName) {
+		this.pkName = pkName;
+	}
+
+	public int getDeferrability() {
+		return deferrability;
+	}
+
+	public void setDeferrability(int deferrability) {
+		this.deferrability = deferrability;
+	}
+
+	@Override
+	public String toString() {
+		return "TableForeignKeyAttribute [pktableCat=" + pktableCat + ", pktableSchem=" + pktableSchem + ", pktableName=" + pktableName + ", pkcolumnName=" + pkcolumnName
+				+ ", fktableCat=" + fktableCat + ", fktableSchem=" + fktableSchem + ", fktableName=" + fktableName + ", fkcolumnName=" + fkcolumnName + ", keySeq=" + keySeq
+				+ ", updateRule=" + updateRule + ", deleteRule=" + deleteRule + ", fkName=" + fkName + ", pkName=" + pkName + ", deferrability=" + deferrability + "]";
+	}
 
 }
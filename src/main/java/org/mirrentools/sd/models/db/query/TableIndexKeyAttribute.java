@@ -1,11 +1,155 @@
 package org.mirrentools.sd.models.db.query;
 
+import java.io.Serializable;
+
 /**
  * 表的索引属性,用于获取索引属性
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
-public class TableIndexKeyAttribute {
+public class TableIndexKeyAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/** 表类别（可为 null） */
+	private String tableCat;
+	/** 表模式（可为 null） */
+	private String tableSchem;
+	/** 表名称 */
+	private String tableName;
+	/** 索引值是否可以不唯一 */
+	private boolean nonUnique;
+	/** 索引类别（可为 null） */
+	private String indexQualifier;
+	/** 索引名称 */
+	private String indexName;
+	/** 索引类型,tableIndexStatistic/tableIndexClustered/tableIndexHashed/tableIndexOther */
+	private int type;
+	/** 索引中的列序列号,从1开始 */
+	private int ordinalPosition;
+	/** 列名称 */
+	private String columnName;
+	/** 列排序序列,A升序,D降序,不支持时为 null */
+	private String ascOrDesc;
+	/** 索引中唯一值的数量 */
+	private long cardinality;
+	/** 用于当前索引的页数 */
+	private long pages;
+	/** 过滤器条件（可为 null） */
+	private String filterCondition;
+
+	public TableIndexKeyAttribute() {
+		super();
+	}
+
+	public String getTableCat() {
+		return tableCat;
+	}
+
+	public void setTableCat(String tableCat) {
+		this.tableCat = tableCat;
+	}
+
+	public String getTableSchem() {
+		return tableSchem;
+	}
+
+	public void setTableSchem(String tableSchem) {
+		this.tableSchem = tableSchem;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public void setTableName(String tableName) {
+		this.tableName = tableName;
+	}
+
+	public boolean isNonUnique() {
+		return nonUnique;
+	}
+
+	public void setNonUnique(boolean nonUnique) {
+		this.nonUnique = nonUnique;
+	}
+
+	public String getIndexQualifier() {
+		return indexQualifier;
+	}
+
+	public void setIndexQualifier(String indexQualifier) {
+		this.indexQualifier = indexQualifier;
+	}
+
+	public String getIndexName() {
+		return indexName;
+	}
+
+	public void setIndexName(String indexName) {
+		this.indexName = indexName;
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	public void setType(int type) {
+		this.type = type;
+	}
+
+	public int getOrdinalPosition() {
+		return ordinalPosition;
+	}
+
+	public void setOrdinalPosition(int ordinalPosition) {
+		this.ordinalPosition = ordinalPosition;
+	}
+
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public void setColumnName(String columnName) {
+		this.columnName = columnName;
+	}
+
+	public String getAscOrDesc() {
+		return ascOrDesc;
+	}
+
+	public void setAscOrDesc(String ascOrDesc) {
+		this.ascOrDesc = ascOrDesc;
+	}
+
+	public long getCardinality() {
+		return cardinality;
+	}
+
+	public void setCardinality(long cardinality) {
+		this.cardinality = cardinality;
+	}
+
+	public long getPages() {
+		return pages;
+	}
+
+	public void setPages(long pages) {
+		this.pages = pages;
+	}
+
+	public String getFilterCondition() {
+		return filterCondition;
+	}
+
+	public void setFilterCondition(String filterCondition) {
+		this.filterCondition = filterCondition;
+	}
+
+	@Override
+	public String toString() {
+		return "TableIndexKeyAttribute [tableCat=" + tableCat + ", tableSchem=" + tableSchem + ", tableName=" + tableName + ", nonUnique=" + nonUnique
+				+ ", indexQualifier=" + indexQualifier + ", indexName=" + indexName + ", type=" + type + ", ordinalPosition=" + ordinalPosition + ", columnName=" + columnName
+				+ ", ascOrDesc=" + ascOrDesc + ", cardinality=" + cardinality + ", pages=" + pages + ", filterCondition=" + filterCondition + "]";
+	}
 
 }
@@ -1,11 +1,84 @@
 package org.mirrentools.sd.models.db.query;
 
+import java.io.Serializable;
+
 /**
  * 表主键属性,用于获取表主键属性
  * 
  * @author <a href="http://szmirren.com">Mirren</a>
  *
  */
-public class TablePrimaryKeyAttribute {
+public class TablePrimaryKeyAttribute implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/** 表类别（可为 null） */
+	private String tableCat;
+	/** 表模式（可为 null） */
+	private String tableSchem;
+	/** 表名称 */
+	private String tableName;
+	/** 列名称 */
+	private String columnName;
+	/** 主键中的序列号,值1表示主键中的第一列 */
+	private int keySeq;
+	/** 主键的名称（可为 null） */
+	private String pkName;
+
+	public TablePrimaryKeyAttribute() {
+		super();
+	}
+
+	public String getTableCat() {
+		return tableCat;
+	}
+
+	public void setTableCat(String tableCat) {
+		this.tableCat = tableCat;
+	}
+
+	public String getTableSchem() {
+		return tableSchem;
+	}
+
+	public void setTableSchem(String tableSchem) {
+		this.tableSchem = tableSchem;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public void setTableName(String tableName) {
+		this.tableName = tableName;
+	}
+
+	public String getColumnName() {
+		return columnName;
+	}
+
+	public void setColumnName(String columnName) {
+		this.columnName = columnName;
+	}
+
+	public int getKeySeq() {
+		return keySeq;
+	}
+
+	public void setKeySeq(int keySeq) {
+		this.keySeq = keySeq;
+	}
+
+	public String getPkName() {
+		return pkName;
+	}
+
+	public void setPkName(String pkName) {
+		this.pkName = pkName;
+	}
+
+	@Override
+	public String toString() {
+		return "TablePrimaryKeyAttribute [tableCat=" + tableCat + ", tableSchem=" + tableSchem + ", tableName=" + tableName + ", columnName=" + columnName + ", keySeq=" + keySeq
+				+ ", pkName=" + pkName + "]";
+	}
 
 }
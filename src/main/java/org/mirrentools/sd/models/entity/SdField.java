@@ -1,11 +1,14 @@
 package org.mirrentools.sd.models.entity;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.mirrentools.sd.common.SdException;
 import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.models.SdFreezer;
 
 /**
  * 类的属性
@@ -38,6 +41,8 @@ public abstract class SdField {
 	private String max;
 	/** 拓展属性 */
 	private Map<String, Object> extensions;
+	/** 是否已经冻结 */
+	private boolean frozen;
 
 	/**
 	 * 添加需要导入的包
@@ -45,6 +50,7 @@ public abstract class SdField {
 	 * @param annotation
 	 */
 	public SdField addImports(String imports) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(imports)) {
 			return this;
 		}
@@ -60,6 +66,7 @@ public abstract class SdField {
 	}
 
 	public SdField setImports(Set<String> imports) {
+		SdFreezer.check(frozen);
 		this.imports = imports;
 		return this;
 	}
@@ -70,6 +77,7 @@ public abstract class SdField {
 	 * @param annotation
 	 */
 	public SdField addAnnotation(String annotation) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(annotation)) {
 			return this;
 		}
@@ -85,6 +93,7 @@ public abstract class SdField {
 	}
 
 	public SdField setAnnotations(Set<String> annotations) {
+		SdFreezer.check(frozen);
 		this.annotations = annotations;
 		return this;
 	}
@@ -94,6 +103,7 @@ public abstract class SdField {
 	}
 
 	public SdField setRemark(String remark) {
+		SdFreezer.check(frozen);
 		this.remark = remark;
 		return this;
 	}
@@ -103,6 +113,7 @@ public abstract class SdField {
 	}
 
 	public SdField setModifier(String modifier) {
+		SdFreezer.check(frozen);
 		this.modifier = modifier;
 		return this;
 	}
@@ -112,6 +123,7 @@ public abstract class SdField {
 	}
 
 	public SdField setType(String type) {
+		SdFreezer.check(frozen);
 		this.type = type;
 		return this;
 	}
@@ -121,6 +133,7 @@ public abstract class SdField {
 	}
 
 	public SdField setName(String name) {
+		SdFreezer.check(frozen);
 		this.name = name;
 		return this;
 	}
@@ -130,6 +143,7 @@ public abstract class SdField {
 	}
 
 	public SdField setGet(boolean get) {
+		SdFreezer.check(frozen);
 		this.get = get;
 		return this;
 	}
@@ -139,6 +153,7 @@ public abstract class SdField {
 	}
 
 	public SdField setSet(boolean set) {
+		SdFreezer.check(frozen);
 		this.set = set;
 		return this;
 	}
@@ -163,6 +178,7 @@ public abstract class SdField {
 	 * @return
 	 */
 	public SdField addExtension(String key, Object value) {
+		SdFreezer.check(frozen);
 		if (SdUtil.isNullOrEmpty(key)) {
 			return this;
 		}
@@ -178,6 +194,7 @@ public abstract class SdField {
 	}
 
 	public SdField setExtensions(Map<String, Object> extensions) {
+		SdFreezer.check(frozen);
 		this.extensions = extensions;
 		return this;
 	}
@@ -187,6 +204,7 @@ public abstract class SdField {
 	}
 
 	public SdField setNullable(boolean nullable) {
+		SdFreezer.check(frozen);
 		this.nullable = nullable;
 		return this;
 	}
@@ -206,6 +224,7 @@ public abstract class SdField {
 	 * @param min
 	 */
 	public SdField setMin(String min) {
+		SdFreezer.check(frozen);
 		this.min = min;
 		return this;
 	}
@@ -225,10 +244,60 @@ public abstract class SdField {
 	 * @param max
 	 */
 	public SdField setMax(String max) {
+		SdFreezer.check(frozen);
 		this.max = max;
 		return this;
 	}
 
+	/**
+	 * 获取冻结后的属性,冻结后的属性不可修改(修改时抛出UnsupportedOperationException),可以同时交给多个线程使用,<br>
+	 * 导入包、注解与拓展属性冻结为只读集合,拓展属性的值不会被复制;原属性不受影响,已经冻结的属性返回自己
+	 * 
+	 * @return
+	 */
+	public SdField freeze() {
+		if (frozen) {
+			return this;
+		}
+		SdField result = newInstance();
+		result.imports = imports == null ? null : Collections.unmodifiableSet(new LinkedHashSet<String>(imports));
+		result.annotations = annotations == null ? null : Collections.unmodifiableSet(new LinkedHashSet<String>(annotations));
+		result.remark = remark;
+		result.modifier = modifier;
+		result.type = type;
+		result.name = name;
+		result.get = get;
+		result.set = set;
+		result.nullable = nullable;
+		result.min = min;
+		result.max = max;
+		result.extensions = extensions == null ? null : Collections.unmodifiableMap(new LinkedHashMap<String, Object>(extensions));
+		result.frozen = true;
+		return result;
+	}
+
+	/**
+	 * 是否已经冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * 创建一个空的同类型属性,用于冻结,默认使用无参构造方法创建,子类可以重写
+	 * 
+	 * @return
+	 */
+	protected SdField newInstance() {
+		try {
+			return getClass().getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			throw new SdException("无法创建" + getClass().getName() + "的实例,需要重写newInstance方法", e);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "Field [imports=" + imports + ", annotations=" + annotations + ", remark=" + remark + ", modifier=" + modifier + ", type=" + type + ", name=" + name + ", get=" + get + ", set=" + set
@@ -103,6 +103,16 @@ public class JavaSdField extends SdField {
 		return this;
 	}
 
+	@Override
+	public JavaSdField freeze() {
+		return (JavaSdField) super.freeze();
+	}
+
+	@Override
+	protected JavaSdField newInstance() {
+		return new JavaSdField();
+	}
+
 	@Override
 	public String toString() {
 		return super.toString();
@@ -1,11 +1,15 @@
 package org.mirrentools.sd.options;
 
+import java.util.concurrent.ExecutorService;
+
+import org.mirrentools.sd.common.SdInterner;
 import org.mirrentools.sd.common.SdUtil;
 import org.mirrentools.sd.constant.Constant;
 import org.mirrentools.sd.converter.SdBeanConverterToClass;
 import org.mirrentools.sd.converter.SdConverterToTemplateContent;
 import org.mirrentools.sd.converter.impl.SdBeanConverterToClassImplByMySQL;
 import org.mirrentools.sd.converter.impl.SdConverterToTemplateContentImplByFreeMarker;
+import org.mirrentools.sd.util.SdOutputSink;
 import org.mirrentools.sd.util.SdTemplateUtil;
 import org.mirrentools.sd.util.impl.SdTemplateUtilImplMyFreeMarker;
 
@@ -26,6 +30,20 @@ public class SdCodeUtilOptions {
 	private SdConverterToTemplateContent contentConverter = new SdConverterToTemplateContentImplByFreeMarker();
 	/** 模板生成工具,默认FreeMarker实现 */
 	private SdTemplateUtil templateUtil = new SdTemplateUtilImplMyFreeMarker();
+	/** 并行生成模板的线程数量,默认1既逐个模板生成 */
+	private int parallelism = 1;
+	/** 并行生成模板的线程池,默认null,为null时根据parallelism创建有界线程池 */
+	private ExecutorService executor;
+	/** 批量生成时并行的线程数量,默认CPU核心数 */
+	private int batchParallelism = Runtime.getRuntime().availableProcessors();
+	/** 批量生成时同时在内存中生成的实体数量上限,小于1时为并行线程数量的2倍 */
+	private int batchMaxInFlight;
+	/** 批量生成时是否共享结构相同的属性列 */
+	private boolean batchIntern;
+	/** 是否增量生成,默认false,为true时实体与模板都没有变化的文件将跳过生成 */
+	private boolean incremental;
+	/** 生成文件的输出目标,默认null,为null时输出到项目所在路径 */
+	private SdOutputSink outputSink;
 
 	/**
 	 * 获取项目所在路径
@@ -127,4 +145,149 @@ public class SdCodeUtilOptions {
 		return this;
 	}
 
+	/**
+	 * 获取并行生成模板的线程数量
+	 * 
+	 * @return
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 设置并行生成模板的线程数量,默认1既逐个模板生成,大于1时并行生成
+	 * 
+	 * @param parallelism
+	 * @return
+	 */
+	public SdCodeUtilOptions setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 获取并行生成模板的线程池
+	 * 
+	 * @return
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * 设置并行生成模板的线程池,设置后使用该线程池并行生成,线程池由调用者负责关闭
+	 * 
+	 * @param executor
+	 * @return
+	 */
+	public SdCodeUtilOptions setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * 获取批量生成时并行的线程数量
+	 * 
+	 * @return
+	 */
+	public int getBatchParallelism() {
+		return batchParallelism;
+	}
+
+	/**
+	 * 设置批量生成时并行的线程数量,默认CPU核心数
+	 * 
+	 * @param batchParallelism
+	 * @return
+	 */
+	public SdCodeUtilOptions setBatchParallelism(int batchParallelism) {
+		this.batchParallelism = batchParallelism;
+		return this;
+	}
+
+	/**
+	 * 获取批量生成时同时在内存中生成的实体数量上限
+	 * 
+	 * @return
+	 */
+	public int getBatchMaxInFlight() {
+		return batchMaxInFlight;
+	}
+
+	/**
+	 * 设置批量生成时同时在内存中生成的实体数量上限,默认0既并行线程数量的2倍,<br>
+	 * 达到上限时暂停从实体来源拉取实体,直到最早的实体生成完成,所以内存占用与实体总数无关
+	 * 
+	 * @param batchMaxInFlight
+	 * @return
+	 */
+	public SdCodeUtilOptions setBatchMaxInFlight(int batchMaxInFlight) {
+		this.batchMaxInFlight = batchMaxInFlight;
+		return this;
+	}
+
+	/**
+	 * 获取批量生成时是否共享结构相同的属性列
+	 * 
+	 * @return
+	 */
+	public boolean isBatchIntern() {
+		return batchIntern;
+	}
+
+	/**
+	 * 设置批量生成时是否共享结构相同的属性列,默认false,<br>
+	 * 为true时实体在转换前通过{@link SdInterner}冻结,结构相同的属性列共享同一个实例,转换器可以缓存属性列的片段;<br>
+	 * 使用实体集合生成时转换器通过实体关系图按对象引用查找关联实体,所以不替换实体
+	 * 
+	 * @param batchIntern
+	 * @return
+	 */
+	public SdCodeUtilOptions setBatchIntern(boolean batchIntern) {
+		this.batchIntern = batchIntern;
+		return this;
+	}
+
+	/**
+	 * 获取是否增量生成
+	 * 
+	 * @return
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * 设置是否增量生成,默认false,<br>
+	 * 为true时在项目路径下记录生成清单,实体与模板都没有变化并且生成文件没有被修改时跳过生成
+	 * 
+	 * @param incremental
+	 * @return
+	 */
+	public SdCodeUtilOptions setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		return this;
+	}
+
+	/**
+	 * 获取生成文件的输出目标
+	 * 
+	 * @return
+	 */
+	public SdOutputSink getOutputSink() {
+		return outputSink;
+	}
+
+	/**
+	 * 设置生成文件的输出目标,默认null既输出到项目所在路径,<br>
+	 * 可选文件系统、内存与ZIP输出,非文件系统输出时不使用增量生成,输出目标由调用者负责关闭
+	 * 
+	 * @param outputSink
+	 * @return
+	 */
+	public SdCodeUtilOptions setOutputSink(SdOutputSink outputSink) {
+		this.outputSink = outputSink;
+		return this;
+	}
+
 }
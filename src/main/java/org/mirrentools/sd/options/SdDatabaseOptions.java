@@ -9,6 +9,16 @@ package org.mirrentools.sd.options;
 public class SdDatabaseOptions {
 	/** 模式的连接超时时间 */
 	public static final int DEFAULT_LOGIN_TIMEOUTS_SECONDS = 3;
+	/** 默认连接池的最大连接数量,默认不使用连接池 */
+	public static final int DEFAULT_MAX_POOL_SIZE = 0;
+	/** 默认连接池的空闲超时时间,单位毫秒 */
+	public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+	/** 默认获取连接的超时时间,单位毫秒 */
+	public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 10000;
+	/** 默认按表并行获取属性的并发数量 */
+	public static final int DEFAULT_INTROSPECT_PARALLELISM = 4;
+	/** 默认按表获取属性失败时的重试次数 */
+	public static final int DEFAULT_INTROSPECT_RETRIES = 2;
 
 	/** 连接超时时间 单位秒 */
 	private int loginTimeout = DEFAULT_LOGIN_TIMEOUTS_SECONDS;
@@ -20,6 +30,22 @@ public class SdDatabaseOptions {
 	private String user;
 	/** 数据库连接密码 */
 	private String password;
+	/** 连接池的最小连接数量 */
+	private int minPoolSize;
+	/** 连接池的最大连接数量,为0时不使用连接池 */
+	private int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+	/** 连接池的空闲超时时间,单位毫秒 */
+	private long idleTimeout = DEFAULT_IDLE_TIMEOUT_MILLIS;
+	/** 获取连接的超时时间,单位毫秒 */
+	private long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT_MILLIS;
+	/** 校验连接的语句 */
+	private String validationQuery;
+	/** 按表并行获取属性的并发数量 */
+	private int introspectParallelism = DEFAULT_INTROSPECT_PARALLELISM;
+	/** 按表获取属性失败时的重试次数 */
+	private int introspectRetries = DEFAULT_INTROSPECT_RETRIES;
+	/** 单次查询的超时时间,单位毫秒 */
+	private long queryTimeout;
 	/**
 	 * 初始化一个数据库配置
 	 * 
@@ -110,10 +136,175 @@ public class SdDatabaseOptions {
 		this.password = password;
 		return this;
 	}
+	/**
+	 * 获取连接池的最小连接数量
+	 * 
+	 * @return
+	 */
+	public int getMinPoolSize() {
+		return minPoolSize;
+	}
+
+	/**
+	 * 设置连接池的最小连接数量,默认0,回收空闲超时的连接时至少保留该数量的连接,<br>
+	 * 连接池不会预先创建连接,只是不回收已经创建的连接
+	 * 
+	 * @param minPoolSize
+	 * @return
+	 */
+	public SdDatabaseOptions setMinPoolSize(int minPoolSize) {
+		this.minPoolSize = minPoolSize;
+		return this;
+	}
+
+	/**
+	 * 获取连接池的最大连接数量
+	 * 
+	 * @return
+	 */
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * 设置连接池的最大连接数量,默认0,为0时不使用连接池,每次都创建新的连接,<br>
+	 * 使用连接池时空闲的连接保持打开,不再使用数据库工具时需要调用{@link org.mirrentools.sd.dbutil.AbstractSdDbUtil#close()}关闭连接池
+	 * 
+	 * @param maxPoolSize
+	 * @return
+	 */
+	public SdDatabaseOptions setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+		return this;
+	}
+
+	/**
+	 * 获取连接池的空闲超时时间,单位毫秒
+	 * 
+	 * @return
+	 */
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * 设置连接池的空闲超时时间,单位毫秒,默认60秒,小于1时不回收空闲的连接
+	 * 
+	 * @param idleTimeout
+	 * @return
+	 */
+	public SdDatabaseOptions setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	/**
+	 * 获取连接的超时时间,单位毫秒
+	 * 
+	 * @return
+	 */
+	public long getAcquireTimeout() {
+		return acquireTimeout;
+	}
+
+	/**
+	 * 设置连接池的连接都在使用中时等待连接的超时时间,单位毫秒,默认10秒
+	 * 
+	 * @param acquireTimeout
+	 * @return
+	 */
+	public SdDatabaseOptions setAcquireTimeout(long acquireTimeout) {
+		this.acquireTimeout = acquireTimeout;
+		return this;
+	}
+
+	/**
+	 * 获取校验连接的语句
+	 * 
+	 * @return
+	 */
+	public String getValidationQuery() {
+		return validationQuery;
+	}
+
+	/**
+	 * 设置校验连接的语句,比如SELECT 1,默认null既使用Connection.isValid校验
+	 * 
+	 * @param validationQuery
+	 * @return
+	 */
+	public SdDatabaseOptions setValidationQuery(String validationQuery) {
+		this.validationQuery = validationQuery;
+		return this;
+	}
+
+	/**
+	 * 获取按表并行获取属性的并发数量
+	 * 
+	 * @return
+	 */
+	public int getIntrospectParallelism() {
+		return introspectParallelism;
+	}
+
+	/**
+	 * 设置按表并行获取属性的并发数量,默认4,每个并发占用一个连接,使用连接池时不超过最大连接数量
+	 * 
+	 * @param introspectParallelism
+	 * @return
+	 */
+	public SdDatabaseOptions setIntrospectParallelism(int introspectParallelism) {
+		this.introspectParallelism = introspectParallelism;
+		return this;
+	}
+
+	/**
+	 * 获取按表获取属性失败时的重试次数
+	 * 
+	 * @return
+	 */
+	public int getIntrospectRetries() {
+		return introspectRetries;
+	}
+
+	/**
+	 * 设置按表获取属性失败时的重试次数,默认2,失败的表放到队列末尾并使用新的连接重试
+	 * 
+	 * @param introspectRetries
+	 * @return
+	 */
+	public SdDatabaseOptions setIntrospectRetries(int introspectRetries) {
+		this.introspectRetries = introspectRetries;
+		return this;
+	}
+
+	/**
+	 * 获取单次查询的超时时间,单位毫秒
+	 * 
+	 * @return
+	 */
+	public long getQueryTimeout() {
+		return queryTimeout;
+	}
+
+	/**
+	 * 设置单次查询的超时时间,单位毫秒,默认0不超时;<br>
+	 * 元数据查询无法设置Statement的超时,所以通过Connection.setNetworkTimeout实现,驱动不支持时忽略
+	 * 
+	 * @param queryTimeout
+	 * @return
+	 */
+	public SdDatabaseOptions setQueryTimeout(long queryTimeout) {
+		this.queryTimeout = queryTimeout;
+		return this;
+	}
+
 	@Override
 	public String toString() {
 		return "DatabaseConfig [loginTimeout=" + loginTimeout + ", driverClass=" + driverClass + ", url=" + url + ", user=" + user
-				+ ", password=" + password + "]";
+				+ ", password=" + password + ", minPoolSize=" + minPoolSize + ", maxPoolSize=" + maxPoolSize + ", idleTimeout=" + idleTimeout
+				+ ", acquireTimeout=" + acquireTimeout + ", validationQuery=" + validationQuery
+				+ ", introspectParallelism=" + introspectParallelism + ", introspectRetries=" + introspectRetries + ", queryTimeout=" + queryTimeout + "]";
 	}
 
 }
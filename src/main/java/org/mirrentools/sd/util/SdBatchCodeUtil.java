@@ -0,0 +1,124 @@
+package org.mirrentools.sd.util;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.mirrentools.sd.models.SdBatchCodeResult;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdTemplate;
+
+/**
+ * 批量代码生成工具,使用同一套模板为多个实体生成代码
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public interface SdBatchCodeUtil {
+
+	/**
+	 * 执行生成
+	 *
+	 * @param beans
+	 *          生成代码所需要的实体属性集
+	 * @return
+	 */
+	SdBatchCodeResult execute(Iterable<SdBean> beans);
+
+	/**
+	 * 执行生成
+	 *
+	 * @param beans
+	 *          生成代码所需要的实体属性流
+	 * @return
+	 */
+	SdBatchCodeResult execute(Stream<SdBean> beans);
+
+	/**
+	 * 执行生成,按需从实体来源拉取实体,同时生成的实体数量不超过{@link #getMaxInFlight()},<br>
+	 * 实体生成后即被释放,结果只保留生成的数量与生成失败的实体的结果;生成结束(包括失败)后关闭实体来源
+	 *
+	 * @param source
+	 *          实体来源
+	 * @return
+	 */
+	SdBatchCodeResult execute(SdBeanSource source);
+
+	/**
+	 * 获取生成模板
+	 *
+	 * @return
+	 */
+	Map<String, SdTemplate> getTemplateMaps();
+
+	/**
+	 * 添加一个模板
+	 *
+	 * @param key
+	 * @param template
+	 * @return
+	 */
+	SdBatchCodeUtil addTemplate(String key, SdTemplate template);
+
+	/**
+	 * 设置模板集
+	 *
+	 * @param templates
+	 * @return
+	 */
+	SdBatchCodeUtil setTemplateMaps(Map<String, SdTemplate> templates);
+
+	/**
+	 * 获取并行生成的线程数量
+	 *
+	 * @return
+	 */
+	int getParallelism();
+
+	/**
+	 * 设置并行生成的线程数量
+	 *
+	 * @param parallelism
+	 * @return
+	 */
+	SdBatchCodeUtil setParallelism(int parallelism);
+
+	/**
+	 * 获取同时在内存中生成的实体数量上限
+	 *
+	 * @return
+	 */
+	int getMaxInFlight();
+
+	/**
+	 * 设置同时在内存中生成的实体数量上限,小于1时为并行线程数量的2倍
+	 *
+	 * @param maxInFlight
+	 * @return
+	 */
+	SdBatchCodeUtil setMaxInFlight(int maxInFlight);
+
+	/**
+	 * 添加附加属性
+	 *
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	SdBatchCodeUtil addExtension(String key, Object value);
+
+	/**
+	 * 获取附加属性集合
+	 *
+	 * @return
+	 */
+	Map<String, Object> getExtensions();
+
+	/**
+	 * 设置附加属性集合
+	 *
+	 * @param extensions
+	 * @return
+	 */
+	SdBatchCodeUtil setExtensions(Map<String, Object> extensions);
+
+}
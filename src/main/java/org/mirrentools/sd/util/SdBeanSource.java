@@ -0,0 +1,86 @@
+package org.mirrentools.sd.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.mirrentools.sd.models.SdBean;
+
+/**
+ * 按需拉取的实体来源,批量生成代码与SQL时一次只拉取一个实体,<br>
+ * 实体在生成后即可被回收,所以不需要先把整个数据库的实体都加载到内存中;<br>
+ * {@link #next()}只支持一个消费者,实现类不需要支持多个线程同时拉取;<br>
+ * 交给{@link SdBatchCodeUtil#execute(SdBeanSource)}时由批量生成工具在生成结束后关闭,单独使用时由使用者负责关闭
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public interface SdBeanSource extends Closeable {
+	/**
+	 * 拉取下一个实体,读取失败时抛出SdException
+	 *
+	 * @return 没有更多实体时返回null
+	 */
+	SdBean next();
+
+	/**
+	 * 关闭实体来源,释放连接或流等资源
+	 */
+	@Override
+	default void close() throws IOException {
+	}
+
+	/**
+	 * 将迭代器包装为实体来源,迭代器中的null会被跳过
+	 *
+	 * @param beans
+	 * @return
+	 */
+	static SdBeanSource of(Iterator<SdBean> beans) {
+		return new SdBeanSource() {
+			@Override
+			public SdBean next() {
+				while (beans.hasNext()) {
+					SdBean bean = beans.next();
+					if (bean != null) {
+						return bean;
+					}
+				}
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * 将集合包装为实体来源
+	 *
+	 * @param beans
+	 * @return
+	 */
+	static SdBeanSource of(Iterable<SdBean> beans) {
+		return of(beans.iterator());
+	}
+
+	/**
+	 * 将流包装为实体来源,关闭实体来源时关闭流
+	 *
+	 * @param beans
+	 * @return
+	 */
+	static SdBeanSource of(Stream<SdBean> beans) {
+		SdBeanSource source = of(beans.iterator());
+		return new SdBeanSource() {
+			@Override
+			public SdBean next() {
+				return source.next();
+			}
+
+			@Override
+			public void close() throws IOException {
+				beans.close();
+			}
+		};
+	}
+
+}
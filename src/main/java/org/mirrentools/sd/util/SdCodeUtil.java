@@ -5,6 +5,7 @@ import java.util.Map;
 import org.mirrentools.sd.converter.SdBeanConverterToClass;
 import org.mirrentools.sd.converter.SdConverterToTemplateContent;
 import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdCodeResult;
 import org.mirrentools.sd.models.SdTemplate;
 
 /**
@@ -22,6 +23,13 @@ public interface SdCodeUtil {
 	 */
 	boolean execute();
 
+	/**
+	 * 执行生成,并返回每个模板的生成结果
+	 * 
+	 * @return
+	 */
+	SdCodeResult executeResult();
+
 	/**
 	 * 获取项目所在目录
 	 * 
@@ -0,0 +1,62 @@
+package org.mirrentools.sd.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 生成文件的输出目标,模板工具将生成的内容写入输出目标,<br>
+ * 默认实现有文件系统、内存与ZIP三种,实现类需要支持多个线程同时写入不同的路径
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public interface SdOutputSink extends Closeable {
+	/**
+	 * 判断路径是否已经存在,用于不覆盖已存在文件时跳过生成
+	 *
+	 * @param path
+	 *          相对路径,使用/分隔
+	 * @return
+	 */
+	boolean exists(String path);
+
+	/**
+	 * 打开一个写入通道,通道关闭后内容才算写入完成
+	 *
+	 * @param path
+	 *          相对路径,使用/分隔
+	 * @return
+	 * @throws IOException
+	 */
+	WritableByteChannel open(String path) throws IOException;
+
+	/**
+	 * 放弃通道中写入的内容并关闭通道,模板生成失败时代替通道的close调用,<br>
+	 * 默认实现都不保存放弃的内容(文件系统输出保留原来的文件),自定义实现默认直接关闭通道
+	 *
+	 * @param channel
+	 *          {@link #open(String)}返回的通道
+	 * @throws IOException
+	 */
+	default void discard(WritableByteChannel channel) throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * 获取输出目标在文件系统中的根目录,增量生成只在文件系统输出时可用
+	 *
+	 * @return 非文件系统输出时返回null
+	 */
+	default String getRootPath() {
+		return null;
+	}
+
+	/**
+	 * 关闭输出目标,默认不做任何处理
+	 */
+	@Override
+	default void close() throws IOException {
+	}
+
+}
@@ -20,6 +20,17 @@ public interface SdSqlUtil {
 	 */
 	boolean execute();
 
+	/**
+	 * 为实体来源中的每个实体执行生成,按需拉取实体,一次只转换并创建一张表,<br>
+	 * 所以内存占用与实体数量无关;某张表创建失败时继续创建其他的表,全部完成后抛出包含所有失败的SdException;<br>
+	 * 实体来源由调用者负责关闭
+	 * 
+	 * @param source
+	 *          实体来源
+	 * @return 所有表都创建成功时返回true
+	 */
+	boolean execute(SdBeanSource source);
+
 	/**
 	 * 获取创建所需要的属性
 	 * 
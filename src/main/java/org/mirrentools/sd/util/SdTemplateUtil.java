@@ -1,7 +1,9 @@
 package org.mirrentools.sd.util;
 
+import java.io.File;
 import java.util.Map;
 
+import org.mirrentools.sd.common.SdException;
 import org.mirrentools.sd.models.SdTemplate;
 
 /**
@@ -25,6 +27,70 @@ public interface SdTemplateUtil {
 	 */
 	<T> boolean render(String projectPath, String format, T content, SdTemplate template);
 
+	/**
+	 * 生成到指定的输出目标,默认只支持文件系统输出,其他输出目标需要实现类重写
+	 * 
+	 * @param sink
+	 *          输出目标
+	 * @param format
+	 *          编码格式
+	 * @param content
+	 *          模板生成所需要的内容
+	 * @param template
+	 *          模板
+	 * @return
+	 */
+	default <T> boolean render(SdOutputSink sink, String format, T content, SdTemplate template) {
+		if (sink.getRootPath() == null) {
+			throw new SdException(this.getClass().getName() + "不支持输出到" + sink.getClass().getName());
+		}
+		return render(sink.getRootPath(), format, content, template);
+	}
+
+	/**
+	 * 获取模板文件的最后修改时间,用于增量生成时判断模板是否有修改
+	 * 
+	 * @param template
+	 *          模板
+	 * @return 无法获取时返回-1,既每次都重新生成
+	 */
+	default long getLastModified(SdTemplate template) {
+		return -1;
+	}
+
+	/**
+	 * 获取模板内容的指纹,包括模板通过include/import引用的模板,用于增量生成时判断模板是否有修改,<br>
+	 * 默认使用模板文件的最后修改时间,实现类应该重写为内容的指纹
+	 *
+	 * @param template
+	 *          模板
+	 * @return 无法获取时返回null,既每次都重新生成
+	 */
+	default String getFingerprint(SdTemplate template) {
+		long lastModified = getLastModified(template);
+		return lastModified < 0 ? null : Long.toString(lastModified);
+	}
+
+	/**
+	 * 获取模板在文件系统中所在的目录,用于监视模板的修改
+	 * 
+	 * @param template
+	 *          模板
+	 * @return 模板不在文件系统中时返回null
+	 */
+	default File getTemplateDirectory(SdTemplate template) {
+		return null;
+	}
+
+	/**
+	 * 从缓存中移除已编译的模板,模板修改后调用,默认不做任何处理
+	 * 
+	 * @param template
+	 *          模板
+	 */
+	default void evict(SdTemplate template) {
+	}
+
 	/**
 	 * 添加附加属性
 	 * 
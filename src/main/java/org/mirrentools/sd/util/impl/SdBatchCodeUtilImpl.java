@@ -0,0 +1,479 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdInterner;
+import org.mirrentools.sd.common.SdMetrics;
+import org.mirrentools.sd.common.SdRelationalGraph;
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.constant.Constant;
+import org.mirrentools.sd.converter.SdBeanConverterToClass;
+import org.mirrentools.sd.converter.SdConverterToTemplateContent;
+import org.mirrentools.sd.models.SdBatchCodeResult;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateContent;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.SdBatchCodeUtil;
+import org.mirrentools.sd.util.SdBeanSource;
+import org.mirrentools.sd.util.SdOutputSink;
+import org.mirrentools.sd.util.SdTemplateUtil;
+
+/**
+ * 批量代码生成工具的默认实现,<br>
+ * 将实体×模板的生成任务交给工作窃取线程池执行,每个实体只转换一次,转换后的内容由该实体的所有模板共享,<br>
+ * 使用实体集合生成时构建一次实体关系图交给SdBean转换器,关联实体只转换一次;<br>
+ * 实体按需从实体来源拉取,同时生成的实体数量有上限,达到上限时等待最早的实体生成完成后再拉取,所以内存占用与实体总数无关,<br>
+ * 模板的包名与类名可以使用占位符{name},{camelName},{pascalName},生成时替换为实体的名字
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBatchCodeUtilImpl implements SdBatchCodeUtil {
+	/** 占位符:实体的名字 */
+	public static final String PLACEHOLDER_NAME = "{name}";
+	/** 占位符:实体名字的驼峰命名 */
+	public static final String PLACEHOLDER_CAMEL_NAME = "{camelName}";
+	/** 占位符:实体名字的帕斯卡命名 */
+	public static final String PLACEHOLDER_PASCAL_NAME = "{pascalName}";
+	/** JUL日志 */
+	private final Logger LOG = Logger.getLogger(this.getClass().getName());
+
+	/** 模板集合key为模板的名字,value为模板属性 */
+	private Map<String, SdTemplate> templateMaps;
+	/** 项目所在路径 */
+	private String projectPath;
+	/** 生成使用编码格式,默认UTF-8 */
+	private String codeFormat = Constant.UTF_8;
+	/** SdBean转换器 */
+	private SdBeanConverterToClass beanConverter;
+	/** 模板内容转换器 */
+	private SdConverterToTemplateContent contentConverter;
+	/** 模板生成工具 */
+	private SdTemplateUtil templateUtil;
+	/** 并行生成的线程数量 */
+	private int parallelism;
+	/** 同时在内存中生成的实体数量上限 */
+	private int maxInFlight;
+	/** 是否共享结构相同的属性列 */
+	private boolean intern;
+	/** 是否增量生成 */
+	private boolean incremental;
+	/** 生成文件的输出目标,为null时输出到项目所在路径 */
+	private SdOutputSink outputSink;
+
+	/**
+	 * 使用默认配置初始化工具
+	 *
+	 * @param templateMaps
+	 *          生成代码所需要的模板数据属性
+	 */
+	public SdBatchCodeUtilImpl(Map<String, SdTemplate> templateMaps) {
+		this(templateMaps, new SdCodeUtilOptions());
+	}
+
+	/**
+	 * 使用自定义配置初始化工具
+	 *
+	 * @param templateMaps
+	 *          生成代码所需要的模板数据属性
+	 * @param options
+	 */
+	public SdBatchCodeUtilImpl(Map<String, SdTemplate> templateMaps, SdCodeUtilOptions options) {
+		super();
+		this.templateMaps = templateMaps;
+		this.projectPath = options.getProjectPath();
+		this.codeFormat = options.getCodeFormat();
+		this.beanConverter = options.getBeanConverter();
+		this.contentConverter = options.getContentConverter();
+		this.templateUtil = options.getTemplateUtil();
+		this.parallelism = options.getBatchParallelism();
+		this.maxInFlight = options.getBatchMaxInFlight();
+		this.intern = options.isBatchIntern();
+		this.incremental = options.isIncremental();
+		this.outputSink = options.getOutputSink();
+	}
+
+	@Override
+	public SdBatchCodeResult execute(Iterable<SdBean> beans) {
+		List<SdBean> roots = new ArrayList<SdBean>();
+		for (SdBean bean : beans) {
+			if (bean != null) {
+				roots.add(bean);
+			}
+		}
+		SdRelationalGraph graph = SdRelationalGraph.of(roots, intern ? SdInterner.getInstance()::internColumns : null);
+		for (int i = 0; i < roots.size(); i++) {
+			roots.set(i, graph.getBean(graph.getId(roots.get(i))));
+		}
+		return execute(SdBeanSource.of(roots), graph);
+	}
+
+	@Override
+	public SdBatchCodeResult execute(Stream<SdBean> beans) {
+		return execute(SdBeanSource.of(beans), null);
+	}
+
+	@Override
+	public SdBatchCodeResult execute(SdBeanSource source) {
+		return execute(source, null);
+	}
+
+	/**
+	 * 执行生成,结束后关闭实体来源
+	 *
+	 * @param source
+	 *          实体来源
+	 * @param graph
+	 *          实体关系图,流式生成时为null
+	 * @return
+	 */
+	private SdBatchCodeResult execute(SdBeanSource source, SdRelationalGraph graph) {
+		if (SdUtil.isNullOrEmpty(templateMaps)) {
+			throw new NullPointerException("SdTemplate 集合不能为空,你需要先创建一个SdTemplate,因为需要它来生成");
+		}
+		long start = System.nanoTime();
+		String format = codeFormat == null ? Constant.UTF_8 : codeFormat;
+		String rootPath = outputSink == null ? projectPath : outputSink.getRootPath();
+		SdIncrementalSupport support = null;
+		if (incremental && rootPath == null) {
+			LOG.warning("输出目标不是文件系统,忽略增量生成");
+		} else if (incremental) {
+			support = new SdIncrementalSupport(rootPath, templateUtil, templateMaps);
+		}
+		int threads = Math.max(1, parallelism);
+		int limit = maxInFlight < 1 ? threads * 2 : maxInFlight;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			SdBatchCodeResult result = new SdBatchCodeResult();
+			Deque<BeanTask> window = new ArrayDeque<BeanTask>(limit);
+			SdBean bean;
+			while ((bean = source.next()) != null) {
+				if (window.size() >= limit) {
+					collect(result, window.poll());
+				}
+				BeanTask task = new BeanTask(bean, graph, format, support);
+				pool.execute(task);
+				window.add(task);
+			}
+			while (!window.isEmpty()) {
+				collect(result, window.poll());
+			}
+			if (support != null) {
+				try {
+					support.save();
+				} catch (IOException e) {
+					LOG.log(Level.WARNING, "保存生成清单失败:" + e.getMessage(), e);
+				}
+			}
+			result.setElapsedNanos(System.nanoTime() - start);
+			LOG.info(String.format("批量生成完成:实体%d个,模板%d次,失败%d次,耗时%dms,吞吐量%.2f次/秒", result.getBeanCount(), result.getRenderCount(),
+					result.getFailedCount(), result.getElapsedMillis(), result.getRendersPerSecond()));
+			return result;
+		} finally {
+			pool.shutdown();
+			try {
+				source.close();
+			} catch (IOException e) {
+				LOG.log(Level.WARNING, "关闭实体来源失败:" + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * 等待实体生成完成并记录结果,之后任务与实体都不再被引用
+	 *
+	 * @param result
+	 * @param task
+	 */
+	private void collect(SdBatchCodeResult result, BeanTask task) {
+		result.put(task.bean.getName(), task.join());
+	}
+
+	/**
+	 * 获取实体使用的模板,将模板包名与类名中的占位符替换为实体的名字
+	 *
+	 * @param bean
+	 * @return
+	 */
+	protected Map<String, SdTemplate> resolveTemplates(SdBean bean) {
+		return resolveTemplates(templateMaps, bean);
+	}
+
+	/**
+	 * 获取实体使用的模板,将模板包名与类名中的占位符替换为实体的名字,没有占位符的模板原样返回
+	 *
+	 * @param templateMaps
+	 *          模板集合
+	 * @param bean
+	 *          实体
+	 * @return
+	 */
+	public static Map<String, SdTemplate> resolveTemplates(Map<String, SdTemplate> templateMaps, SdBean bean) {
+		Map<String, SdTemplate> result = new LinkedHashMap<String, SdTemplate>();
+		String name = bean.getName() == null ? "" : bean.getName();
+		String camelName = SdUtil.toCamelCase(name);
+		String pascalName = SdUtil.toPascalCase(name);
+		for (Entry<String, SdTemplate> entry : templateMaps.entrySet()) {
+			SdTemplate template = entry.getValue();
+			String packageName = replace(template.getPackageName(), name, camelName, pascalName);
+			String className = replace(template.getClassName(), name, camelName, pascalName);
+			if (packageName == template.getPackageName() && className == template.getClassName()) {
+				result.put(entry.getKey(), template);
+			} else {
+				SdTemplate copy = new SdTemplate().setPath(template.getPath()).setFile(template.getFile()).setOverride(template.isOverride())
+						.setSourceFolder(template.getSourceFolder()).setPackageName(packageName).setClassName(className)
+						.setAttributes(template.getAttributes()).setExtensions(template.getExtensions());
+				result.put(entry.getKey(), copy);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 替换占位符,如果没有占位符返回原字符串
+	 *
+	 * @param str
+	 * @param name
+	 * @param camelName
+	 * @param pascalName
+	 * @return
+	 */
+	private static String replace(String str, String name, String camelName, String pascalName) {
+		if (str == null || str.indexOf('{') == -1) {
+			return str;
+		}
+		return str.replace(PLACEHOLDER_NAME, name).replace(PLACEHOLDER_CAMEL_NAME, camelName).replace(PLACEHOLDER_PASCAL_NAME, pascalName);
+	}
+
+	/**
+	 * 单个实体的生成任务,转换实体后将每个模板拆分为子任务
+	 */
+	private class BeanTask extends RecursiveTask<SdCodeResult> {
+		private static final long serialVersionUID = 1L;
+		/** 生成代码所需要的实体属性 */
+		private final SdBean bean;
+		/** 实体关系图,流式生成时为null */
+		private final SdRelationalGraph graph;
+		/** 编码格式 */
+		private final String format;
+		/** 增量生成的辅助类,非增量生成时为null */
+		private final SdIncrementalSupport support;
+
+		BeanTask(SdBean bean, SdRelationalGraph graph, String format, SdIncrementalSupport support) {
+			this.bean = bean;
+			this.graph = graph;
+			this.format = format;
+			this.support = support;
+		}
+
+		@Override
+		protected SdCodeResult compute() {
+			SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_BEAN, bean.getName());
+			SdCodeResult result = null;
+			try {
+				result = generate();
+				return result;
+			} finally {
+				timer.stop(result != null && result.isSucceeded());
+			}
+		}
+
+		/**
+		 * 转换实体并生成所有模板
+		 * 
+		 * @return
+		 */
+		private SdCodeResult generate() {
+			SdCodeResult result = new SdCodeResult();
+			Map<String, SdTemplate> templates;
+			Map<String, SdTemplate> changes;
+			String fingerprint = null;
+			Object content;
+			try {
+				templates = resolveTemplates(bean);
+				changes = templates;
+				if (support != null) {
+					fingerprint = SdFingerprint.of(bean);
+					changes = new LinkedHashMap<String, SdTemplate>();
+					for (Entry<String, SdTemplate> temp : templates.entrySet()) {
+						if (!support.isUpToDate(fingerprint, temp.getKey(), temp.getValue())) {
+							changes.put(temp.getKey(), temp.getValue());
+						}
+					}
+				}
+				if (changes.isEmpty()) {
+					for (String key : templates.keySet()) {
+						result.put(key, true);
+					}
+					return result;
+				}
+				final Map<String, SdTemplate> contentTemplates = templates;
+				SdMetrics metrics = SdMetrics.getInstance();
+				SdClassContent clz;
+				if (graph != null) {
+					// 关系图构建时已经替换为共享池中的实体
+					clz = metrics.time(SdMetrics.STAGE_BEAN_CONVERTER, bean.getName(), () -> beanConverter.converter(bean, graph));
+				} else {
+					SdBean source = intern ? SdInterner.getInstance().intern(bean) : bean;
+					clz = metrics.time(SdMetrics.STAGE_BEAN_CONVERTER, bean.getName(), () -> beanConverter.converter(source));
+				}
+				content = metrics.time(SdMetrics.STAGE_CONTENT_CONVERTER, bean.getName(), () -> contentConverter.converter(clz, contentTemplates));
+			} catch (Throwable e) {
+				LOG.log(Level.SEVERE, String.format("转换实体%s-->异常:%s", bean.getName(), e.getMessage()), e);
+				for (String key : templateMaps.keySet()) {
+					result.putError(key, e);
+				}
+				return result;
+			}
+			Map<String, RenderTask> renders = new LinkedHashMap<String, RenderTask>();
+			for (Entry<String, SdTemplate> temp : changes.entrySet()) {
+				renders.put(temp.getKey(), new RenderTask(format, content, temp.getKey(), temp.getValue(), support, fingerprint));
+			}
+			ForkJoinTask.invokeAll(renders.values());
+			for (String key : templates.keySet()) {
+				RenderTask task = renders.get(key);
+				if (task == null) {
+					result.put(key, true);
+				} else if (task.error != null) {
+					LOG.log(Level.SEVERE, String.format("执行生成%s:%s-->异常:%s", bean.getName(), key, task.error.getMessage()), task.error);
+					result.putError(key, task.error);
+				} else {
+					if (!task.succeeded) {
+						LOG.warning(String.format("执行生成%s:%s-->异常,模板工具返回false!", bean.getName(), key));
+					}
+					result.put(key, task.succeeded);
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * 单个模板的生成任务
+	 */
+	private class RenderTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		/** 编码格式 */
+		private final String format;
+		/** 模板生成所需要的内容 */
+		private final Object content;
+		/** 模板的名字 */
+		private final String key;
+		/** 模板 */
+		private final SdTemplate template;
+		/** 增量生成的辅助类,非增量生成时为null */
+		private final SdIncrementalSupport support;
+		/** 实体指纹 */
+		private final String fingerprint;
+		/** 是否生成成功 */
+		private boolean succeeded;
+		/** 生成失败的异常 */
+		private Throwable error;
+
+		RenderTask(String format, Object content, String key, SdTemplate template, SdIncrementalSupport support, String fingerprint) {
+			this.format = format;
+			this.content = content;
+			this.key = key;
+			this.template = template;
+			this.support = support;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		protected void compute() {
+			Object data = content instanceof SdTemplateContent ? ((SdTemplateContent) content).overlay(template) : content;
+			SdMetrics.Timer timer = SdMetrics.getInstance().start(SdMetrics.STAGE_RENDER, key);
+			try {
+				if (outputSink != null) {
+					succeeded = templateUtil.render(outputSink, format, data, template);
+				} else {
+					succeeded = templateUtil.render(projectPath, format, data, template);
+				}
+				timer.stop(succeeded);
+				if (succeeded && support != null) {
+					support.update(fingerprint, key, template);
+				}
+			} catch (Throwable e) {
+				timer.stop(false);
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public Map<String, SdTemplate> getTemplateMaps() {
+		return templateMaps;
+	}
+
+	@Override
+	public SdBatchCodeUtilImpl addTemplate(String key, SdTemplate template) {
+		if (getTemplateMaps() == null) {
+			this.templateMaps = new LinkedHashMap<String, SdTemplate>();
+		}
+		this.templateMaps.put(key, template);
+		return this;
+	}
+
+	@Override
+	public SdBatchCodeUtilImpl setTemplateMaps(Map<String, SdTemplate> templateMaps) {
+		this.templateMaps = templateMaps;
+		return this;
+	}
+
+	@Override
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	@Override
+	public SdBatchCodeUtilImpl setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	@Override
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	@Override
+	public SdBatchCodeUtilImpl setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+		return this;
+	}
+
+	@Override
+	public SdBatchCodeUtil addExtension(String key, Object value) {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+	@Override
+	public Map<String, Object> getExtensions() {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+	@Override
+	public SdBatchCodeUtil setExtensions(Map<String, Object> extensions) {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+}
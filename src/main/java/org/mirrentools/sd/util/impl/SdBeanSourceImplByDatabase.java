@@ -0,0 +1,222 @@
+package org.mirrentools.sd.util.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdExecutorUtil;
+import org.mirrentools.sd.converter.SdTableConverterToBean;
+import org.mirrentools.sd.dbutil.SdDbUtil;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+import org.mirrentools.sd.util.SdBeanSource;
+
+/**
+ * 从数据库中已经存在的表读取实体的数据源,用于由旧的数据库生成代码,<br>
+ * 后台线程按批获取表的属性({@link SdDbUtil#getSchemaAttribute(List)})并转换为SdBean,放入有容量上限的队列,<br>
+ * 队列满时后台线程等待消费者取走实体,所以内存中最多只有一批表的属性与队列容量数量的实体,不需要一次加载整个数据库;<br>
+ * 配合{@link org.mirrentools.sd.util.SdBatchCodeUtil#execute(SdBeanSource)}使用时读取、转换与生成代码同时进行;<br>
+ * 只支持一个消费者调用{@link #next()};后台线程只弱引用数据源,使用者没有关闭就不再使用数据源时,数据源被回收后后台线程结束
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBeanSourceImplByDatabase implements SdBeanSource {
+	/** 默认每批获取属性的表数量 */
+	public static final int DEFAULT_CHUNK_SIZE = 32;
+	/** 默认队列的容量 */
+	public static final int DEFAULT_CAPACITY = 64;
+	/** 队列中表示读取完毕的标记 */
+	private static final Object END = new Object();
+	/** 后台线程检查是否已经关闭的间隔,单位毫秒 */
+	private static final long POLL_MILLIS = 100;
+
+	/** 后台线程,第一次读取时启动 */
+	private final Producer producer;
+	/** 是否已经启动后台线程 */
+	private boolean started;
+	/** 是否已经读取完毕 */
+	private volatile boolean finished;
+
+	/**
+	 * 使用默认的批数量与队列容量读取所有的表
+	 *
+	 * @param dbUtil
+	 *          数据库工具
+	 * @param converter
+	 *          表转换器
+	 */
+	public SdBeanSourceImplByDatabase(SdDbUtil dbUtil, SdTableConverterToBean converter) {
+		this(dbUtil, converter, null, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * 初始化
+	 *
+	 * @param dbUtil
+	 *          数据库工具
+	 * @param converter
+	 *          表转换器
+	 * @param tableNames
+	 *          需要读取的表,为null时读取所有的表
+	 * @param chunkSize
+	 *          每批获取属性的表数量
+	 * @param capacity
+	 *          队列的容量,也就是消费者没有取走时最多提前转换的实体数量
+	 */
+	public SdBeanSourceImplByDatabase(SdDbUtil dbUtil, SdTableConverterToBean converter, List<String> tableNames, int chunkSize, int capacity) {
+		super();
+		if (dbUtil == null || converter == null) {
+			throw new NullPointerException("数据库工具与表转换器不能为空");
+		}
+		this.producer = new Producer(this, dbUtil, converter, tableNames == null ? null : new ArrayList<>(tableNames), Math.max(1, chunkSize),
+				new ArrayBlockingQueue<>(Math.max(1, capacity)));
+	}
+
+	@Override
+	public SdBean next() {
+		if (finished || producer.closed) {
+			return null;
+		}
+		if (!started) {
+			started = true;
+			SdExecutorUtil.newThreadFactory("sd-bean-source").newThread(producer).start();
+		}
+		Object item;
+		try {
+			item = producer.queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SdException("等待读取实体时线程被中断", e);
+		}
+		if (item == END) {
+			finished = true;
+			return null;
+		}
+		if (item instanceof Throwable) {
+			finished = true;
+			throw new SdException("从数据库读取实体失败:" + ((Throwable) item).getMessage(), (Throwable) item);
+		}
+		return (SdBean) item;
+	}
+
+	/**
+	 * 关闭数据源,后台线程在当前这批表转换完成后结束
+	 */
+	@Override
+	public void close() {
+		producer.closed = true;
+		producer.queue.clear();
+	}
+
+	/**
+	 * 获取已经转换的实体数量
+	 *
+	 * @return
+	 */
+	public long getProducedCount() {
+		return producer.producedCount.get();
+	}
+
+	/**
+	 * 获取后台线程因为队列已满而等待的次数
+	 *
+	 * @return
+	 */
+	public long getBlockedCount() {
+		return producer.blockedCount.get();
+	}
+
+	/**
+	 * 后台线程:按批获取表的属性并转换,失败时将异常交给消费者,<br>
+	 * 不强引用数据源,数据源关闭或者被回收后结束
+	 */
+	private static class Producer implements Runnable {
+		/** 所属的数据源 */
+		private final WeakReference<SdBeanSourceImplByDatabase> owner;
+		/** 数据库工具 */
+		private final SdDbUtil dbUtil;
+		/** 表转换器 */
+		private final SdTableConverterToBean converter;
+		/** 需要读取的表,为null时读取所有的表 */
+		private final List<String> tableNames;
+		/** 每批获取属性的表数量 */
+		private final int chunkSize;
+		/** 实体队列,元素为SdBean,异常或者读取完毕的标记 */
+		private final BlockingQueue<Object> queue;
+		/** 已经转换的实体数量 */
+		private final AtomicLong producedCount = new AtomicLong();
+		/** 后台线程因为队列已满而等待的次数 */
+		private final AtomicLong blockedCount = new AtomicLong();
+		/** 是否已经关闭 */
+		private volatile boolean closed;
+
+		Producer(SdBeanSourceImplByDatabase owner, SdDbUtil dbUtil, SdTableConverterToBean converter, List<String> tableNames, int chunkSize,
+				BlockingQueue<Object> queue) {
+			this.owner = new WeakReference<>(owner);
+			this.dbUtil = dbUtil;
+			this.converter = converter;
+			this.tableNames = tableNames;
+			this.chunkSize = chunkSize;
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			try {
+				List<String> names = tableNames == null ? dbUtil.getTableNames() : tableNames;
+				for (int i = 0; i < names.size() && isActive(); i += chunkSize) {
+					List<String> chunk = names.subList(i, Math.min(names.size(), i + chunkSize));
+					SchemaAttribute schema = dbUtil.getSchemaAttribute(chunk);
+					for (String tableName : chunk) {
+						SdBean bean = converter.converter(schema, tableName);
+						if (bean != null && put(bean)) {
+							producedCount.incrementAndGet();
+						}
+					}
+				}
+				put(END);
+			} catch (Throwable e) {
+				put(e);
+			}
+		}
+
+		/**
+		 * 数据源是否还在使用
+		 *
+		 * @return 数据源关闭或者被回收后返回false
+		 */
+		private boolean isActive() {
+			return !closed && owner.get() != null;
+		}
+
+		/**
+		 * 放入队列,队列满时等待,数据源关闭或者被回收后放弃
+		 *
+		 * @param item
+		 * @return 是否放入
+		 */
+		private boolean put(Object item) {
+			try {
+				if (queue.offer(item)) {
+					return true;
+				}
+				blockedCount.incrementAndGet();
+				while (isActive()) {
+					if (queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return false;
+		}
+	}
+
+}
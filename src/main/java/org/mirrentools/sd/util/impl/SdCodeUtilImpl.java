@@ -1,20 +1,34 @@
 package org.mirrentools.sd.util.impl;
 
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdExecutorUtil;
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdMetrics;
 import org.mirrentools.sd.common.SdUtil;
 import org.mirrentools.sd.constant.Constant;
 import org.mirrentools.sd.converter.SdBeanConverterToClass;
 import org.mirrentools.sd.converter.SdConverterToTemplateContent;
 import org.mirrentools.sd.models.SdBean;
 import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdCodeResult;
 import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateContent;
 import org.mirrentools.sd.options.SdCodeUtilOptions;
 import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdOutputSink;
 import org.mirrentools.sd.util.SdTemplateUtil;
 
 /**
@@ -42,6 +56,14 @@ public class SdCodeUtilImpl implements SdCodeUtil {
 	private SdConverterToTemplateContent contentConverter;
 	/** 模板生成工具 */
 	private SdTemplateUtil templateUtil;
+	/** 并行生成模板的线程数量 */
+	private int parallelism = 1;
+	/** 并行生成模板的线程池 */
+	private ExecutorService executor;
+	/** 是否增量生成 */
+	private boolean incremental;
+	/** 生成文件的输出目标,为null时输出到项目所在路径 */
+	private SdOutputSink outputSink;
 
 	/**
 	 * 使用默认配置初始化工具
@@ -84,26 +106,225 @@ public class SdCodeUtilImpl implements SdCodeUtil {
 		this.beanConverter = options.getBeanConverter();
 		this.contentConverter = options.getContentConverter();
 		this.templateUtil = options.getTemplateUtil();
+		this.parallelism = options.getParallelism();
+		this.executor = options.getExecutor();
+		this.incremental = options.isIncremental();
+		this.outputSink = options.getOutputSink();
 	}
 
 	@Override
 	public boolean execute() {
+		return executeResult().isSucceeded();
+	}
+
+	@Override
+	public SdCodeResult executeResult() {
 		if (SdUtil.isNullOrEmpty(templateMaps)) {
 			throw new NullPointerException("SdTemplate 集合不能为空,你需要先创建一个SdTemplate,因为需要它来生成");
 		}
-		SdClassContent clz = beanConverter.converter(getBean());
-		Object content = contentConverter.converter(clz, templateMaps);
-		String format = codeFormat == null ? Constant.UTF_8 : codeFormat;
-		for (Entry<String, SdTemplate> temp : templateMaps.entrySet()) {
-			LOG.info(String.format("执行生成%s...", temp.getKey()));
-			boolean render = templateUtil.render(projectPath, format, content, temp.getValue());
-			if (render) {
-				LOG.info(String.format("执行生成%s-->成功!", temp.getKey()));
+		Set<String> skips = new HashSet<String>();
+		SdIncrementalSupport support = null;
+		String fingerprint = null;
+		String rootPath = outputSink == null ? projectPath : outputSink.getRootPath();
+		if (incremental && rootPath == null) {
+			LOG.warning("输出目标不是文件系统,忽略增量生成");
+		} else if (incremental) {
+			support = new SdIncrementalSupport(rootPath, templateUtil, templateMaps);
+			fingerprint = SdFingerprint.of(getBean());
+			for (Entry<String, SdTemplate> temp : templateMaps.entrySet()) {
+				if (support.isUpToDate(fingerprint, temp.getKey(), temp.getValue())) {
+					skips.add(temp.getKey());
+				}
+			}
+		}
+		SdCodeResult result;
+		if (skips.size() == templateMaps.size()) {
+			result = new SdCodeResult();
+			for (String key : templateMaps.keySet()) {
+				logSkip(result, key);
+			}
+			return result;
+		}
+		final SdBean bean = getBean();
+		String beanName = bean == null ? null : bean.getName();
+		SdMetrics metrics = SdMetrics.getInstance();
+		SdMetrics.Timer timer = metrics.start(SdMetrics.STAGE_BEAN, beanName);
+		result = null;
+		try {
+			SdClassContent clz = metrics.time(SdMetrics.STAGE_BEAN_CONVERTER, beanName, () -> beanConverter.converter(bean));
+			Object content = metrics.time(SdMetrics.STAGE_CONTENT_CONVERTER, beanName, () -> contentConverter.converter(clz, templateMaps));
+			String format = codeFormat == null ? Constant.UTF_8 : codeFormat;
+			if (executor == null && parallelism <= 1) {
+				result = new SdCodeResult();
+				for (Entry<String, SdTemplate> temp : templateMaps.entrySet()) {
+					if (skips.contains(temp.getKey())) {
+						logSkip(result, temp.getKey());
+						continue;
+					}
+					LOG.info(String.format("执行生成%s...", temp.getKey()));
+					try {
+						logResult(result, temp.getKey(), render(format, content, temp.getKey(), temp.getValue(), support, fingerprint));
+					} catch (Throwable e) {
+						logError(result, temp.getKey(), e);
+					}
+				}
 			} else {
-				LOG.warning(String.format("执行生成%s-->异常,模板工具返回false!", temp.getKey()));
+				result = executeParallel(format, content, skips, support, fingerprint);
+			}
+		} finally {
+			timer.stop(result != null && result.isSucceeded());
+		}
+		if (support != null) {
+			try {
+				support.save();
+			} catch (IOException e) {
+				LOG.log(Level.WARNING, "保存生成清单失败:" + e.getMessage(), e);
 			}
 		}
-		return true;
+		return result;
+	}
+
+	/**
+	 * 并行生成模板,所有模板共享同一个转换后的内容,日志按模板集合的顺序输出
+	 * 
+	 * @param format
+	 *          编码格式
+	 * @param content
+	 *          模板生成所需要的内容
+	 * @param skips
+	 *          增量生成时跳过的模板
+	 * @param support
+	 *          增量生成的辅助类
+	 * @param fingerprint
+	 *          实体指纹
+	 * @return
+	 */
+	private SdCodeResult executeParallel(final String format, final Object content, Set<String> skips, final SdIncrementalSupport support,
+			final String fingerprint) {
+		ExecutorService service = executor == null ? SdExecutorUtil.newBoundedExecutor("screw-driver-render", parallelism) : executor;
+		try {
+			Map<String, Future<Boolean>> futures = new LinkedHashMap<String, Future<Boolean>>();
+			for (Entry<String, SdTemplate> temp : templateMaps.entrySet()) {
+				if (skips.contains(temp.getKey())) {
+					futures.put(temp.getKey(), null);
+					continue;
+				}
+				LOG.info(String.format("执行生成%s...", temp.getKey()));
+				final String key = temp.getKey();
+				final SdTemplate template = temp.getValue();
+				futures.put(key, service.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						return render(format, content, key, template, support, fingerprint);
+					}
+				}));
+			}
+			SdCodeResult result = new SdCodeResult();
+			for (Entry<String, Future<Boolean>> future : futures.entrySet()) {
+				if (future.getValue() == null) {
+					logSkip(result, future.getKey());
+					continue;
+				}
+				try {
+					logResult(result, future.getKey(), future.getValue().get());
+				} catch (ExecutionException e) {
+					logError(result, future.getKey(), e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logError(result, future.getKey(), e);
+				}
+			}
+			return result;
+		} finally {
+			if (executor == null) {
+				SdExecutorUtil.shutdown(service);
+			}
+		}
+	}
+
+	/**
+	 * 生成单个模板,增量生成时生成成功后更新清单
+	 * 
+	 * @param format
+	 *          编码格式
+	 * @param content
+	 *          模板生成所需要的内容,分层的模板数据将叠加当前模板的模板层
+	 * @param key
+	 *          模板的名字
+	 * @param template
+	 *          模板
+	 * @param support
+	 *          增量生成的辅助类,非增量生成时为null
+	 * @param fingerprint
+	 *          实体指纹
+	 * @return
+	 * @throws IOException
+	 */
+	private boolean render(String format, Object content, String key, SdTemplate template, SdIncrementalSupport support, String fingerprint)
+			throws IOException {
+		Object data = content instanceof SdTemplateContent ? ((SdTemplateContent) content).overlay(template) : content;
+		boolean render = SdMetrics.getInstance().time(SdMetrics.STAGE_RENDER, key, () -> render(format, data, template));
+		if (render && support != null) {
+			support.update(fingerprint, key, template);
+		}
+		return render;
+	}
+
+	/**
+	 * 使用模板工具生成单个模板,设置了输出目标时生成到输出目标
+	 * 
+	 * @param format
+	 *          编码格式
+	 * @param content
+	 *          模板生成所需要的内容
+	 * @param template
+	 *          模板
+	 * @return
+	 */
+	protected boolean render(String format, Object content, SdTemplate template) {
+		if (outputSink != null) {
+			return templateUtil.render(outputSink, format, content, template);
+		}
+		return templateUtil.render(projectPath, format, content, template);
+	}
+
+	/**
+	 * 记录并输出跳过生成的模板
+	 * 
+	 * @param result
+	 * @param key
+	 */
+	private void logSkip(SdCodeResult result, String key) {
+		result.put(key, true);
+		LOG.info(String.format("执行生成%s-->没有修改,跳过!", key));
+	}
+
+	/**
+	 * 记录并输出模板的生成结果
+	 * 
+	 * @param result
+	 * @param key
+	 * @param render
+	 */
+	private void logResult(SdCodeResult result, String key, boolean render) {
+		result.put(key, render);
+		if (render) {
+			LOG.info(String.format("执行生成%s-->成功!", key));
+		} else {
+			LOG.warning(String.format("执行生成%s-->异常,模板工具返回false!", key));
+		}
+	}
+
+	/**
+	 * 记录并输出模板的生成异常
+	 * 
+	 * @param result
+	 * @param key
+	 * @param e
+	 */
+	private void logError(SdCodeResult result, String key, Throwable e) {
+		result.putError(key, e);
+		LOG.log(Level.SEVERE, String.format("执行生成%s-->异常:%s", key, e.getMessage()), e);
 	}
 
 	@Override
@@ -192,6 +413,86 @@ public class SdCodeUtilImpl implements SdCodeUtil {
 		return this;
 	}
 
+	/**
+	 * 获取并行生成模板的线程数量
+	 * 
+	 * @return
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 设置并行生成模板的线程数量,大于1时并行生成
+	 * 
+	 * @param parallelism
+	 * @return
+	 */
+	public SdCodeUtilImpl setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 获取并行生成模板的线程池
+	 * 
+	 * @return
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * 设置并行生成模板的线程池,线程池由调用者负责关闭
+	 * 
+	 * @param executor
+	 * @return
+	 */
+	public SdCodeUtilImpl setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * 获取是否增量生成
+	 * 
+	 * @return
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * 设置是否增量生成
+	 * 
+	 * @param incremental
+	 * @return
+	 */
+	public SdCodeUtilImpl setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		return this;
+	}
+
+	/**
+	 * 获取生成文件的输出目标
+	 * 
+	 * @return
+	 */
+	public SdOutputSink getOutputSink() {
+		return outputSink;
+	}
+
+	/**
+	 * 设置生成文件的输出目标,为null时输出到项目所在路径
+	 * 
+	 * @param outputSink
+	 * @return
+	 */
+	public SdCodeUtilImpl setOutputSink(SdOutputSink outputSink) {
+		this.outputSink = outputSink;
+		return this;
+	}
+
 	@Override
 	public SdCodeUtil addExtension(String key, Object value) {
 		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
@@ -0,0 +1,70 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.mirrentools.sd.util.impl.SdTemplateCompiler.Node;
+import org.mirrentools.sd.util.impl.SdTemplateCompiler.Scope;
+
+/**
+ * 预解析后的模板,由{@link SdTemplateCompiler}创建,保存解析好的渲染节点树,渲染时解释执行,<br>
+ * 线程安全,可以被多个线程同时渲染
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCompiledTemplate {
+	/** 模板的名字 */
+	private final String name;
+	/** 根节点 */
+	private final Node root;
+	/** 循环变量需要的槽位数量 */
+	private final int slots;
+
+	SdCompiledTemplate(String name, Node root, int slots) {
+		this.name = name;
+		this.root = root;
+		this.slots = slots;
+	}
+
+	/**
+	 * 渲染模板
+	 *
+	 * @param model
+	 *          模板需要的数据,通常为Map
+	 * @param out
+	 *          输出
+	 * @throws IOException
+	 */
+	public void render(Object model, Writer out) throws IOException {
+		root.render(new Scope(name, model, slots), out);
+	}
+
+	/**
+	 * 渲染模板为字符串
+	 *
+	 * @param model
+	 *          模板需要的数据,通常为Map
+	 * @return
+	 */
+	public String render(Object model) {
+		StringWriter out = new StringWriter();
+		try {
+			render(model, out);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * 获取模板的名字
+	 *
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,472 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.constant.Constant;
+import org.mirrentools.sd.models.SdTemplate;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MruCacheStorage;
+import freemarker.cache.MultiTemplateLoader;
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.Template;
+
+/**
+ * 进程内共享的FreeMarker配置,<br>
+ * 每个模板路径对应一个Configuration,已编译的Template缓存在Configuration中,缓存数量有上限,<br>
+ * 模板文件在超过更新检查间隔后才会检查最后修改时间,所以每个模板在JVM中只需要解析一次
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdFreeMarkerConfiguration {
+	/** 默认模板所在的目录 */
+	public static final String DEFAULT_TEMPLATE_PATH = "template";
+	/** 默认缓存模板的数量 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+	/** 默认检查模板是否修改的间隔时间,单位毫秒 */
+	public static final long DEFAULT_UPDATE_DELAY = 5000L;
+	/** 匹配include与import指令引用的模板名字 */
+	private static final Pattern INCLUDE_PATTERN = Pattern.compile("[<\\[]#(?:include|import)\\s+(['\"])(.*?)\\1");
+	/** 共享的实例 */
+	private static final SdFreeMarkerConfiguration INSTANCE = new SdFreeMarkerConfiguration();
+
+	/** 模板路径对应的配置,key为SdTemplate的path,默认路径的key为空字符串 */
+	private final ConcurrentMap<String, Configuration> configurations = new ConcurrentHashMap<String, Configuration>();
+	/** 获取模板的次数 */
+	private final AtomicLong requestCount = new AtomicLong();
+	/** 加载并解析模板的次数 */
+	private final AtomicLong loadCount = new AtomicLong();
+	/** 获取模板时使用过的编码格式,用于移除缓存 */
+	private final Set<String> encodings = ConcurrentHashMap.newKeySet();
+	/** 缓存模板的数量 */
+	private volatile int cacheSize = DEFAULT_CACHE_SIZE;
+	/** 检查模板是否修改的间隔时间,单位毫秒 */
+	private volatile long updateDelay = DEFAULT_UPDATE_DELAY;
+	/** 包装模板数据的ObjectWrapper */
+	private volatile ObjectWrapper objectWrapper = SdObjectWrapper.getInstance();
+
+	/**
+	 * 获取共享的实例
+	 *
+	 * @return
+	 */
+	public static SdFreeMarkerConfiguration getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 获取已编译的模板,优先从缓存中获取
+	 *
+	 * @param template
+	 *          模板
+	 * @param encoding
+	 *          模板的编码格式
+	 * @return
+	 * @throws IOException
+	 */
+	public Template getTemplate(SdTemplate template, String encoding) throws IOException {
+		requestCount.incrementAndGet();
+		encodings.add(encoding);
+		return getConfiguration(template.getPath()).getTemplate(template.getFile(), encoding);
+	}
+
+	/**
+	 * 获取模板文件的最后修改时间
+	 *
+	 * @param template
+	 *          模板
+	 * @return 模板不存在或者无法获取时返回-1
+	 */
+	public long getLastModified(SdTemplate template) {
+		TemplateLoader loader = getConfiguration(template.getPath()).getTemplateLoader();
+		try {
+			Object source = loader.findTemplateSource(template.getFile());
+			if (source == null) {
+				return -1;
+			}
+			try {
+				return loader.getLastModified(source);
+			} finally {
+				loader.closeTemplateSource(source);
+			}
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * 获取模板内容的指纹,递归包括模板通过include/import引用的模板,<br>
+	 * 引用的模板不存在时指纹中记录为不存在,模板出现后指纹改变
+	 *
+	 * @param template
+	 *          模板
+	 * @return 模板不存在,无法读取或者引用的模板名字是表达式时返回null
+	 */
+	public String getFingerprint(SdTemplate template) {
+		TemplateLoader loader = getConfiguration(template.getPath()).getTemplateLoader();
+		if (loader instanceof CountingTemplateLoader) {
+			// 计算指纹不是加载模板,不计入统计
+			loader = ((CountingTemplateLoader) loader).delegate;
+		}
+		SdFingerprint fingerprint = new SdFingerprint();
+		try {
+			return fingerprint(loader, template.getFile(), new HashSet<String>(), fingerprint) ? fingerprint.toHex() : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 写入模板及其引用的模板的内容
+	 *
+	 * @param loader
+	 *          模板加载器
+	 * @param name
+	 *          模板的名字
+	 * @param visited
+	 *          已经写入的模板,用于处理循环引用
+	 * @param fingerprint
+	 *          指纹
+	 * @return 模板不存在或者引用的模板名字是表达式时返回false
+	 * @throws IOException
+	 */
+	private boolean fingerprint(TemplateLoader loader, String name, Set<String> visited, SdFingerprint fingerprint) throws IOException {
+		if (!visited.add(name)) {
+			return true;
+		}
+		Object source = loader.findTemplateSource(name);
+		if (source == null) {
+			return false;
+		}
+		String content;
+		try {
+			Reader reader = loader.getReader(source, Constant.UTF_8);
+			try {
+				StringBuilder builder = new StringBuilder();
+				char[] buffer = new char[4096];
+				int len;
+				while ((len = reader.read(buffer)) != -1) {
+					builder.append(buffer, 0, len);
+				}
+				content = builder.toString();
+			} finally {
+				reader.close();
+			}
+		} finally {
+			loader.closeTemplateSource(source);
+		}
+		fingerprint.put(name).put(content);
+		int index = name.lastIndexOf('/');
+		String dir = index == -1 ? "" : name.substring(0, index + 1);
+		Matcher matcher = INCLUDE_PATTERN.matcher(content);
+		while (matcher.find()) {
+			String include = matcher.group(2);
+			if (include.contains("${") || include.contains("*")) {
+				return false;
+			}
+			String path = resolveName(dir, include);
+			Object included = loader.findTemplateSource(path);
+			if (included == null) {
+				fingerprint.put("missing").put(path);
+				continue;
+			}
+			loader.closeTemplateSource(included);
+			if (!fingerprint(loader, path, visited, fingerprint)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 将引用的模板名字解析为相对于模板目录的名字,以/开头的名字相对于模板目录,否则相对于当前模板所在的目录
+	 *
+	 * @param dir
+	 *          当前模板所在的目录,以/结尾或者为空字符串
+	 * @param name
+	 *          引用的模板名字
+	 * @return
+	 */
+	private String resolveName(String dir, String name) {
+		String path = name.startsWith("/") ? name : dir + name;
+		Deque<String> parts = new ArrayDeque<String>();
+		for (String part : path.split("/")) {
+			if (part.isEmpty() || ".".equals(part)) {
+				continue;
+			}
+			if ("..".equals(part)) {
+				parts.pollLast();
+			} else {
+				parts.addLast(part);
+			}
+		}
+		return String.join("/", parts);
+	}
+
+	/**
+	 * 从缓存中移除已编译的模板,下次获取时重新加载并解析
+	 *
+	 * @param template
+	 *          模板
+	 */
+	public void evict(SdTemplate template) {
+		Configuration config = configurations.get(template.getPath() == null ? "" : template.getPath());
+		if (config == null) {
+			return;
+		}
+		for (String encoding : encodings) {
+			try {
+				config.removeTemplateFromCache(template.getFile(), config.getLocale(), encoding, true);
+			} catch (IOException e) {
+				// 模板已经不存在时忽略
+			}
+		}
+	}
+
+	/**
+	 * 获取模板路径在文件系统中对应的目录,相对路径相对于当前项目
+	 *
+	 * @param path
+	 *          模板路径,为null时使用默认路径
+	 * @return
+	 */
+	public File getTemplateDirectory(String path) {
+		File file = new File(path == null ? DEFAULT_TEMPLATE_PATH : path);
+		if (!file.isAbsolute()) {
+			file = new File(SdUtil.getUserDir(), file.getPath());
+		}
+		return file;
+	}
+
+	/**
+	 * 获取模板路径对应的配置
+	 *
+	 * @param path
+	 *          模板路径,为null时使用默认路径
+	 * @return
+	 */
+	public Configuration getConfiguration(String path) {
+		String key = path == null ? "" : path;
+		Configuration config = configurations.get(key);
+		if (config == null) {
+			// 与setObjectWrapper互斥,不会把使用旧ObjectWrapper创建的配置放入
+			synchronized (this) {
+				config = configurations.get(key);
+				if (config == null) {
+					config = createConfiguration(path);
+					configurations.put(key, config);
+				}
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * 创建模板路径对应的配置
+	 *
+	 * @param path
+	 * @return
+	 */
+	protected Configuration createConfiguration(String path) {
+		Configuration config = new Configuration(Configuration.VERSION_2_3_28);
+		config.setTemplateLoader(new CountingTemplateLoader(createTemplateLoader(path)));
+		config.setCacheStorage(new MruCacheStorage(cacheSize, 0));
+		config.setTemplateUpdateDelayMilliseconds(updateDelay);
+		config.setLocalizedLookup(false);
+		config.setObjectWrapper(objectWrapper);
+		return config;
+	}
+
+	/**
+	 * 创建模板加载器<br>
+	 * 1. 默认寻找项目根路径的template<br>
+	 * 2. 如果不存在寻找classpath<br>
+	 * 3. 如果还不存在则寻找工具jar包的resource目录
+	 *
+	 * @param path
+	 * @return
+	 */
+	protected TemplateLoader createTemplateLoader(String path) {
+		String dir = path == null ? DEFAULT_TEMPLATE_PATH : path;
+		List<TemplateLoader> loaders = new ArrayList<TemplateLoader>();
+		File file = getTemplateDirectory(path);
+		if (file.isDirectory()) {
+			try {
+				loaders.add(new FileTemplateLoader(file));
+			} catch (IOException e) {
+				// 目录无法读取时忽略,继续在classpath中寻找
+			}
+		}
+		String classPath = dir.replace('\\', '/');
+		while (classPath.startsWith("/")) {
+			classPath = classPath.substring(1);
+		}
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if (loader != null) {
+			loaders.add(new ClassTemplateLoader(loader, classPath));
+		}
+		loaders.add(new ClassTemplateLoader(SdFreeMarkerConfiguration.class, "/" + classPath));
+		return new MultiTemplateLoader(loaders.toArray(new TemplateLoader[loaders.size()]));
+	}
+
+	/**
+	 * 清除所有缓存的模板与统计信息
+	 */
+	public void clear() {
+		for (Configuration config : configurations.values()) {
+			config.clearTemplateCache();
+		}
+		requestCount.set(0);
+		loadCount.set(0);
+	}
+
+	/**
+	 * 获取缓存命中的次数
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return Math.max(0, requestCount.get() - loadCount.get());
+	}
+
+	/**
+	 * 获取缓存未命中既加载并解析模板的次数
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return loadCount.get();
+	}
+
+	/**
+	 * 获取缓存命中率
+	 *
+	 * @return
+	 */
+	public double getHitRate() {
+		long request = requestCount.get();
+		return request == 0 ? 0 : (double) getHitCount() / request;
+	}
+
+	/**
+	 * 获取缓存模板的数量
+	 *
+	 * @return
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * 设置缓存模板的数量,默认256,设置后已创建的配置将清空缓存
+	 *
+	 * @param cacheSize
+	 * @return
+	 */
+	public SdFreeMarkerConfiguration setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+		for (Configuration config : configurations.values()) {
+			config.setCacheStorage(new MruCacheStorage(cacheSize, 0));
+		}
+		return this;
+	}
+
+	/**
+	 * 获取检查模板是否修改的间隔时间,单位毫秒
+	 *
+	 * @return
+	 */
+	public long getUpdateDelay() {
+		return updateDelay;
+	}
+
+	/**
+	 * 设置检查模板是否修改的间隔时间,单位毫秒,默认5000
+	 *
+	 * @param updateDelay
+	 * @return
+	 */
+	public SdFreeMarkerConfiguration setUpdateDelay(long updateDelay) {
+		this.updateDelay = updateDelay;
+		for (Configuration config : configurations.values()) {
+			config.setTemplateUpdateDelayMilliseconds(updateDelay);
+		}
+		return this;
+	}
+
+	/**
+	 * 获取包装模板数据的ObjectWrapper
+	 *
+	 * @return
+	 */
+	public ObjectWrapper getObjectWrapper() {
+		return objectWrapper;
+	}
+
+	/**
+	 * 设置包装模板数据的ObjectWrapper,默认为不使用反射访问模型属性的{@link SdObjectWrapper},<br>
+	 * 已创建的配置可能正在被其他线程使用,所以不会修改,而是被丢弃,下次获取时使用新的ObjectWrapper重新创建(模板需要重新解析),<br>
+	 * 已经获取了旧配置的生成继续使用旧的ObjectWrapper,建议在第一次生成之前设置
+	 *
+	 * @param objectWrapper
+	 * @return
+	 */
+	public synchronized SdFreeMarkerConfiguration setObjectWrapper(ObjectWrapper objectWrapper) {
+		this.objectWrapper = objectWrapper;
+		configurations.clear();
+		return this;
+	}
+
+	/**
+	 * 统计模板加载次数的模板加载器
+	 */
+	private class CountingTemplateLoader implements TemplateLoader {
+		/** 实际的模板加载器 */
+		private final TemplateLoader delegate;
+
+		CountingTemplateLoader(TemplateLoader delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object findTemplateSource(String name) throws IOException {
+			return delegate.findTemplateSource(name);
+		}
+
+		@Override
+		public long getLastModified(Object templateSource) {
+			return delegate.getLastModified(templateSource);
+		}
+
+		@Override
+		public Reader getReader(Object templateSource, String encoding) throws IOException {
+			loadCount.incrementAndGet();
+			return delegate.getReader(templateSource, encoding);
+		}
+
+		@Override
+		public void closeTemplateSource(Object templateSource) throws IOException {
+			delegate.closeTemplateSource(templateSource);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdManifest;
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.util.SdTemplateUtil;
+
+/**
+ * 增量生成的辅助类,一次生成中模板的指纹只计算一次,<br>
+ * 模板的指纹包括模板的属性与模板内容(含include/import引用的模板)的指纹
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+class SdIncrementalSupport {
+	/** 项目所在路径 */
+	private final String projectPath;
+	/** 生成清单 */
+	private final SdManifest manifest;
+	/** 模板的指纹,key为模板的名字 */
+	private final Map<String, String> templateFingerprints = new HashMap<String, String>();
+
+	/**
+	 * 加载项目的生成清单并计算模板的指纹
+	 *
+	 * @param projectPath
+	 * @param templateUtil
+	 * @param templateMaps
+	 */
+	SdIncrementalSupport(String projectPath, SdTemplateUtil templateUtil, Map<String, SdTemplate> templateMaps) {
+		this.projectPath = projectPath == null ? SdUtil.getUserDir() : projectPath;
+		this.manifest = SdManifest.load(this.projectPath);
+		for (Entry<String, SdTemplate> entry : templateMaps.entrySet()) {
+			String source = templateUtil.getFingerprint(entry.getValue());
+			templateFingerprints.put(entry.getKey(), source == null ? null : SdFingerprint.of(entry.getValue(), source));
+		}
+	}
+
+	/**
+	 * 判断模板的生成文件是否为最新
+	 *
+	 * @param beanFingerprint
+	 *          实体指纹
+	 * @param key
+	 *          模板的名字
+	 * @param template
+	 *          模板
+	 * @return
+	 */
+	boolean isUpToDate(String beanFingerprint, String key, SdTemplate template) {
+		String path = SdUtil.toOutputPath(template);
+		return manifest.isUpToDate(path, new File(projectPath, path), beanFingerprint, templateFingerprints.get(key));
+	}
+
+	/**
+	 * 生成成功后更新清单
+	 *
+	 * @param beanFingerprint
+	 *          实体指纹
+	 * @param key
+	 *          模板的名字
+	 * @param template
+	 *          模板
+	 * @throws IOException
+	 */
+	void update(String beanFingerprint, String key, SdTemplate template) throws IOException {
+		String path = SdUtil.toOutputPath(template);
+		manifest.update(path, new File(projectPath, path), beanFingerprint, templateFingerprints.get(key));
+	}
+
+	/**
+	 * 保存清单
+	 *
+	 * @throws IOException
+	 */
+	void save() throws IOException {
+		manifest.save();
+	}
+
+}
@@ -0,0 +1,88 @@
+package org.mirrentools.sd.util.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.mirrentools.sd.common.SdModelAccessors;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * 不使用反射访问模型属性的FreeMarker ObjectWrapper,<br>
+ * 在{@link SdModelAccessors}中注册了的模型(SdClassContent、SdColumn、SdRelational、SdTemplateAttribute等)包装为{@link SdTemplateModel},
+ * 属性通过预先生成的访问表直接调用getter;<br>
+ * 集合使用FreeMarker的适配器包装,只有模板访问到的元素才会被包装;<br>
+ * 其他对象与访问表中不存在的属性(比如调用方法)仍然使用DefaultObjectWrapper的反射实现
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdObjectWrapper extends DefaultObjectWrapper {
+	/** 共享的实例 */
+	private static final SdObjectWrapper INSTANCE = new SdObjectWrapper();
+
+	/** 类型对应的属性访问表,没有注册的类型对应空表 */
+	private final ConcurrentMap<Class<?>, Map<String, Function<Object, Object>>> tables = new ConcurrentHashMap<Class<?>, Map<String, Function<Object, Object>>>();
+
+	/**
+	 * 初始化
+	 */
+	public SdObjectWrapper() {
+		super(Configuration.VERSION_2_3_28);
+		setUseAdaptersForContainers(true);
+		setForceLegacyNonListCollections(false);
+		writeProtect();
+	}
+
+	/**
+	 * 获取共享的实例
+	 *
+	 * @return
+	 */
+	public static SdObjectWrapper getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	protected TemplateModel handleUnknownType(Object obj) throws TemplateModelException {
+		Map<String, Function<Object, Object>> table = getTable(obj.getClass());
+		if (table.isEmpty()) {
+			return super.handleUnknownType(obj);
+		}
+		return new SdTemplateModel(obj, table, this);
+	}
+
+	/**
+	 * 获取类型的属性访问表,第一次获取后缓存,<br>
+	 * 所以自定义模型需要在第一次生成之前注册到{@link SdModelAccessors}
+	 *
+	 * @param type
+	 * @return
+	 */
+	protected Map<String, Function<Object, Object>> getTable(Class<?> type) {
+		Map<String, Function<Object, Object>> table = tables.get(type);
+		if (table == null) {
+			table = SdModelAccessors.getAccessors(type);
+			tables.putIfAbsent(type, table);
+		}
+		return table;
+	}
+
+	/**
+	 * 使用反射包装对象,用于访问表中不存在的属性
+	 *
+	 * @param obj
+	 * @return
+	 * @throws TemplateModelException
+	 */
+	TemplateHashModel reflect(Object obj) throws TemplateModelException {
+		return (TemplateHashModel) super.handleUnknownType(obj);
+	}
+
+}
@@ -0,0 +1,166 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.util.SdOutputSink;
+
+/**
+ * 输出到文件系统,生成的文件保存在根目录下,<br>
+ * 内容先写入同一目录下的临时文件,通道关闭时再移动到目标文件,生成失败时删除临时文件,已经存在的文件保持不变
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdOutputSinkImplByFile implements SdOutputSink {
+	/** 根目录 */
+	private final String rootPath;
+
+	/**
+	 * 输出到当前项目
+	 */
+	public SdOutputSinkImplByFile() {
+		this(null);
+	}
+
+	/**
+	 * 输出到指定的目录
+	 *
+	 * @param rootPath
+	 *          根目录,为null时使用当前项目
+	 */
+	public SdOutputSinkImplByFile(String rootPath) {
+		super();
+		this.rootPath = rootPath == null ? SdUtil.getUserDir() : rootPath;
+	}
+
+	@Override
+	public boolean exists(String path) {
+		return new File(rootPath, path).exists();
+	}
+
+	@Override
+	public WritableByteChannel open(String path) throws IOException {
+		File file = new File(rootPath, path);
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		Path temp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), "." + file.getName() + ".", ".tmp");
+		try {
+			return new FileOutputChannel(file.toPath(), temp, FileChannel.open(temp, StandardOpenOption.WRITE));
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	@Override
+	public void discard(WritableByteChannel channel) throws IOException {
+		if (channel instanceof FileOutputChannel) {
+			((FileOutputChannel) channel).discard();
+		} else {
+			channel.close();
+		}
+	}
+
+	@Override
+	public String getRootPath() {
+		return rootPath;
+	}
+
+	/**
+	 * 写入临时文件的通道,关闭时将临时文件移动到目标文件,放弃或写入失败时删除临时文件
+	 */
+	private static class FileOutputChannel implements WritableByteChannel {
+		/** 目标文件 */
+		private final Path target;
+		/** 临时文件 */
+		private final Path temp;
+		/** 临时文件的通道 */
+		private final FileChannel channel;
+		/** 是否有写入失败 */
+		private boolean failed;
+		/** 是否已经提交或放弃 */
+		private boolean done;
+
+		FileOutputChannel(Path target, Path temp, FileChannel channel) {
+			this.target = target;
+			this.temp = temp;
+			this.channel = channel;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (done) {
+				throw new ClosedChannelException();
+			}
+			try {
+				return channel.write(src);
+			} catch (IOException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean isOpen() {
+			return !done;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (done) {
+				return;
+			}
+			if (failed) {
+				// 写入失败时不提交写了一半的内容
+				discard();
+				return;
+			}
+			done = true;
+			boolean moved = false;
+			try {
+				channel.close();
+				try {
+					Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+				}
+				moved = true;
+			} finally {
+				if (!moved) {
+					Files.deleteIfExists(temp);
+				}
+			}
+		}
+
+		/**
+		 * 放弃写入的内容,关闭通道并删除临时文件
+		 *
+		 * @throws IOException
+		 */
+		void discard() throws IOException {
+			if (done) {
+				return;
+			}
+			done = true;
+			try {
+				channel.close();
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.mirrentools.sd.util.SdOutputSink;
+
+/**
+ * 输出到内存,生成的内容保存为路径与字节的集合,可以直接交给编译器或打包工具而不经过文件系统
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdOutputSinkImplByMemory implements SdOutputSink {
+	/** 生成的内容,key为路径,value为内容,按路径排序 */
+	private final Map<String, byte[]> contents = new ConcurrentSkipListMap<String, byte[]>();
+
+	@Override
+	public boolean exists(String path) {
+		return contents.containsKey(path);
+	}
+
+	@Override
+	public WritableByteChannel open(String path) throws IOException {
+		return new MemoryChannel(path);
+	}
+
+	@Override
+	public void discard(WritableByteChannel channel) throws IOException {
+		if (channel instanceof MemoryChannel) {
+			((MemoryChannel) channel).out = null;
+		} else {
+			channel.close();
+		}
+	}
+
+	/**
+	 * 获取生成的内容
+	 *
+	 * @return key为路径,value为内容的只读集合
+	 */
+	public Map<String, byte[]> getContents() {
+		return Collections.unmodifiableMap(contents);
+	}
+
+	/**
+	 * 获取指定路径生成的内容
+	 *
+	 * @param path
+	 * @return 不存在时返回null
+	 */
+	public byte[] getContent(String path) {
+		return contents.get(path);
+	}
+
+	/**
+	 * 清空生成的内容
+	 */
+	public void clear() {
+		contents.clear();
+	}
+
+	/**
+	 * 写入内存的通道,关闭时保存内容,放弃时不保存
+	 */
+	private class MemoryChannel implements WritableByteChannel {
+		/** 路径 */
+		private final String path;
+		/** 写入的内容 */
+		private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		MemoryChannel(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (out == null) {
+				throw new ClosedChannelException();
+			}
+			int len = src.remaining();
+			if (src.hasArray()) {
+				out.write(src.array(), src.arrayOffset() + src.position(), len);
+				((Buffer) src).position(src.limit());
+			} else {
+				byte[] bytes = new byte[len];
+				src.get(bytes);
+				out.write(bytes);
+			}
+			return len;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return out != null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out != null) {
+				contents.put(path, out.toByteArray());
+				out = null;
+			}
+		}
+	}
+
+}
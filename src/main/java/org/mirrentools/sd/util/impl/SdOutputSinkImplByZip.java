@@ -0,0 +1,158 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.mirrentools.sd.util.SdOutputSink;
+
+/**
+ * 输出到ZIP(或JAR)流,所有生成的文件写入同一个流中,<br>
+ * 每个文件先在内存中渲染完成,再串行写入ZIP流,所以并行生成时渲染仍然是并行的,<br>
+ * 全部生成完成后需要调用{@link #close()}结束ZIP流
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdOutputSinkImplByZip implements SdOutputSink {
+	/** ZIP输出流 */
+	private final ZipOutputStream zip;
+	/** 已经写入或正在写入的路径 */
+	private final Set<String> paths = ConcurrentHashMap.newKeySet();
+	/** 是否已经关闭 */
+	private boolean closed;
+
+	/**
+	 * 初始化一个ZIP输出
+	 *
+	 * @param out
+	 *          输出流,关闭时一并关闭
+	 */
+	public SdOutputSinkImplByZip(OutputStream out) {
+		super();
+		this.zip = new ZipOutputStream(out);
+	}
+
+	/**
+	 * 设置压缩级别
+	 *
+	 * @param level
+	 *          0-9,参考{@link java.util.zip.Deflater}
+	 * @return
+	 */
+	public SdOutputSinkImplByZip setLevel(int level) {
+		synchronized (zip) {
+			zip.setLevel(level);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean exists(String path) {
+		return paths.contains(path);
+	}
+
+	@Override
+	public WritableByteChannel open(String path) throws IOException {
+		if (!paths.add(path)) {
+			throw new IOException("ZIP中已经存在路径:" + path);
+		}
+		return new EntryChannel(path);
+	}
+
+	@Override
+	public void discard(WritableByteChannel channel) throws IOException {
+		if (channel instanceof EntryChannel) {
+			EntryChannel entry = (EntryChannel) channel;
+			if (entry.out != null) {
+				entry.out = null;
+				paths.remove(entry.path);
+			}
+		} else {
+			channel.close();
+		}
+	}
+
+	/**
+	 * 将一个文件写入ZIP流
+	 *
+	 * @param path
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeEntry(String path, ByteArrayOutputStream out) throws IOException {
+		synchronized (zip) {
+			if (closed) {
+				throw new IOException("ZIP输出已经关闭");
+			}
+			zip.putNextEntry(new ZipEntry(path));
+			out.writeTo(zip);
+			zip.closeEntry();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (zip) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			zip.close();
+		}
+	}
+
+	/**
+	 * 写入单个文件的通道,关闭时写入ZIP流,放弃时不写入
+	 */
+	private class EntryChannel implements WritableByteChannel {
+		/** 路径 */
+		private final String path;
+		/** 写入的内容 */
+		private ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		EntryChannel(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (out == null) {
+				throw new ClosedChannelException();
+			}
+			int len = src.remaining();
+			if (src.hasArray()) {
+				out.write(src.array(), src.arrayOffset() + src.position(), len);
+				((Buffer) src).position(src.limit());
+			} else {
+				byte[] bytes = new byte[len];
+				src.get(bytes);
+				out.write(bytes);
+			}
+			return len;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return out != null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out != null) {
+				ByteArrayOutputStream data = out;
+				out = null;
+				writeEntry(path, data);
+			}
+		}
+	}
+
+}
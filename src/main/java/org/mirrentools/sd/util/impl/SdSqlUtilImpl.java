@@ -1,5 +1,6 @@
 package org.mirrentools.sd.util.impl;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.mirrentools.sd.common.SdException;
@@ -7,6 +8,7 @@ import org.mirrentools.sd.converter.SdBeanConverterToTableContent;
 import org.mirrentools.sd.dbutil.SdDbUtil;
 import org.mirrentools.sd.models.SdBean;
 import org.mirrentools.sd.models.db.update.AbstractTableContent;
+import org.mirrentools.sd.util.SdBeanSource;
 import org.mirrentools.sd.util.SdCodeUtil;
 import org.mirrentools.sd.util.SdSqlUtil;
 
@@ -48,6 +50,32 @@ public class SdSqlUtilImpl implements SdSqlUtil {
 		}
 	}
 
+	@Override
+	public boolean execute(SdBeanSource source) {
+		boolean result = true;
+		Map<String, Exception> failures = new LinkedHashMap<String, Exception>();
+		SdBean next;
+		while ((next = source.next()) != null) {
+			try {
+				result &= dbUtil.createTable(converter.converter(next));
+			} catch (Exception e) {
+				failures.put(next.getName(), e);
+			}
+		}
+		if (!failures.isEmpty()) {
+			SdException exception = null;
+			for (Exception e : failures.values()) {
+				if (exception == null) {
+					exception = new SdException("创建表失败,表:" + failures.keySet(), e);
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+			throw exception;
+		}
+		return result;
+	}
+
 	@Override
 	public SdBean getBean() {
 		return bean;
@@ -0,0 +1,1008 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdModelAccessors;
+
+/**
+ * 模板预解析器,将受限的模板语法解析为预先绑定好的渲染节点树,渲染时由节点树解释执行,<br>
+ * 这里的"编译"只是一次性的解析与变量绑定,不生成Java源码或字节码;<br>
+ * 支持的语法是FreeMarker的子集,同一个模板可以同时使用FreeMarker与本实现渲染:<br>
+ * 1. 插值:${expr},${expr!},${expr!"默认值"}<br>
+ * 2. 条件:&lt;#if expr&gt;...&lt;#elseif expr&gt;...&lt;#else&gt;...&lt;/#if&gt;<br>
+ * 3. 循环:&lt;#list expr as item&gt;...&lt;#else&gt;...&lt;/#list&gt;,循环中可以使用item_index、item_has_next、item?index、item?counter、item?has_next<br>
+ * 4. 注释:&lt;#-- --&gt;<br>
+ * 表达式支持属性访问a.b与a["b"]、字符串与数字字面量、true/false、!、==、!=、&amp;&amp;、||、??、括号,
+ * 以及内建函数has_content、size、upper_case、lower_case、cap_first、uncap_first、trim;<br>
+ * 只包含指令的行与FreeMarker一样会被去掉,条件的值不是布尔值时null为false其他为true;<br>
+ * 输出与FreeMarker并不完全相同:数字直接使用toString输出,FreeMarker默认按locale格式化(例如1000输出为"1,000"),
+ * 所以插值大于等于1000的数字时结果不同,需要相同时在FreeMarker中设置number_format为"computer"或者先转换为字符串;<br>
+ * 属性通过{@link SdModelAccessors}中手写的访问方法获取,不使用反射,变量在解析时绑定为槽位,渲染时不再解析模板
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateCompiler {
+	/** 普通文本 */
+	private static final int TEXT = 0;
+	/** 插值 */
+	private static final int INTERPOLATION = 1;
+	/** 开始指令 */
+	private static final int DIRECTIVE = 2;
+	/** 结束指令 */
+	private static final int END = 3;
+	/** 注释 */
+	private static final int COMMENT = 4;
+
+	/** 模板的名字 */
+	private final String name;
+	/** 模板的内容 */
+	private final String source;
+	/** 解析后的标记 */
+	private List<Token> tokens;
+	/** 当前解析的标记位置 */
+	private int index;
+	/** 当前作用域中的循环变量 */
+	private final List<String> variables = new ArrayList<String>();
+	/** 需要的槽位数量 */
+	private int slots;
+
+	private SdTemplateCompiler(String name, String source) {
+		this.name = name;
+		this.source = source;
+	}
+
+	/**
+	 * 编译模板
+	 *
+	 * @param name
+	 *          模板的名字,用于错误信息
+	 * @param source
+	 *          模板的内容
+	 * @return
+	 * @throws SdException
+	 *           模板语法错误或者使用了不支持的语法
+	 */
+	public static SdCompiledTemplate compile(String name, String source) {
+		SdTemplateCompiler compiler = new SdTemplateCompiler(name, source);
+		compiler.tokens = compiler.stripWhitespace(compiler.tokenize());
+		Node root = compiler.block(compiler.parseBlock());
+		if (compiler.index < compiler.tokens.size()) {
+			throw compiler.error(compiler.tokens.get(compiler.index).pos, "多余的指令");
+		}
+		return new SdCompiledTemplate(name, root, compiler.slots);
+	}
+
+	// ------------------------------------------ 词法解析 ------------------------------------------
+
+	/**
+	 * 将模板拆分为文本、插值与指令
+	 *
+	 * @return
+	 */
+	private List<Token> tokenize() {
+		List<Token> result = new ArrayList<Token>();
+		int pos = 0;
+		int len = source.length();
+		while (pos < len) {
+			int next = nextTag(pos);
+			if (next < 0) {
+				result.add(new Token(TEXT, source.substring(pos), null, pos));
+				break;
+			}
+			if (next > pos) {
+				result.add(new Token(TEXT, source.substring(pos, next), null, pos));
+			}
+			if (source.startsWith("<#--", next)) {
+				int end = source.indexOf("-->", next + 4);
+				if (end < 0) {
+					throw error(next, "注释没有结束");
+				}
+				result.add(new Token(COMMENT, null, null, next));
+				pos = end + 3;
+			} else if (source.startsWith("${", next)) {
+				int end = findClose(next + 2, '}');
+				result.add(new Token(INTERPOLATION, source.substring(next + 2, end).trim(), null, next));
+				pos = end + 1;
+			} else if (source.startsWith("</#", next)) {
+				int end = source.indexOf('>', next);
+				if (end < 0) {
+					throw error(next, "指令没有结束");
+				}
+				result.add(new Token(END, source.substring(next + 3, end).trim(), null, next));
+				pos = end + 1;
+			} else {
+				int end = findClose(next + 2, '>');
+				String content = source.substring(next + 2, end).trim();
+				if (content.endsWith("/")) {
+					content = content.substring(0, content.length() - 1).trim();
+				}
+				int split = 0;
+				while (split < content.length() && Character.isLetter(content.charAt(split))) {
+					split++;
+				}
+				result.add(new Token(DIRECTIVE, content.substring(0, split), content.substring(split).trim(), next));
+				pos = end + 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取下一个标签的位置
+	 *
+	 * @param from
+	 * @return 没有时返回-1
+	 */
+	private int nextTag(int from) {
+		int result = -1;
+		for (String tag : new String[] { "${", "<#", "</#" }) {
+			int i = source.indexOf(tag, from);
+			if (i >= 0 && (result < 0 || i < result)) {
+				result = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 查找结束字符的位置,跳过字符串中的字符
+	 *
+	 * @param from
+	 * @param close
+	 * @return
+	 */
+	private int findClose(int from, char close) {
+		for (int i = from; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if (c == '"' || c == '\'') {
+				for (i++; i < source.length() && source.charAt(i) != c; i++) {
+					if (source.charAt(i) == '\\') {
+						i++;
+					}
+				}
+			} else if (c == close) {
+				return i;
+			}
+		}
+		throw error(from, "缺少结束符" + close);
+	}
+
+	/**
+	 * 去掉只包含指令与空白的行,与FreeMarker的空白处理一致
+	 *
+	 * @param input
+	 * @return
+	 */
+	private List<Token> stripWhitespace(List<Token> input) {
+		List<Token> result = new ArrayList<Token>();
+		List<Token> line = new ArrayList<Token>();
+		for (Token token : input) {
+			if (token.type != TEXT) {
+				line.add(token);
+				continue;
+			}
+			int start = 0;
+			int nl;
+			while ((nl = token.text.indexOf('\n', start)) >= 0) {
+				line.add(new Token(TEXT, token.text.substring(start, nl + 1), null, token.pos + start));
+				flushLine(line, result);
+				start = nl + 1;
+			}
+			if (start < token.text.length()) {
+				line.add(new Token(TEXT, token.text.substring(start), null, token.pos + start));
+			}
+		}
+		flushLine(line, result);
+		return result;
+	}
+
+	/**
+	 * 输出一行的标记,如果该行只包含指令与空白则去掉空白
+	 *
+	 * @param line
+	 * @param result
+	 */
+	private void flushLine(List<Token> line, List<Token> result) {
+		boolean tag = false;
+		boolean blank = true;
+		for (Token token : line) {
+			if (token.type == DIRECTIVE || token.type == END || token.type == COMMENT) {
+				tag = true;
+			} else if (token.type == INTERPOLATION || !token.text.trim().isEmpty()) {
+				blank = false;
+			}
+		}
+		for (Token token : line) {
+			if (!(tag && blank && token.type == TEXT)) {
+				result.add(token);
+			}
+		}
+		line.clear();
+	}
+
+	// ------------------------------------------ 语法解析 ------------------------------------------
+
+	/**
+	 * 解析指令块,遇到elseif、else或结束指令时返回
+	 *
+	 * @return
+	 */
+	private List<Node> parseBlock() {
+		List<Node> nodes = new ArrayList<Node>();
+		StringBuilder text = new StringBuilder();
+		while (index < tokens.size()) {
+			Token token = tokens.get(index);
+			if (token.type == TEXT) {
+				text.append(token.text);
+				index++;
+				continue;
+			}
+			if (token.type == COMMENT) {
+				index++;
+				continue;
+			}
+			if (token.type == END || token.type == DIRECTIVE && ("elseif".equals(token.text) || "else".equals(token.text))) {
+				break;
+			}
+			flushText(text, nodes);
+			index++;
+			if (token.type == INTERPOLATION) {
+				nodes.add(new InterpolationNode(expression(token.text, token.pos), token.text, line(token.pos)));
+			} else if ("if".equals(token.text)) {
+				nodes.add(parseIf(token));
+			} else if ("list".equals(token.text)) {
+				nodes.add(parseList(token));
+			} else {
+				throw error(token.pos, "不支持的指令<#" + token.text + ">");
+			}
+		}
+		flushText(text, nodes);
+		return nodes;
+	}
+
+	/**
+	 * 解析条件指令
+	 *
+	 * @param start
+	 * @return
+	 */
+	private Node parseIf(Token start) {
+		List<Expr> conditions = new ArrayList<Expr>();
+		List<Node> bodies = new ArrayList<Node>();
+		conditions.add(expression(start.args, start.pos));
+		bodies.add(block(parseBlock()));
+		Node otherwise = null;
+		while (true) {
+			Token token = expect(start, "if");
+			index++;
+			if (token.type == END) {
+				break;
+			}
+			if ("elseif".equals(token.text) && otherwise == null) {
+				conditions.add(expression(token.args, token.pos));
+				bodies.add(block(parseBlock()));
+			} else if ("else".equals(token.text) && otherwise == null) {
+				otherwise = block(parseBlock());
+			} else {
+				throw error(token.pos, "<#" + token.text + ">位置错误");
+			}
+		}
+		return new IfNode(conditions.toArray(new Expr[conditions.size()]), bodies.toArray(new Node[bodies.size()]), otherwise);
+	}
+
+	/**
+	 * 解析循环指令
+	 *
+	 * @param start
+	 * @return
+	 */
+	private Node parseList(Token start) {
+		String args = start.args;
+		int as = args.lastIndexOf(" as ");
+		if (as < 0) {
+			throw error(start.pos, "<#list>缺少as");
+		}
+		String var = args.substring(as + 4).trim();
+		if (!isIdentifier(var)) {
+			throw error(start.pos, "<#list>变量名错误:" + var);
+		}
+		Expr sequence = expression(args.substring(0, as), start.pos);
+		int slot = variables.size();
+		variables.add(var);
+		slots = Math.max(slots, variables.size());
+		Node body = block(parseBlock());
+		variables.remove(variables.size() - 1);
+		Node otherwise = null;
+		Token token = expect(start, "list");
+		index++;
+		if (token.type == DIRECTIVE) {
+			if (!"else".equals(token.text)) {
+				throw error(token.pos, "<#" + token.text + ">位置错误");
+			}
+			otherwise = block(parseBlock());
+			token = expect(start, "list");
+			if (token.type != END) {
+				throw error(token.pos, "<#" + token.text + ">位置错误");
+			}
+			index++;
+		}
+		return new ListNode(sequence, slot, body, otherwise, line(start.pos));
+	}
+
+	/**
+	 * 获取当前标记并检查结束指令是否匹配
+	 *
+	 * @param start
+	 * @param directive
+	 * @return
+	 */
+	private Token expect(Token start, String directive) {
+		if (index >= tokens.size()) {
+			throw error(start.pos, "<#" + directive + ">缺少</#" + directive + ">");
+		}
+		Token token = tokens.get(index);
+		if (token.type == END && !directive.equals(token.text)) {
+			throw error(token.pos, "</#" + token.text + ">与<#" + directive + ">不匹配");
+		}
+		return token;
+	}
+
+	private void flushText(StringBuilder text, List<Node> nodes) {
+		if (text.length() > 0) {
+			nodes.add(new TextNode(text.toString()));
+			text.setLength(0);
+		}
+	}
+
+	private Node block(List<Node> nodes) {
+		if (nodes.size() == 1) {
+			return nodes.get(0);
+		}
+		return new BlockNode(nodes.toArray(new Node[nodes.size()]));
+	}
+
+	// ------------------------------------------ 表达式解析 ------------------------------------------
+
+	/**
+	 * 编译表达式
+	 *
+	 * @param text
+	 * @param pos
+	 *          表达式在模板中的位置,用于错误信息
+	 * @return
+	 */
+	private Expr expression(String text, int pos) {
+		ExpressionParser parser = new ExpressionParser(text, pos);
+		Expr expr = parser.parseOr();
+		parser.skipWhitespace();
+		if (parser.pos < text.length()) {
+			throw error(pos, "表达式错误:" + text);
+		}
+		return expr;
+	}
+
+	/**
+	 * 表达式解析器
+	 */
+	private class ExpressionParser {
+		private final String text;
+		private final int source;
+		private int pos;
+
+		ExpressionParser(String text, int source) {
+			this.text = text;
+			this.source = source;
+		}
+
+		Expr parseOr() {
+			Expr left = parseAnd();
+			while (consume("||")) {
+				final Expr l = left;
+				final Expr r = parseAnd();
+				left = scope -> truthy(l.eval(scope)) || truthy(r.eval(scope));
+			}
+			return left;
+		}
+
+		Expr parseAnd() {
+			Expr left = parseEquality();
+			while (consume("&&")) {
+				final Expr l = left;
+				final Expr r = parseEquality();
+				left = scope -> truthy(l.eval(scope)) && truthy(r.eval(scope));
+			}
+			return left;
+		}
+
+		Expr parseEquality() {
+			final Expr left = parseUnary();
+			if (consume("==") || consume("=")) {
+				final Expr right = parseUnary();
+				return scope -> isEqual(left.eval(scope), right.eval(scope));
+			}
+			if (consume("!=")) {
+				final Expr right = parseUnary();
+				return scope -> !isEqual(left.eval(scope), right.eval(scope));
+			}
+			return left;
+		}
+
+		Expr parseUnary() {
+			skipWhitespace();
+			if (peek() == '!' && !text.startsWith("!=", pos)) {
+				pos++;
+				final Expr expr = parseUnary();
+				return scope -> !truthy(expr.eval(scope));
+			}
+			return parsePostfix();
+		}
+
+		Expr parsePostfix() {
+			Expr expr = parsePrimary();
+			while (true) {
+				if (text.startsWith("??", pos)) {
+					pos += 2;
+					final Expr target = expr;
+					expr = scope -> target.eval(scope) != null;
+				} else if (peek() == '?') {
+					pos++;
+					expr = builtIn(expr, identifier());
+				} else if (peek() == '!' && !text.startsWith("!=", pos)) {
+					pos++;
+					skipWhitespace();
+					final Expr target = expr;
+					final Expr fallback = startsPrimary() ? parsePrimary() : scope -> "";
+					expr = scope -> {
+						Object value = target.eval(scope);
+						return value == null ? fallback.eval(scope) : value;
+					};
+				} else {
+					return expr;
+				}
+			}
+		}
+
+		Expr parsePrimary() {
+			skipWhitespace();
+			char c = peek();
+			if (c == '(') {
+				pos++;
+				Expr expr = parseOr();
+				if (!consume(")")) {
+					throw error(source, "缺少):" + text);
+				}
+				return expr;
+			}
+			if (c == '"' || c == '\'') {
+				final String value = string();
+				return scope -> value;
+			}
+			if (Character.isDigit(c)) {
+				int start = pos;
+				while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+					pos++;
+				}
+				String number = text.substring(start, pos);
+				final Object value = number.indexOf('.') >= 0 ? new BigDecimal(number) : (Object) Long.valueOf(number);
+				return scope -> value;
+			}
+			String id = identifier();
+			if ("true".equals(id) || "false".equals(id)) {
+				final Boolean value = Boolean.valueOf(id);
+				return scope -> value;
+			}
+			Expr expr = variable(id);
+			while (true) {
+				if (peek() == '.') {
+					pos++;
+					expr = new PropertyExpr(expr, identifier());
+				} else if (peek() == '[') {
+					pos++;
+					skipWhitespace();
+					expr = new PropertyExpr(expr, string());
+					if (!consume("]")) {
+						throw error(source, "缺少]:" + text);
+					}
+				} else {
+					return expr;
+				}
+			}
+		}
+
+		/**
+		 * 解析变量,循环变量解析为槽位,其他变量从根数据中获取
+		 *
+		 * @param id
+		 * @return
+		 */
+		Expr variable(final String id) {
+			int slot = variables.lastIndexOf(id);
+			if (slot >= 0) {
+				return new SlotExpr(slot);
+			}
+			for (int i = variables.size() - 1; i >= 0; i--) {
+				String var = variables.get(i);
+				if (id.equals(var + "_index")) {
+					final int index = i;
+					return scope -> scope.indexes[index];
+				}
+				if (id.equals(var + "_has_next")) {
+					final int index = i;
+					return scope -> scope.hasNexts[index];
+				}
+			}
+			return new PropertyExpr(scope -> scope.root, id);
+		}
+
+		/**
+		 * 内建函数
+		 *
+		 * @param target
+		 * @param builtIn
+		 * @return
+		 */
+		Expr builtIn(final Expr target, String builtIn) {
+			if ("index".equals(builtIn) || "counter".equals(builtIn) || "has_next".equals(builtIn)) {
+				if (!(target instanceof SlotExpr)) {
+					throw error(source, "?" + builtIn + "只能用于循环变量:" + text);
+				}
+				final int slot = ((SlotExpr) target).slot;
+				if ("index".equals(builtIn)) {
+					return scope -> scope.indexes[slot];
+				} else if ("counter".equals(builtIn)) {
+					return scope -> scope.indexes[slot] + 1;
+				}
+				return scope -> scope.hasNexts[slot];
+			}
+			switch (builtIn) {
+			case "has_content":
+				return scope -> hasContent(target.eval(scope));
+			case "size":
+				return scope -> size(target.eval(scope));
+			case "upper_case":
+				return scope -> convert(target.eval(scope), s -> s.toUpperCase());
+			case "lower_case":
+				return scope -> convert(target.eval(scope), s -> s.toLowerCase());
+			case "cap_first":
+				return scope -> convert(target.eval(scope), s -> s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1));
+			case "uncap_first":
+				return scope -> convert(target.eval(scope), s -> s.isEmpty() ? s : Character.toLowerCase(s.charAt(0)) + s.substring(1));
+			case "trim":
+				return scope -> convert(target.eval(scope), s -> s.trim());
+			default:
+				throw error(source, "不支持的内建函数?" + builtIn);
+			}
+		}
+
+		String identifier() {
+			skipWhitespace();
+			int start = pos;
+			while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error(source, "表达式错误:" + text);
+			}
+			return text.substring(start, pos);
+		}
+
+		String string() {
+			char quote = peek();
+			if (quote != '"' && quote != '\'') {
+				throw error(source, "缺少字符串:" + text);
+			}
+			StringBuilder sb = new StringBuilder();
+			for (pos++; pos < text.length(); pos++) {
+				char c = text.charAt(pos);
+				if (c == quote) {
+					pos++;
+					return sb.toString();
+				}
+				if (c == '\\' && pos + 1 < text.length()) {
+					c = text.charAt(++pos);
+					switch (c) {
+					case 'n':
+						c = '\n';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					default:
+						break;
+					}
+				}
+				sb.append(c);
+			}
+			throw error(source, "字符串没有结束:" + text);
+		}
+
+		boolean startsPrimary() {
+			char c = peek();
+			return c == '"' || c == '\'' || c == '(' || Character.isJavaIdentifierStart(c) || Character.isDigit(c);
+		}
+
+		boolean consume(String op) {
+			skipWhitespace();
+			if (text.startsWith(op, pos)) {
+				pos += op.length();
+				return true;
+			}
+			return false;
+		}
+
+		char peek() {
+			return pos < text.length() ? text.charAt(pos) : 0;
+		}
+
+		void skipWhitespace() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+		}
+	}
+
+	// ------------------------------------------ 工具方法 ------------------------------------------
+
+	private static boolean isIdentifier(String str) {
+		if (str.isEmpty() || !Character.isJavaIdentifierStart(str.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < str.length(); i++) {
+			if (!Character.isJavaIdentifierPart(str.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 判断条件是否成立,非布尔值时null为false,其他为true
+	 *
+	 * @param value
+	 * @return
+	 */
+	private static boolean truthy(Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		return value != null;
+	}
+
+	private static boolean isEqual(Object left, Object right) {
+		if (left instanceof Number && right instanceof Number) {
+			return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString())) == 0;
+		}
+		if (left instanceof Character || right instanceof Character) {
+			return String.valueOf(left).equals(String.valueOf(right));
+		}
+		return left == null ? right == null : left.equals(right);
+	}
+
+	private static boolean hasContent(Object value) {
+		if (value == null) {
+			return false;
+		}
+		if (value instanceof CharSequence) {
+			return ((CharSequence) value).length() > 0;
+		}
+		if (value instanceof Collection) {
+			return !((Collection<?>) value).isEmpty();
+		}
+		if (value instanceof Map) {
+			return !((Map<?, ?>) value).isEmpty();
+		}
+		if (value instanceof Object[]) {
+			return ((Object[]) value).length > 0;
+		}
+		return true;
+	}
+
+	private static int size(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).size();
+		}
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).size();
+		}
+		if (value instanceof Object[]) {
+			return ((Object[]) value).length;
+		}
+		throw new SdException("?size不支持类型" + value.getClass().getName());
+	}
+
+	private static Object convert(Object value, Function<String, String> function) {
+		return value == null ? null : function.apply(value.toString());
+	}
+
+	private int line(int pos) {
+		int line = 1;
+		for (int i = 0; i < pos && i < source.length(); i++) {
+			if (source.charAt(i) == '\n') {
+				line++;
+			}
+		}
+		return line;
+	}
+
+	private SdException error(int pos, String message) {
+		return new SdException("模板" + name + "第" + line(pos) + "行:" + message);
+	}
+
+	// ------------------------------------------ 编译结果 ------------------------------------------
+
+	/**
+	 * 解析后的标记
+	 */
+	private static class Token {
+		final int type;
+		final String text;
+		final String args;
+		final int pos;
+
+		Token(int type, String text, String args, int pos) {
+			this.type = type;
+			this.text = text;
+			this.args = args;
+			this.pos = pos;
+		}
+	}
+
+	/**
+	 * 渲染时的变量作用域
+	 */
+	static final class Scope {
+		/** 根数据 */
+		final Object root;
+		/** 循环变量的值 */
+		final Object[] values;
+		/** 循环变量的索引 */
+		final int[] indexes;
+		/** 循环变量是否还有下一个 */
+		final boolean[] hasNexts;
+		/** 模板的名字 */
+		final String name;
+
+		Scope(String name, Object root, int slots) {
+			this.name = name;
+			this.root = root;
+			this.values = new Object[slots];
+			this.indexes = new int[slots];
+			this.hasNexts = new boolean[slots];
+		}
+	}
+
+	/**
+	 * 编译后的表达式
+	 */
+	interface Expr {
+		Object eval(Scope scope);
+	}
+
+	/**
+	 * 编译后的渲染节点
+	 */
+	interface Node {
+		void render(Scope scope, Writer out) throws IOException;
+	}
+
+	/**
+	 * 循环变量表达式
+	 */
+	private static final class SlotExpr implements Expr {
+		private final int slot;
+
+		SlotExpr(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public Object eval(Scope scope) {
+			return scope.values[slot];
+		}
+	}
+
+	/**
+	 * 属性访问表达式,缓存上一次使用的类型与访问方法
+	 */
+	private static final class PropertyExpr implements Expr {
+		private final Expr target;
+		private final String property;
+		private volatile Accessor cached;
+
+		PropertyExpr(Expr target, String property) {
+			this.target = target;
+			this.property = property;
+		}
+
+		@Override
+		public Object eval(Scope scope) {
+			Object value = target.eval(scope);
+			if (value == null) {
+				return null;
+			}
+			if (value instanceof Map) {
+				return ((Map<?, ?>) value).get(property);
+			}
+			Accessor accessor = cached;
+			if (accessor == null || accessor.type != value.getClass()) {
+				Function<Object, Object> function = SdModelAccessors.getAccessor(value.getClass(), property);
+				if (function == null) {
+					throw new SdException("模板" + scope.name + ":类型" + value.getClass().getName() + "没有注册属性" + property + ",可以通过SdModelAccessors注册");
+				}
+				accessor = new Accessor(value.getClass(), function);
+				cached = accessor;
+			}
+			return accessor.function.apply(value);
+		}
+	}
+
+	/**
+	 * 类型与属性访问方法
+	 */
+	private static final class Accessor {
+		final Class<?> type;
+		final Function<Object, Object> function;
+
+		Accessor(Class<?> type, Function<Object, Object> function) {
+			this.type = type;
+			this.function = function;
+		}
+	}
+
+	/**
+	 * 文本节点
+	 */
+	private static final class TextNode implements Node {
+		private final String text;
+
+		TextNode(String text) {
+			this.text = text;
+		}
+
+		@Override
+		public void render(Scope scope, Writer out) throws IOException {
+			out.write(text);
+		}
+	}
+
+	/**
+	 * 节点集合
+	 */
+	private static final class BlockNode implements Node {
+		private final Node[] nodes;
+
+		BlockNode(Node[] nodes) {
+			this.nodes = nodes;
+		}
+
+		@Override
+		public void render(Scope scope, Writer out) throws IOException {
+			for (Node node : nodes) {
+				node.render(scope, out);
+			}
+		}
+	}
+
+	/**
+	 * 插值节点
+	 */
+	private static final class InterpolationNode implements Node {
+		private final Expr expr;
+		private final String text;
+		private final int line;
+
+		InterpolationNode(Expr expr, String text, int line) {
+			this.expr = expr;
+			this.text = text;
+			this.line = line;
+		}
+
+		@Override
+		public void render(Scope scope, Writer out) throws IOException {
+			Object value = expr.eval(scope);
+			if (value == null) {
+				throw new SdException("模板" + scope.name + "第" + line + "行:${" + text + "}的值为null,可以使用${" + text + "!}");
+			}
+			out.write(value.toString());
+		}
+	}
+
+	/**
+	 * 条件节点
+	 */
+	private static final class IfNode implements Node {
+		private final Expr[] conditions;
+		private final Node[] bodies;
+		private final Node otherwise;
+
+		IfNode(Expr[] conditions, Node[] bodies, Node otherwise) {
+			this.conditions = conditions;
+			this.bodies = bodies;
+			this.otherwise = otherwise;
+		}
+
+		@Override
+		public void render(Scope scope, Writer out) throws IOException {
+			for (int i = 0; i < conditions.length; i++) {
+				if (truthy(conditions[i].eval(scope))) {
+					bodies[i].render(scope, out);
+					return;
+				}
+			}
+			if (otherwise != null) {
+				otherwise.render(scope, out);
+			}
+		}
+	}
+
+	/**
+	 * 循环节点
+	 */
+	private static final class ListNode implements Node {
+		private final Expr sequence;
+		private final int slot;
+		private final Node body;
+		private final Node otherwise;
+		private final int line;
+
+		ListNode(Expr sequence, int slot, Node body, Node otherwise, int line) {
+			this.sequence = sequence;
+			this.slot = slot;
+			this.body = body;
+			this.otherwise = otherwise;
+			this.line = line;
+		}
+
+		@Override
+		public void render(Scope scope, Writer out) throws IOException {
+			Object value = sequence.eval(scope);
+			Iterator<?> iterator;
+			if (value instanceof Iterable) {
+				iterator = ((Iterable<?>) value).iterator();
+			} else if (value instanceof Object[]) {
+				iterator = Arrays.asList((Object[]) value).iterator();
+			} else if (value instanceof Map) {
+				iterator = ((Map<?, ?>) value).values().iterator();
+			} else if ("".equals(value)) {
+				iterator = Collections.emptyIterator();
+			} else if (value == null) {
+				throw new SdException("模板" + scope.name + "第" + line + "行:<#list>的值为null");
+			} else {
+				throw new SdException("模板" + scope.name + "第" + line + "行:<#list>不支持类型" + value.getClass().getName());
+			}
+			if (!iterator.hasNext()) {
+				if (otherwise != null) {
+					otherwise.render(scope, out);
+				}
+				return;
+			}
+			int i = 0;
+			while (iterator.hasNext()) {
+				scope.values[slot] = iterator.next();
+				scope.indexes[slot] = i++;
+				scope.hasNexts[slot] = iterator.hasNext();
+				body.render(scope, out);
+			}
+			scope.values[slot] = null;
+		}
+	}
+
+}
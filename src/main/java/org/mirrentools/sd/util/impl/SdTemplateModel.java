@@ -0,0 +1,98 @@
+package org.mirrentools.sd.util.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.SimpleCollection;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * 模型的FreeMarker适配器,通过属性访问表直接调用getter,属性的值在访问时才包装,<br>
+ * 访问表中不存在的属性交给反射实现,反射实现在第一次使用时才创建;<br>
+ * 只实现哈希与适配器接口,不是字符串(scalar),所以模板中?is_string等内置函数的结果与模型是普通的哈希时一致
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateModel implements TemplateHashModelEx, AdapterTemplateModel, WrapperTemplateModel {
+	/** 包装的对象 */
+	private final Object object;
+	/** 属性访问表 */
+	private final Map<String, Function<Object, Object>> table;
+	/** 包装属性值的ObjectWrapper */
+	private final SdObjectWrapper wrapper;
+	/** 反射实现 */
+	private TemplateHashModel reflection;
+
+	/**
+	 * 初始化
+	 *
+	 * @param object
+	 *          包装的对象
+	 * @param table
+	 *          属性访问表
+	 * @param wrapper
+	 *          包装属性值的ObjectWrapper
+	 */
+	public SdTemplateModel(Object object, Map<String, Function<Object, Object>> table, SdObjectWrapper wrapper) {
+		super();
+		this.object = object;
+		this.table = table;
+		this.wrapper = wrapper;
+	}
+
+	@Override
+	public TemplateModel get(String key) throws TemplateModelException {
+		Function<Object, Object> accessor = table.get(key);
+		if (accessor != null) {
+			return wrapper.wrap(accessor.apply(object));
+		}
+		if (reflection == null) {
+			reflection = wrapper.reflect(object);
+		}
+		return reflection.get(key);
+	}
+
+	@Override
+	public boolean isEmpty() throws TemplateModelException {
+		return table.isEmpty();
+	}
+
+	@Override
+	public int size() throws TemplateModelException {
+		return table.size();
+	}
+
+	@Override
+	public TemplateCollectionModel keys() throws TemplateModelException {
+		return new SimpleCollection(table.keySet(), wrapper);
+	}
+
+	@Override
+	public TemplateCollectionModel values() throws TemplateModelException {
+		List<Object> values = new ArrayList<Object>(table.size());
+		for (Function<Object, Object> accessor : table.values()) {
+			values.add(accessor.apply(object));
+		}
+		return new SimpleCollection(values, wrapper);
+	}
+
+	@Override
+	public Object getAdaptedObject(@SuppressWarnings("rawtypes") Class hint) {
+		return object;
+	}
+
+	@Override
+	public Object getWrappedObject() {
+		return object;
+	}
+
+}
@@ -0,0 +1,298 @@
+package org.mirrentools.sd.util.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mirrentools.sd.common.SdBufferPool;
+import org.mirrentools.sd.common.SdChannelWriter;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.constant.Constant;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdOutputSink;
+import org.mirrentools.sd.util.SdTemplateUtil;
+
+/**
+ * 模板生成工具编译版实现,模板在第一次使用时由{@link SdTemplateCompiler}预解析为渲染节点树并缓存(不生成Java代码),<br>
+ * 只支持FreeMarker语法的子集(插值、if、list),渲染时不使用反射也不再解析模板,适合生成数量很大的简单模板;<br>
+ * 数字插值使用toString输出,不像FreeMarker那样按locale添加分组符号;<br>
+ * 模板的查找顺序与FreeMarker版一致:<br>
+ * 1. 默认寻找项目根路径的template<br>
+ * 2. 如果不存在寻找classpath<br>
+ * 3. 如果还不存在则寻找工具jar包的resource目录<br>
+ * 文件系统中的模板修改后会自动重新编译
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateUtilImplByCompiler implements SdTemplateUtil {
+	/** 默认模板所在的目录 */
+	public static final String DEFAULT_TEMPLATE_PATH = "template";
+
+	/** 编译后的模板,key为模板路径+模板文件+编码格式 */
+	private final ConcurrentMap<String, Compiled> templates = new ConcurrentHashMap<String, Compiled>();
+	/** 编译模板的次数 */
+	private final AtomicLong compileCount = new AtomicLong();
+	/** 写文件使用的缓冲区池 */
+	private SdBufferPool bufferPool = SdBufferPool.getDefault();
+
+	@Override
+	public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+		return render(new SdOutputSinkImplByFile(projectPath), format, content, template);
+	}
+
+	@Override
+	public <T> boolean render(SdOutputSink sink, String format, T content, SdTemplate template) {
+		if (template == null || SdUtil.isNullOrEmpty(template.getFile(), template.getClassName())) {
+			throw new NullPointerException("模板的名字与生成文件的名字不能为空");
+		}
+		String encoding = format == null ? Constant.UTF_8 : format;
+		String path = SdUtil.toOutputPath(template);
+		if (!template.isOverride() && sink.exists(path)) {
+			return true;
+		}
+		try {
+			SdCompiledTemplate compiled = getTemplate(template, encoding);
+			WritableByteChannel channel = sink.open(path);
+			SdChannelWriter writer = new SdChannelWriter(channel, Charset.forName(encoding), bufferPool);
+			boolean completed = false;
+			try {
+				compiled.render(content, writer);
+				completed = true;
+			} finally {
+				if (completed) {
+					writer.close();
+				} else {
+					// 生成失败时不提交写了一半的内容
+					writer.abort();
+					sink.discard(channel);
+				}
+			}
+			return true;
+		} catch (Exception e) {
+			throw new SdException("执行生成" + template.getFile() + "失败:" + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 获取编译后的模板,文件系统中的模板修改后重新编译
+	 *
+	 * @param template
+	 *          模板
+	 * @param encoding
+	 *          模板的编码格式
+	 * @return
+	 * @throws IOException
+	 */
+	public SdCompiledTemplate getTemplate(SdTemplate template, String encoding) throws IOException {
+		String key = template.getPath() + '\n' + template.getFile() + '\n' + encoding;
+		File file = getTemplateFile(template);
+		long lastModified = file == null ? -1 : file.lastModified();
+		Compiled compiled = templates.get(key);
+		if (compiled != null && compiled.lastModified == lastModified) {
+			return compiled.template;
+		}
+		String source;
+		if (file != null) {
+			source = new String(Files.readAllBytes(file.toPath()), encoding);
+		} else {
+			URL url = getTemplateResource(template);
+			if (url == null) {
+				throw new IOException("没有找到模板:" + template.getFile());
+			}
+			source = read(url, encoding);
+		}
+		compileCount.incrementAndGet();
+		compiled = new Compiled(SdTemplateCompiler.compile(template.getFile(), source), lastModified);
+		templates.put(key, compiled);
+		return compiled.template;
+	}
+
+	@Override
+	public long getLastModified(SdTemplate template) {
+		File file = getTemplateFile(template);
+		if (file != null) {
+			return file.lastModified();
+		}
+		URL url = getTemplateResource(template);
+		if (url != null && "file".equals(url.getProtocol())) {
+			try {
+				return new File(url.toURI()).lastModified();
+			} catch (Exception e) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 获取模板内容的指纹,编译版不支持include/import,所以只包括模板本身
+	 */
+	@Override
+	public String getFingerprint(SdTemplate template) {
+		try {
+			File file = getTemplateFile(template);
+			if (file != null) {
+				return SdFingerprint.of(file);
+			}
+			URL url = getTemplateResource(template);
+			return url == null ? null : SdFingerprint.of(read(url, Constant.UTF_8).getBytes(Constant.UTF_8));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public File getTemplateDirectory(SdTemplate template) {
+		File dir = new File(template.getPath() == null ? DEFAULT_TEMPLATE_PATH : template.getPath());
+		if (!dir.isAbsolute()) {
+			dir = new File(SdUtil.getUserDir(), dir.getPath());
+		}
+		return dir.isDirectory() ? dir : null;
+	}
+
+	@Override
+	public void evict(SdTemplate template) {
+		String prefix = template.getPath() + '\n' + template.getFile() + '\n';
+		for (String key : templates.keySet()) {
+			if (key.startsWith(prefix)) {
+				templates.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * 获取文件系统中的模板文件
+	 *
+	 * @param template
+	 * @return 不存在时返回null
+	 */
+	private File getTemplateFile(SdTemplate template) {
+		File dir = getTemplateDirectory(template);
+		if (dir == null) {
+			return null;
+		}
+		File file = new File(dir, template.getFile());
+		return file.isFile() ? file : null;
+	}
+
+	/**
+	 * 获取classpath中的模板
+	 *
+	 * @param template
+	 * @return 不存在时返回null
+	 */
+	private URL getTemplateResource(SdTemplate template) {
+		String dir = (template.getPath() == null ? DEFAULT_TEMPLATE_PATH : template.getPath()).replace('\\', '/');
+		while (dir.startsWith("/")) {
+			dir = dir.substring(1);
+		}
+		String name = dir.isEmpty() ? template.getFile() : dir + "/" + template.getFile();
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		URL url = loader == null ? null : loader.getResource(name);
+		if (url == null) {
+			url = SdTemplateUtilImplByCompiler.class.getResource("/" + name);
+		}
+		return url;
+	}
+
+	/**
+	 * 读取classpath中的模板
+	 *
+	 * @param url
+	 * @param encoding
+	 * @return
+	 * @throws IOException
+	 */
+	private String read(URL url, String encoding) throws IOException {
+		InputStream in = url.openStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+			return new String(out.toByteArray(), encoding);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * 清除所有编译后的模板
+	 */
+	public void clear() {
+		templates.clear();
+	}
+
+	/**
+	 * 获取编译模板的次数
+	 *
+	 * @return
+	 */
+	public long getCompileCount() {
+		return compileCount.get();
+	}
+
+	/**
+	 * 获取写文件使用的缓冲区池
+	 *
+	 * @return
+	 */
+	public SdBufferPool getBufferPool() {
+		return bufferPool;
+	}
+
+	/**
+	 * 设置写文件使用的缓冲区池
+	 *
+	 * @param bufferPool
+	 * @return
+	 */
+	public SdTemplateUtilImplByCompiler setBufferPool(SdBufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+		return this;
+	}
+
+	/**
+	 * 编译后的模板与模板文件的最后修改时间
+	 */
+	private static class Compiled {
+		final SdCompiledTemplate template;
+		final long lastModified;
+
+		Compiled(SdCompiledTemplate template, long lastModified) {
+			this.template = template;
+			this.lastModified = lastModified;
+		}
+	}
+
+	@Override
+	public SdCodeUtil addExtension(String key, Object value) {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+	@Override
+	public Map<String, Object> getExtensions() {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+	@Override
+	public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+		throw new SdException("该方法为备用拓展字段,如果需要使用到该字段可以继承后重写");
+	}
+
+}
@@ -1,23 +1,153 @@
 package org.mirrentools.sd.util.impl;
 
+import java.io.File;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.Map;
 
+import org.mirrentools.sd.common.SdBufferPool;
+import org.mirrentools.sd.common.SdChannelWriter;
 import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdUtil;
+import org.mirrentools.sd.constant.Constant;
 import org.mirrentools.sd.models.SdTemplate;
 import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdOutputSink;
 import org.mirrentools.sd.util.SdTemplateUtil;
 
+import freemarker.template.Template;
+
 /**
- * 模板生成工具FreeMarker实现版
- * 
+ * 模板生成工具FreeMarker实现版,模板的配置与缓存使用进程内共享的{@link SdFreeMarkerConfiguration},<br>
+ * 模板直接渲染到输出目标的通道中,使用池化的缓冲区编码,不生成中间字符串
+ *
  * @author <a href="http://mirrentools.org">Mirren</a>
  *
  */
 public class SdTemplateUtilImplMyFreeMarker implements SdTemplateUtil {
+	/** FreeMarker配置 */
+	private SdFreeMarkerConfiguration configuration;
+	/** 写文件使用的缓冲区池 */
+	private SdBufferPool bufferPool = SdBufferPool.getDefault();
+
+	/**
+	 * 使用进程内共享的配置初始化
+	 */
+	public SdTemplateUtilImplMyFreeMarker() {
+		this(SdFreeMarkerConfiguration.getInstance());
+	}
+
+	/**
+	 * 使用自定义的配置初始化
+	 *
+	 * @param configuration
+	 */
+	public SdTemplateUtilImplMyFreeMarker(SdFreeMarkerConfiguration configuration) {
+		super();
+		this.configuration = configuration;
+	}
 
 	@Override
 	public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
-		return false;
+		return render(new SdOutputSinkImplByFile(projectPath), format, content, template);
+	}
+
+	@Override
+	public <T> boolean render(SdOutputSink sink, String format, T content, SdTemplate template) {
+		if (template == null || SdUtil.isNullOrEmpty(template.getFile(), template.getClassName())) {
+			throw new NullPointerException("模板的名字与生成文件的名字不能为空");
+		}
+		String encoding = format == null ? Constant.UTF_8 : format;
+		String path = SdUtil.toOutputPath(template);
+		if (!template.isOverride() && sink.exists(path)) {
+			return true;
+		}
+		try {
+			Template temp = configuration.getTemplate(template, encoding);
+			// 在打开通道之前解析编码,编码不支持时不会清空或创建输出的文件
+			Charset charset = Charset.forName(encoding);
+			WritableByteChannel channel = sink.open(path);
+			SdChannelWriter writer = null;
+			boolean completed = false;
+			try {
+				writer = new SdChannelWriter(channel, charset, bufferPool);
+				temp.process(content, writer);
+				writer.close();
+				completed = true;
+			} finally {
+				if (!completed) {
+					// 生成或提交失败时不提交写了一半的内容
+					if (writer != null) {
+						writer.abort();
+					}
+					sink.discard(channel);
+				}
+			}
+			return true;
+		} catch (Exception e) {
+			throw new SdException("执行生成" + template.getFile() + "失败:" + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public long getLastModified(SdTemplate template) {
+		return configuration.getLastModified(template);
+	}
+
+	@Override
+	public String getFingerprint(SdTemplate template) {
+		return configuration.getFingerprint(template);
+	}
+
+	@Override
+	public File getTemplateDirectory(SdTemplate template) {
+		File dir = configuration.getTemplateDirectory(template.getPath());
+		return dir.isDirectory() ? dir : null;
+	}
+
+	@Override
+	public void evict(SdTemplate template) {
+		configuration.evict(template);
+	}
+
+	/**
+	 * 获取FreeMarker配置
+	 *
+	 * @return
+	 */
+	public SdFreeMarkerConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * 设置FreeMarker配置
+	 *
+	 * @param configuration
+	 * @return
+	 */
+	public SdTemplateUtilImplMyFreeMarker setConfiguration(SdFreeMarkerConfiguration configuration) {
+		this.configuration = configuration;
+		return this;
+	}
+
+	/**
+	 * 获取写文件使用的缓冲区池
+	 *
+	 * @return
+	 */
+	public SdBufferPool getBufferPool() {
+		return bufferPool;
+	}
+
+	/**
+	 * 设置写文件使用的缓冲区池
+	 *
+	 * @param bufferPool
+	 * @return
+	 */
+	public SdTemplateUtilImplMyFreeMarker setBufferPool(SdBufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+		return this;
 	}
 
 	@Override
@@ -0,0 +1,124 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdCreateResult;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdTemplateUtil;
+import org.mirrentools.sd.util.impl.SdCodeUtilImpl;
+import org.mirrentools.sd.util.impl.SdSqlUtilImpl;
+
+/**
+ * 生成工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class ScrewDriverImplTest {
+
+	@Test
+	public void testCreateAll() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		Map<String, SdTemplate> templates = new LinkedHashMap<String, SdTemplate>();
+		templates.put("entity", new SdTemplate().setFile("entity.ftl").setClassName("User.java"));
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setTemplateUtil(new SdTemplateUtil() {
+			@Override
+			public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+				latch.countDown();
+				return true;
+			}
+
+			@Override
+			public SdCodeUtil addExtension(String key, Object value) {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getExtensions() {
+				return null;
+			}
+
+			@Override
+			public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+				return null;
+			}
+		});
+		ScrewDriver driver = new ScrewDriverImpl(new SdCodeUtilImpl(new SdBean().setName("user"), templates, options));
+		// 项目阶段等待代码阶段完成,只有同时执行时才能成功
+		driver.setProjectUtil(() -> {
+			try {
+				return latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				return false;
+			}
+		});
+		driver.setSqlUtil(new SdSqlUtilImpl(null, null, null));
+		SdCreateResult result = driver.createAll().get(10, TimeUnit.SECONDS);
+		assertTrue(result.isSucceeded(SdCreateResult.PROJECT));
+		assertTrue(result.isSucceeded(SdCreateResult.CODE));
+		assertTrue(result.getCodeResult().isSucceeded("entity"));
+		assertFalse(result.isSucceeded(SdCreateResult.SQL));
+		assertTrue(result.getErrors().get(SdCreateResult.SQL) instanceof NullPointerException);
+		assertFalse(result.isSucceeded());
+
+		SdCreateResult skipped = new ScrewDriverImpl().createAll().get(10, TimeUnit.SECONDS);
+		assertTrue(skipped.isSucceeded());
+		assertEquals(3, skipped.getSkipped().size());
+	}
+
+	@Test
+	public void testCreateAsyncWithoutUtil() throws Exception {
+		try {
+			new ScrewDriverImpl().createCodeAsync().get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NullPointerException);
+		}
+		try {
+			new ScrewDriverImpl().createProjectAsync().get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NullPointerException);
+			assertTrue(e.getCause().getMessage().startsWith("项目生成工具为空"));
+		}
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		ScrewDriverImpl driver = new ScrewDriverImpl();
+		ExecutorService executor = (ExecutorService) driver.getExecutor();
+		driver.setProjectUtil(() -> true);
+		assertTrue(driver.createProjectAsync().get(10, TimeUnit.SECONDS));
+		driver.close();
+		assertTrue(executor.isShutdown());
+		// 关闭后再次异步执行时重新创建线程池
+		assertTrue(driver.createProjectAsync().get(10, TimeUnit.SECONDS));
+		assertNotSame(executor, driver.getExecutor());
+		driver.close();
+
+		ExecutorService custom = Executors.newSingleThreadExecutor();
+		try (ScrewDriver other = new ScrewDriverImpl().setExecutor(custom)) {
+			other.getExecutor();
+		}
+		// 调用者设置的线程池不会被关闭
+		assertFalse(custom.isShutdown());
+		custom.shutdown();
+	}
+
+}
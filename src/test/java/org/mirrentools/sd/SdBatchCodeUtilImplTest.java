@@ -0,0 +1,225 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.mirrentools.sd.converter.SdBeanConverterToClass;
+import org.mirrentools.sd.common.SdRelationalGraph;
+import org.mirrentools.sd.models.SdBatchCodeResult;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.SdBeanSource;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdTemplateUtil;
+import org.mirrentools.sd.util.impl.SdBatchCodeUtilImpl;
+
+/**
+ * 批量代码生成工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBatchCodeUtilImplTest {
+
+	@Test
+	public void testExecute() {
+		final AtomicInteger converts = new AtomicInteger();
+		final AtomicInteger renders = new AtomicInteger();
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setBatchParallelism(4);
+		options.setBeanConverter(new SdBeanConverterToClass() {
+			@Override
+			public SdClassContent converter(SdBean bean) {
+				converts.incrementAndGet();
+				return new SdClassContent();
+			}
+		});
+		options.setTemplateUtil(new SdTemplateUtil() {
+			@Override
+			public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+				renders.incrementAndGet();
+				return true;
+			}
+
+			@Override
+			public SdCodeUtil addExtension(String key, Object value) {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getExtensions() {
+				return null;
+			}
+
+			@Override
+			public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+				return null;
+			}
+		});
+		Map<String, SdTemplate> templates = new LinkedHashMap<String, SdTemplate>();
+		for (int i = 0; i < 5; i++) {
+			templates.put("template" + i, new SdTemplate().setFile("template" + i + ".ftl"));
+		}
+		List<SdBean> beans = new ArrayList<SdBean>();
+		for (int i = 0; i < 100; i++) {
+			beans.add(new SdBean().setName("bean" + i));
+		}
+		SdBatchCodeResult result = new SdBatchCodeUtilImpl(templates, options).execute(beans.stream());
+		assertTrue(result.isSucceeded());
+		assertEquals(100, result.getBeanCount());
+		assertEquals(500, result.getRenderCount());
+		assertEquals(100, converts.get());
+		assertEquals(500, renders.get());
+		assertTrue(result.getFailures().isEmpty());
+
+		// 只保留生成失败的实体的结果
+		result = new SdBatchCodeResult().put("a", new SdCodeResult().put("t", true)).put("b", new SdCodeResult().put("t", true).put("u", false))
+				.put("b", new SdCodeResult().put("t", false));
+		assertFalse(result.isSucceeded());
+		assertEquals(3, result.getBeanCount());
+		assertEquals(4, result.getRenderCount());
+		assertEquals(2, result.getSucceededCount());
+		assertEquals(2, result.getFailedCount());
+		assertEquals("[b, b#1]", result.getFailures().keySet().toString());
+	}
+
+	@Test
+	public void testExecuteInternWithGraph() {
+		final List<SdBean> converted = new ArrayList<SdBean>();
+		final AtomicInteger related = new AtomicInteger();
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setBatchParallelism(1).setBatchIntern(true);
+		options.setBeanConverter(new SdBeanConverterToClass() {
+			@Override
+			public SdClassContent converter(SdBean bean) {
+				return new SdClassContent();
+			}
+
+			@Override
+			public SdClassContent converter(SdBean bean, SdRelationalGraph graph) {
+				synchronized (converted) {
+					converted.add(bean);
+				}
+				related.addAndGet(graph.getRelated(bean).size());
+				return new SdClassContent();
+			}
+		});
+		options.setTemplateUtil(new SdTemplateUtil() {
+			@Override
+			public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+				return true;
+			}
+
+			@Override
+			public SdCodeUtil addExtension(String key, Object value) {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getExtensions() {
+				return null;
+			}
+
+			@Override
+			public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+				return null;
+			}
+		});
+		SdBean role = new SdBean().setName("role").addColumn(new SdColumn().setName("id").setType("bigint"));
+		SdBean user = new SdBean().setName("user").addColumn(new SdColumn().setName("id").setType("bigint"));
+		user.addRelational(new SdRelational().setName("role").setBean(role));
+		role.addRelational(new SdRelational().setName("user").setBean(user));
+		Map<String, SdTemplate> templates = new LinkedHashMap<String, SdTemplate>();
+		templates.put("template", new SdTemplate().setFile("template.ftl"));
+		// 只能遍历一次的集合
+		final List<SdBean> beans = new ArrayList<SdBean>();
+		beans.add(user);
+		beans.add(role);
+		final AtomicInteger iterations = new AtomicInteger();
+		Iterable<SdBean> once = () -> {
+			iterations.incrementAndGet();
+			return beans.iterator();
+		};
+		assertTrue(new SdBatchCodeUtilImpl(templates, options).execute(once).isSucceeded());
+		assertEquals(1, iterations.get());
+		assertEquals(2, converted.size());
+		assertEquals(2, related.get());
+		// 属性列替换为共享的冻结实例,关系属性仍然引用原来的实体
+		for (SdBean bean : converted) {
+			assertTrue(bean.getColumns().get(0).isFrozen());
+		}
+		assertTrue(converted.get(0).getRelationals().get(0).getBean() == role || converted.get(0).getRelationals().get(0).getBean() == user);
+		assertTrue(converted.get(0).getColumns().get(0) == converted.get(1).getColumns().get(0));
+	}
+
+	@Test
+	public void testExecuteSource() {
+		final AtomicLong renders = new AtomicLong();
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setBatchParallelism(4).setBatchMaxInFlight(3);
+		options.setBeanConverter(new SdBeanConverterToClass() {
+			@Override
+			public SdClassContent converter(SdBean bean) {
+				return new SdClassContent();
+			}
+		});
+		options.setTemplateUtil(new SdTemplateUtil() {
+			@Override
+			public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+				renders.incrementAndGet();
+				return true;
+			}
+
+			@Override
+			public SdCodeUtil addExtension(String key, Object value) {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getExtensions() {
+				return null;
+			}
+
+			@Override
+			public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+				return null;
+			}
+		});
+		final long[] inFlight = new long[1];
+		final boolean[] closed = new boolean[1];
+		SdBeanSource source = new SdBeanSource() {
+			private int pulled;
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+
+			@Override
+			public SdBean next() {
+				inFlight[0] = Math.max(inFlight[0], pulled - renders.get());
+				return pulled == 10000 ? null : new SdBean().setName("bean" + pulled++);
+			}
+		};
+		Map<String, SdTemplate> templates = new LinkedHashMap<String, SdTemplate>();
+		templates.put("template", new SdTemplate().setFile("template.ftl"));
+		SdBatchCodeResult result = new SdBatchCodeUtilImpl(templates, options).execute(source);
+		assertTrue(result.isSucceeded());
+		assertEquals(10000, result.getBeanCount());
+		assertEquals(10000, renders.get());
+		assertFalse(inFlight[0] > 3);
+		assertTrue(closed[0]);
+	}
+
+}
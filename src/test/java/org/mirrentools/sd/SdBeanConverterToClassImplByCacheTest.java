@@ -0,0 +1,110 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.converter.SdBeanConverterToClass;
+import org.mirrentools.sd.converter.impl.SdBeanConverterToClassImplByCache;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdColumn;
+
+/**
+ * 带缓存的SdBean转换器的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBeanConverterToClassImplByCacheTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	/** 转换的次数 */
+	private final AtomicInteger converts = new AtomicInteger();
+	/** 计数的转换器 */
+	private final SdBeanConverterToClass counting = new SdBeanConverterToClass() {
+		@Override
+		public SdClassContent converter(SdBean bean) {
+			converts.incrementAndGet();
+			return new SdClassContent().addExtension("name", bean.getName());
+		}
+	};
+
+	@Test
+	public void testConverter() {
+		SdBeanConverterToClassImplByCache converter = new SdBeanConverterToClassImplByCache(counting, 2, null);
+		SdBean user = new SdBean().setName("user").addColumn(new SdColumn().setName("id").setType("int"));
+		SdClassContent content = converter.converter(user);
+		// 默认返回可以修改的复制,修改不影响缓存
+		assertFalse(content.isFrozen());
+		content.setRemark("changed").addExtension("name", "changed");
+		assertNull(converter.converter(user).getRemark());
+		assertEquals("user", converter.converter(new SdBean().setName("user").addColumn(new SdColumn().setName("id").setType("int"))).getExtension("name"));
+		converter.setShared(true);
+		content = converter.converter(user);
+		assertTrue(content.isFrozen());
+		assertSame(content, converter.converter(user));
+		converter.setShared(false);
+		assertEquals(1, converts.get());
+		user.getColumns().get(0).setType("bigint");
+		converter.converter(user);
+		assertEquals(2, converts.get());
+		converter.converter(new SdBean().setName("role"));
+		assertEquals(2, converter.size());
+		assertEquals(4, converter.getHitCount());
+		assertEquals(3, converter.getMissCount());
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File file = new File(folder.getRoot(), "cache/converter.bin");
+		SdBeanConverterToClassImplByCache converter = new SdBeanConverterToClassImplByCache(counting, 16, file);
+		converter.converter(new SdBean().setName("user").addColumn(new SdColumn().setName("id")));
+		converter.save();
+		SdBeanConverterToClassImplByCache loaded = new SdBeanConverterToClassImplByCache(counting, 16, file);
+		assertEquals(1, loaded.size());
+		loaded.setShared(true);
+		assertTrue(loaded.converter(new SdBean().setName("user").addColumn(new SdColumn().setName("id"))).isFrozen());
+		assertEquals("user", loaded.converter(new SdBean().setName("user").addColumn(new SdColumn().setName("id"))).getExtension("name"));
+		assertEquals(1, converts.get());
+	}
+
+	@Test
+	public void testLoadOtherVersion() throws Exception {
+		File file = new File(folder.getRoot(), "converter.bin");
+		SdBeanConverterToClassImplByCache converter = new SdBeanConverterToClassImplByCache(counting, 16, file, "1");
+		converter.converter(new SdBean().setName("user"));
+		converter.save();
+		assertEquals(1, new SdBeanConverterToClassImplByCache(counting, 16, file, "1").size());
+		assertEquals(0, new SdBeanConverterToClassImplByCache(counting, 16, file, "2").size());
+		SdBeanConverterToClass other = bean -> new SdClassContent();
+		assertEquals(0, new SdBeanConverterToClassImplByCache(other, 16, file, "1").size());
+	}
+
+	@Test
+	public void testLoadRejectsOtherClass() throws Exception {
+		File file = new File(folder.getRoot(), "converter.bin");
+		SdBeanConverterToClassImplByCache converter = new SdBeanConverterToClassImplByCache(counting, 16, file, "1");
+		Map<String, Object> entries = new HashMap<String, Object>();
+		entries.put("user", new AtomicLong(1));
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+		out.writeUTF(converter.getIdentity());
+		out.writeObject(entries);
+		out.close();
+		assertEquals(0, new SdBeanConverterToClassImplByCache(counting, 16, file, "1").size());
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdFingerprint;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+
+/**
+ * 冻结实体的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBeanFreezeTest {
+
+	private SdBean bean(int columns) {
+		SdBean bean = new SdBean().setName("user").setRemark("用户").addExtension("table", "user");
+		for (int i = 0; i < columns; i++) {
+			bean.addColumn(new SdColumn().setName(new String("name_" + (i % 10))).setType("varchar").setLength("30").setPrimary(i == 0)
+					.addImport("java.util.Date").addAnnotation("@NotNull").addExtension("jdbcType", new String("VARCHAR")));
+		}
+		return bean;
+	}
+
+	@Test
+	public void testFreeze() {
+		SdBean bean = bean(100);
+		String fingerprint = SdFingerprint.of(bean);
+		SdBean frozen = bean.freeze();
+		assertFalse(bean.isFrozen());
+		assertTrue(frozen.isFrozen());
+		assertSame(frozen, frozen.freeze());
+		assertEquals(fingerprint, SdFingerprint.of(frozen));
+
+		SdColumn first = frozen.getColumns().get(0);
+		SdColumn second = frozen.getColumns().get(1);
+		assertNotSame(bean.getColumns().get(0), first);
+		assertTrue(first.isFrozen());
+		assertSame(first.getImports(), second.getImports());
+		assertSame(first.getAnnotations(), second.getAnnotations());
+		assertSame(first.getExtensions(), second.getExtensions());
+		assertSame(first.getName(), frozen.getColumns().get(10).getName());
+
+		try {
+			frozen.setName("role");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			first.addAnnotation("@Id");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			frozen.getColumns().add(new SdColumn());
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			first.getExtensions().put("key", "value");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		bean.setName("role").getColumns().get(0).addAnnotation("@Id");
+		assertEquals("user", frozen.getName());
+		assertEquals(1, first.getAnnotations().size());
+	}
+
+	@Test
+	public void testFreezeRelational() {
+		SdBean user = new SdBean().setName("user").addColumn(new SdColumn().setName("id"));
+		SdBean role = new SdBean().setName("role").addColumn(new SdColumn().setName("id"));
+		user.addRelational(new SdRelational().setType("many").setName("roles").setBean(role));
+		role.addRelational(new SdRelational().setType("one").setName("user").setBean(user));
+		SdBean frozen = user.freeze();
+		SdBean frozenRole = frozen.getRelationals().get(0).getBean();
+		assertTrue(frozenRole.isFrozen());
+		assertSame(frozen, frozenRole.getRelationals().get(0).getBean());
+
+		SdBean copy = frozen.copy();
+		assertFalse(copy.isFrozen());
+		SdBean copyRole = copy.getRelationals().get(0).getBean();
+		assertFalse(copyRole.isFrozen());
+		assertSame(copy, copyRole.getRelationals().get(0).getBean());
+		copy.setName("member").addColumn(new SdColumn().setName("name"));
+		copyRole.getColumns().get(0).setType("bigint");
+		assertEquals("user", frozen.getName());
+		assertEquals(1, frozen.getColumns().size());
+		assertNull(frozenRole.getColumns().get(0).getType());
+	}
+
+	@Test
+	public void testFreezeNotSerialized() throws Exception {
+		SdBean frozen = new SdBean().setName("user").addColumn(new SdColumn().setName("id")).freeze();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(frozen);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		SdBean bean = (SdBean) in.readObject();
+		in.close();
+		assertFalse(bean.isFrozen());
+		assertTrue(bean.freeze().isFrozen());
+		assertEquals("id", bean.freeze().getColumns().get(0).getName());
+	}
+
+	@Test
+	public void testFreezeClassContent() throws Exception {
+		SdBean bean = bean(1000);
+		SdClassContent source = new SdClassContent().setTableName("user").setAllField(bean.getColumns());
+		source.setPrimaryField(new ArrayList<SdColumn>(bean.getColumns().subList(0, 1)));
+		final SdClassContent content = source.freeze();
+		assertSame(content.getPrimaryField().get(0), content.getAllField().get(0));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						int count = 0;
+						for (SdColumn column : content.getAllField()) {
+							count += column.getImports().size();
+						}
+						return count;
+					}
+				}));
+			}
+			for (Future<Integer> future : futures) {
+				assertEquals(1000, future.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.converter.impl.SdTableConverterToBeanImplByMySQL;
+import org.mirrentools.sd.dbutil.impl.SdDbUtilImplByMySQL;
+import org.mirrentools.sd.enums.Relational;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+import org.mirrentools.sd.options.SdDatabaseOptions;
+import org.mirrentools.sd.util.impl.SdBeanSourceImplByDatabase;
+
+/**
+ * 从数据库读取实体的数据源的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdBeanSourceImplByDatabaseTest {
+	private SdSchemaTestDriver driver;
+	private SdDbUtilImplByMySQL util;
+
+	@Before
+	public void setUp() throws Exception {
+		driver = SdSchemaTestDriver.register();
+		util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, SdSchemaTestDriver.URL));
+		for (int i = 0; i < 100; i++) {
+			String table = "t" + i;
+			driver.addRow("getTables", "TABLE_NAME", table, "TABLE_TYPE", "TABLE", "REMARKS", "表" + i);
+			driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", "id", "DATA_TYPE", Types.BIGINT, "TYPE_NAME", "BIGINT UNSIGNED", "COLUMN_SIZE", 20,
+					"NULLABLE", DatabaseMetaData.columnNoNulls, "ORDINAL_POSITION", 1, "IS_AUTOINCREMENT", "YES");
+			driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", "name", "DATA_TYPE", Types.VARCHAR, "TYPE_NAME", "VARCHAR", "COLUMN_SIZE", 30,
+					"NULLABLE", DatabaseMetaData.columnNullable, "ORDINAL_POSITION", 2, "REMARKS", "名称");
+			driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", "amount", "DATA_TYPE", Types.DECIMAL, "TYPE_NAME", "DECIMAL", "COLUMN_SIZE", 10,
+					"DECIMAL_DIGITS", 2, "ORDINAL_POSITION", 3, "COLUMN_DEF", "0.00");
+			driver.addRow("getPrimaryKeys", "TABLE_NAME", table, "COLUMN_NAME", "id", "KEY_SEQ", 1, "PK_NAME", "PRIMARY");
+			driver.addRow("getIndexInfo", "TABLE_NAME", table, "NON_UNIQUE", 0, "INDEX_NAME", "PRIMARY", "ORDINAL_POSITION", 1, "COLUMN_NAME", "id");
+			driver.addRow("getIndexInfo", "TABLE_NAME", table, "NON_UNIQUE", 1, "INDEX_NAME", "idx_name", "ORDINAL_POSITION", 1, "COLUMN_NAME", "name");
+			driver.addRow("getIndexInfo", "TABLE_NAME", table, "NON_UNIQUE", 0, "INDEX_NAME", "uk_name", "ORDINAL_POSITION", 1, "COLUMN_NAME", "name");
+			if (i > 0) {
+				driver.addRow("getImportedKeys", "FKTABLE_NAME", table, "FKCOLUMN_NAME", "parent_id", "PKTABLE_NAME", "t" + (i - 1), "PKCOLUMN_NAME", "id",
+						"KEY_SEQ", 1, "FK_NAME", "fk_parent_" + i);
+				driver.addRow("getImportedKeys", "FKTABLE_NAME", table, "FKCOLUMN_NAME", "root_id", "PKTABLE_NAME", "t" + (i - 1), "PKCOLUMN_NAME", "id",
+						"KEY_SEQ", 1, "FK_NAME", "fk_root_" + i);
+			}
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		util.close();
+		driver.deregister();
+	}
+
+	@Test
+	public void testSource() throws Exception {
+		SdBeanSourceImplByDatabase source = new SdBeanSourceImplByDatabase(util, new SdTableConverterToBeanImplByMySQL(), null, 10, 4);
+		SdBean first = source.next();
+		assertEquals("t0", first.getName());
+		assertTrue(first.getRelationals() == null || first.getRelationals().isEmpty());
+		// 消费者没有取走实体时后台线程等待,不会提前转换所有的表
+		Thread.sleep(200);
+		assertTrue(source.getProducedCount() <= 5);
+		assertTrue(source.getBlockedCount() > 0);
+
+		SdBean bean = source.next();
+		assertEquals("t1", bean.getName());
+		assertEquals("表1", bean.getRemark());
+		SdColumn id = bean.getColumns().get(0);
+		assertEquals("bigint", id.getType());
+		assertTrue(id.isPrimary() && id.isUnsigned() && id.isAutoIncrement());
+		assertFalse(id.isNullable());
+		assertFalse(id.isIndex());
+		SdColumn name = bean.getColumns().get(1);
+		assertEquals("30", name.getLength());
+		assertEquals("uk_name", name.getIndexName());
+		assertEquals("UNIQUE", name.getIndexType());
+		assertTrue(name.isNullable());
+		SdColumn amount = bean.getColumns().get(2);
+		assertEquals("10,2", amount.getLength());
+		assertEquals("0.00", amount.getDefault());
+		assertEquals(2, bean.getRelationals().size());
+		SdRelational parent = bean.getRelationals().get(0);
+		assertEquals(Relational.ManyToOne.val, parent.getType());
+		assertEquals("ManyToOne", parent.getType());
+		assertEquals(Relational.ManyToOne.val, bean.getRelationals().get(1).getType());
+		assertEquals("t0", parent.getName());
+		assertEquals("t0", parent.getBean().getName());
+		assertEquals("parent_id", parent.getExtensions().get(SdTableConverterToBeanImplByMySQL.EXTENSION_COLUMNS));
+		assertEquals("fk_root_1", bean.getRelationals().get(1).getName());
+
+		int count = 2;
+		while (source.next() != null) {
+			count++;
+		}
+		assertEquals(100, count);
+		assertNull(source.next());
+		source.close();
+	}
+
+	@Test
+	public void testCloseAndFailure() throws Exception {
+		SdBeanSourceImplByDatabase source = new SdBeanSourceImplByDatabase(util, new SdTableConverterToBeanImplByMySQL(), null, 10, 2);
+		assertNotNull(source.next());
+		source.close();
+		assertNull(source.next());
+
+		driver.fail("t3", 10);
+		source = new SdBeanSourceImplByDatabase(util, new SdTableConverterToBeanImplByMySQL());
+		try {
+			while (source.next() != null) {
+			}
+			fail();
+		} catch (SdException e) {
+			assertTrue(e.getMessage().contains("t3"));
+		}
+		assertNull(source.next());
+	}
+
+	@Test
+	public void testAbandoned() throws Exception {
+		SdBeanSourceImplByDatabase source = new SdBeanSourceImplByDatabase(util, new SdTableConverterToBeanImplByMySQL(), null, 10, 2);
+		assertNotNull(source.next());
+		WeakReference<SdBeanSourceImplByDatabase> reference = new WeakReference<>(source);
+		source = null;
+		// 使用者没有关闭就不再使用数据源,数据源被回收后后台线程结束
+		for (int i = 0; i < 100 && (reference.get() != null || producerAlive()); i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		assertNull(reference.get());
+		assertFalse(producerAlive());
+	}
+
+	private boolean producerAlive() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("sd-bean-source") && thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.common.SdBufferPool;
+import org.mirrentools.sd.common.SdChannelWriter;
+
+/**
+ * 通道Writer的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdChannelWriterTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWrite() throws Exception {
+		SdBufferPool pool = new SdBufferPool(16, 7, 2);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			expected.append("用户😀name").append(i).append('\n');
+		}
+		for (String charset : new String[] { "UTF-8", "GBK", "UTF-16" }) {
+			File file = new File(folder.getRoot(), "dir/" + charset + ".txt");
+			SdChannelWriter writer = SdChannelWriter.open(file, Charset.forName(charset), pool);
+			String str = expected.toString();
+			writer.write(str, 0, 100);
+			writer.write(str.toCharArray(), 100, 3);
+			writer.write(str.charAt(103));
+			writer.write(str.substring(104));
+			writer.close();
+			String actual = new String(Files.readAllBytes(file.toPath()), charset);
+			if ("GBK".equals(charset)) {
+				assertEquals(str.replace("😀", "?"), actual);
+			} else {
+				assertEquals(str, actual);
+			}
+		}
+		assertEquals(1, pool.getPooledCount());
+	}
+
+}
@@ -0,0 +1,210 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.common.SdManifest;
+import org.mirrentools.sd.converter.SdConverterToTemplateContent;
+import org.mirrentools.sd.converter.impl.SdConverterToTemplateContentImplByFreeMarker;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdCodeResult;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.models.SdTemplateAttribute;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdTemplateUtil;
+import org.mirrentools.sd.util.impl.SdCodeUtilImpl;
+import org.mirrentools.sd.util.impl.SdFreeMarkerConfiguration;
+import org.mirrentools.sd.util.impl.SdOutputSinkImplByMemory;
+
+/**
+ * 代码生成工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCodeUtilImplTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	/** 模板集合 */
+	private Map<String, SdTemplate> templates;
+
+	@Before
+	public void setUp() {
+		templates = new LinkedHashMap<String, SdTemplate>();
+		for (int i = 0; i < 16; i++) {
+			templates.put("template" + i, new SdTemplate().setFile("template" + i + ".ftl").setClassName("Class" + i + ".java"));
+		}
+		templates.put("fail", new SdTemplate().setFile("fail.ftl"));
+		templates.put("error", new SdTemplate().setFile("error.ftl"));
+	}
+
+	@Test
+	public void testExecuteResult() {
+		SdCodeUtil util = new SdCodeUtilImpl(new SdBean().setName("user"), templates, new SdCodeUtilOptions().setTemplateUtil(new MockTemplateUtil()));
+		assertResult(util.executeResult());
+		assertFalse(util.execute());
+	}
+
+	@Test
+	public void testExecuteResultParallel() {
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setTemplateUtil(new MockTemplateUtil()).setParallelism(4);
+		SdCodeUtil util = new SdCodeUtilImpl(new SdBean().setName("user"), templates, options);
+		assertResult(util.executeResult());
+	}
+
+	@Test
+	public void testExecuteIncremental() throws Exception {
+		final AtomicInteger converts = new AtomicInteger();
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setProjectPath(folder.getRoot().getAbsolutePath()).setIncremental(true);
+		options.setContentConverter(new SdConverterToTemplateContent() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> T converter(SdClassContent bean, Map<String, SdTemplate> templates) {
+				converts.incrementAndGet();
+				Map<String, Object> clz = new HashMap<String, Object>();
+				clz.put("packageName", "org.example");
+				clz.put("className", "User");
+				Map<String, Object> content = new HashMap<String, Object>();
+				content.put("content", clz);
+				return (T) content;
+			}
+		});
+		Map<String, SdTemplate> maps = new LinkedHashMap<String, SdTemplate>();
+		maps.put("entity", new SdTemplate().setFile("sd-test.ftl").setSourceFolder("src").setPackageName("org.example").setClassName("User.java"));
+		SdBean bean = new SdBean().setName("user");
+		SdCodeUtil util = new SdCodeUtilImpl(bean, maps, options);
+		assertTrue(util.execute());
+		File file = new File(folder.getRoot(), "src/org/example/User.java");
+		long lastModified = file.lastModified();
+		assertTrue(new File(folder.getRoot(), SdManifest.DEFAULT_FILE_NAME).isFile());
+		assertTrue(util.execute());
+		assertEquals(1, converts.get());
+		assertEquals(lastModified, file.lastModified());
+		bean.setRemark("changed");
+		assertTrue(util.execute());
+		assertEquals(2, converts.get());
+	}
+
+	@Test
+	public void testExecuteIncrementalInclude() throws Exception {
+		final AtomicInteger converts = new AtomicInteger();
+		File templateDir = folder.newFolder("template");
+		File part = new File(templateDir, "inc/part.ftl");
+		part.getParentFile().mkdirs();
+		Files.write(new File(templateDir, "main.ftl").toPath(), "${className}<#include \"inc/part.ftl\">".getBytes("UTF-8"));
+		Files.write(part.toPath(), "-part1".getBytes("UTF-8"));
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setProjectPath(folder.getRoot().getAbsolutePath()).setIncremental(true);
+		options.setContentConverter(new SdConverterToTemplateContent() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> T converter(SdClassContent bean, Map<String, SdTemplate> templates) {
+				converts.incrementAndGet();
+				Map<String, Object> content = new HashMap<String, Object>();
+				content.put("className", "User");
+				return (T) content;
+			}
+		});
+		Map<String, SdTemplate> maps = new LinkedHashMap<String, SdTemplate>();
+		maps.put("entity", new SdTemplate().setPath(templateDir.getAbsolutePath()).setFile("main.ftl").setClassName("User.java"));
+		SdCodeUtil util = new SdCodeUtilImpl(new SdBean().setName("user"), maps, options);
+		assertTrue(util.execute());
+		File file = new File(folder.getRoot(), "User.java");
+		assertEquals("User-part1", new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+		// 只有修改时间变化时比较内容的指纹,不重新生成
+		assertTrue(file.setLastModified(file.lastModified() - 60000));
+		assertTrue(util.execute());
+		assertEquals(1, converts.get());
+		// 修改引用的模板后重新生成
+		Files.write(part.toPath(), "-part2".getBytes("UTF-8"));
+		SdFreeMarkerConfiguration.getInstance().evict(new SdTemplate().setPath(templateDir.getAbsolutePath()).setFile("inc/part.ftl"));
+		assertTrue(util.execute());
+		assertEquals(2, converts.get());
+		assertEquals("User-part2", new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+	}
+
+	@Test
+	public void testLayeredContent() throws Exception {
+		final AtomicInteger converts = new AtomicInteger();
+		final SdConverterToTemplateContent converter = new SdConverterToTemplateContentImplByFreeMarker();
+		SdOutputSinkImplByMemory sink = new SdOutputSinkImplByMemory();
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setOutputSink(sink).setParallelism(4);
+		options.setBeanConverter(bean -> new SdClassContent().setPascalName("User"));
+		options.setContentConverter(new SdConverterToTemplateContent() {
+			@Override
+			public <T> T converter(SdClassContent bean, Map<String, SdTemplate> templates) {
+				converts.incrementAndGet();
+				return converter.converter(bean, templates);
+			}
+		});
+		Map<String, SdTemplate> maps = new LinkedHashMap<String, SdTemplate>();
+		for (String name : new String[] { "entity", "dao", "service" }) {
+			SdTemplate template = new SdTemplate().setFile("sd-overlay.ftl").setPackageName(name).setClassName("User" + name + ".java");
+			if ("dao".equals(name)) {
+				template.addAttribute(new SdTemplateAttribute("suffix", "Dao"));
+			}
+			maps.put(name, template);
+		}
+		assertTrue(new SdCodeUtilImpl(new SdBean().setName("user"), maps, options).execute());
+		assertEquals(1, converts.get());
+		assertEquals("entity.Userentity.java|User|none|3|sd-overlay.ftl", content(sink, "entity/Userentity.java"));
+		assertEquals("dao.Userdao.java|User|Dao|3|sd-overlay.ftl", content(sink, "dao/Userdao.java"));
+		assertEquals("service.Userservice.java|User|none|3|sd-overlay.ftl", content(sink, "service/Userservice.java"));
+	}
+
+	private String content(SdOutputSinkImplByMemory sink, String path) throws Exception {
+		return new String(sink.getContent(path), "UTF-8").trim();
+	}
+
+	private void assertResult(SdCodeResult result) {
+		assertFalse(result.isSucceeded());
+		assertEquals(16, result.getSucceededCount());
+		assertEquals(2, result.getFailedCount());
+		assertTrue(result.isSucceeded("template0"));
+		assertFalse(result.isSucceeded("fail"));
+		assertTrue(result.getErrors().get("error") instanceof IllegalStateException);
+		assertEquals(templates.keySet().toString(), result.getResults().keySet().toString());
+	}
+
+	/**
+	 * 测试使用的模板工具
+	 */
+	private static class MockTemplateUtil implements SdTemplateUtil {
+		@Override
+		public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+			if ("error.ftl".equals(template.getFile())) {
+				throw new IllegalStateException("error");
+			}
+			return !"fail.ftl".equals(template.getFile());
+		}
+
+		@Override
+		public SdCodeUtil addExtension(String key, Object value) {
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getExtensions() {
+			return null;
+		}
+
+		@Override
+		public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+			return null;
+		}
+	}
+
+}
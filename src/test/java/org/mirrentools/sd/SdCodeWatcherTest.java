@@ -0,0 +1,102 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.converter.SdConverterToTemplateContent;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.impl.SdCodeUtilImpl;
+
+/**
+ * 代码生成监视器的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdCodeWatcherTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWatch() throws Exception {
+		File templates = folder.newFolder("templates");
+		final File beanFile = new File(folder.getRoot(), "user.bean");
+		File template = new File(templates, "watch.ftl");
+		File part = new File(templates, "inc/part.ftl");
+		part.getParentFile().mkdirs();
+		write(template, "v1 ${name}");
+		write(beanFile, "user");
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setProjectPath(folder.newFolder("project").getAbsolutePath());
+		options.setContentConverter(new SdConverterToTemplateContent() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> T converter(SdClassContent bean, Map<String, SdTemplate> templates) {
+				Map<String, Object> content = new HashMap<String, Object>();
+				content.put("name", bean.getExtension("name"));
+				return (T) content;
+			}
+		});
+		options.setBeanConverter(bean -> new SdClassContent().addExtension("name", bean.getName()));
+		Map<String, SdTemplate> maps = new LinkedHashMap<String, SdTemplate>();
+		maps.put("watch", new SdTemplate().setPath(templates.getAbsolutePath()).setFile("watch.ftl").setClassName("{name}.txt"));
+		SdCodeUtilImpl codeUtil = new SdCodeUtilImpl(null, maps, options);
+		ScrewDriver driver = new ScrewDriverImpl(codeUtil);
+		SdCodeWatcher watcher = driver.watchCode().watchBean(beanFile, new Supplier<SdBean>() {
+			@Override
+			public SdBean get() {
+				try {
+					return new SdBean().setName(new String(Files.readAllBytes(beanFile.toPath()), "UTF-8"));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		File output = new File(options.getProjectPath(), "user.txt");
+		try {
+			watcher.start();
+			assertEquals("v1 user", read(output));
+			// 不修改传入的代码生成工具
+			assertFalse(codeUtil.isIncremental());
+			assertNull(codeUtil.getBean());
+			// 被include的模板修改后同样重新生成
+			write(template, "v2 ${name}<#include \"inc/part.ftl\">");
+			write(part, "-p1");
+			watcher.changed(template, part);
+			assertEquals("v2 user-p1", read(output));
+			write(part, "-p2");
+			watcher.changed(part);
+			assertEquals("v2 user-p2", read(output));
+			// 每个实体生成到自己的路径
+			write(beanFile, "role");
+			watcher.changed(beanFile);
+			assertEquals("v2 role-p2", read(new File(options.getProjectPath(), "role.txt")));
+			assertEquals("v2 user-p2", read(output));
+		} finally {
+			watcher.close();
+		}
+	}
+
+	private void write(File file, String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes("UTF-8"));
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+	}
+
+}
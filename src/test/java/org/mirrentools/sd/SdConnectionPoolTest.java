@@ -0,0 +1,249 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mirrentools.sd.dbutil.SdConnectionPool;
+import org.mirrentools.sd.dbutil.impl.SdDbUtilImplByMySQL;
+import org.mirrentools.sd.options.SdDatabaseOptions;
+
+/**
+ * 内置连接池的测试类,使用只在内存中的驱动代替真实的数据库
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdConnectionPoolTest {
+	/** 测试驱动的连接地址 */
+	private static final String URL = "jdbc:sdpool:test";
+	/** 测试驱动 */
+	private static final TestDriver DRIVER = new TestDriver();
+
+	@BeforeClass
+	public static void register() throws SQLException {
+		DriverManager.registerDriver(DRIVER);
+	}
+
+	@AfterClass
+	public static void deregister() throws SQLException {
+		DriverManager.deregisterDriver(DRIVER);
+	}
+
+	@Before
+	public void setUp() {
+		DRIVER.connects.set(0);
+		DRIVER.statements.set(0);
+		DRIVER.valid.set(true);
+	}
+
+	@Test
+	public void testReuse() throws Exception {
+		SdConnectionPool pool = new SdConnectionPool(new SdDatabaseOptions(null, URL));
+		for (int i = 0; i < 100; i++) {
+			Connection connection = pool.getConnection();
+			Statement statement = connection.createStatement();
+			statement.execute("SELECT 1");
+			connection.close();
+			assertTrue(connection.isClosed());
+			assertTrue(statement.isClosed());
+		}
+		assertEquals(1, DRIVER.connects.get());
+		assertEquals(0, DRIVER.statements.get());
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(100, pool.getAcquireCount());
+		assertEquals(1, pool.getIdleCount());
+		pool.close();
+		assertEquals(0, pool.getTotalCount());
+		assertEquals(1, pool.getDestroyedCount());
+		try {
+			pool.getConnection();
+			fail();
+		} catch (SQLException e) {
+		}
+	}
+
+	@Test
+	public void testAcquireTimeout() throws Exception {
+		SdConnectionPool pool = new SdConnectionPool(new SdDatabaseOptions(null, URL).setMaxPoolSize(2).setAcquireTimeout(50));
+		Connection first = pool.getConnection();
+		Connection second = pool.getConnection();
+		assertNotSame(first, second);
+		assertEquals(2, pool.getActiveCount());
+		try {
+			pool.getConnection();
+			fail();
+		} catch (SQLException e) {
+		}
+		assertEquals(1, pool.getTimeoutCount());
+		CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return pool.getConnection();
+			} catch (SQLException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		Thread.sleep(10);
+		first.close();
+		first.close();
+		waiting.get(1, TimeUnit.SECONDS).close();
+		second.close();
+		assertEquals(2, DRIVER.connects.get());
+		assertEquals(2, pool.getIdleCount());
+		assertEquals(2, pool.getWaitCount());
+		pool.close();
+	}
+
+	@Test
+	public void testIdleTimeoutAndValidation() throws Exception {
+		SdConnectionPool pool = new SdConnectionPool(new SdDatabaseOptions(null, URL).setIdleTimeout(1));
+		pool.getConnection().close();
+		Thread.sleep(20);
+		pool.getConnection().close();
+		assertEquals(2, pool.getCreatedCount());
+		assertEquals(1, pool.getDestroyedCount());
+
+		pool = new SdConnectionPool(new SdDatabaseOptions(null, URL).setIdleTimeout(0).setValidationQuery("SELECT 1"));
+		pool.getConnection().close();
+		DRIVER.valid.set(false);
+		Thread.sleep(1100);
+		pool.getConnection().close();
+		DRIVER.valid.set(true);
+		assertEquals(1, pool.getInvalidCount());
+		assertEquals(2, pool.getCreatedCount());
+		pool.close();
+	}
+
+	@Test
+	public void testDbUtil() throws Exception {
+		SdDbUtilImplByMySQL util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, URL).setMaxPoolSize(4));
+		for (int i = 0; i < 10; i++) {
+			util.getConnection().close();
+		}
+		assertEquals(1, DRIVER.connects.get());
+		SdConnectionPool pool = util.getPool();
+		assertEquals(10, pool.getAcquireCount());
+		util.close();
+		assertTrue(pool.isClosed());
+		assertEquals(0, pool.getTotalCount());
+
+		util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, URL));
+		util.getConnection().close();
+		util.getConnection().close();
+		assertEquals(3, DRIVER.connects.get());
+		assertFalse(util.getPool() != null);
+	}
+
+	/**
+	 * 只在内存中的驱动,连接与Statement都是动态代理
+	 */
+	private static class TestDriver implements Driver {
+		/** 创建连接的次数 */
+		private final AtomicInteger connects = new AtomicInteger();
+		/** 没有关闭的Statement数量 */
+		private final AtomicInteger statements = new AtomicInteger();
+		/** 校验语句是否成功 */
+		private final AtomicBoolean valid = new AtomicBoolean(true);
+
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			connects.incrementAndGet();
+			AtomicBoolean closed = new AtomicBoolean();
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "close":
+					closed.set(true);
+					return null;
+				case "isClosed":
+					return closed.get();
+				case "isValid":
+					return valid.get();
+				case "getAutoCommit":
+					return true;
+				case "createStatement":
+					statements.incrementAndGet();
+					return statement();
+				default:
+					return null;
+				}
+			});
+		}
+
+		private Statement statement() {
+			AtomicBoolean closed = new AtomicBoolean();
+			return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "close":
+					if (closed.compareAndSet(false, true)) {
+						statements.decrementAndGet();
+					}
+					return null;
+				case "isClosed":
+					return closed.get();
+				case "execute":
+					if (!valid.get()) {
+						throw new SQLException("connection reset");
+					}
+					return true;
+				default:
+					return null;
+				}
+			});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) throws SQLException {
+			return url != null && url.startsWith("jdbc:sdpool:");
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+
+}
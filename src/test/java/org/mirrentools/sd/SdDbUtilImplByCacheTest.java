@@ -0,0 +1,134 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mirrentools.sd.dbutil.impl.SdDbUtilImplByCache;
+import org.mirrentools.sd.dbutil.impl.SdDbUtilImplByMySQL;
+import org.mirrentools.sd.models.db.query.TableColumnAttribute;
+import org.mirrentools.sd.options.SdDatabaseOptions;
+
+/**
+ * 带元数据缓存的数据库工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdDbUtilImplByCacheTest {
+	/** 集合查询表的SQL片段 */
+	private static final String TABLES = "FROM information_schema.TABLES WHERE";
+	/** 集合查询列的SQL片段 */
+	private static final String COLUMNS = "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+	/** 查询结构版本的SQL片段 */
+	private static final String VERSIONS = "CRC32";
+
+	private SdSchemaTestDriver driver;
+	private SdDbUtilImplByMySQL util;
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		driver = SdSchemaTestDriver.register();
+		util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, SdSchemaTestDriver.URL));
+		file = File.createTempFile("sd-schema", ".cache");
+		file.delete();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		util.close();
+		driver.deregister();
+		file.delete();
+	}
+
+	/**
+	 * 设置数据库中的表,表b的版本与第二列可以修改
+	 */
+	private void tables(String versionB, String columnB, String... tables) {
+		driver.clear();
+		for (String table : tables) {
+			driver.addRow(VERSIONS, "TABLE_NAME", table, "VERSION", "b".equals(table) ? versionB : "1");
+			driver.addRow(TABLES, "TABLE_NAME", table, "TABLE_TYPE", "TABLE");
+			driver.addRow("getTables", "TABLE_NAME", table, "TABLE_TYPE", "TABLE");
+			driver.addRow(COLUMNS, "TABLE_NAME", table, "COLUMN_NAME", "id", "TYPE_NAME", "BIGINT", "ORDINAL_POSITION", 1);
+			driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", "id", "DATA_TYPE", Types.BIGINT, "ORDINAL_POSITION", 1);
+			if ("b".equals(table)) {
+				driver.addRow(COLUMNS, "TABLE_NAME", table, "COLUMN_NAME", columnB, "TYPE_NAME", "VARCHAR", "ORDINAL_POSITION", 2);
+				driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", columnB, "DATA_TYPE", Types.VARCHAR, "ORDINAL_POSITION", 2);
+			}
+		}
+	}
+
+	private String columnB(SdDbUtilImplByCache cache) throws Exception {
+		List<TableColumnAttribute> columns = cache.getTableColumnsAttribute("b");
+		assertEquals(2, columns.size());
+		return columns.get(1).getColumnName();
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		tables("1", "name", "a", "b", "c");
+		SdDbUtilImplByCache cache = new SdDbUtilImplByCache(util, 60000, file);
+		assertEquals(Arrays.asList("a", "b", "c"), cache.getTableNames());
+		assertEquals(1, driver.getQueryCount(TABLES));
+		assertEquals(1, driver.getQueryCount(VERSIONS));
+		int queries = driver.getQueryCount();
+		assertEquals("name", columnB(cache));
+		assertTrue(cache.existTable("c"));
+		assertEquals(queries, driver.getQueryCount());
+		assertEquals(2, cache.getHitCount());
+
+		// 表b修改,表c删除,只重新获取表b
+		tables("2", "title", "a", "b");
+		cache.invalidate();
+		assertEquals("title", columnB(cache));
+		assertEquals(0, driver.getQueryCount(TABLES));
+		assertEquals(1, driver.getQueryCount("getTables"));
+		assertEquals(Arrays.asList("a", "b"), cache.getTableNames());
+		assertFalse(cache.existTable("c"));
+		assertEquals(4, cache.getReloadCount());
+		assertTrue(file.isFile());
+
+		// 重新启动时从缓存文件加载,只校验结构版本
+		tables("2", "title", "a", "b");
+		SdDbUtilImplByCache restarted = new SdDbUtilImplByCache(util, 60000, file);
+		assertEquals(Arrays.asList("a", "b"), restarted.getTableNames());
+		assertEquals("title", columnB(restarted));
+		assertEquals(1, driver.getQueryCount(VERSIONS));
+		assertEquals(1, driver.getQueryCount());
+		assertEquals(0, restarted.getReloadCount());
+
+		// 有效期为0时每次读取都校验结构版本
+		SdDbUtilImplByCache uncached = new SdDbUtilImplByCache(util, 0, file);
+		uncached.getTableNames();
+		uncached.getTableNames();
+		assertEquals(3, driver.getQueryCount(VERSIONS));
+		assertEquals(2, uncached.getCheckCount());
+	}
+
+	@Test
+	public void testOtherSchema() throws Exception {
+		tables("1", "name", "a", "b");
+		new SdDbUtilImplByCache(util, 60000, file).getTableNames();
+		SdDbUtilImplByCache same = new SdDbUtilImplByCache(util, 60000, file);
+		same.getTableNames();
+		assertEquals(0, same.getReloadCount());
+
+		// 缓存文件属于其他模式时重新获取整个模式
+		driver.setCatalog("other");
+		SdDbUtilImplByCache other = new SdDbUtilImplByCache(util, 60000, file);
+		assertEquals(Arrays.asList("a", "b"), other.getTableNames());
+		assertEquals(2, other.getReloadCount());
+		assertEquals(2, driver.getQueryCount(TABLES));
+	}
+
+}
@@ -0,0 +1,119 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdInterner;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.entity.impl.JavaSdField;
+
+/**
+ * 属性定义共享池的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdInternerTest {
+
+	private SdBean bean(String name) {
+		SdBean bean = new SdBean().setName(name);
+		bean.addColumn(new SdColumn().setName("id").setType("bigint").setPrimary(true).addImport("java.lang.Long"));
+		bean.addColumn(new SdColumn().setName("tenant_id").setType("varchar").setLength("32"));
+		bean.addColumn(new SdColumn().setName("created_at").setType("datetime").addImport("java.util.Date").addExtension("fill", "insert"));
+		bean.addColumn(new SdColumn().setName("updated_at").setType("datetime").addImport("java.util.Date").addExtension("fill", "update"));
+		bean.addColumn(new SdColumn().setName("version").setType("int").setRemark("乐观锁"));
+		bean.addColumn(new SdColumn().setName(name + "_name").setType("varchar"));
+		return bean;
+	}
+
+	@Test
+	public void testInternBean() {
+		SdInterner interner = new SdInterner(SdInterner.DEFAULT_MAX_SIZE);
+		List<SdBean> beans = new ArrayList<SdBean>();
+		for (int i = 0; i < 100; i++) {
+			beans.add(interner.intern(bean("table" + i)));
+		}
+		assertEquals(105, interner.size());
+		assertEquals(495, interner.getHitCount());
+		SdBean first = beans.get(0);
+		SdBean last = beans.get(99);
+		assertTrue(first.isFrozen());
+		for (int i = 0; i < 5; i++) {
+			assertSame(first.getColumns().get(i), last.getColumns().get(i));
+		}
+		assertNotSame(first.getColumns().get(5), last.getColumns().get(5));
+		assertNotSame(first.getColumns().get(2), first.getColumns().get(3));
+
+		SdColumn column = new SdColumn().setName("version").setType("int").setRemark("乐观锁");
+		SdColumn interned = interner.intern(column);
+		assertSame(first.getColumns().get(4), interned);
+		column.setRemark("版本");
+		assertSame(interned, interner.intern(new SdColumn().setName("version").setType("int").setRemark("乐观锁")));
+		assertEquals("乐观锁", interned.getRemark());
+	}
+
+	@Test
+	public void testInternField() {
+		SdInterner interner = new SdInterner(SdInterner.DEFAULT_MAX_SIZE);
+		JavaSdField id = interner.intern(new JavaSdField().setName("id").setType("Long").setGet(true).setSet(true));
+		assertTrue(id.isFrozen());
+		assertSame(id, interner.intern(new JavaSdField().setName("id").setType("Long").setGet(true).setSet(true)));
+		assertNotSame(id, interner.intern(new JavaSdField().setName("id").setType("Integer").setGet(true).setSet(true)));
+		try {
+			id.setName("key");
+			throw new AssertionError();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+	@Test
+	public void testMaxSize() {
+		SdInterner interner = new SdInterner(1);
+		SdColumn id = interner.intern(new SdColumn().setName("id").setType("bigint"));
+		assertSame(id, interner.intern(new SdColumn().setName("id").setType("bigint")));
+		// 共享池满了以后清空重新开始共享
+		SdColumn other = interner.intern(new SdColumn().setName("name").setType("varchar"));
+		assertTrue(other.isFrozen());
+		assertEquals(1, interner.size());
+		assertSame(other, interner.intern(new SdColumn().setName("name").setType("varchar")));
+		assertNotSame(id, interner.intern(new SdColumn().setName("id").setType("bigint")));
+		interner.clear();
+		assertEquals(0, interner.size());
+		assertNotSame(other, interner.intern(new SdColumn().setName("name").setType("varchar")));
+	}
+
+	@Test
+	public void testMaxSizeConcurrent() throws Exception {
+		final SdInterner interner = new SdInterner(8);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						SdColumn column = interner.intern(new SdColumn().setName("c" + (i % 20)));
+						assertEquals("c" + (i % 20), column.getName());
+						assertTrue(interner.size() <= 8);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(interner.size() <= 8);
+	}
+
+}
@@ -0,0 +1,123 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdLatencyHistogram;
+import org.mirrentools.sd.common.SdMetrics;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdMetricsSnapshot;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.options.SdCodeUtilOptions;
+import org.mirrentools.sd.util.SdCodeUtil;
+import org.mirrentools.sd.util.SdTemplateUtil;
+import org.mirrentools.sd.util.impl.SdCodeUtilImpl;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * 生成指标的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdMetricsTest {
+
+	@Test
+	public void testHistogram() {
+		SdLatencyHistogram histogram = new SdLatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i), i != 100);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(1, histogram.getErrors());
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(100), histogram.getMaxNanos());
+		long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= TimeUnit.MICROSECONDS.toNanos(50) && p50 <= TimeUnit.MICROSECONDS.toNanos(63));
+		assertEquals(histogram.getMaxNanos(), histogram.getPercentile(100));
+		histogram.reset();
+		assertEquals(0, histogram.getPercentile(99));
+	}
+
+	@Test
+	public void testSnapshot() {
+		SdMetrics metrics = SdMetrics.getInstance();
+		metrics.reset();
+		Map<String, SdTemplate> templates = new LinkedHashMap<String, SdTemplate>();
+		templates.put("entity", new SdTemplate().setFile("entity.ftl").setClassName("Metrics.java"));
+		templates.put("dao", new SdTemplate().setFile("dao.ftl").setClassName("MetricsDao.java"));
+		SdCodeUtilOptions options = new SdCodeUtilOptions().setTemplateUtil(new SdTemplateUtil() {
+			@Override
+			public <T> boolean render(String projectPath, String format, T content, SdTemplate template) {
+				return "entity.ftl".equals(template.getFile());
+			}
+
+			@Override
+			public SdCodeUtil addExtension(String key, Object value) {
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> getExtensions() {
+				return null;
+			}
+
+			@Override
+			public SdCodeUtil setExtensions(Map<String, Object> extensions) {
+				return null;
+			}
+		});
+		new SdCodeUtilImpl(new SdBean().setName("metrics"), templates, options).execute();
+
+		SdMetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(1, snapshot.getStage(SdMetrics.STAGE_BEAN_CONVERTER, "metrics").getCount());
+		assertEquals(1, snapshot.getStage(SdMetrics.STAGE_CONTENT_CONVERTER, "metrics").getCount());
+		assertEquals(2, snapshot.getStage(SdMetrics.STAGE_RENDER).getCount());
+		assertEquals(0, snapshot.getStage(SdMetrics.STAGE_RENDER, "entity").getErrors());
+		assertEquals(1, snapshot.getStage(SdMetrics.STAGE_RENDER, "dao").getErrors());
+		assertEquals(1, snapshot.getStage(SdMetrics.STAGE_BEAN, "metrics").getErrors());
+		assertTrue(snapshot.toMap().containsKey(SdMetrics.STAGE_RENDER));
+
+		metrics.setEnabled(false);
+		try {
+			assertEquals(0, metrics.start(SdMetrics.STAGE_RENDER, "disabled").stop());
+			assertNull(metrics.snapshot().getStage(SdMetrics.STAGE_RENDER, "disabled"));
+		} finally {
+			metrics.setEnabled(true);
+		}
+	}
+
+	@Test
+	public void testFlightRecorderEvent() throws Exception {
+		Path file = File.createTempFile("sd-metrics", ".jfr").toPath();
+		try (Recording recording = new Recording()) {
+			recording.enable("org.mirrentools.sd.Stage").withThreshold(java.time.Duration.ZERO);
+			recording.start();
+			SdMetrics.getInstance().start(SdMetrics.STAGE_SQL, "jfr").stop(false);
+			recording.stop();
+			recording.dump(file);
+		}
+		RecordedEvent found = null;
+		for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+			if ("jfr".equals(event.getString("key"))) {
+				found = event;
+			}
+		}
+		file.toFile().delete();
+		assertNotNull(found);
+		assertEquals(SdMetrics.STAGE_SQL, found.getString("stage"));
+		assertEquals(false, found.getBoolean("succeeded"));
+	}
+
+}
@@ -0,0 +1,236 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdInterner;
+import org.mirrentools.sd.common.SdRelationalGraph;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdRelational;
+
+/**
+ * 实体关系图的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdRelationalGraphTest {
+
+	private void relate(SdBean bean, SdBean other) {
+		bean.addRelational(new SdRelational().setName(other.getName()).setBean(other));
+	}
+
+	@Test
+	public void testGraph() {
+		SdBean user = new SdBean().setName("user");
+		SdBean role = new SdBean().setName("role");
+		SdBean dept = new SdBean().setName("dept");
+		SdBean tenant = new SdBean().setName("tenant");
+		relate(user, role);
+		relate(role, user);
+		relate(user, dept);
+		relate(role, tenant);
+		relate(dept, tenant);
+		SdRelationalGraph graph = SdRelationalGraph.of(user);
+		assertEquals(4, graph.size());
+		assertEquals(0, graph.getId(user));
+		assertSame(role, graph.getBean(graph.getId(role)));
+		assertEquals(-1, graph.getId(new SdBean()));
+		assertEquals(Arrays.asList(role, dept), graph.getRelated(user));
+		assertTrue(graph.hasCycle());
+		assertTrue(graph.isCyclic(user));
+		assertTrue(graph.isSameCycle(user, role));
+		assertFalse(graph.isCyclic(dept));
+		assertFalse(graph.isCyclic(tenant));
+		List<SdBean> order = graph.getOrder();
+		assertEquals(tenant, order.get(0));
+		assertTrue(order.indexOf(dept) < order.indexOf(user));
+	}
+
+	@Test
+	public void testMemo() {
+		// 每一层的两个实体都关联下一层的两个实体,路径数量为2的20次方
+		List<SdBean> beans = new ArrayList<SdBean>();
+		SdBean[] next = null;
+		for (int level = 20; level >= 0; level--) {
+			SdBean[] current = { new SdBean().setName("a" + level), new SdBean().setName("b" + level) };
+			if (next != null) {
+				for (SdBean bean : current) {
+					relate(bean, next[0]);
+					relate(bean, next[1]);
+				}
+			}
+			beans.addAll(Arrays.asList(current));
+			next = current;
+		}
+		final AtomicInteger converts = new AtomicInteger();
+		final SdRelationalGraph graph = SdRelationalGraph.of(beans);
+		final Object owner = new Object();
+		SdRelationalGraph.Memo<Integer> memo = graph.memo(owner, bean -> {
+			converts.incrementAndGet();
+			int depth = 0;
+			for (SdBean related : graph.getRelated(bean)) {
+				Integer value = graph.<Integer>memo(owner, null).get(related);
+				if (value != null) {
+					depth = Math.max(depth, value + 1);
+				}
+			}
+			return depth;
+		});
+		assertSame(memo, graph.memo(owner, null));
+		assertEquals(20, memo.get(beans.get(beans.size() - 1)).intValue());
+		for (SdBean bean : beans) {
+			memo.get(bean);
+		}
+		assertEquals(42, converts.get());
+		assertFalse(graph.hasCycle());
+
+		// 最深的实体关联回第一层,形成环,转换仍然会结束并且每个实体只转换一次
+		relate(beans.get(0), next[0]);
+		final SdRelationalGraph cyclic = SdRelationalGraph.of(beans);
+		assertTrue(cyclic.isSameCycle(beans.get(0), next[0]));
+		converts.set(0);
+		SdRelationalGraph.Memo<String> names = cyclic.memo(owner, bean -> {
+			converts.incrementAndGet();
+			StringBuilder result = new StringBuilder(bean.getName());
+			for (SdBean related : cyclic.getRelated(bean)) {
+				String name = cyclic.<String>memo(owner, null).get(related);
+				result.append(',').append(name == null ? "@" + related.getName() : related.getName());
+			}
+			return result.toString();
+		});
+		assertEquals("a20,a0", names.get(beans.get(0)));
+		assertEquals("a19,@a20,b20", names.get(beans.get(2)));
+		for (SdBean bean : beans) {
+			names.get(bean);
+		}
+		assertEquals(42, converts.get());
+		assertNull(cyclic.memo(new Object(), bean -> null).get(next[0]));
+	}
+
+	@Test
+	public void testMemoConcurrent() throws Exception {
+		// 多个线程同时从环中不同的实体开始转换,每个实体只转换一次,不会死锁
+		List<SdBean> beans = new ArrayList<SdBean>();
+		for (int i = 0; i < 8; i++) {
+			beans.add(new SdBean().setName("bean" + i));
+		}
+		for (int i = 0; i < beans.size(); i++) {
+			relate(beans.get(i), beans.get((i + 1) % beans.size()));
+		}
+		final SdRelationalGraph graph = SdRelationalGraph.of(beans);
+		final AtomicInteger converts = new AtomicInteger();
+		final Object owner = new Object();
+		final SdRelationalGraph.Memo<String> memo = graph.memo(owner, bean -> {
+			converts.incrementAndGet();
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (SdBean related : graph.getRelated(bean)) {
+				graph.<String>memo(owner, null).get(related);
+			}
+			return bean.getName();
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(beans.size());
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Future<String>> futures = new ArrayList<Future<String>>();
+			for (final SdBean bean : beans) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return memo.get(bean);
+				}));
+			}
+			start.countDown();
+			for (int i = 0; i < beans.size(); i++) {
+				assertEquals("bean" + i, futures.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(beans.size(), converts.get());
+	}
+
+	@Test
+	public void testMapper() {
+		SdBean user = new SdBean().setName("user");
+		SdBean role = new SdBean().setName("role");
+		relate(user, role);
+		relate(role, user);
+		SdRelationalGraph graph = SdRelationalGraph.of(Arrays.asList(user), bean -> new SdBean().setName(bean.getName() + "!")
+				.setRelationals(bean.getRelationals()));
+		assertEquals(2, graph.size());
+		SdBean mapped = graph.getBean(graph.getId(role));
+		assertEquals("role!", mapped.getName());
+		assertEquals(graph.getId(role), graph.getId(mapped));
+		assertEquals("user!", graph.getRelated(mapped).get(0).getName());
+		assertEquals("role!", graph.memo(this, SdBean::getName).get(role));
+	}
+
+	@Test
+	public void testInternMapper() {
+		SdInterner interner = new SdInterner(SdInterner.DEFAULT_MAX_SIZE);
+		SdBean user = new SdBean().setName("user").addColumn(new SdColumn().setName("id").setType("bigint"));
+		SdBean role = new SdBean().setName("role").addColumn(new SdColumn().setName("id").setType("bigint"));
+		relate(user, role);
+		relate(role, user);
+		// 冻结实体时关联的实体也会被复制,关系仍然从原实体读取
+		SdRelationalGraph frozen = SdRelationalGraph.of(Arrays.asList(user, role), interner::intern);
+		assertEquals(2, frozen.size());
+		assertTrue(frozen.isCyclic(user));
+		assertTrue(frozen.isSameCycle(user, role));
+
+		SdRelationalGraph graph = SdRelationalGraph.of(Arrays.asList(user, role), interner::internColumns);
+		assertEquals(2, graph.size());
+		assertTrue(graph.isSameCycle(user, role));
+		SdBean mappedUser = graph.getBean(graph.getId(user));
+		SdBean mappedRole = graph.getBean(graph.getId(role));
+		assertSame(mappedUser.getColumns().get(0), mappedRole.getColumns().get(0));
+		assertSame(role, mappedUser.getRelationals().get(0).getBean());
+		assertSame(mappedRole, graph.getRelated(mappedUser).get(0));
+		final AtomicInteger converts = new AtomicInteger();
+		SdRelationalGraph.Memo<String> memo = graph.memo(this, new Function<SdBean, String>() {
+			@Override
+			public String apply(SdBean bean) {
+				converts.incrementAndGet();
+				String related = graph.memo(SdRelationalGraphTest.this, this).get(bean.getRelationals().get(0).getBean());
+				return bean.getName() + "->" + related;
+			}
+		});
+		assertEquals("user->role->null", memo.get(user));
+		assertEquals(2, converts.get());
+	}
+
+	@Test
+	public void testLongChain() {
+		SdBean first = new SdBean().setName("bean0");
+		SdBean last = first;
+		for (int i = 1; i < 100000; i++) {
+			SdBean bean = new SdBean().setName("bean" + i);
+			relate(last, bean);
+			last = bean;
+		}
+		relate(last, first);
+		SdRelationalGraph graph = SdRelationalGraph.of(first);
+		assertEquals(100000, graph.size());
+		assertTrue(graph.isSameCycle(first, last));
+	}
+
+}
@@ -0,0 +1,141 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.dbutil.impl.SdDbUtilImplByMySQL;
+import org.mirrentools.sd.models.db.query.SchemaAttribute;
+import org.mirrentools.sd.models.db.query.TableColumnAttribute;
+import org.mirrentools.sd.models.db.query.TableForeignKeyAttribute;
+import org.mirrentools.sd.models.db.query.TableIndexKeyAttribute;
+import org.mirrentools.sd.models.db.query.TablePrimaryKeyAttribute;
+import org.mirrentools.sd.options.SdDatabaseOptions;
+
+/**
+ * 一次性获取数据库模式属性的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdSchemaAttributeTest {
+	private SdSchemaTestDriver driver;
+	private SdDbUtilImplByMySQL util;
+
+	@Before
+	public void setUp() throws Exception {
+		driver = SdSchemaTestDriver.register();
+		util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, SdSchemaTestDriver.URL));
+		for (int i = 0; i < 50; i++) {
+			String table = "table" + i;
+			driver.addRow("information_schema.TABLES", "TABLE_CAT", "test", "TABLE_NAME", table, "TABLE_TYPE", "TABLE", "REMARKS", "表" + i);
+			driver.addRow("information_schema.COLUMNS", "TABLE_CAT", "test", "TABLE_NAME", table, "COLUMN_NAME", "id", "TYPE_NAME", "BIGINT", "COLUMN_SIZE", 19,
+					"NULLABLE", 0, "ORDINAL_POSITION", 1, "IS_NULLABLE", "NO", "IS_AUTOINCREMENT", "YES");
+			driver.addRow("information_schema.COLUMNS", "TABLE_CAT", "test", "TABLE_NAME", table, "COLUMN_NAME", "name", "TYPE_NAME", "VARCHAR", "COLUMN_SIZE", 64,
+					"NULLABLE", 1, "ORDINAL_POSITION", 2, "IS_NULLABLE", "YES", "IS_AUTOINCREMENT", "NO");
+			driver.addRow("CONSTRAINT_NAME = 'PRIMARY'", "TABLE_CAT", "test", "TABLE_NAME", table, "COLUMN_NAME", "id", "KEY_SEQ", 1, "PK_NAME", "PRIMARY");
+			driver.addRow("information_schema.STATISTICS", "TABLE_CAT", "test", "TABLE_NAME", table, "NON_UNIQUE", 0, "INDEX_NAME", "PRIMARY", "TYPE",
+					DatabaseMetaData.tableIndexOther, "ORDINAL_POSITION", 1, "COLUMN_NAME", "id", "ASC_OR_DESC", "A", "CARDINALITY", 10L);
+		}
+		// 视图的列不属于表,应该被忽略
+		driver.addRow("information_schema.COLUMNS", "TABLE_CAT", "test", "TABLE_NAME", "view0", "COLUMN_NAME", "id", "TYPE_NAME", "BIGINT");
+		driver.addRow("information_schema.COLUMNS", "TABLE_CAT", "test", "TABLE_NAME", "table0", "COLUMN_NAME", "data", "TYPE_NAME", "GEOMETRY", "ORDINAL_POSITION", 3);
+		driver.addRow("information_schema.STATISTICS", "TABLE_CAT", "test", "TABLE_NAME", "table1", "NON_UNIQUE", 1, "INDEX_NAME", "idx_name", "TYPE",
+				DatabaseMetaData.tableIndexOther, "ORDINAL_POSITION", 1, "COLUMN_NAME", "name");
+		driver.addRow("REFERENTIAL_CONSTRAINTS", "PKTABLE_CAT", "test", "PKTABLE_NAME", "table0", "PKCOLUMN_NAME", "id", "FKTABLE_CAT", "test", "FKTABLE_NAME",
+				"table1", "FKCOLUMN_NAME", "parent_id", "KEY_SEQ", 1, "UPDATE_RULE", DatabaseMetaData.importedKeyCascade, "DELETE_RULE",
+				DatabaseMetaData.importedKeyRestrict, "FK_NAME", "fk_parent", "PK_NAME", "PRIMARY", "DEFERRABILITY", DatabaseMetaData.importedKeyNotDeferrable);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		util.close();
+		driver.deregister();
+	}
+
+	@Test
+	public void testSchemaAttribute() throws Exception {
+		SchemaAttribute schema = util.getSchemaAttribute();
+		assertEquals(5, driver.getQueryCount());
+		assertEquals("test", schema.getSchemaName());
+		assertEquals(50, schema.getTableNames().size());
+		assertEquals("table0", schema.getTableNames().get(0));
+		assertEquals("表3", schema.getTable("table3").getRemarks());
+		assertNull(schema.getTable("view0"));
+		assertTrue(schema.getColumns("view0").isEmpty());
+
+		List<TableColumnAttribute> columns = schema.getColumns("table0");
+		assertEquals(3, columns.size());
+		assertEquals(Types.BIGINT, columns.get(0).getDataType());
+		assertEquals("YES", columns.get(0).getIsAutoincrement());
+		assertEquals(Types.VARCHAR, columns.get(1).getDataType());
+		assertEquals(64, columns.get(1).getColumnSize());
+		assertEquals(Types.OTHER, columns.get(2).getDataType());
+
+		List<TablePrimaryKeyAttribute> keys = schema.getPrimaryKeys("table7");
+		assertEquals(1, keys.size());
+		assertEquals("id", keys.get(0).getColumnName());
+
+		List<TableIndexKeyAttribute> indexes = schema.getIndexKeys("table1");
+		assertEquals(Arrays.asList("PRIMARY", "idx_name"), Arrays.asList(indexes.get(0).getIndexName(), indexes.get(1).getIndexName()));
+		assertFalse(indexes.get(0).isNonUnique());
+		assertTrue(indexes.get(1).isNonUnique());
+
+		List<TableForeignKeyAttribute> foreignKeys = schema.getForeignKeys("table1");
+		assertEquals(1, foreignKeys.size());
+		assertEquals("table0", foreignKeys.get(0).getPktableName());
+		assertEquals(DatabaseMetaData.importedKeyCascade, foreignKeys.get(0).getUpdateRule());
+		assertTrue(schema.getForeignKeys("table0").isEmpty());
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		driver.clear();
+		driver.setDelay(2);
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			String table = "t_" + i;
+			names.add(table);
+			driver.addRow("getTables", "TABLE_NAME", table, "TABLE_TYPE", "TABLE");
+			driver.addRow("getColumns", "TABLE_NAME", table, "COLUMN_NAME", "id", "DATA_TYPE", Types.BIGINT, "ORDINAL_POSITION", 1);
+			driver.addRow("getPrimaryKeys", "TABLE_NAME", table, "COLUMN_NAME", "id", "KEY_SEQ", 1);
+		}
+		// 表名中的下划线会匹配到其他的表
+		driver.addRow("getTables", "TABLE_NAME", "tx1", "TABLE_TYPE", "TABLE");
+		driver.addRow("getColumns", "TABLE_NAME", "tx1", "COLUMN_NAME", "code", "DATA_TYPE", Types.VARCHAR, "ORDINAL_POSITION", 1);
+		driver.fail("t_5", 2).fail("t_7", 5);
+		SdDbUtilImplByMySQL util = new SdDbUtilImplByMySQL(new SdDatabaseOptions(null, SdSchemaTestDriver.URL).setMaxPoolSize(4).setIntrospectParallelism(8)
+				.setQueryTimeout(1000));
+		try {
+			util.getSchemaAttribute(names);
+			fail();
+		} catch (SdException e) {
+			assertTrue(e.getMessage().contains("t_7"));
+			assertFalse(e.getMessage().contains("t_5"));
+		}
+		SchemaAttribute schema = util.getSchemaAttribute(names);
+		assertEquals(names, schema.getTableNames());
+		assertEquals(1, schema.getColumns("t_1").size());
+		assertEquals("id", schema.getColumns("t_1").get(0).getColumnName());
+		assertEquals(1, schema.getPrimaryKeys("t_199").size());
+		assertTrue(driver.getMaxRunning() > 1);
+		assertTrue(driver.getMaxRunning() <= 4);
+		// 失败的7次连接都被丢弃,重试时使用新的连接
+		assertEquals(7, util.getPool().getDestroyedCount());
+		assertTrue(driver.getConnects() <= 4 + 7);
+		util.close();
+	}
+
+}
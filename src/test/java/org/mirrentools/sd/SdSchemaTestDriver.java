@@ -0,0 +1,308 @@
+package org.mirrentools.sd;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 测试用的内存驱动,预编译语句按SQL中包含的片段返回预先设置的行,<br>
+ * DatabaseMetaData按方法名(getTables/getColumns等)返回预先设置的行并按表名匹配,用于在没有数据库时测试元数据的读取
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdSchemaTestDriver implements Driver {
+	/** 连接地址 */
+	public static final String URL = "jdbc:sdschema:test";
+	/** SQL片段对应的行 */
+	private final Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+	/** 查询的次数,以SQL片段为键 */
+	private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+	/** 当前数据库 */
+	private String catalog = "test";
+	/** 表获取元数据时还需要失败的次数 */
+	private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+	/** 每次元数据查询的耗时,单位毫秒 */
+	private long delay;
+	/** 创建的连接数量 */
+	private final AtomicInteger connects = new AtomicInteger();
+	/** 正在执行的元数据查询数量 */
+	private final AtomicInteger running = new AtomicInteger();
+	/** 同时执行的元数据查询的最大数量 */
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	/**
+	 * 创建并注册驱动
+	 *
+	 * @return
+	 * @throws SQLException
+	 */
+	public static SdSchemaTestDriver register() throws SQLException {
+		SdSchemaTestDriver driver = new SdSchemaTestDriver();
+		DriverManager.registerDriver(driver);
+		return driver;
+	}
+
+	/**
+	 * 注销驱动
+	 *
+	 * @throws SQLException
+	 */
+	public void deregister() throws SQLException {
+		DriverManager.deregisterDriver(this);
+	}
+
+	/**
+	 * 添加SQL中包含指定片段时返回的行
+	 *
+	 * @param fragment
+	 * @param row
+	 *          列名与值交替
+	 * @return
+	 */
+	public SdSchemaTestDriver addRow(String fragment, Object... row) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		for (int i = 0; i < row.length; i += 2) {
+			values.put((String) row[i], row[i + 1]);
+		}
+		results.computeIfAbsent(fragment, k -> new ArrayList<>()).add(values);
+		return this;
+	}
+
+	/**
+	 * 清空行与查询次数
+	 */
+	public void clear() {
+		results.clear();
+		queries.clear();
+		failures.clear();
+		connects.set(0);
+		maxRunning.set(0);
+	}
+
+	/**
+	 * 设置指定表获取元数据时前几次失败
+	 *
+	 * @param tableName
+	 * @param times
+	 * @return
+	 */
+	public SdSchemaTestDriver fail(String tableName, int times) {
+		failures.put(tableName, new AtomicInteger(times));
+		return this;
+	}
+
+	public SdSchemaTestDriver setDelay(long delay) {
+		this.delay = delay;
+		return this;
+	}
+
+	public int getConnects() {
+		return connects.get();
+	}
+
+	public int getMaxRunning() {
+		return maxRunning.get();
+	}
+
+	/**
+	 * 获取执行的查询总数
+	 *
+	 * @return
+	 */
+	public int getQueryCount() {
+		int result = 0;
+		for (AtomicInteger count : queries.values()) {
+			result += count.get();
+		}
+		return result;
+	}
+
+	/**
+	 * 获取SQL中包含指定片段的查询次数
+	 *
+	 * @param fragment
+	 * @return
+	 */
+	public int getQueryCount(String fragment) {
+		AtomicInteger count = queries.get(fragment);
+		return count == null ? 0 : count.get();
+	}
+
+	public SdSchemaTestDriver setCatalog(String catalog) {
+		this.catalog = catalog;
+		return this;
+	}
+
+	@Override
+	public Connection connect(String url, Properties info) throws SQLException {
+		if (!acceptsURL(url)) {
+			return null;
+		}
+		connects.incrementAndGet();
+		DatabaseMetaData metaData = metaData(url);
+		boolean[] closed = new boolean[1];
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getCatalog":
+				return catalog;
+			case "getAutoCommit":
+			case "isValid":
+				return true;
+			case "getNetworkTimeout":
+				return 0;
+			case "close":
+				closed[0] = true;
+				return null;
+			case "isClosed":
+				return closed[0];
+			case "getMetaData":
+				return metaData;
+			case "prepareStatement":
+				return statement((String) args[0]);
+			default:
+				return null;
+			}
+		});
+	}
+
+	private PreparedStatement statement(String sql) {
+		return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "executeQuery":
+				List<Map<String, Object>> rows = new ArrayList<>();
+				for (Map.Entry<String, List<Map<String, Object>>> entry : results.entrySet()) {
+					if (sql.contains(entry.getKey())) {
+						queries.computeIfAbsent(entry.getKey(), k -> new AtomicInteger()).incrementAndGet();
+						rows.addAll(entry.getValue());
+					}
+				}
+				return resultSet(rows);
+			case "isClosed":
+				return false;
+			default:
+				return null;
+			}
+		});
+	}
+
+	private DatabaseMetaData metaData(String url) {
+		return (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DatabaseMetaData.class }, (proxy, method, args) -> {
+			String name = method.getName();
+			if ("getURL".equals(name)) {
+				return url;
+			}
+			if (!Arrays.asList("getTables", "getColumns", "getPrimaryKeys", "getIndexInfo", "getImportedKeys").contains(name)) {
+				return null;
+			}
+			String pattern = ((String) args[2]).replace("%", ".*").replace("_", ".");
+			int current = running.incrementAndGet();
+			maxRunning.accumulateAndGet(current, Math::max);
+			try {
+				if (delay > 0) {
+					Thread.sleep(delay);
+				}
+				AtomicInteger failure = failures.get(args[2]);
+				if ("getTables".equals(name) && failure != null && failure.getAndDecrement() > 0) {
+					throw new SQLException("获取元数据失败:" + args[2]);
+				}
+				queries.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+				List<Map<String, Object>> rows = new ArrayList<>();
+				for (Map<String, Object> row : results.getOrDefault(name, new ArrayList<>())) {
+					Object table = table(row);
+					if (table != null && table.toString().matches(pattern)) {
+						rows.add(row);
+					}
+				}
+				return resultSet(rows);
+			} finally {
+				running.decrementAndGet();
+			}
+		});
+	}
+
+	private static Object table(Map<String, Object> row) {
+		return row.containsKey("TABLE_NAME") ? row.get("TABLE_NAME") : row.get("FKTABLE_NAME");
+	}
+
+	private ResultSet resultSet(List<Map<String, Object>> rows) {
+		Iterator<Map<String, Object>> iterator = rows.iterator();
+		Object[] current = new Object[2];
+		return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "next":
+				current[0] = iterator.hasNext() ? iterator.next() : null;
+				return current[0] != null;
+			case "getString":
+			case "getInt":
+			case "getLong":
+			case "getBoolean":
+				@SuppressWarnings("unchecked")
+				Object value = ((Map<String, Object>) current[0]).get(args[0]);
+				current[1] = value;
+				if (method.getName().equals("getString")) {
+					return value == null ? null : value.toString();
+				} else if (method.getName().equals("getBoolean")) {
+					return value != null && (value instanceof Boolean ? (Boolean) value : ((Number) value).intValue() != 0);
+				} else if (method.getName().equals("getInt")) {
+					return value == null ? 0 : ((Number) value).intValue();
+				}
+				return value == null ? 0L : ((Number) value).longValue();
+			case "wasNull":
+				return current[1] == null;
+			case "isClosed":
+				return false;
+			default:
+				return null;
+			}
+		});
+	}
+
+	@Override
+	public boolean acceptsURL(String url) throws SQLException {
+		return url != null && url.startsWith("jdbc:sdschema:");
+	}
+
+	@Override
+	public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+		return new DriverPropertyInfo[0];
+	}
+
+	@Override
+	public int getMajorVersion() {
+		return 1;
+	}
+
+	@Override
+	public int getMinorVersion() {
+		return 0;
+	}
+
+	@Override
+	public boolean jdbcCompliant() {
+		return false;
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.dbutil.SdDbUtil;
+import org.mirrentools.sd.models.SdBean;
+import org.mirrentools.sd.util.SdBeanSource;
+import org.mirrentools.sd.util.impl.SdSqlUtilImpl;
+
+/**
+ * SQL生成器的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdSqlUtilImplTest {
+
+	@Test
+	public void testExecuteSourceContinuesAfterFailure() {
+		final AtomicInteger creates = new AtomicInteger();
+		SdDbUtil dbUtil = (SdDbUtil) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SdDbUtil.class }, (proxy, method, args) -> {
+			if (!"createTable".equals(method.getName())) {
+				return null;
+			}
+			int count = creates.incrementAndGet();
+			if (count == 2 || count == 4) {
+				throw new SQLException("创建失败" + count);
+			}
+			return true;
+		});
+		SdSqlUtilImpl util = new SdSqlUtilImpl(null, dbUtil, bean -> null);
+		SdBeanSource source = SdBeanSource.of(Arrays.asList(new SdBean().setName("a"), new SdBean().setName("b"), new SdBean().setName("c"),
+				new SdBean().setName("d"), new SdBean().setName("e")));
+		try {
+			util.execute(source);
+			fail();
+		} catch (SdException e) {
+			assertTrue(e.getMessage().contains("[b, d]"));
+			assertEquals(1, e.getSuppressed().length);
+		}
+		assertEquals(5, creates.get());
+	}
+
+}
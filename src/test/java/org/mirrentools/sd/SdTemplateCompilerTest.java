@@ -0,0 +1,144 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.common.SdModelAccessors;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.util.impl.SdTemplateCompiler;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * 模板编译器的测试类,除数字格式外编译版的输出需要与FreeMarker一致
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateCompilerTest {
+	/** 测试使用的模板 */
+	private static final String TEMPLATE = "package ${content.packageName};\n" //
+			+ "<#-- 注释 -->\n" //
+			+ "/**\n" //
+			+ " * ${content.remark!\"无\"}\n" //
+			+ " */\n" //
+			+ "public class ${content.pascalName} {\n" //
+			+ "	<#list content.allField as field>\n" //
+			+ "	<#if field.primary>\n" //
+			+ "	@Id\n" //
+			+ "	<#elseif field.nullable && field.fieldType == \"String\">\n" //
+			+ "	@Nullable\n" //
+			+ "	<#else>\n" //
+			+ "	@Column(\"${field.name}\")\n" //
+			+ "	</#if>\n" //
+			+ "	private ${field.fieldType} ${field.fieldName};<#if field_has_next> // ${field?counter}</#if>\n" //
+			+ "	</#list>\n" //
+			+ "	<#if content.extensions?? && content.extensions.author?has_content>\n" //
+			+ "	// ${content.extensions.author?upper_case} ${content.camelName?cap_first}\n" //
+			+ "	</#if>\n" //
+			+ "	<#list content.indexField! as field>\n" //
+			+ "	${field.name}\n" //
+			+ "	<#else>\n" //
+			+ "	// no index\n" //
+			+ "	</#list>\n" //
+			+ "}\n";
+
+	@Test
+	public void testRenderSameAsFreeMarker() throws Exception {
+		Map<String, Object> model = model();
+		Template template = new Template("test", TEMPLATE, new Configuration(Configuration.VERSION_2_3_28));
+		StringWriter expected = new StringWriter();
+		template.process(model, expected);
+		String actual = SdTemplateCompiler.compile("test", TEMPLATE).render(model);
+		assertEquals(expected.toString(), actual);
+		assertTrue(actual.contains("@Id\n	private Long id; // 1\n"));
+	}
+
+	@Test
+	public void testNumberFormat() throws Exception {
+		Map<String, Object> model = new HashMap<String, Object>();
+		model.put("count", 1000);
+		Configuration config = new Configuration(Configuration.VERSION_2_3_28);
+		config.setLocale(Locale.US);
+		StringWriter expected = new StringWriter();
+		new Template("test", "${count}", config).process(model, expected);
+		// FreeMarker按locale格式化数字,编译版直接使用toString
+		assertEquals("1,000", expected.toString());
+		assertEquals("1000", SdTemplateCompiler.compile("test", "${count}").render(model));
+		config.setNumberFormat("computer");
+		expected = new StringWriter();
+		new Template("test", "${count}", config).process(model, expected);
+		assertEquals("1000", expected.toString());
+	}
+
+	@Test
+	public void testErrors() {
+		assertError("<#assign a = 1>", "不支持的指令");
+		assertError("<#if a>", "缺少</#if>");
+		assertError("<#list a as b></#if>", "不匹配");
+		try {
+			SdTemplateCompiler.compile("test", "${a.b}").render(new HashMap<String, Object>());
+			fail();
+		} catch (SdException e) {
+			assertTrue(e.getMessage().contains("null"));
+		}
+	}
+
+	private void assertError(String source, String message) {
+		try {
+			SdTemplateCompiler.compile("test", source);
+			fail();
+		} catch (SdException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	private Map<String, Object> model() {
+		List<SdColumn> fields = new ArrayList<SdColumn>();
+		fields.add(new SdColumn().setName("id").setFieldName("id").setFieldType("Long").setPrimary(true));
+		fields.add(new SdColumn().setName("nick_name").setFieldName("nickName").setFieldType("String").setNullable(true));
+		fields.add(new SdColumn().setName("age").setFieldName("age").setFieldType("Integer"));
+		SdClassContent content = new SdClassContent().setPascalName("User").setCamelName("user").setAllField(fields);
+		content.addExtension("author", "mirren");
+		Map<String, Object> model = new HashMap<String, Object>();
+		model.put("content", new Wrapper(content, "org.example"));
+		return model;
+	}
+
+	/**
+	 * FreeMarker与编译版都可以访问的模型
+	 */
+	public static class Wrapper extends SdClassContent {
+		private static final long serialVersionUID = 1L;
+		private final String packageName;
+
+		public Wrapper(SdClassContent content, String packageName) {
+			this.packageName = packageName;
+			setPascalName(content.getPascalName());
+			setCamelName(content.getCamelName());
+			setAllField(content.getAllField());
+			setExtensions(content.getExtensions());
+		}
+
+		public String getPackageName() {
+			return packageName;
+		}
+
+		static {
+			SdModelAccessors.register(Wrapper.class, "packageName", Wrapper::getPackageName);
+		}
+	}
+
+}
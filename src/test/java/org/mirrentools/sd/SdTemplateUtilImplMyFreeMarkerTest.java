@@ -0,0 +1,267 @@
+package org.mirrentools.sd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.common.SdException;
+import org.mirrentools.sd.converter.impl.SdConverterToTemplateContentImplByFreeMarker;
+import org.mirrentools.sd.models.SdClassContent;
+import org.mirrentools.sd.models.SdColumn;
+import org.mirrentools.sd.models.SdTemplate;
+import org.mirrentools.sd.util.SdOutputSink;
+import org.mirrentools.sd.util.impl.SdFreeMarkerConfiguration;
+import org.mirrentools.sd.util.impl.SdObjectWrapper;
+import org.mirrentools.sd.util.impl.SdOutputSinkImplByFile;
+import org.mirrentools.sd.util.impl.SdOutputSinkImplByMemory;
+import org.mirrentools.sd.util.impl.SdOutputSinkImplByZip;
+import org.mirrentools.sd.util.impl.SdTemplateModel;
+import org.mirrentools.sd.util.impl.SdTemplateUtilImplMyFreeMarker;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.TemplateScalarModel;
+
+/**
+ * FreeMarker模板工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
+public class SdTemplateUtilImplMyFreeMarkerTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	/** 测试使用的模板 */
+	private SdTemplate template;
+	/** 模板需要的内容 */
+	private Map<String, Object> content;
+
+	@Before
+	public void setUp() {
+		template = new SdTemplate().setFile("sd-test.ftl").setSourceFolder("src").setPackageName("org.example").setClassName("User.java");
+		Map<String, Object> clz = new HashMap<String, Object>();
+		clz.put("packageName", "org.example");
+		clz.put("className", "User");
+		content = new HashMap<String, Object>();
+		content.put("content", clz);
+	}
+
+	@Test
+	public void testRenderUsesTemplateCache() throws Exception {
+		SdFreeMarkerConfiguration configuration = new SdFreeMarkerConfiguration();
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(configuration);
+		String projectPath = folder.getRoot().getAbsolutePath();
+		for (int i = 0; i < 10; i++) {
+			assertTrue(util.render(projectPath, "UTF-8", content, template));
+		}
+		assertEquals(1, configuration.getMissCount());
+		assertEquals(9, configuration.getHitCount());
+		File file = new File(folder.getRoot(), "src/org/example/User.java");
+		String code = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+		assertTrue(code.startsWith("package org.example;"));
+		assertTrue(code.contains("public class User {"));
+	}
+
+	@Test
+	public void testRenderNotOverride() throws Exception {
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		File file = new File(folder.getRoot(), "src/org/example/User.java");
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), "keep".getBytes("UTF-8"));
+		assertTrue(util.render(folder.getRoot().getAbsolutePath(), "UTF-8", content, template.setOverride(false)));
+		assertEquals("keep", new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+	}
+
+	@Test
+	public void testRenderToMemory() throws Exception {
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		SdOutputSinkImplByMemory sink = new SdOutputSinkImplByMemory();
+		assertTrue(util.render(sink, "UTF-8", content, template));
+		String code = new String(sink.getContent("src/org/example/User.java"), "UTF-8");
+		assertTrue(code.contains("public class User {"));
+		assertEquals(1, sink.getContents().size());
+		assertTrue(util.render(sink, "UTF-8", content, template.setOverride(false)));
+		assertEquals(1, sink.getContents().size());
+	}
+
+	@Test
+	public void testRenderToZip() throws Exception {
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SdOutputSinkImplByZip sink = new SdOutputSinkImplByZip(out);
+		assertTrue(util.render(sink, "UTF-8", content, template));
+		assertTrue(util.render(sink, "UTF-8", content, new SdTemplate().setFile("sd-test.ftl").setClassName("Other.java")));
+		sink.close();
+		assertFalse(new File(folder.getRoot(), "src").exists());
+		ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+		ZipEntry entry = zip.getNextEntry();
+		assertEquals("src/org/example/User.java", entry.getName());
+		entry = zip.getNextEntry();
+		assertEquals("Other.java", entry.getName());
+		assertNull(zip.getNextEntry());
+		zip.close();
+	}
+
+	@Test
+	public void testRenderFailureDiscarded() throws Exception {
+		File dir = folder.newFolder("template");
+		Files.write(new File(dir, "fail.ftl").toPath(), "partial ${missing.value}".getBytes("UTF-8"));
+		SdTemplate failure = new SdTemplate().setPath(dir.getAbsolutePath()).setFile("fail.ftl").setClassName("Fail.java");
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		SdOutputSinkImplByMemory memory = new SdOutputSinkImplByMemory();
+		try {
+			util.render(memory, "UTF-8", content, failure);
+			fail();
+		} catch (SdException e) {
+			assertFalse(memory.exists("Fail.java"));
+		}
+		// 生成失败时保留已经存在的文件,不留下临时文件
+		File project = folder.newFolder("project");
+		Files.write(new File(project, "Fail.java").toPath(), "good".getBytes("UTF-8"));
+		try {
+			util.render(new SdOutputSinkImplByFile(project.getAbsolutePath()), "UTF-8", content, failure);
+			fail();
+		} catch (SdException e) {
+			assertEquals("good", new String(Files.readAllBytes(new File(project, "Fail.java").toPath()), "UTF-8"));
+			assertEquals(1, project.list().length);
+		}
+		assertTrue(util.render(new SdOutputSinkImplByFile(project.getAbsolutePath()), "UTF-8", content, template));
+		assertTrue(new File(project, "src/org/example/User.java").isFile());
+		assertEquals(1, new File(project, "src/org/example").list().length);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SdOutputSinkImplByZip zip = new SdOutputSinkImplByZip(out);
+		try {
+			util.render(zip, "UTF-8", content, failure);
+			fail();
+		} catch (SdException e) {
+			assertFalse(zip.exists("Fail.java"));
+		}
+		assertTrue(util.render(zip, "UTF-8", content, template));
+		zip.close();
+		ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals("src/org/example/User.java", in.getNextEntry().getName());
+		assertNull(in.getNextEntry());
+		in.close();
+	}
+
+	@Test
+	public void testRenderCommitFailureDiscarded() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		SdOutputSink sink = new SdOutputSink() {
+			@Override
+			public boolean exists(String path) {
+				return false;
+			}
+
+			@Override
+			public WritableByteChannel open(String path) throws IOException {
+				calls.add("open");
+				return new WritableByteChannel() {
+					@Override
+					public int write(ByteBuffer src) throws IOException {
+						int len = src.remaining();
+						src.position(src.limit());
+						return len;
+					}
+
+					@Override
+					public boolean isOpen() {
+						return true;
+					}
+
+					@Override
+					public void close() throws IOException {
+						calls.add("close");
+						throw new IOException("磁盘已满");
+					}
+				};
+			}
+
+			@Override
+			public void discard(WritableByteChannel channel) throws IOException {
+				calls.add("discard");
+			}
+		};
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		try {
+			util.render(sink, "UTF-8", content, template);
+			fail();
+		} catch (SdException e) {
+			assertEquals(Arrays.asList("open", "close", "discard"), calls);
+		}
+		// 不支持的编码不打开输出
+		calls.clear();
+		try {
+			util.render(sink, "no-such-charset", content, template);
+			fail();
+		} catch (SdException e) {
+			assertTrue(calls.isEmpty());
+		}
+	}
+
+	@Test
+	public void testRenderModelWithoutReflection() throws Exception {
+		assertTrue(SdObjectWrapper.getInstance().wrap(new SdColumn()) instanceof SdTemplateModel);
+		assertFalse(SdObjectWrapper.getInstance().wrap(new SdColumn()) instanceof TemplateScalarModel);
+		SdClassContent clz = new SdClassContent().setPascalName("User").setRemark("用户")
+				.setImports(new LinkedHashSet<String>(Arrays.asList("java.util.Date")));
+		clz.setAllField(Arrays.asList(new SdColumn().setFieldType("Long").setFieldName("id").setPrimary(true).setRemark("主键"),
+				new SdColumn().setFieldType("Date").setFieldName("createTime")));
+		clz.addExtension("author", "Mirren");
+		Map<String, SdTemplate> templates = new HashMap<String, SdTemplate>();
+		SdTemplate model = new SdTemplate().setFile("sd-model.ftl").setPackageName("org.example").setClassName("User.java");
+		templates.put("entity", model);
+		Object data = new SdConverterToTemplateContentImplByFreeMarker().converter(clz, templates);
+
+		SdTemplateUtilImplMyFreeMarker util = new SdTemplateUtilImplMyFreeMarker(new SdFreeMarkerConfiguration());
+		SdOutputSinkImplByMemory sink = new SdOutputSinkImplByMemory();
+		assertTrue(util.render(sink, "UTF-8", data, model));
+		String code = new String(sink.getContent("org/example/User.java"), "UTF-8").replace("\r\n", "\n");
+		assertTrue(code.startsWith("package org.example;\n\nimport java.util.Date;\n"));
+		assertTrue(code.contains("/** 用户 */\npublic class User {\n"));
+		assertTrue(code.contains("\tprivate Long id; // 主键\n\tprivate Date createTime;\n}"));
+		assertTrue(code.contains("// 2 Mirren"));
+	}
+
+	@Test
+	public void testSetObjectWrapper() throws Exception {
+		SdFreeMarkerConfiguration configuration = new SdFreeMarkerConfiguration();
+		Configuration before = configuration.getConfiguration(null);
+		DefaultObjectWrapper wrapper = new DefaultObjectWrapper(Configuration.VERSION_2_3_28);
+		configuration.setObjectWrapper(wrapper);
+		// 已创建的配置不会被修改,重新创建使用新ObjectWrapper的配置
+		assertSame(SdObjectWrapper.getInstance(), before.getObjectWrapper());
+		Configuration after = configuration.getConfiguration(null);
+		assertNotSame(before, after);
+		assertSame(wrapper, after.getObjectWrapper());
+		assertSame(after, configuration.getConfiguration(null));
+		SdOutputSinkImplByMemory sink = new SdOutputSinkImplByMemory();
+		assertTrue(new SdTemplateUtilImplMyFreeMarker(configuration).render(sink, "UTF-8", content, template));
+		assertTrue(new String(sink.getContent("src/org/example/User.java"), "UTF-8").contains("public class User {"));
+	}
+
+}
@@ -1,14 +1,91 @@
 package org.mirrentools.sd;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mirrentools.sd.common.SdNamingCache;
 import org.mirrentools.sd.common.SdUtil;
 
+/**
+ * 字符串工具的测试类
+ *
+ * @author <a href="http://mirrentools.org">Mirren</a>
+ *
+ */
 public class SdUtilTest {
-	public static void main(String[] args) {
-		String score = SdUtil.replaceToUnderScore("nameREMOVEnameIsMirren", " ", "-");
-		System.out.println(score);
-		System.out.println("*********************");
-		String camelCase = SdUtil.toCamelCase("NameREMOVEnameIsMirren");
-		System.out.println(camelCase);
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testCaseConversions() {
+		assertEquals("userName", SdUtil.toCamelCase("user_name"));
+		assertEquals("UserName", SdUtil.toPascalCase("user-name"));
+		assertEquals("user_name", SdUtil.toUnderScoreCase("UserName"));
+		assertEquals("USER_NAME", SdUtil.toUpperUnderScoreCase("userName"));
+		assertEquals("user-name", SdUtil.toHyphenCase("USER_NAME"));
+		assertEquals("USER-NAME", SdUtil.toUpperHyphenCase("user name"));
+		assertEquals("httpServer", SdUtil.toCamelCase("HTTPServer"));
+		assertEquals("user_item_name", SdUtil.toUnderScoreCase("USER-itemName"));
+		assertEquals("address1_id", SdUtil.toUnderScoreCase("address1Id"));
+		assertEquals("order2_item", SdUtil.toUnderScoreCase("__order2.item__"));
+		assertEquals("", SdUtil.toCamelCase("_-_"));
+		assertNull(SdUtil.toPascalCase(null));
+	}
+
+	@Test
+	public void testReplaceAndSplit() {
+		assertEquals("name_is_mirren", SdUtil.replaceToUnderScore("name IsMirren", " ", "-"));
+		assertEquals("user_name", SdUtil.replaceToUnderScore("userAndName", "And"));
+		assertEquals("user_order_name", SdUtil.splitJoin("userOrderName", "_"));
+		assertEquals("user.name", SdUtil.splitJoin("userNameTable", ".", "Table"));
+		assertEquals("user/order/0", SdUtil.splitJoin("user_order_0", "/"));
+	}
 
+	@Test
+	public void testUnchangedReturnsInput() {
+		String name = "user_name";
+		assertSame(name, SdUtil.toUnderScoreCase(name));
+		String camel = "userName";
+		assertSame(camel, SdUtil.toCamelCase(camel));
 	}
+
+	@Test
+	public void testNamingCache() throws Exception {
+		SdNamingCache cache = new SdNamingCache(2);
+		SdNamingCache.Names names = cache.get("create_time");
+		assertEquals("createTime", names.getCamelCase());
+		assertEquals("CREATE-TIME", names.getUpperHyphenCase());
+		assertEquals("Create_time", names.getFirstUpperCase());
+		assertEquals("UserName", SdUtil.firstToUpperCase("userName"));
+		assertSame(SdUtil.firstToUpperCase("userName"), SdUtil.firstToUpperCase("userName"));
+		assertEquals("", SdUtil.firstToUpperCase(""));
+		assertSame(names, cache.get("create_time"));
+		assertEquals(1, cache.getHitCount());
+		cache.get("update_time");
+		cache.get("tenant_id");
+		cache.get("user_id");
+		// 新旧两代最多保存两倍的上限
+		assertTrue(cache.size() <= 4);
+
+		File seed = folder.newFile("naming.txt");
+		Files.write(seed.toPath(), Arrays.asList("# 常用的名字", "id", "", "remark"), StandardCharsets.UTF_8);
+		SdNamingCache seeded = new SdNamingCache(SdNamingCache.DEFAULT_MAX_SIZE);
+		assertEquals(2, seeded.load(seed));
+		assertEquals("Remark", seeded.get("remark").getPascalCase());
+		assertEquals(0, seeded.getMissCount());
+		File saved = folder.newFile("saved.txt");
+		seeded.save(saved);
+		assertEquals(2, Files.readAllLines(saved.toPath(), StandardCharsets.UTF_8).size());
+	}
+
 }
@@ -0,0 +1,13 @@
+package ${templates.entity.packageName};
+
+<#list content.imports as imp>
+import ${imp};
+</#list>
+
+/** ${content.remark} */
+public class ${content.pascalName} {
+<#list content.allField as field>
+	private ${field.fieldType} ${field.fieldName};<#if field.primary> // ${field.getRemark()}</#if>
+</#list>
+}
+// ${content.allField?size} ${content.extensions.author}
@@ -0,0 +1 @@
+${packageName}.${className}|${content.pascalName}|${attributes.suffix!"none"}|${templates?size}|${template.file}
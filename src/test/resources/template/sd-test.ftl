@@ -0,0 +1,4 @@
+package ${content.packageName};
+
+public class ${content.className} {
+}